@@ -94,30 +94,51 @@ public abstract class ChatChannel<M extends ChatMessage> implements Proto {
     public boolean addChatMessage(M chatMessage) {
         boolean changed = getChatMessages().add(chatMessage);
         if (changed) {
-            String authorUserProfileId = chatMessage.getAuthorUserProfileId();
-            numMessagesByAuthorId.putIfAbsent(authorUserProfileId, new AtomicInteger());
-            numMessagesByAuthorId.get(authorUserProfileId).incrementAndGet();
+            onChatMessageAdded(chatMessage);
         }
         return changed;
     }
 
+    /**
+     * Adds the messages with one change event of the chat messages (e.g. at startup when we process the messages
+     * from the P2P data store).
+     *
+     * @return The messages which have not been in the channel before.
+     */
+    public List<M> addChatMessages(Collection<M> chatMessages) {
+        List<M> newMessages = getChatMessages().addAllAndGetAdded(chatMessages);
+        newMessages.forEach(this::onChatMessageAdded);
+        return newMessages;
+    }
+
     public boolean removeChatMessage(M chatMessage) {
         boolean changed = getChatMessages().remove(chatMessage);
         if (changed) {
-            String authorUserProfileId = chatMessage.getAuthorUserProfileId();
-            if (numMessagesByAuthorId.containsKey(authorUserProfileId)) {
-                AtomicInteger numMessages = numMessagesByAuthorId.get(authorUserProfileId);
-                if (numMessages.get() > 0 && numMessages.decrementAndGet() == 0) {
-                    // If no more messages of that user exist we remove them from userProfileIdsOfParticipants
-                    userProfileIdsOfParticipants.remove(chatMessage.getAuthorUserProfileId());
-                }
-            }
+            onChatMessageRemoved(chatMessage);
         }
         return changed;
     }
 
     public void removeChatMessages(Collection<M> messages) {
-        messages.forEach(this::removeChatMessage);
+        List<M> removedMessages = getChatMessages().removeAllAndGetRemoved(messages);
+        removedMessages.forEach(this::onChatMessageRemoved);
+    }
+
+    protected void onChatMessageAdded(M chatMessage) {
+        String authorUserProfileId = chatMessage.getAuthorUserProfileId();
+        numMessagesByAuthorId.putIfAbsent(authorUserProfileId, new AtomicInteger());
+        numMessagesByAuthorId.get(authorUserProfileId).incrementAndGet();
+    }
+
+    protected void onChatMessageRemoved(M chatMessage) {
+        String authorUserProfileId = chatMessage.getAuthorUserProfileId();
+        if (numMessagesByAuthorId.containsKey(authorUserProfileId)) {
+            AtomicInteger numMessages = numMessagesByAuthorId.get(authorUserProfileId);
+            if (numMessages.get() > 0 && numMessages.decrementAndGet() == 0) {
+                // If no more messages of that user exist we remove them from userProfileIdsOfParticipants
+                userProfileIdsOfParticipants.remove(chatMessage.getAuthorUserProfileId());
+            }
+        }
     }
 
     public abstract String getDisplayString();
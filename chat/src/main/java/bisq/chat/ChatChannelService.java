@@ -28,6 +28,8 @@ import bisq.user.identity.UserIdentityService;
 import bisq.user.profile.UserProfileService;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -69,6 +71,19 @@ public abstract class ChatChannelService<M extends ChatMessage, C extends ChatCh
         persist();
     }
 
+    public void addMessages(Collection<M> messages, C channel) {
+        List<M> messagesFromNotBannedUsers = messages.stream()
+                .filter(message -> !bannedUserService.isUserProfileBanned(message.getAuthorUserProfileId()))
+                .collect(Collectors.toList());
+        if (messagesFromNotBannedUsers.size() < messages.size()) {
+            log.warn("{} messages ignored as sender is banned", messages.size() - messagesFromNotBannedUsers.size());
+        }
+        synchronized (getPersistableStore()) {
+            channel.addChatMessages(messagesFromNotBannedUsers);
+        }
+        persist();
+    }
+
     protected boolean isValid(M message) {
         if (bannedUserService.isUserProfileBanned(message.getAuthorUserProfileId())) {
             log.warn("Message invalid as sender is banned");
@@ -91,10 +91,7 @@ public class BisqEasyOfferbookChannelService extends PublicChatChannelService<Bi
 
     @Override
     public void onAuthenticatedDataAdded(AuthenticatedData authenticatedData) {
-        DistributedData distributedData = authenticatedData.getDistributedData();
-        if (distributedData instanceof BisqEasyOfferbookMessage) {
-            processAddedMessage((BisqEasyOfferbookMessage) distributedData);
-        }
+        toChatMessage(authenticatedData.getDistributedData()).ifPresent(this::processAddedMessage);
     }
 
     @Override
@@ -142,6 +139,13 @@ public class BisqEasyOfferbookChannelService extends PublicChatChannelService<Bi
     // Protected 
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    protected Optional<BisqEasyOfferbookMessage> toChatMessage(DistributedData distributedData) {
+        return distributedData instanceof BisqEasyOfferbookMessage ?
+                Optional.of((BisqEasyOfferbookMessage) distributedData) :
+                Optional.empty();
+    }
+
     @Override
     protected BisqEasyOfferbookMessage createChatMessage(String text,
                                                          Optional<Citation> citation,
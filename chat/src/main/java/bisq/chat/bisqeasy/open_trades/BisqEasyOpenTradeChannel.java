@@ -207,20 +207,17 @@ public final class BisqEasyOpenTradeChannel extends PrivateGroupChatChannel<Bisq
     }
 
     @Override
-    public boolean addChatMessage(BisqEasyOpenTradeMessage chatMessage) {
-        boolean changed = super.addChatMessage(chatMessage);
-        if (changed) {
-            String authorUserProfileId = chatMessage.getAuthorUserProfileId();
-
-            // todo we get called from inside constructor at fromProto. should be redesigned
-            // If we received a leave message the user got removed from userProfileIdsOfParticipants
-            // In that case we remove them from userProfileIdsOfSendingLeaveMessage as well to avoid sending a 
-            // leave message.
-            if (!userProfileIdsOfParticipants.contains(authorUserProfileId)) {
-                userProfileIdsOfSendingLeaveMessage.remove(authorUserProfileId);
-            }
+    protected void onChatMessageAdded(BisqEasyOpenTradeMessage chatMessage) {
+        super.onChatMessageAdded(chatMessage);
+        String authorUserProfileId = chatMessage.getAuthorUserProfileId();
+
+        // todo we get called from inside constructor at fromProto. should be redesigned
+        // If we received a leave message the user got removed from userProfileIdsOfParticipants
+        // In that case we remove them from userProfileIdsOfSendingLeaveMessage as well to avoid sending a 
+        // leave message.
+        if (!userProfileIdsOfParticipants.contains(authorUserProfileId)) {
+            userProfileIdsOfSendingLeaveMessage.remove(authorUserProfileId);
         }
-        return changed;
     }
 
 
@@ -67,10 +67,7 @@ public final class CommonPublicChatChannelService extends PublicChatChannelServi
 
     @Override
     public void onAuthenticatedDataAdded(AuthenticatedData authenticatedData) {
-        DistributedData distributedData = authenticatedData.getDistributedData();
-        if (distributedData instanceof CommonPublicChatMessage) {
-            processAddedMessage((CommonPublicChatMessage) distributedData);
-        }
+        toChatMessage(authenticatedData.getDistributedData()).ifPresent(this::processAddedMessage);
     }
 
     @Override
@@ -104,6 +101,13 @@ public final class CommonPublicChatChannelService extends PublicChatChannelServi
     // Protected 
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    protected Optional<CommonPublicChatMessage> toChatMessage(DistributedData distributedData) {
+        return distributedData instanceof CommonPublicChatMessage ?
+                Optional.of((CommonPublicChatMessage) distributedData) :
+                Optional.empty();
+    }
+
     @Override
     protected CommonPublicChatMessage createChatMessage(String text,
                                                         Optional<Citation> citation,
@@ -0,0 +1,82 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat.notifications;
+
+import bisq.chat.ChatChannelDomain;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Number of not consumed notifications per domain and per channel. Updated incrementally when a notification gets
+ * added, consumed or removed, so that the badge queries do not need to iterate over all notifications.
+ */
+@Slf4j
+class ChatNotificationCounter {
+    private final Map<String, ChatNotificationKey> notConsumedKeyByNotificationId = new HashMap<>();
+    private final Map<ChatChannelDomain, AtomicInteger> numNotificationsByDomain = new EnumMap<>(ChatChannelDomain.class);
+    private final Map<String, AtomicInteger> numNotificationsByChannelId = new ConcurrentHashMap<>();
+
+    ChatNotificationCounter() {
+        for (ChatChannelDomain chatChannelDomain : ChatChannelDomain.values()) {
+            numNotificationsByDomain.put(chatChannelDomain, new AtomicInteger());
+        }
+    }
+
+    synchronized void update(String notificationId, boolean isNotConsumed) {
+        if (isNotConsumed) {
+            if (notConsumedKeyByNotificationId.containsKey(notificationId)) {
+                return;
+            }
+            ChatNotificationKey key;
+            try {
+                key = ChatNotificationKey.fromNotificationId(notificationId);
+            } catch (IllegalArgumentException e) {
+                log.warn("Could not parse notificationId {}", notificationId, e);
+                return;
+            }
+            notConsumedKeyByNotificationId.put(notificationId, key);
+            numNotificationsByDomain.get(key.getChatChannelDomain()).incrementAndGet();
+            numNotificationsByChannelId.computeIfAbsent(key.getChatChannelId(), channelId -> new AtomicInteger())
+                    .incrementAndGet();
+        } else {
+            ChatNotificationKey key = notConsumedKeyByNotificationId.remove(notificationId);
+            if (key == null) {
+                return;
+            }
+            numNotificationsByDomain.get(key.getChatChannelDomain()).decrementAndGet();
+            AtomicInteger numNotifications = numNotificationsByChannelId.get(key.getChatChannelId());
+            if (numNotifications != null && numNotifications.decrementAndGet() <= 0) {
+                numNotificationsByChannelId.remove(key.getChatChannelId());
+            }
+        }
+    }
+
+    int getNumNotifications(ChatChannelDomain chatChannelDomain) {
+        return numNotificationsByDomain.get(chatChannelDomain).get();
+    }
+
+    int getNumNotifications(String chatChannelId) {
+        AtomicInteger numNotifications = numNotificationsByChannelId.get(chatChannelId);
+        return numNotifications != null ? numNotifications.get() : 0;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat.notifications;
+
+import bisq.chat.ChatChannelDomain;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Structured form of a notificationId ("[ChatChannelDomain].[title].[messageId]").
+ * The notificationId is parsed only once when the notification gets added.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class ChatNotificationKey {
+    public static ChatNotificationKey fromNotificationId(String notificationId) {
+        String[] tokens = notificationId.split("\\.");
+        checkArgument(tokens.length == 3, "unexpected tokens size. notificationId=" + notificationId);
+        return new ChatNotificationKey(ChatChannelDomain.valueOf(tokens[0].toUpperCase()),
+                tokens[0] + "." + tokens[1],
+                tokens[2]);
+    }
+
+    private final ChatChannelDomain chatChannelDomain;
+    private final String chatChannelId;
+    private final String chatMessageId;
+
+    public ChatNotificationKey(ChatChannelDomain chatChannelDomain, String chatChannelId, String chatMessageId) {
+        this.chatChannelDomain = chatChannelDomain;
+        this.chatChannelId = chatChannelId;
+        this.chatMessageId = chatMessageId;
+    }
+}
@@ -99,6 +99,8 @@ public class ChatNotificationService implements Service {
     private final UserIdentityService userIdentityService;
     private final UserProfileService userProfileService;
     private final Map<String, Pin> chatMessagesByChannelIdPins = new ConcurrentHashMap<>();
+    private final ChatNotificationCounter chatNotificationCounter = new ChatNotificationCounter();
+    private final NotificationsService.Listener notificationsListener = this::onNotificationChanged;
 
     public ChatNotificationService(ChatService chatService,
                                    NotificationsService notificationsService,
@@ -119,6 +121,12 @@ public class ChatNotificationService implements Service {
 
     @Override
     public CompletableFuture<Boolean> initialize() {
+        // We register our listener before the UI adds its listeners, so that the counters are already updated when
+        // the UI requests the number of notifications.
+        notificationsService.addListener(notificationsListener);
+        notificationsService.getNotConsumedNotificationIds()
+                .forEach(notificationId -> chatNotificationCounter.update(notificationId, true));
+
         BisqEasyOpenTradeChannelService bisqEasyOpenTradeChannelService = chatService.getBisqEasyOpenTradeChannelService();
         bisqEasyOpenTradeChannelService.getChannels().addListener(() ->
                 onChatChannelsChanged(bisqEasyOpenTradeChannelService.getChannels()));
@@ -144,6 +152,7 @@ public class ChatNotificationService implements Service {
 
     @Override
     public CompletableFuture<Boolean> shutdown() {
+        notificationsService.removeListener(notificationsListener);
         return CompletableFuture.completedFuture(true);
     }
 
@@ -161,9 +170,7 @@ public class ChatNotificationService implements Service {
     }
 
     public int getNumNotificationsByDomain(ChatChannelDomain chatChannelDomain) {
-        return (int) notificationsService.getNotConsumedNotificationIds().stream()
-                .filter(notificationId -> chatChannelDomain == getChatChannelDomain(notificationId))
-                .count();
+        return chatNotificationCounter.getNumNotifications(chatChannelDomain);
     }
 
     public int getNumNotificationsMyDomainOrParentDomain(ChatChannelDomain chatChannelDomain) {
@@ -171,14 +178,9 @@ public class ChatNotificationService implements Service {
             case BISQ_EASY_OFFERBOOK:
             case BISQ_EASY_OPEN_TRADES:
             case BISQ_EASY_PRIVATE_CHAT:
-                return (int) notificationsService.getNotConsumedNotificationIds().stream()
-                        .filter(notificationId -> {
-                            ChatChannelDomain notificationIdChatChannelDomain = getChatChannelDomain(notificationId);
-                            return notificationIdChatChannelDomain == ChatChannelDomain.BISQ_EASY_OFFERBOOK ||
-                                    notificationIdChatChannelDomain == ChatChannelDomain.BISQ_EASY_OPEN_TRADES ||
-                                    notificationIdChatChannelDomain == ChatChannelDomain.BISQ_EASY_PRIVATE_CHAT;
-                        })
-                        .count();
+                return getNumNotificationsByDomain(ChatChannelDomain.BISQ_EASY_OFFERBOOK) +
+                        getNumNotificationsByDomain(ChatChannelDomain.BISQ_EASY_OPEN_TRADES) +
+                        getNumNotificationsByDomain(ChatChannelDomain.BISQ_EASY_PRIVATE_CHAT);
             case DISCUSSION:
             case EVENTS:
             case SUPPORT:
@@ -188,9 +190,7 @@ public class ChatNotificationService implements Service {
     }
 
     public <C extends ChatChannel<?>> Integer getNumNotificationsByChannel(C chatChannel) {
-        return (int) notificationsService.getNotConsumedNotificationIds().stream()
-                .filter(notificationId -> chatChannel.getId().equals(getChatChannelId(notificationId)))
-                .count();
+        return chatNotificationCounter.getNumNotifications(chatChannel.getId());
     }
 
 
@@ -198,6 +198,11 @@ public class ChatNotificationService implements Service {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    // Called inside the lock of the notificationsService, so the state we read is the one of the change
+    private void onNotificationChanged(String notificationId) {
+        chatNotificationCounter.update(notificationId, notificationsService.isNotConsumed(notificationId));
+    }
+
     private <M extends ChatMessage> void onChatChannelsChanged(ObservableArray<? extends ChatChannel<M>> channels) {
         channels.forEach(chatChannel -> {
             String channelId = chatChannel.getId();
@@ -55,24 +55,21 @@ public abstract class PrivateChatChannel<M extends PrivateChatMessage> extends C
     }
 
     @Override
-    public boolean addChatMessage(M chatMessage) {
-        boolean changed = super.addChatMessage(chatMessage);
-        if (changed) {
-            // We might get normal message and leave message out of order (e.g. leave before normal msg).
-            // For that case we check if we have any leave message of that author already received.
-            // We do not support joining the same channel after leaving.
-            boolean isLeaveMessage = chatMessage.getChatMessageType() == ChatMessageType.LEAVE;
-            String authorUserProfileId = chatMessage.getAuthorUserProfileId();
-            if (isLeaveMessage) {
-                authorIdsSentLeaveMessage.add(authorUserProfileId);
-            }
-            if (isLeaveMessage || authorIdsSentLeaveMessage.contains(authorUserProfileId)) {
-                userProfileIdsOfParticipants.remove(authorUserProfileId);
-            } else {
-                userProfileIdsOfParticipants.add(authorUserProfileId);
-            }
+    protected void onChatMessageAdded(M chatMessage) {
+        super.onChatMessageAdded(chatMessage);
+        // We might get normal message and leave message out of order (e.g. leave before normal msg).
+        // For that case we check if we have any leave message of that author already received.
+        // We do not support joining the same channel after leaving.
+        boolean isLeaveMessage = chatMessage.getChatMessageType() == ChatMessageType.LEAVE;
+        String authorUserProfileId = chatMessage.getAuthorUserProfileId();
+        if (isLeaveMessage) {
+            authorIdsSentLeaveMessage.add(authorUserProfileId);
+        }
+        if (isLeaveMessage || authorIdsSentLeaveMessage.contains(authorUserProfileId)) {
+            userProfileIdsOfParticipants.remove(authorUserProfileId);
+        } else {
+            userProfileIdsOfParticipants.add(authorUserProfileId);
         }
-        return changed;
     }
 
     // Called when removing expired messages. We do not support deleting private messages
@@ -20,6 +20,7 @@ package bisq.chat.pub;
 import bisq.chat.ChatChannel;
 import bisq.chat.ChatChannelDomain;
 import bisq.chat.ChatChannelNotificationType;
+import bisq.common.observable.collection.ObservableHashSet;
 import bisq.common.observable.collection.ObservableSet;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -30,7 +31,8 @@ import lombok.ToString;
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
 public abstract class PublicChatChannel<M extends PublicChatMessage> extends ChatChannel<M> {
     // Transient because we do not persist the messages as they are persisted in the P2P data store.
-    protected transient final ObservableSet<M> chatMessages = new ObservableSet<>();
+    // Public channels can have many thousands of messages, so we use a hash set instead of a copy-on-write set.
+    protected transient final ObservableSet<M> chatMessages = new ObservableHashSet<>();
 
     public PublicChatChannel(String id,
                              ChatChannelDomain chatChannelDomain,
@@ -39,13 +41,9 @@ public abstract class PublicChatChannel<M extends PublicChatMessage> extends Cha
     }
 
     @Override
-    public boolean addChatMessage(M chatMessage) {
-        boolean changed = super.addChatMessage(chatMessage);
-        if (changed) {
-            userProfileIdsOfParticipants.add(chatMessage.getAuthorUserProfileId());
-        }
-
-        return changed;
+    protected void onChatMessageAdded(M chatMessage) {
+        super.onChatMessageAdded(chatMessage);
+        userProfileIdsOfParticipants.add(chatMessage.getAuthorUserProfileId());
     }
 
     // Called when removing expired messages or when user deletes a message
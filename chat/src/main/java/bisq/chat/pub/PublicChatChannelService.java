@@ -21,6 +21,8 @@ import bisq.chat.*;
 import bisq.network.NetworkIdWithKeyPair;
 import bisq.network.NetworkService;
 import bisq.network.p2p.services.data.DataService;
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedData;
 import bisq.persistence.PersistableStore;
 import bisq.user.UserService;
 import bisq.user.identity.UserIdentity;
@@ -31,6 +33,8 @@ import java.security.KeyPair;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 public abstract class PublicChatChannelService<M extends PublicChatMessage, C extends PublicChatChannel<M>, S extends PersistableStore<S>>
@@ -54,8 +58,11 @@ public abstract class PublicChatChannelService<M extends PublicChatMessage, C ex
         maybeAddDefaultChannels();
 
         networkService.addDataServiceListener(this);
+        // We add the messages from the P2P data store per channel in one batch
         networkService.getDataService().ifPresent(dataService ->
-                dataService.getAuthenticatedData().forEach(this::onAuthenticatedDataAdded));
+                processAddedMessages(dataService.getAuthenticatedData()
+                        .map(AuthenticatedData::getDistributedData)
+                        .flatMap(distributedData -> toChatMessage(distributedData).stream())));
 
         return CompletableFuture.completedFuture(true);
     }
@@ -126,6 +133,14 @@ public abstract class PublicChatChannelService<M extends PublicChatMessage, C ex
         }
     }
 
+    protected void processAddedMessages(Stream<M> messages) {
+        messages.filter(this::canHandleChannelDomain)
+                .filter(this::isValid)
+                .collect(Collectors.groupingBy(this::findChannel))
+                .forEach((channel, messagesOfChannel) ->
+                        channel.ifPresent(c -> addMessages(messagesOfChannel, c)));
+    }
+
     protected void processRemovedMessage(M message) {
         if (canHandleChannelDomain(message) && isValid(message)) {
             findChannel(message).ifPresent(channel -> removeMessage(message, channel));
@@ -139,6 +154,8 @@ public abstract class PublicChatChannelService<M extends PublicChatMessage, C ex
         persist();
     }
 
+    protected abstract Optional<M> toChatMessage(DistributedData distributedData);
+
     protected abstract M createChatMessage(String text,
                                            Optional<Citation> citation,
                                            C publicChannel,
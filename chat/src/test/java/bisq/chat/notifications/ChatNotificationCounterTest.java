@@ -0,0 +1,92 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat.notifications;
+
+import bisq.chat.ChatChannelDomain;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChatNotificationCounterTest {
+    @Test
+    void countsAddConsumeAndRemove() {
+        ChatNotificationCounter counter = new ChatNotificationCounter();
+        String id1 = ChatNotificationService.createNotificationId("discussion.bisq", "msg1");
+        String id2 = ChatNotificationService.createNotificationId("discussion.bisq", "msg2");
+        String id3 = ChatNotificationService.createNotificationId("support.support", "msg3");
+
+        counter.update(id1, true);
+        counter.update(id1, true);
+        counter.update(id2, true);
+        counter.update(id3, true);
+        assertThat(counter.getNumNotifications(ChatChannelDomain.DISCUSSION)).isEqualTo(2);
+        assertThat(counter.getNumNotifications(ChatChannelDomain.SUPPORT)).isEqualTo(1);
+        assertThat(counter.getNumNotifications("discussion.bisq")).isEqualTo(2);
+
+        // Consumed or removed
+        counter.update(id1, false);
+        counter.update(id1, false);
+        assertThat(counter.getNumNotifications(ChatChannelDomain.DISCUSSION)).isEqualTo(1);
+        assertThat(counter.getNumNotifications("discussion.bisq")).isEqualTo(1);
+
+        counter.update(id2, false);
+        assertThat(counter.getNumNotifications(ChatChannelDomain.DISCUSSION)).isEqualTo(0);
+        assertThat(counter.getNumNotifications("discussion.bisq")).isEqualTo(0);
+        assertThat(counter.getNumNotifications(ChatChannelDomain.SUPPORT)).isEqualTo(1);
+
+        // Invalid ids are ignored
+        counter.update("invalid", true);
+        assertThat(counter.getNumNotifications(ChatChannelDomain.SUPPORT)).isEqualTo(1);
+
+        counter.update(id3, false);
+        assertThat(counter.getNumNotifications(ChatChannelDomain.SUPPORT)).isEqualTo(0);
+        assertThat(counter.getNumNotifications("support.support")).isEqualTo(0);
+    }
+
+    @Test
+    void countsWith100kNotifications() {
+        int numNotifications = 100_000;
+        int numChannelsPerDomain = 100;
+        ChatChannelDomain[] domains = ChatChannelDomain.values();
+        ChatNotificationCounter counter = new ChatNotificationCounter();
+
+        for (int i = 0; i < numNotifications; i++) {
+            ChatChannelDomain domain = domains[i % domains.length];
+            String channelId = domain.name().toLowerCase() + ".channel-" + (i % numChannelsPerDomain);
+            counter.update(ChatNotificationService.createNotificationId(channelId, "msg" + i), true);
+        }
+
+        int total = 0;
+        for (ChatChannelDomain domain : domains) {
+            total += counter.getNumNotifications(domain);
+        }
+        assertThat(total).isEqualTo(numNotifications);
+
+        // Consuming all notifications of one channel only changes the counts of that channel and its domain
+        ChatChannelDomain domain = domains[0];
+        String channelId = domain.name().toLowerCase() + ".channel-0";
+        int numInChannel = counter.getNumNotifications(channelId);
+        int numInDomain = counter.getNumNotifications(domain);
+        assertThat(numInChannel).isPositive();
+        for (int i = 0; i < numNotifications; i++) {
+            counter.update(ChatNotificationService.createNotificationId(channelId, "msg" + i), false);
+        }
+        assertThat(counter.getNumNotifications(channelId)).isZero();
+        assertThat(counter.getNumNotifications(domain)).isEqualTo(numInDomain - numInChannel);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.chat.notifications;
+
+import bisq.chat.ChatChannelDomain;
+import bisq.chat.ChatService;
+import bisq.chat.bisqeasy.offerbook.BisqEasyOfferbookChannelService;
+import bisq.chat.bisqeasy.open_trades.BisqEasyOpenTradeChannelService;
+import bisq.common.observable.collection.ObservableArray;
+import bisq.persistence.PersistenceService;
+import bisq.presentation.notifications.NotificationsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChatNotificationServiceTest {
+    private static final String DISCUSSION_CHANNEL_ID = "discussion.bisq";
+    private static final String SUPPORT_CHANNEL_ID = "support.support";
+
+    @TempDir
+    Path tempDir;
+
+    private NotificationsService notificationsService;
+    private ChatNotificationService chatNotificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationsService = new NotificationsService(new PersistenceService(tempDir.toString()));
+
+        // The service only registers listeners at the channels, so empty channel lists are sufficient
+        ChatService chatService = mock(ChatService.class);
+        BisqEasyOpenTradeChannelService bisqEasyOpenTradeChannelService = mock(BisqEasyOpenTradeChannelService.class);
+        when(bisqEasyOpenTradeChannelService.getChannels()).thenReturn(new ObservableArray<>());
+        when(chatService.getBisqEasyOpenTradeChannelService()).thenReturn(bisqEasyOpenTradeChannelService);
+        BisqEasyOfferbookChannelService bisqEasyOfferbookChannelService = mock(BisqEasyOfferbookChannelService.class);
+        when(bisqEasyOfferbookChannelService.getChannels()).thenReturn(new ObservableArray<>());
+        when(chatService.getBisqEasyOfferbookChannelService()).thenReturn(bisqEasyOfferbookChannelService);
+        when(chatService.getCommonPublicChatChannelServices()).thenReturn(Map.of());
+        when(chatService.getTwoPartyPrivateChatChannelServices()).thenReturn(Map.of());
+
+        chatNotificationService = new ChatNotificationService(chatService, notificationsService, null, null, null);
+    }
+
+    @Test
+    void countersFollowNotificationsService() {
+        String persistedId = ChatNotificationService.createNotificationId(DISCUSSION_CHANNEL_ID, "msg1");
+        notificationsService.addNotificationId(persistedId);
+        chatNotificationService.initialize().join();
+        // Notifications which have been added before initialize are counted as well
+        assertThat(chatNotificationService.getNumNotificationsByDomain(ChatChannelDomain.DISCUSSION)).isEqualTo(1);
+
+        String id2 = ChatNotificationService.createNotificationId(DISCUSSION_CHANNEL_ID, "msg2");
+        String id3 = ChatNotificationService.createNotificationId(SUPPORT_CHANNEL_ID, "msg3");
+        notificationsService.addNotificationId(id2);
+        notificationsService.addNotificationId(id3);
+        assertThat(chatNotificationService.getNumNotificationsByDomain(ChatChannelDomain.DISCUSSION)).isEqualTo(2);
+        assertThat(chatNotificationService.getNumNotificationsByDomain(ChatChannelDomain.SUPPORT)).isEqualTo(1);
+
+        notificationsService.consumeNotificationId(persistedId);
+        notificationsService.removeNotificationId(id3);
+        assertThat(chatNotificationService.getNumNotificationsByDomain(ChatChannelDomain.DISCUSSION)).isEqualTo(1);
+        assertThat(chatNotificationService.getNumNotificationsByDomain(ChatChannelDomain.SUPPORT)).isZero();
+
+        // After shutdown the listener is removed
+        chatNotificationService.shutdown().join();
+        notificationsService.addNotificationId(ChatNotificationService.createNotificationId(SUPPORT_CHANNEL_ID, "msg4"));
+        assertThat(chatNotificationService.getNumNotificationsByDomain(ChatChannelDomain.SUPPORT)).isZero();
+    }
+}
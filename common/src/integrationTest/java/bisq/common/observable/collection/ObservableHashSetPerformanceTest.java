@@ -0,0 +1,80 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable.collection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the ObservableHashSet with the copy-on-write ObservableSet for the chat message use case: Adding many
+ * messages one by one and in one batch while an observer is registered.
+ */
+@Slf4j
+public class ObservableHashSetPerformanceTest {
+    private static final int NUM_ELEMENTS = 20_000;
+
+    @Test
+    void testAddPerformanceAgainstCopyOnWriteSet() {
+        List<Integer> elements = IntStream.range(0, NUM_ELEMENTS).boxed().collect(Collectors.toList());
+        // Warm up both implementations
+        measure(ObservableSet::new, set -> elements.forEach(set::add));
+        measure(ObservableHashSet::new, set -> elements.forEach(set::add));
+
+        long copyOnWriteSingleAdds = measure(ObservableSet::new, set -> elements.forEach(set::add));
+        long hashSetSingleAdds = measure(ObservableHashSet::new, set -> elements.forEach(set::add));
+        long copyOnWriteAddAll = measure(ObservableSet::new, set -> set.addAll(elements));
+        long hashSetAddAll = measure(ObservableHashSet::new, set -> set.addAll(elements));
+        log.info("Adding {} elements one by one: ObservableSet {} ms, ObservableHashSet {} ms. " +
+                        "Adding them with addAll: ObservableSet {} ms, ObservableHashSet {} ms",
+                NUM_ELEMENTS, copyOnWriteSingleAdds, hashSetSingleAdds, copyOnWriteAddAll, hashSetAddAll);
+    }
+
+    private long measure(Supplier<ObservableSet<Integer>> setFactory, Consumer<ObservableSet<Integer>> operation) {
+        ObservableSet<Integer> set = setFactory.get();
+        AtomicInteger numAdded = new AtomicInteger();
+        set.addListener(new CollectionObserver<>() {
+            @Override
+            public void add(Integer element) {
+                numAdded.incrementAndGet();
+            }
+
+            @Override
+            public void remove(Object element) {
+            }
+
+            @Override
+            public void clear() {
+            }
+        });
+        long ts = System.nanoTime();
+        operation.accept(set);
+        long duration = (System.nanoTime() - ts) / 1_000_000;
+        assertThat(set).hasSize(NUM_ELEMENTS);
+        assertThat(numAdded.get()).isEqualTo(NUM_ELEMENTS);
+        return duration;
+    }
+}
@@ -21,6 +21,9 @@ import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -60,24 +63,28 @@ final class CollectionChangeMapper<S, T> implements CollectionObserver<S> {
         });
     }
 
+    // We add all items with one call, so that the target collection fires only one change event.
+    // The lookup of existing items uses a HashSet to avoid a linear contains call on the target list per item.
     @Override
     public void addAll(Collection<? extends S> values) {
-        executor.accept(() -> values.forEach(element -> {
-            T item = mapFunction.apply(element);
-            if (!targetCollection.contains(item)) {
-                targetCollection.add(item);
-            }
-        }));
+        executor.accept(() -> {
+            Set<T> existingItems = new HashSet<>(targetCollection);
+            List<T> newItems = values.stream()
+                    .map(mapFunction)
+                    .filter(existingItems::add)
+                    .collect(Collectors.toList());
+            targetCollection.addAll(newItems);
+        });
     }
 
     @Override
     public void setAll(Collection<? extends S> values) {
         executor.accept(() -> {
+            List<T> items = values.stream()
+                    .map(mapFunction)
+                    .collect(Collectors.toList());
             targetCollection.clear();
-            values.forEach(element -> {
-                T item = mapFunction.apply(element);
-                targetCollection.add(item);
-            });
+            targetCollection.addAll(items);
         });
     }
 
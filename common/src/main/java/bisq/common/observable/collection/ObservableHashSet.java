@@ -0,0 +1,56 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable.collection;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ObservableSet backed by a concurrent hash set instead of a CopyOnWriteArraySet. Adding and removing elements does not
+ * copy the set, so it is suited for large sets like the chat messages of public channels.
+ * The iteration order is not the insertion order. Iteration is weakly consistent and does not throw a
+ * ConcurrentModificationException.
+ * addAll and removeAll notify the observers with one batch containing only the elements which got added or removed.
+ * Use addAllAndGetAdded and removeAllAndGetRemoved to get these elements.
+ */
+public class ObservableHashSet<S> extends ObservableSet<S> {
+    public ObservableHashSet() {
+        super();
+    }
+
+    public ObservableHashSet(Collection<S> values) {
+        super(values);
+    }
+
+    @Override
+    protected Collection<S> createCollection() {
+        return ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public boolean addAll(@NotNull Collection<? extends S> values) {
+        return !addAllAndGetAdded(values).isEmpty();
+    }
+
+    @Override
+    public boolean removeAll(@NotNull Collection<?> values) {
+        return !removeAllAndGetRemoved(values).isEmpty();
+    }
+}
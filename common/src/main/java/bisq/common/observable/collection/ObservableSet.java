@@ -17,11 +17,16 @@
 
 package bisq.common.observable.collection;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
-public class ObservableSet<S> extends ObservableCollection<S> implements Set<S> {
+public class ObservableSet<S> extends ObservableCollection<S> implements Set<S>, ReadOnlyObservableSet<S> {
     public ObservableSet() {
         super();
     }
@@ -35,7 +40,49 @@ public class ObservableSet<S> extends ObservableCollection<S> implements Set<S>
         return new CopyOnWriteArraySet<>();
     }
 
+    /**
+     * Adds the elements one by one and notifies the observers once with the elements which have not been in the set
+     * before. As each add is atomic, concurrent callers never both get the same element returned.
+     *
+     * @return The elements which got added.
+     */
+    public List<S> addAllAndGetAdded(@NotNull Collection<? extends S> values) {
+        List<S> added = new ArrayList<>();
+        for (S element : values) {
+            if (collection.add(element)) {
+                added.add(element);
+            }
+        }
+        if (!added.isEmpty()) {
+            observers.forEach(observer -> observer.addAll(added));
+        }
+        return added;
+    }
+
+    /**
+     * Removes the elements one by one and notifies the observers once with the elements which have been in the set.
+     *
+     * @return The elements which got removed.
+     */
+    public <T> List<T> removeAllAndGetRemoved(@NotNull Collection<T> values) {
+        List<T> removed = new ArrayList<>();
+        for (T element : values) {
+            if (collection.remove(element)) {
+                removed.add(element);
+            }
+        }
+        if (!removed.isEmpty()) {
+            observers.forEach(observer -> observer.removeAll(removed));
+        }
+        return removed;
+    }
+
     public Set<S> getSet() {
         return (Set<S>) collection;
     }
+
+    @Override
+    public Set<S> getUnmodifiableSet() {
+        return Collections.unmodifiableSet(getSet());
+    }
 }
\ No newline at end of file
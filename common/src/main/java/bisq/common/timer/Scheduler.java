@@ -18,29 +18,51 @@
 package bisq.common.timer;
 
 import bisq.common.threading.ExecutorFactory;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.Random;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 @Slf4j
 public class Scheduler implements TaskScheduler {
-    // We do not use a ScheduledThreadPoolExecutor as the queue cannot be customized. It would cause undesired behaviour 
-    // in case we would use a static executor for all Scheduler instances and multiple schedule calls would get 
-    // queued up instead of starting a new scheduler.
-    private final ScheduledExecutorService executor;
+    // All Scheduler instances share one timer thread which only dispatches the due tasks to the worker pool. We do not
+    // run the tasks on the timer thread or on a fixed pool, as a long-running task must not delay the tasks of other
+    // Scheduler instances. With the cached pool the number of threads depends only on the number of concurrently
+    // running tasks and not on the number of Scheduler instances.
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+    private static final ExecutorService WORKER_POOL = ExecutorFactory.newCachedThreadPool("Scheduler-worker");
+    @Getter
+    private static final SchedulerMetrics metrics = new SchedulerMetrics();
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("Scheduler-timer")
+                .setDaemon(true)
+                .build();
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, threadFactory);
+        // Stopped schedulers should not leave their pending tasks in the queue
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
     private final Runnable task;
     private volatile boolean stopped;
     @Getter
-    private long counter;
+    private volatile long counter;
     private Optional<String> threadName = Optional.empty();
+    // Each call of repeated adds a schedule, which runs until the Scheduler gets stopped, as it was the case when each
+    // Scheduler had its own executor.
+    private final List<Schedule> schedules = new ArrayList<>();
+    // Runs of the same Scheduler never overlap, as it was the case with the single threaded executor per Scheduler
+    private final Object runLock = new Object();
 
     private Scheduler(Runnable task) {
         this.task = task;
-        executor = ExecutorFactory.newSingleThreadScheduledExecutor("Scheduler-" + new Random().nextInt(1000));
     }
 
     public static Scheduler run(Runnable task) {
@@ -87,38 +109,21 @@ public class Scheduler implements TaskScheduler {
         return repeated(delay, delay, timeUnit, cycles);
     }
 
+    /**
+     * Adds a schedule to the schedules of previous calls. The cycles are counted with the total number of runs of this
+     * Scheduler, and the Scheduler stops once they are reached. stop() cancels all schedules.
+     */
     @Override
     public Scheduler repeated(long initialDelay, long delay, TimeUnit timeUnit, long cycles) {
         if (stopped) {
             return this;
         }
-        if (cycles == 1) {
-            executor.schedule(() -> {
-                if (stopped) {
-                    return;
-                }
-                threadName.ifPresent(name -> Thread.currentThread().setName(name));
-                try {
-                    task.run();
-                } finally {
-                    stop();
-                }
-            }, delay, timeUnit);
-        } else {
-            executor.scheduleWithFixedDelay(() -> {
-                if (stopped) {
-                    return;
-                }
-                threadName.ifPresent(name -> Thread.currentThread().setName(name));
-                try {
-                    task.run();
-                } finally {
-                    counter++;
-                    if (counter >= cycles) {
-                        stop();
-                    }
-                }
-            }, initialDelay, delay, timeUnit);
+        long delayMs = timeUnit.toMillis(delay);
+        long initialDelayMs = cycles == 1 ? delayMs : timeUnit.toMillis(initialDelay);
+        Schedule schedule = new Schedule(delayMs, cycles);
+        synchronized (this) {
+            schedules.add(schedule);
+            schedule(schedule, initialDelayMs);
         }
         return this;
     }
@@ -126,6 +131,104 @@ public class Scheduler implements TaskScheduler {
     @Override
     public void stop() {
         stopped = true;
-        ExecutorFactory.shutdownAndAwaitTermination(executor);
+        synchronized (this) {
+            schedules.forEach(Schedule::cancel);
+            schedules.clear();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Like at scheduleWithFixedDelay, the next execution is scheduled after the previous one has completed.
+    private synchronized void schedule(Schedule schedule, long delayMs) {
+        if (!isActive(schedule)) {
+            return;
+        }
+        long scheduledTime = System.currentTimeMillis() + delayMs;
+        schedule.scheduledFuture = TIMER.schedule(() -> dispatch(schedule, scheduledTime), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized boolean isActive(Schedule schedule) {
+        return !stopped && schedules.contains(schedule);
+    }
+
+    private void dispatch(Schedule schedule, long scheduledTime) {
+        if (!isActive(schedule)) {
+            return;
+        }
+        try {
+            WORKER_POOL.execute(() -> runTask(schedule, scheduledTime));
+        } catch (RejectedExecutionException e) {
+            if (WORKER_POOL.isShutdown()) {
+                log.warn("Scheduler task got rejected as the worker pool is shut down");
+                stop();
+                return;
+            }
+            // The task did not run, so we try again at the next cycle instead of dropping the scheduler
+            log.error("Scheduler task got rejected by the worker pool. We try again at the next cycle", e);
+            schedule(schedule, schedule.periodMs);
+        }
+    }
+
+    private void runTask(Schedule schedule, long scheduledTime) {
+        synchronized (runLock) {
+            if (!isActive(schedule)) {
+                return;
+            }
+            long startTime = System.currentTimeMillis();
+            metrics.onTaskStarted(Math.max(0, startTime - scheduledTime));
+
+            Thread currentThread = Thread.currentThread();
+            String workerThreadName = currentThread.getName();
+            threadName.ifPresent(currentThread::setName);
+            boolean failed = true;
+            try {
+                task.run();
+                failed = false;
+            } catch (Throwable t) {
+                // As with a ScheduledExecutorService we do not run the task again after an exception
+                log.error("Scheduler task failed", t);
+            } finally {
+                currentThread.setName(workerThreadName);
+                metrics.onTaskCompleted(System.currentTimeMillis() - startTime);
+                counter++;
+                continueSchedule(schedule, failed);
+            }
+        }
+    }
+
+    private synchronized void continueSchedule(Schedule schedule, boolean failed) {
+        if (!isActive(schedule)) {
+            return;
+        }
+        if (schedule.cycles == 1 || counter >= schedule.cycles) {
+            stop();
+        } else if (failed) {
+            // Only the failed schedule ends, other schedules of this Scheduler continue
+            schedules.remove(schedule);
+        } else {
+            schedule(schedule, schedule.periodMs);
+        }
+    }
+
+    private static final class Schedule {
+        private final long periodMs;
+        private final long cycles;
+        @Nullable
+        private ScheduledFuture<?> scheduledFuture;
+
+        private Schedule(long periodMs, long cycles) {
+            this.periodMs = periodMs;
+            this.cycles = cycles;
+        }
+
+        private void cancel() {
+            if (scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+            }
+        }
     }
 }
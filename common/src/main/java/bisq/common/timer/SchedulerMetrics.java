@@ -0,0 +1,85 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated metrics of all Scheduler tasks. The timer lag is the time between the scheduled and the actual start of
+ * a task. A high lag indicates that the worker pool cannot keep up.
+ */
+@Slf4j
+public class SchedulerMetrics {
+    private static final long LAG_WARN_THRESHOLD_MS = 1000;
+
+    private final LongAdder numRuns = new LongAdder();
+    private final LongAdder totalLag = new LongAdder();
+    private final AtomicLong maxLag = new AtomicLong();
+    private final LongAdder totalRunTime = new LongAdder();
+    private final AtomicLong maxRunTime = new AtomicLong();
+
+    void onTaskStarted(long lag) {
+        numRuns.increment();
+        totalLag.add(lag);
+        maxLag.accumulateAndGet(lag, Math::max);
+        if (lag > LAG_WARN_THRESHOLD_MS) {
+            log.warn("Scheduler task started {} ms after its scheduled time", lag);
+        }
+    }
+
+    void onTaskCompleted(long runTime) {
+        totalRunTime.add(runTime);
+        maxRunTime.accumulateAndGet(runTime, Math::max);
+    }
+
+    public long getNumRuns() {
+        return numRuns.sum();
+    }
+
+    public long getMaxLag() {
+        return maxLag.get();
+    }
+
+    public double getAverageLag() {
+        long numRuns = getNumRuns();
+        return numRuns == 0 ? 0 : totalLag.sum() / (double) numRuns;
+    }
+
+    public long getMaxRunTime() {
+        return maxRunTime.get();
+    }
+
+    public double getAverageRunTime() {
+        long numRuns = getNumRuns();
+        return numRuns == 0 ? 0 : totalRunTime.sum() / (double) numRuns;
+    }
+
+    @Override
+    public String toString() {
+        return "SchedulerMetrics{" +
+                "numRuns=" + getNumRuns() +
+                ", averageLag=" + getAverageLag() +
+                ", maxLag=" + getMaxLag() +
+                ", averageRunTime=" + getAverageRunTime() +
+                ", maxRunTime=" + getMaxRunTime() +
+                '}';
+    }
+}
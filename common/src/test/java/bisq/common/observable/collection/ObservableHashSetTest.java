@@ -0,0 +1,163 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.observable.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ObservableHashSetTest {
+    private static class RecordingObserver implements CollectionObserver<Integer> {
+        private final List<Integer> added = new ArrayList<>();
+        private final List<Object> removed = new ArrayList<>();
+        private int numAddAllCalls;
+        private int numRemoveAllCalls;
+
+        @Override
+        public void add(Integer element) {
+            added.add(element);
+        }
+
+        @Override
+        public void addAll(Collection<? extends Integer> values) {
+            numAddAllCalls++;
+            added.addAll(values);
+        }
+
+        @Override
+        public void remove(Object element) {
+            removed.add(element);
+        }
+
+        @Override
+        public void removeAll(Collection<?> values) {
+            numRemoveAllCalls++;
+            removed.addAll(values);
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+
+    @Test
+    void addAllNotifiesOnceWithAddedElements() {
+        ObservableHashSet<Integer> set = new ObservableHashSet<>(List.of(1, 2));
+        RecordingObserver observer = new RecordingObserver();
+        set.addListener(observer);
+        observer.added.clear();
+        observer.numAddAllCalls = 0;
+
+        assertThat(set.addAll(List.of(2, 3, 4))).isTrue();
+        assertThat(set.addAll(List.of(1, 3))).isFalse();
+
+        assertThat(observer.numAddAllCalls).isEqualTo(1);
+        assertThat(observer.added).containsExactly(3, 4);
+        assertThat(set).containsExactlyInAnyOrder(1, 2, 3, 4);
+    }
+
+    @Test
+    void addAllAndGetAddedReturnsOnlyInsertedElements() {
+        ObservableHashSet<Integer> set = new ObservableHashSet<>(List.of(1));
+        RecordingObserver observer = new RecordingObserver();
+        set.addListener(observer);
+        observer.added.clear();
+
+        assertThat(set.addAllAndGetAdded(List.of(1, 2, 2, 3))).containsExactly(2, 3);
+        assertThat(set.addAllAndGetAdded(List.of(2, 3))).isEmpty();
+        assertThat(set.removeAllAndGetRemoved(List.of(3, 4))).containsExactly(3);
+
+        assertThat(observer.added).containsExactly(2, 3);
+        assertThat(observer.removed).containsExactly(3);
+    }
+
+    @Test
+    void concurrentAddAllAndGetAddedReturnsEachElementOnce() throws Exception {
+        ObservableHashSet<Integer> set = new ObservableHashSet<>();
+        List<Integer> elements = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> set.addAllAndGetAdded(elements)));
+            }
+            List<Integer> allAdded = new ArrayList<>();
+            for (Future<List<Integer>> future : futures) {
+                allAdded.addAll(future.get(10, TimeUnit.SECONDS));
+            }
+            assertThat(allAdded).containsExactlyInAnyOrderElementsOf(elements);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void removeAllNotifiesOnceWithRemovedElements() {
+        ObservableHashSet<Integer> set = new ObservableHashSet<>(List.of(1, 2, 3));
+        RecordingObserver observer = new RecordingObserver();
+        set.addListener(observer);
+
+        assertThat(set.removeAll(List.of(2, 3, 5))).isTrue();
+        assertThat(set.removeAll(List.of(5))).isFalse();
+
+        assertThat(observer.numRemoveAllCalls).isEqualTo(1);
+        assertThat(observer.removed).containsExactly(2, 3);
+        assertThat(set).containsExactly(1);
+    }
+
+    @Test
+    void addAndRemoveNotifyOnlyOnChange() {
+        ObservableHashSet<Integer> set = new ObservableHashSet<>();
+        RecordingObserver observer = new RecordingObserver();
+        set.addListener(observer);
+
+        assertThat(set.add(1)).isTrue();
+        assertThat(set.add(1)).isFalse();
+        assertThat(set.remove(1)).isTrue();
+        assertThat(set.remove(1)).isFalse();
+
+        assertThat(observer.added).containsExactly(1);
+        assertThat(observer.removed).containsExactly(1);
+        assertThat(set).isEmpty();
+    }
+
+    @Test
+    void modificationWhileIteratingDoesNotThrow() {
+        ObservableHashSet<Integer> set = new ObservableHashSet<>(List.of(1, 2, 3));
+
+        for (Integer element : set) {
+            // Added elements might be visited by the iteration as well
+            if (element < 10) {
+                set.remove(element);
+                set.add(element + 10);
+            }
+        }
+
+        assertThat(set).containsExactlyInAnyOrder(11, 12, 13);
+    }
+}
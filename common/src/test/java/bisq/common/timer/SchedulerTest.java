@@ -0,0 +1,183 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SchedulerTest {
+    private static final long PERIOD_MS = 10;
+    // Several periods, so that a task which would run again had the chance to do so
+    private static final long QUIET_PERIOD_MS = 20 * PERIOD_MS;
+    private static final long TIMEOUT_SEC = 5;
+
+    @Test
+    void afterRunsOnce() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        Scheduler scheduler = Scheduler.run(() -> {
+            numRuns.incrementAndGet();
+            done.countDown();
+        }).after(PERIOD_MS);
+
+        assertThat(done.await(TIMEOUT_SEC, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(QUIET_PERIOD_MS);
+        assertThat(numRuns).hasValue(1);
+        assertThat(scheduler.getCounter()).isEqualTo(1);
+    }
+
+    @Test
+    void periodicallyRunsUntilStopped() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+        Scheduler scheduler = Scheduler.run(() -> {
+            numRuns.incrementAndGet();
+            done.countDown();
+        }).periodically(PERIOD_MS);
+
+        assertThat(done.await(TIMEOUT_SEC, TimeUnit.SECONDS)).isTrue();
+        scheduler.stop();
+        // A run which was already dispatched at stop might still complete
+        Thread.sleep(QUIET_PERIOD_MS);
+        int numRunsAfterStop = numRuns.get();
+        Thread.sleep(QUIET_PERIOD_MS);
+        assertThat(numRuns).hasValue(numRunsAfterStop);
+    }
+
+    @Test
+    void repeatedRunsTheGivenNumberOfCycles() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+        Scheduler scheduler = Scheduler.run(() -> {
+            numRuns.incrementAndGet();
+            done.countDown();
+        }).repeated(PERIOD_MS, 3);
+
+        assertThat(done.await(TIMEOUT_SEC, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(QUIET_PERIOD_MS);
+        assertThat(numRuns).hasValue(3);
+        assertThat(scheduler.getCounter()).isEqualTo(3);
+    }
+
+    @Test
+    void stopDuringRunPreventsNextRun() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Scheduler scheduler = Scheduler.run(() -> {
+            numRuns.incrementAndGet();
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).periodically(PERIOD_MS);
+
+        assertThat(running.await(TIMEOUT_SEC, TimeUnit.SECONDS)).isTrue();
+        scheduler.stop();
+        release.countDown();
+
+        Thread.sleep(QUIET_PERIOD_MS);
+        assertThat(numRuns).hasValue(1);
+    }
+
+    @Test
+    void secondScheduleRunsInAdditionToTheFirstOneUntilStopped() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+        Scheduler scheduler = Scheduler.run(() -> {
+            numRuns.incrementAndGet();
+            done.countDown();
+        }).periodically(PERIOD_MS);
+
+        assertThat(done.await(TIMEOUT_SEC, TimeUnit.SECONDS)).isTrue();
+        scheduler.periodically(TimeUnit.HOURS.toMillis(1));
+        // The first schedule continues
+        int numRunsAfterSecondSchedule = numRuns.get();
+        Thread.sleep(QUIET_PERIOD_MS);
+        assertThat(numRuns.get()).isGreaterThan(numRunsAfterSecondSchedule);
+
+        // stop cancels both schedules
+        scheduler.stop();
+        Thread.sleep(QUIET_PERIOD_MS);
+        int numRunsAfterStop = numRuns.get();
+        Thread.sleep(QUIET_PERIOD_MS);
+        assertThat(numRuns).hasValue(numRunsAfterStop);
+    }
+
+    @Test
+    void runsOfSeveralSchedulesDoNotOverlap() throws InterruptedException {
+        AtomicInteger numConcurrentRuns = new AtomicInteger();
+        AtomicInteger maxConcurrentRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+        Scheduler scheduler = Scheduler.run(() -> {
+            maxConcurrentRuns.accumulateAndGet(numConcurrentRuns.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(PERIOD_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            numConcurrentRuns.decrementAndGet();
+            done.countDown();
+        }).periodically(1).periodically(1);
+
+        assertThat(done.await(TIMEOUT_SEC, TimeUnit.SECONDS)).isTrue();
+        scheduler.stop();
+        assertThat(maxConcurrentRuns).hasValue(1);
+    }
+
+    @Test
+    void cyclesAreCountedOverAllSchedules() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(4);
+        Scheduler scheduler = Scheduler.run(() -> {
+            numRuns.incrementAndGet();
+            done.countDown();
+        }).periodically(PERIOD_MS).repeated(PERIOD_MS, 4);
+
+        assertThat(done.await(TIMEOUT_SEC, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(QUIET_PERIOD_MS);
+        // Only runs of the schedule with 4 cycles stop the Scheduler, so if the 4th run was one of the periodic
+        // schedule, the Scheduler stops after the next run
+        assertThat(numRuns.get()).isBetween(4, 5);
+        int numRunsAfterStop = numRuns.get();
+        Thread.sleep(QUIET_PERIOD_MS);
+        assertThat(numRuns).hasValue(numRunsAfterStop);
+    }
+
+    @Test
+    void taskIsNotRunAgainAfterException() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        Scheduler.run(() -> {
+            numRuns.incrementAndGet();
+            done.countDown();
+            throw new RuntimeException("Test exception");
+        }).periodically(PERIOD_MS);
+
+        assertThat(done.await(TIMEOUT_SEC, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(QUIET_PERIOD_MS);
+        assertThat(numRuns).hasValue(1);
+    }
+}
@@ -21,7 +21,7 @@ import bisq.common.observable.Observable;
 import bisq.common.observable.Pin;
 import bisq.common.observable.ReadOnlyObservable;
 import bisq.common.observable.collection.ObservableArray;
-import bisq.common.observable.collection.ObservableSet;
+import bisq.common.observable.collection.ReadOnlyObservableSet;
 import bisq.desktop.common.threading.UIThread;
 import javafx.beans.property.*;
 import javafx.beans.value.ChangeListener;
@@ -96,7 +96,7 @@ public class FxBindings {
         }
 
         // We support currently only JavaFX ObservableList even if the source is a set.
-        public Pin to(ObservableSet<S> observable) {
+        public Pin to(ReadOnlyObservableSet<S> observable) {
             return observable.addCollectionChangeMapper(observableList, mapFunction, UIThread::run);
         }
 
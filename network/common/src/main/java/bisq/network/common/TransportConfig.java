@@ -23,4 +23,12 @@ public interface TransportConfig {
     Path getDataDir();
 
     int getSocketTimeout();
+
+    /**
+     * If enabled, connections are served by a few selector threads over non-blocking socket channels instead of
+     * one blocked thread per connection. Not supported by all transports.
+     */
+    default boolean isSelectorTransportEnabled() {
+        return false;
+    }
 }
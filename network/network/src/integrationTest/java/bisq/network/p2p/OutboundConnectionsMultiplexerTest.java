@@ -22,6 +22,7 @@ import bisq.common.util.NetworkUtils;
 import bisq.network.p2p.node.*;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.transport.Transport;
+import bisq.network.p2p.node.transport.socketchannel.ClearNetSocketChannelFactory;
 import bisq.network.p2p.services.peergroup.BanList;
 import bisq.persistence.PersistenceService;
 import bisq.security.SecurityService;
@@ -30,6 +31,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.spi.SelectorProvider;
@@ -58,12 +61,16 @@ public class OutboundConnectionsMultiplexerTest {
 
         Address serverAddress = Address.localHost(NetworkUtils.findFreeSystemPort());
         Capability serverCapability = new Capability(serverAddress, supportedTransportTypes);
+        ServerSocket serverSocket = ServerSocketChannel.open().socket();
+        serverSocket.bind(new InetSocketAddress(serverAddress.getPort()));
         ServerChannel serverChannel = new ServerChannel(
                 serverCapability,
+                new Transport.ServerSocketResult("server", serverSocket, serverAddress),
                 mock(BanList.class),
                 createAuthorizationService(),
+                (int) TimeUnit.SECONDS.toMillis(30),
                 mock(Node.class),
-                ServerSocketChannel.open()
+                (connection, exception) -> log.error("Error: ", exception)
         );
 
         var countDownLatch = new CountDownLatch(1);
@@ -86,15 +93,17 @@ public class OutboundConnectionsMultiplexerTest {
                 var outboundConnectionManager = new OutboundConnectionManager(
                         authorizationService,
                         mock(BanList.class),
-                        Load.INITIAL_LOAD,
                         outboundCapability,
+                        new ClearNetSocketChannelFactory(),
+                        (int) TimeUnit.SECONDS.toMillis(30),
                         mock(Node.class),
+                        (connection, exception) -> log.error("Error: ", exception),
                         selector
                 );
                 var connectionMultiplexer = new OutboundConnectionMultiplexer(outboundConnectionManager);
                 connectionMultiplexer.start();
 
-                CompletableFuture<OutboundConnectionChannel> connection = connectionMultiplexer.getConnection(serverAddress);
+                CompletableFuture<OutboundConnection> connection = connectionMultiplexer.getConnection(serverAddress, Load.INITIAL_LOAD);
                 return connection.get(1, TimeUnit.MINUTES);
 
 
@@ -107,8 +116,8 @@ public class OutboundConnectionsMultiplexerTest {
         var thread = new Thread(futureTask);
         thread.start();
 
-        OutboundConnectionChannel outboundConnectionChannel = futureTask.get(30, TimeUnit.SECONDS);
-        assertThat(outboundConnectionChannel).isNotNull();
+        OutboundConnection outboundConnection = futureTask.get(30, TimeUnit.SECONDS);
+        assertThat(outboundConnection).isNotNull();
     }
 
     private AuthorizationService createAuthorizationService() throws IOException {
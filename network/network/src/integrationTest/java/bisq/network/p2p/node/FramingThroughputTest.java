@@ -0,0 +1,141 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.message.NetworkMessage;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.security.pow.ProofOfWork;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the loopback throughput of the previous framing (toByteArray plus a copy into a freshly allocated heap
+ * buffer per envelope) with the framing of NetworkEnvelopeSocketChannel.send (serialized into pooled direct buffers).
+ * Both sides use blocking channels and the same receiver, so the difference is caused by the send path only.
+ */
+@Slf4j
+public class FramingThroughputTest {
+    private static final int TOTAL_BYTES_PER_RUN = 256 * 1024 * 1024;
+    private static final int[] PAYLOAD_SIZES = {1024, 64 * 1024, 1024 * 1024};
+    private static final int NUM_WARMUP_RUNS = 2;
+
+    @Test
+    void test_compareThroughputOfHeapAndPooledFraming() throws Exception {
+        for (int payloadSize : PAYLOAD_SIZES) {
+            NetworkEnvelope envelope = createEnvelope(payloadSize);
+            int numMessages = TOTAL_BYTES_PER_RUN / payloadSize;
+            for (int i = 0; i < NUM_WARMUP_RUNS; i++) {
+                measure(envelope, numMessages, FramingThroughputTest::sendWithHeapBuffer);
+                measure(envelope, numMessages, NetworkEnvelopeSocketChannel::send);
+            }
+
+            long heapFramingNanos = measure(envelope, numMessages, FramingThroughputTest::sendWithHeapBuffer);
+            long pooledFramingNanos = measure(envelope, numMessages, NetworkEnvelopeSocketChannel::send);
+            log.info("Payload size {} bytes, {} messages: heap buffer framing {} MB/s, pooled buffer framing {} MB/s",
+                    payloadSize, numMessages,
+                    toMegaBytesPerSecond(heapFramingNanos), toMegaBytesPerSecond(pooledFramingNanos));
+        }
+    }
+
+    private static long measure(NetworkEnvelope envelope, int numMessages, Sender sender) throws Exception {
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open()) {
+            serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (NetworkEnvelopeSocketChannel senderChannel = new NetworkEnvelopeSocketChannel(
+                    SocketChannel.open(serverSocketChannel.getLocalAddress()));
+                 NetworkEnvelopeSocketChannel receiverChannel = new NetworkEnvelopeSocketChannel(serverSocketChannel.accept())) {
+
+                CompletableFuture<Integer> receiveFuture = CompletableFuture.supplyAsync(() -> {
+                    int numReceived = 0;
+                    try {
+                        while (numReceived < numMessages) {
+                            numReceived += receiverChannel.receiveNetworkEnvelopeBytes().size();
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return numReceived;
+                });
+
+                long ts = System.nanoTime();
+                for (int i = 0; i < numMessages; i++) {
+                    sender.send(senderChannel, envelope);
+                }
+                assertEquals(numMessages, receiveFuture.get(2, TimeUnit.MINUTES));
+                return System.nanoTime() - ts;
+            }
+        }
+    }
+
+    // The framing used by NetworkEnvelopeSocketChannel.send before the pooled buffers got introduced
+    private static int sendWithHeapBuffer(NetworkEnvelopeSocketChannel channel, NetworkEnvelope envelope) throws IOException {
+        byte[] protoInBytes = envelope.toProto().toByteArray();
+        int messageLength = protoInBytes.length;
+
+        ByteBuffer byteBuffer = ByteBuffer.allocate(messageLength + 10);
+        ProtoBufMessageLengthWriter.writeToBuffer(messageLength, byteBuffer);
+        byteBuffer.put(protoInBytes);
+        byteBuffer.flip();
+
+        SocketChannel socketChannel = channel.getSocketChannel();
+        while (byteBuffer.hasRemaining()) {
+            socketChannel.write(byteBuffer);
+        }
+        return messageLength;
+    }
+
+    private static long toMegaBytesPerSecond(long nanos) {
+        return TOTAL_BYTES_PER_RUN * TimeUnit.SECONDS.toNanos(1) / nanos / (1024 * 1024);
+    }
+
+    private static NetworkEnvelope createEnvelope(int payloadSize) {
+        byte[] payload = new byte[payloadSize];
+        new Random(1).nextBytes(payload);
+        ProofOfWork proofOfWork = new ProofOfWork(new byte[]{0}, null, 0, new byte[]{0});
+        NetworkMessage networkMessage = new NetworkMessage() {
+            @Override
+            public bisq.network.protobuf.NetworkMessage toProto() {
+                return getNetworkMessageBuilder().setExternalNetworkMessage(
+                                bisq.network.protobuf.ExternalNetworkMessage.newBuilder()
+                                        .setAny(Any.newBuilder()
+                                                .setTypeUrl("test")
+                                                .setValue(ByteString.copyFrom(payload))))
+                        .build();
+            }
+        };
+        return new NetworkEnvelope(NetworkEnvelope.VERSION, new AuthorizationToken(proofOfWork, 0), networkMessage);
+    }
+
+    private interface Sender {
+        int send(NetworkEnvelopeSocketChannel channel, NetworkEnvelope envelope) throws IOException;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.common.util.NetworkUtils;
+import bisq.network.common.TransportConfig;
+import bisq.network.p2p.BaseNetworkTest;
+import bisq.network.p2p.message.NetworkMessage;
+import bisq.network.p2p.node.transport.Transport;
+import bisq.network.p2p.services.peergroup.BanList;
+import bisq.network.p2p.services.peergroup.keepalive.Ping;
+import bisq.network.p2p.services.peergroup.keepalive.Pong;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Connects many clients to one seed node with the selector transport and checks that no read thread is started
+ * per connection.
+ */
+@Slf4j
+public class SelectorTransportLoadTest extends BaseNetworkTest {
+    private static final int NUM_CLIENTS = 500;
+    private static final String SEED_NODE_ID = "seed";
+
+    @Test
+    void test_manyClientsPingSeedNode() throws InterruptedException {
+        NodesById nodesById = new NodesById(new BanList(), getConfig(Transport.Type.CLEAR));
+        nodesById.initialize(SEED_NODE_ID, NetworkUtils.findFreeSystemPort());
+        Address seedAddress = nodesById.findMyAddress(SEED_NODE_ID).orElseThrow();
+        for (int i = 0; i < NUM_CLIENTS; i++) {
+            nodesById.initialize("client_" + i, NetworkUtils.findFreeSystemPort());
+        }
+        int threadCountBeforeConnecting = Thread.activeCount();
+
+        Map<Integer, Long> sendTimeByNonce = new ConcurrentHashMap<>();
+        AtomicLong totalLatency = new AtomicLong();
+        AtomicLong maxLatency = new AtomicLong();
+        CountDownLatch receivedPongLatch = new CountDownLatch(NUM_CLIENTS);
+        nodesById.addNodeListener(new Node.Listener() {
+            @Override
+            public void onMessage(NetworkMessage networkMessage, Connection connection, String nodeId) {
+                if (networkMessage instanceof Ping) {
+                    nodesById.send(nodeId, new Pong(((Ping) networkMessage).getNonce()), connection);
+                } else if (networkMessage instanceof Pong) {
+                    Long sendTime = sendTimeByNonce.remove(((Pong) networkMessage).getRequestNonce());
+                    if (sendTime != null) {
+                        long latency = System.currentTimeMillis() - sendTime;
+                        totalLatency.addAndGet(latency);
+                        maxLatency.accumulateAndGet(latency, Math::max);
+                        receivedPongLatch.countDown();
+                    }
+                }
+            }
+
+            @Override
+            public void onConnection(Connection connection) {
+            }
+
+            @Override
+            public void onDisconnect(Connection connection, CloseReason closeReason) {
+            }
+        });
+
+        long ts = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        for (int i = 0; i < NUM_CLIENTS; i++) {
+            String nodeId = "client_" + i;
+            int nonce = i;
+            executor.submit(() -> {
+                sendTimeByNonce.put(nonce, System.currentTimeMillis());
+                nodesById.send(nodeId, new Ping(nonce), seedAddress);
+            });
+        }
+        assertTrue(receivedPongLatch.await(getTimeout(), TimeUnit.SECONDS));
+        executor.shutdownNow();
+
+        long numReadThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("Connection.read-"))
+                .count();
+        log.info("{} clients received pong after {} ms. Average latency: {} ms, max latency: {} ms. " +
+                        "Threads before connecting: {}, after: {}, connection read threads: {}",
+                NUM_CLIENTS, System.currentTimeMillis() - ts, totalLatency.get() / NUM_CLIENTS, maxLatency.get(),
+                threadCountBeforeConnecting, Thread.activeCount(), numReadThreads);
+        assertEquals(0, numReadThreads);
+
+        nodesById.shutdown().join();
+    }
+
+    @Override
+    protected TransportConfig getTransportConfig(Path dataDir) {
+        return new TransportConfig() {
+            @Override
+            public Path getDataDir() {
+                return dataDir;
+            }
+
+            @Override
+            public int getSocketTimeout() {
+                return 600;
+            }
+
+            @Override
+            public boolean isSelectorTransportEnabled() {
+                return true;
+            }
+        };
+    }
+
+    @Override
+    protected long getTimeout() {
+        return 120;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network;
+
+import bisq.network.p2p.ServiceNode;
+import bisq.network.p2p.node.*;
+import bisq.network.p2p.node.transport.Transport;
+import bisq.network.p2p.services.peergroup.PeerGroupService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the metrics of the network layer as flat map. The keys follow the Prometheus naming scheme with labels
+ * (e.g. bisq_connections{transport="clear",direction="inbound"}), so the map can be exposed in the Prometheus text
+ * format or as JSON.
+ */
+public class NetworkMetricsCollector {
+    private final NetworkService networkService;
+
+    public NetworkMetricsCollector(NetworkService networkService) {
+        this.networkService = networkService;
+    }
+
+    public Map<String, Number> collect() {
+        Map<String, Number> metrics = new TreeMap<>();
+        networkService.getServiceNodesByTransport().getMap().forEach((transportType, serviceNode) ->
+                collectNodeMetrics(metrics, transportType, serviceNode));
+        networkService.getDataService().ifPresent(dataService ->
+                dataService.getStorageService().getNumEntriesByStoreKey().forEach((storeKey, numEntries) ->
+                        metrics.put("bisq_storage_entries{store=\"" + storeKey + "\"}", numEntries)));
+        collectInboundPipelineMetrics(metrics);
+        collectTrafficMetrics(metrics);
+        return metrics;
+    }
+
+    private void collectNodeMetrics(Map<String, Number> metrics, Transport.Type transportType, ServiceNode serviceNode) {
+        String transport = "transport=\"" + transportType.name().toLowerCase() + "\"";
+        List<Connection> connections = serviceNode.getNodesById().getAllNodes().stream()
+                .flatMap(Node::getAllConnections)
+                .collect(Collectors.toList());
+        long numInbound = connections.stream().filter(connection -> !connection.isOutboundConnection()).count();
+        metrics.put("bisq_nodes{" + transport + "}", serviceNode.getNodesById().getAllNodes().size());
+        metrics.put("bisq_connections{" + transport + ",direction=\"inbound\"}", numInbound);
+        metrics.put("bisq_connections{" + transport + ",direction=\"outbound\"}", connections.size() - numInbound);
+        metrics.put("bisq_connection_sent_bytes{" + transport + "}",
+                connections.stream().mapToLong(connection -> connection.getMetrics().getSentBytes().get()).sum());
+        metrics.put("bisq_connection_received_bytes{" + transport + "}",
+                connections.stream().mapToLong(connection -> connection.getMetrics().getReceivedBytes().get()).sum());
+        List<DuplicateBroadcastFilter> duplicateBroadcastFilters = serviceNode.getNodesById().getAllNodes().stream()
+                .map(Node::getDuplicateBroadcastFilter)
+                .collect(Collectors.toList());
+        metrics.put("bisq_duplicate_broadcasts_dropped_total{" + transport + "}",
+                duplicateBroadcastFilters.stream().mapToLong(filter -> filter.getNumDroppedMessages().get()).sum());
+        metrics.put("bisq_duplicate_broadcasts_dropped_bytes_total{" + transport + "}",
+                duplicateBroadcastFilters.stream().mapToLong(filter -> filter.getNumDroppedBytes().get()).sum());
+
+        serviceNode.getPeerGroupService().map(PeerGroupService::getPeerGroup).ifPresent(peerGroup -> {
+            metrics.put("bisq_peer_group_connected_peers{" + transport + "}", peerGroup.getNumConnections());
+            metrics.put("bisq_peer_group_reported_peers{" + transport + "}", peerGroup.getReportedPeers().size());
+            metrics.put("bisq_peer_group_target_connected_peers{" + transport + "}", peerGroup.getTargetNumConnectedPeers());
+        });
+    }
+
+    private void collectInboundPipelineMetrics(Map<String, Number> metrics) {
+        InboundPipelineMetrics pipelineMetrics = NetworkService.INBOUND_PIPELINE_METRICS;
+        metrics.put("bisq_authorization_queue_size", pipelineMetrics.getAuthorizationQueueSize().get());
+        metrics.put("bisq_authorization_latency_avg_ms", pipelineMetrics.getAverageAuthorizationLatency());
+        metrics.put("bisq_authorization_latency_max_ms", pipelineMetrics.getMaxAuthorizationLatency().get());
+        metrics.put("bisq_dispatch_queue_size", pipelineMetrics.getDispatchQueueSize().get());
+        metrics.put("bisq_dispatch_latency_avg_ms", pipelineMetrics.getAverageDispatchLatency());
+        metrics.put("bisq_dispatch_latency_max_ms", pipelineMetrics.getMaxDispatchLatency().get());
+    }
+
+    private void collectTrafficMetrics(Map<String, Number> metrics) {
+        TrafficMetrics trafficMetrics = NetworkService.TRAFFIC_METRICS;
+        putHistogram(metrics, "bisq_rtt_ms", "", trafficMetrics.getRttHistogram());
+        trafficMetrics.getMetricsByMessageType().forEach((messageType, typeMetrics) -> {
+            String type = "type=\"" + messageType + "\"";
+            metrics.put("bisq_messages_sent_total{" + type + "}", typeMetrics.getNumMessagesSent().get());
+            metrics.put("bisq_messages_received_total{" + type + "}", typeMetrics.getNumMessagesReceived().get());
+            metrics.put("bisq_messages_sent_bytes_total{" + type + "}", typeMetrics.getSentBytes().get());
+            metrics.put("bisq_messages_received_bytes_total{" + type + "}", typeMetrics.getReceivedBytes().get());
+            putHistogram(metrics, "bisq_sent_message_size_bytes", type, typeMetrics.getSentMessageSizeHistogram());
+            putHistogram(metrics, "bisq_received_message_size_bytes", type, typeMetrics.getReceivedMessageSizeHistogram());
+        });
+    }
+
+    private void putHistogram(Map<String, Number> metrics, String name, String labels, Histogram histogram) {
+        String separator = labels.isEmpty() ? "" : ",";
+        metrics.put(name + "{" + labels + separator + "quantile=\"0.5\"}", histogram.getValueAtPercentile(50));
+        metrics.put(name + "{" + labels + separator + "quantile=\"0.99\"}", histogram.getValueAtPercentile(99));
+        metrics.put(name + "{" + labels + separator + "quantile=\"1\"}", histogram.getMax());
+        String suffixLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+        metrics.put(name + "_count" + suffixLabels, histogram.getCount());
+        metrics.put(name + "_sum" + suffixLabels, histogram.getSum());
+    }
+}
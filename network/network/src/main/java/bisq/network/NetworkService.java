@@ -30,7 +30,9 @@ import bisq.network.p2p.ServiceNodesByTransport;
 import bisq.network.p2p.message.NetworkMessage;
 import bisq.network.p2p.node.Address;
 import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.InboundPipelineMetrics;
 import bisq.network.p2p.node.Node;
+import bisq.network.p2p.node.TrafficMetrics;
 import bisq.network.p2p.node.transport.Transport;
 import bisq.network.p2p.services.confidential.ConfidentialMessageListener;
 import bisq.network.p2p.services.confidential.ConfidentialMessageService;
@@ -80,6 +82,11 @@ import static java.util.concurrent.CompletableFuture.*;
 public class NetworkService implements PersistenceClient<NetworkServiceStore>, Service {
     public static final ExecutorService NETWORK_IO_POOL = ExecutorFactory.newCachedThreadPool("NetworkService.network-IO-pool");
     public static final ExecutorService DISPATCHER = ExecutorFactory.newSingleThreadExecutor("NetworkService.dispatcher");
+    // Inbound messages get authorized on that pool before they are dispatched to the listeners on the DISPATCHER.
+    // Each connection uses a sequential executor on top of it to keep the order of its messages.
+    public static final ExecutorService AUTHORIZATION_POOL = ExecutorFactory.newFixedThreadPool("NetworkService.authorization-pool");
+    public static final InboundPipelineMetrics INBOUND_PIPELINE_METRICS = new InboundPipelineMetrics();
+    public static final TrafficMetrics TRAFFIC_METRICS = new TrafficMetrics();
 
     public static class SendMessageResult extends HashMap<Transport.Type, ConfidentialMessageService.Result> {
         public SendMessageResult() {
@@ -105,7 +112,7 @@ public class NetworkService implements PersistenceClient<NetworkServiceStore>, S
         httpService = new HttpService();
 
         boolean supportsDataService = config.getServiceNodeConfig().getServices().contains(ServiceNode.Service.DATA);
-        dataService = supportsDataService ? Optional.of(new DataService(new StorageService(persistenceService))) : Optional.empty();
+        dataService = supportsDataService ? Optional.of(new DataService(new StorageService(persistenceService, config.isUseOffHeapDataStore()))) : Optional.empty();
 
         socks5ProxyAddress = config.getSocks5ProxyAddress();
         supportedTransportTypes = config.getSupportedTransportTypes();
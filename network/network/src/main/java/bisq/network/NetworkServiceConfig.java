@@ -92,6 +92,7 @@ public final class NetworkServiceConfig {
 
         Map<Transport.Type, TransportConfig> configByTransportType = createConfigByTransportType(config, baseDir);
 
+        boolean useOffHeapDataStore = config.hasPath("useOffHeapDataStore") && config.getBoolean("useOffHeapDataStore");
 
         return new NetworkServiceConfig(baseDir.toAbsolutePath().toString(),
                 supportedTransportTypes,
@@ -100,6 +101,7 @@ public final class NetworkServiceConfig {
                 peerGroupServiceConfigByTransport,
                 defaultNodePortByTransportType,
                 seedAddressesByTransport,
+                useOffHeapDataStore,
                 Optional.empty());
     }
 
@@ -176,6 +178,7 @@ public final class NetworkServiceConfig {
     private final Map<Transport.Type, PeerGroupService.Config> peerGroupServiceConfigByTransport;
     private final Map<Transport.Type, Integer> defaultNodePortByTransportType;
     private final Map<Transport.Type, Set<Address>> seedAddressesByTransport;
+    private final boolean useOffHeapDataStore;
     private final Optional<String> socks5ProxyAddress;
 
     public NetworkServiceConfig(String baseDir,
@@ -185,6 +188,7 @@ public final class NetworkServiceConfig {
                                 Map<Transport.Type, PeerGroupService.Config> peerGroupServiceConfigByTransport,
                                 Map<Transport.Type, Integer> defaultNodePortByTransportType,
                                 Map<Transport.Type, Set<Address>> seedAddressesByTransport,
+                                boolean useOffHeapDataStore,
                                 Optional<String> socks5ProxyAddress) {
         this.baseDir = baseDir;
         this.supportedTransportTypes = supportedTransportTypes;
@@ -193,6 +197,7 @@ public final class NetworkServiceConfig {
         this.peerGroupServiceConfigByTransport = filterMap(supportedTransportTypes, peerGroupServiceConfigByTransport);
         this.defaultNodePortByTransportType = filterMap(supportedTransportTypes, defaultNodePortByTransportType);
         this.seedAddressesByTransport = filterMap(supportedTransportTypes, seedAddressesByTransport);
+        this.useOffHeapDataStore = useOffHeapDataStore;
         this.socks5ProxyAddress = socks5ProxyAddress;
     }
 
@@ -26,7 +26,6 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -53,7 +52,7 @@ public class ConnectionHandshakeInitiator {
                 Load.INITIAL_LOAD,
                 peerAddress.getFullAddress(),
                 0);
-        return new NetworkEnvelope(NetworkEnvelope.VERSION, token, request);
+        return new NetworkEnvelope(NetworkEnvelope.VERSION, token, request, Feature.SUPPORTED_FEATURES);
     }
 
     public ConnectionHandshake.Response finish(List<NetworkEnvelope> responseNetworkEnvelopes) {
@@ -83,7 +82,6 @@ public class ConnectionHandshakeInitiator {
         boolean isAuthorized = authorizationService.isAuthorized(response,
                 responseNetworkEnvelope.getAuthorizationToken(),
                 myLoad,
-                UUID.randomUUID().toString(),
                 myAddress);
 
         if (isAuthorized) {
@@ -18,12 +18,16 @@
 package bisq.network.p2p.message;
 
 import bisq.common.proto.Proto;
+import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * Outside data structure to be sent over the wire.
  */
@@ -33,15 +37,29 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class NetworkEnvelope implements Proto {
     public static final int VERSION = 1;
+    // Max. size of a serialized envelope we accept at the selector based transport. Peers announcing a larger envelope
+    // get disconnected before we allocate the memory for it. The blocking transport does not apply it, as peers
+    // which do not cap their inventory responses at Inventory.MAX_SIZE might still send larger envelopes.
+    public static final int MAX_SIZE = 50 * 1024 * 1024;
 
     private final int version;
     private final AuthorizationToken authorizationToken;
     private final NetworkMessage networkMessage;
+    // Features of the sender. Only set at the handshake envelopes.
+    private final Set<Feature> features;
 
     public NetworkEnvelope(int version, AuthorizationToken authorizationToken, NetworkMessage networkMessage) {
+        this(version, authorizationToken, networkMessage, Set.of());
+    }
+
+    public NetworkEnvelope(int version,
+                           AuthorizationToken authorizationToken,
+                           NetworkMessage networkMessage,
+                           Set<Feature> features) {
         this.version = version;
         this.authorizationToken = authorizationToken;
         this.networkMessage = networkMessage;
+        this.features = features;
     }
 
     public bisq.network.protobuf.NetworkEnvelope toProto() {
@@ -49,12 +67,17 @@ public final class NetworkEnvelope implements Proto {
                 .setVersion(version)
                 .setAuthorizationToken(authorizationToken.toProto())
                 .setNetworkMessage(networkMessage.toProto())
+                .addAllFeatures(features.stream()
+                        .map(Enum::name)
+                        .sorted()
+                        .collect(Collectors.toList()))
                 .build();
     }
 
     public static NetworkEnvelope fromProto(bisq.network.protobuf.NetworkEnvelope proto) {
         return new NetworkEnvelope(proto.getVersion(),
                 AuthorizationToken.fromProto(proto.getAuthorizationToken()),
-                NetworkMessage.fromProto(proto.getNetworkMessage()));
+                NetworkMessage.fromProto(proto.getNetworkMessage()),
+                Feature.fromNames(proto.getFeaturesList()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct buffers used for writing to socket channels. Direct buffers avoid that the JDK copies the data into
+ * a temporary direct buffer at each write, but they are expensive to allocate, so we reuse them.
+ * <p>
+ * Buffers come in size classes from MIN_BUFFER_SIZE to MAX_BUFFER_SIZE, each 4 times the previous one, so that
+ * small frames do not occupy a buffer of the max. size. Each size class keeps at most MAX_POOLED_BYTES_PER_CLASS.
+ * Requests larger than MAX_BUFFER_SIZE get a heap buffer which is not pooled, so callers split larger frames over
+ * several buffers of MAX_BUFFER_SIZE.
+ */
+class ByteBufferPool {
+    static final ByteBufferPool INSTANCE = new ByteBufferPool();
+
+    static final int MIN_BUFFER_SIZE = 1024;
+    static final int MAX_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BYTES_PER_CLASS = 4 * 1024 * 1024;
+
+    private static final class SizeClass {
+        private final int bufferSize;
+        private final int maxPoolSize;
+        private final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger poolSize = new AtomicInteger();
+
+        private SizeClass(int bufferSize) {
+            this.bufferSize = bufferSize;
+            this.maxPoolSize = MAX_POOLED_BYTES_PER_CLASS / bufferSize;
+        }
+    }
+
+    private final SizeClass[] sizeClasses;
+
+    ByteBufferPool() {
+        int numSizeClasses = 0;
+        for (int size = MIN_BUFFER_SIZE; size <= MAX_BUFFER_SIZE; size *= 4) {
+            numSizeClasses++;
+        }
+        sizeClasses = new SizeClass[numSizeClasses];
+        for (int i = 0, size = MIN_BUFFER_SIZE; i < numSizeClasses; i++, size *= 4) {
+            sizeClasses[i] = new SizeClass(size);
+        }
+    }
+
+    /**
+     * @return A buffer with at least the given capacity. Its capacity can be larger than the requested size.
+     */
+    ByteBuffer acquire(int size) {
+        SizeClass sizeClass = findSizeClass(size);
+        if (sizeClass == null) {
+            return ByteBuffer.allocate(size);
+        }
+        ByteBuffer buffer = sizeClass.pool.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(sizeClass.bufferSize);
+        }
+        sizeClass.poolSize.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            return;
+        }
+        SizeClass sizeClass = findSizeClass(buffer.capacity());
+        if (sizeClass == null || sizeClass.bufferSize != buffer.capacity()) {
+            return;
+        }
+        if (sizeClass.poolSize.incrementAndGet() <= sizeClass.maxPoolSize) {
+            sizeClass.pool.offer(buffer);
+        } else {
+            sizeClass.poolSize.decrementAndGet();
+        }
+    }
+
+    // Returns null if the size exceeds MAX_BUFFER_SIZE
+    private SizeClass findSizeClass(int size) {
+        for (SizeClass sizeClass : sizeClasses) {
+            if (size <= sizeClass.bufferSize) {
+                return sizeClass;
+            }
+        }
+        return null;
+    }
+}
@@ -17,11 +17,14 @@
 
 package bisq.network.p2p.node;
 
+import bisq.common.data.ByteArray;
 import bisq.common.util.StringUtils;
 import bisq.network.NetworkService;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.message.NetworkMessage;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.node.authorization.ReplayWindow;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,8 +32,10 @@ import javax.annotation.Nullable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.net.Socket;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
@@ -39,6 +44,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Represents an inbound or outbound connection to a peer node.
+ * Either backed by a blocking socket with a dedicated read thread, or by a non-blocking socket channel which is
+ * read by the selector thread of the PeerConnectionsManager.
  * Listens for messages from the peer.
  * Send messages to the peer.
  * Notifies messageListeners on new received messages.
@@ -47,9 +54,17 @@ import static com.google.common.base.Preconditions.checkNotNull;
 @Slf4j
 public abstract class Connection {
     interface Handler {
-        void handleNetworkMessage(NetworkMessage networkMessage, AuthorizationToken authorizationToken, Connection connection);
+        /**
+         * Called on the authorization pool. Messages of one connection are handled sequentially in the order they
+         * have been received.
+         *
+         * @return True if the message passed authorization.
+         */
+        boolean handleNetworkMessage(NetworkMessage networkMessage, AuthorizationToken authorizationToken, Connection connection);
 
         void handleConnectionClosed(Connection connection, CloseReason closeReason);
+
+        DuplicateBroadcastFilter getDuplicateBroadcastFilter();
     }
 
     public interface Listener {
@@ -62,14 +77,21 @@ public abstract class Connection {
     protected final String id = StringUtils.createUid();
     @Getter
     private final Capability peersCapability;
+    // Features the peer has announced at the handshake
+    @Getter
+    private final Set<Feature> peersFeatures;
     @Getter
     private final Load peersLoad;
     @Getter
     private final Metrics metrics;
 
+    @Nullable
     private NetworkEnvelopeSocket networkEnvelopeSocket;
+    @Nullable
+    private final NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel;
 
     private final Handler handler;
+    private final BiConsumer<Connection, Exception> errorHandler;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     @Nullable
     private Future<?> future;
@@ -79,18 +101,26 @@ public abstract class Connection {
     private volatile boolean listeningStopped;
     @Getter
     private final AtomicInteger sentMessageCounter = new AtomicInteger(0);
+    // Message counters received from the peer
+    @Getter
+    private final ReplayWindow replayWindow = new ReplayWindow();
     private final Object writeLock = new Object();
+    private final Executor inboundExecutor = MoreExecutors.newSequentialExecutor(NetworkService.AUTHORIZATION_POOL);
 
     protected Connection(Socket socket,
                          Capability peersCapability,
+                         Set<Feature> peersFeatures,
                          Load peersLoad,
                          Metrics metrics,
                          Handler handler,
                          BiConsumer<Connection, Exception> errorHandler) {
         this.peersCapability = peersCapability;
+        this.peersFeatures = peersFeatures;
         this.peersLoad = peersLoad;
         this.handler = handler;
+        this.errorHandler = errorHandler;
         this.metrics = metrics;
+        this.networkEnvelopeSocketChannel = null;
 
         try {
             this.networkEnvelopeSocket = new NetworkEnvelopeSocket(socket);
@@ -105,38 +135,71 @@ public abstract class Connection {
             Thread.currentThread().setName("Connection.read-" + getThreadNameId());
             try {
                 while (isInputStreamActive()) {
-                    var proto = networkEnvelopeSocket.receiveNextEnvelope();
-                    // parsing might need some time wo we check again if connection is still active
-                    if (isInputStreamActive()) {
-                        checkNotNull(proto, "Proto from NetworkEnvelope.parseDelimitedFrom(inputStream) must not be null");
-                        NetworkEnvelope networkEnvelope = NetworkEnvelope.fromProto(proto);
-                        if (networkEnvelope.getVersion() != NetworkEnvelope.VERSION) {
-                            throw new ConnectionException("Invalid network version. " +
-                                    networkEnvelope.getClass().getSimpleName());
-                        }
-                        NetworkMessage networkMessage = networkEnvelope.getNetworkMessage();
-                        log.debug("Received message: {} at: {}",
-                                StringUtils.truncate(networkMessage.toString(), 200), this);
-                        metrics.onReceived(networkEnvelope);
-                        NetworkService.DISPATCHER.submit(() -> handler.handleNetworkMessage(networkMessage,
-                                networkEnvelope.getAuthorizationToken(),
-                                this));
-                    }
+                    byte[] envelopeBytes = networkEnvelopeSocket.receiveNextEnvelopeBytes();
+                    checkNotNull(envelopeBytes, "Envelope bytes must not be null");
+                    handleEnvelopeBytes(envelopeBytes);
                 }
             } catch (Exception exception) {
-                //todo StreamCorruptedException from i2p at shutdown. prob it send some text data at shut down
-                if (isInputStreamActive()) {
-                    log.debug("Call shutdown from startListen read handler {} due exception={}", this, exception.toString());
-                    close(CloseReason.EXCEPTION.exception(exception));
-                    // EOFException expected if connection got closed
-                    if (!(exception instanceof EOFException)) {
-                        errorHandler.accept(this, exception);
-                    }
-                }
+                handleReadException(exception);
             }
         });
     }
 
+    protected Connection(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                         Capability peersCapability,
+                         Set<Feature> peersFeatures,
+                         Load peersLoad,
+                         Metrics metrics,
+                         Handler handler,
+                         BiConsumer<Connection, Exception> errorHandler) {
+        this.peersCapability = peersCapability;
+        this.peersFeatures = peersFeatures;
+        this.peersLoad = peersLoad;
+        this.handler = handler;
+        this.errorHandler = errorHandler;
+        this.metrics = metrics;
+        this.networkEnvelopeSocketChannel = networkEnvelopeSocketChannel;
+    }
+
+    /**
+     * Called by the selector thread if the socket channel is readable. Must not block.
+     */
+    void onReadable() {
+        checkNotNull(networkEnvelopeSocketChannel, "onReadable must only be called at channel based connections");
+        try {
+            for (byte[] envelopeBytes : networkEnvelopeSocketChannel.receiveNetworkEnvelopeBytes()) {
+                if (!isInputStreamActive()) {
+                    return;
+                }
+                handleEnvelopeBytes(envelopeBytes);
+            }
+        } catch (Exception exception) {
+            handleReadException(exception);
+        }
+    }
+
+    /**
+     * Called by the selector thread if the socket channel is writable again after a send could not complete.
+     */
+    void onWritable() {
+        checkNotNull(networkEnvelopeSocketChannel, "onWritable must only be called at channel based connections");
+        try {
+            networkEnvelopeSocketChannel.flushPendingWrites();
+        } catch (IOException exception) {
+            if (!isStopped) {
+                log.debug("Call shutdown from onWritable {} due exception={}", this, exception.toString());
+                close(CloseReason.EXCEPTION.exception(exception));
+            }
+        }
+    }
+
+    /**
+     * Handles a message which got read together with the handshake response, before the connection existed.
+     */
+    void onNetworkEnvelopeBytesReceived(byte[] envelopeBytes) {
+        handleEnvelopeBytes(envelopeBytes);
+    }
+
     Connection send(NetworkMessage networkMessage, AuthorizationToken authorizationToken) {
         if (isStopped) {
             log.warn("Message not sent as connection has been shut down already. Message={}, Connection={}",
@@ -146,9 +209,15 @@ public abstract class Connection {
         try {
             NetworkEnvelope networkEnvelope = new NetworkEnvelope(NetworkEnvelope.VERSION, authorizationToken, networkMessage);
             boolean sent = false;
+            int numBytes = 0;
             synchronized (writeLock) {
                 try {
-                    networkEnvelopeSocket.send(networkEnvelope);
+                    if (networkEnvelopeSocketChannel != null) {
+                        // Does not block. If the channel cannot take all data, the rest gets written by the selector thread.
+                        numBytes = networkEnvelopeSocketChannel.send(networkEnvelope);
+                    } else {
+                        numBytes = checkNotNull(networkEnvelopeSocket, "networkEnvelopeSocket must not be null").send(networkEnvelope);
+                    }
                     sent = true;
                 } catch (Throwable throwable) {
                     if (!isStopped) {
@@ -157,7 +226,7 @@ public abstract class Connection {
                 }
             }
             if (sent) {
-                metrics.onSent(networkEnvelope);
+                metrics.onSent(networkEnvelope, numBytes);
                 if (networkMessage instanceof CloseConnectionMessage) {
                     log.info("Sent {} from {}",
                             StringUtils.truncate(networkMessage.toString(), 300), this);
@@ -193,7 +262,11 @@ public abstract class Connection {
             future.cancel(true);
         }
         try {
-            networkEnvelopeSocket.close();
+            if (networkEnvelopeSocketChannel != null) {
+                networkEnvelopeSocketChannel.close();
+            } else if (networkEnvelopeSocket != null) {
+                networkEnvelopeSocket.close();
+            }
         } catch (IOException ignore) {
         }
         NetworkService.DISPATCHER.submit(() -> {
@@ -240,10 +313,65 @@ public abstract class Connection {
     @Override
     public String toString() {
         return "'" + getClass().getSimpleName() + " [peerAddress=" + getPeersCapability().getAddress() +
-                ", socket=" + networkEnvelopeSocket +
+                ", socket=" + (networkEnvelopeSocketChannel != null ? networkEnvelopeSocketChannel : networkEnvelopeSocket) +
                 ", keyId=" + getId() + "]'";
     }
 
+    // At channel based connections we are called on the selector thread, so we only do the duplicate check here and
+    // parse the envelope on the authorization pool. Envelopes of one connection are handled sequentially in the
+    // order they have been received.
+    private void handleEnvelopeBytes(byte[] envelopeBytes) {
+        // We drop a broadcast we have received already from another peer before parsing it
+        Optional<ByteArray> dataRequestHash = DuplicateBroadcastFilter.getDataRequestHash(envelopeBytes);
+        DuplicateBroadcastFilter duplicateBroadcastFilter = handler.getDuplicateBroadcastFilter();
+        if (dataRequestHash.isPresent() && duplicateBroadcastFilter.isDuplicate(dataRequestHash.get())) {
+            duplicateBroadcastFilter.onDropped(envelopeBytes.length);
+            return;
+        }
+
+        long queued = System.currentTimeMillis();
+        NetworkService.INBOUND_PIPELINE_METRICS.onAuthorizationQueued();
+        inboundExecutor.execute(() -> {
+            NetworkService.INBOUND_PIPELINE_METRICS.onAuthorizationStarted(System.currentTimeMillis() - queued);
+            try {
+                var proto = bisq.network.protobuf.NetworkEnvelope.parseFrom(envelopeBytes);
+                // parsing might need some time wo we check again if connection is still active
+                if (isInputStreamActive()) {
+                    handleNetworkEnvelope(NetworkEnvelope.fromProto(proto), dataRequestHash, envelopeBytes.length);
+                }
+            } catch (Exception exception) {
+                handleReadException(exception);
+            }
+        });
+    }
+
+    private void handleNetworkEnvelope(NetworkEnvelope networkEnvelope, Optional<ByteArray> dataRequestHash, int numBytes) {
+        if (networkEnvelope.getVersion() != NetworkEnvelope.VERSION) {
+            throw new ConnectionException("Invalid network version. " +
+                    networkEnvelope.getClass().getSimpleName());
+        }
+        NetworkMessage networkMessage = networkEnvelope.getNetworkMessage();
+        log.debug("Received message: {} at: {}",
+                StringUtils.truncate(networkMessage.toString(), 200), this);
+        metrics.onReceived(networkEnvelope, numBytes);
+        boolean isAuthorized = handler.handleNetworkMessage(networkMessage, networkEnvelope.getAuthorizationToken(), this);
+        if (isAuthorized) {
+            dataRequestHash.ifPresent(handler.getDuplicateBroadcastFilter()::add);
+        }
+    }
+
+    private void handleReadException(Exception exception) {
+        //todo StreamCorruptedException from i2p at shutdown. prob it send some text data at shut down
+        if (isInputStreamActive()) {
+            log.debug("Call shutdown from startListen read handler {} due exception={}", this, exception.toString());
+            close(CloseReason.EXCEPTION.exception(exception));
+            // EOFException expected if connection got closed
+            if (!(exception instanceof EOFException)) {
+                errorHandler.accept(this, exception);
+            }
+        }
+    }
+
     private String getThreadNameId() {
         return StringUtils.truncate(getPeersCapability().getAddress().toString() + "-" + id.substring(0, 8));
     }
@@ -30,7 +30,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.net.Socket;
-import java.util.UUID;
+import java.util.Set;
 
 /**
  * At initial connection we exchange capabilities and require a valid AuthorizationToken (e.g. PoW).
@@ -108,11 +108,13 @@ public final class ConnectionHandshake {
         private final Capability capability;
         private final Load load;
         private final Metrics metrics;
+        private final Set<Feature> features;
 
-        Result(Capability capability, Load load, Metrics metrics) {
+        Result(Capability capability, Load load, Metrics metrics, Set<Feature> features) {
             this.capability = capability;
             this.load = load;
             this.metrics = metrics;
+            this.features = features;
         }
     }
 
@@ -145,11 +147,11 @@ public final class ConnectionHandshake {
                     Load.INITIAL_LOAD,
                     peerAddress.getFullAddress(),
                     0);
-            NetworkEnvelope requestNetworkEnvelope = new NetworkEnvelope(NetworkEnvelope.VERSION, token, request);
+            NetworkEnvelope requestNetworkEnvelope = new NetworkEnvelope(NetworkEnvelope.VERSION, token, request, Feature.SUPPORTED_FEATURES);
             long ts = System.currentTimeMillis();
 
-            networkEnvelopeSocket.send(requestNetworkEnvelope);
-            metrics.onSent(requestNetworkEnvelope);
+            int numBytesSent = networkEnvelopeSocket.send(requestNetworkEnvelope);
+            metrics.onSent(requestNetworkEnvelope, numBytesSent);
 
             bisq.network.protobuf.NetworkEnvelope responseProto = networkEnvelopeSocket.receiveNextEnvelope();
             if (responseProto == null) {
@@ -174,17 +176,16 @@ public final class ConnectionHandshake {
             boolean isAuthorized = authorizationService.isAuthorized(response,
                     responseNetworkEnvelope.getAuthorizationToken(),
                     myLoad,
-                    UUID.randomUUID().toString(),
                     myAddress);
 
             if (!isAuthorized) {
                 throw new ConnectionException("Request authorization failed. request=" + request);
             }
 
-            metrics.onReceived(responseNetworkEnvelope);
+            metrics.onReceived(responseNetworkEnvelope, responseProto.getSerializedSize());
             metrics.addRtt(System.currentTimeMillis() - ts);
             log.debug("Servers capability {}, load={}", response.getCapability(), response.getLoad());
-            return new Result(response.getCapability(), response.getLoad(), metrics);
+            return new Result(response.getCapability(), response.getLoad(), metrics, responseNetworkEnvelope.getFeatures());
         } catch (Exception e) {
             try {
                 networkEnvelopeSocket.close();
@@ -227,23 +228,22 @@ public final class ConnectionHandshake {
             boolean isAuthorized = authorizationService.isAuthorized(request,
                     requestNetworkEnvelope.getAuthorizationToken(),
                     Load.INITIAL_LOAD,
-                    UUID.randomUUID().toString(),
                     myAddress);
             if (!isAuthorized) {
                 throw new ConnectionException("Request authorization failed. request=" + request);
             }
 
             log.debug("Clients capability {}, load={}", request.getCapability(), request.getLoad());
-            metrics.onReceived(requestNetworkEnvelope);
+            metrics.onReceived(requestNetworkEnvelope, requestProto.getSerializedSize());
 
             Response response = new Response(capability, myLoad);
             AuthorizationToken token = authorizationService.createToken(response, request.getLoad(), peerAddress.getFullAddress(), 0);
-            NetworkEnvelope responseNetworkEnvelope = new NetworkEnvelope(NetworkEnvelope.VERSION, token, response);
-            networkEnvelopeSocket.send(responseNetworkEnvelope);
+            NetworkEnvelope responseNetworkEnvelope = new NetworkEnvelope(NetworkEnvelope.VERSION, token, response, Feature.SUPPORTED_FEATURES);
+            int numBytesSent = networkEnvelopeSocket.send(responseNetworkEnvelope);
 
-            metrics.onSent(responseNetworkEnvelope);
+            metrics.onSent(responseNetworkEnvelope, numBytesSent);
             metrics.addRtt(System.currentTimeMillis() - ts);
-            return new Result(request.getCapability(), request.getLoad(), metrics);
+            return new Result(request.getCapability(), request.getLoad(), metrics, requestNetworkEnvelope.getFeatures());
         } catch (Exception e) {
             try {
                 networkEnvelopeSocket.close();
@@ -26,7 +26,6 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.UUID;
 
 @Slf4j
 public class ConnectionHandshakeResponder {
@@ -47,7 +46,13 @@ public class ConnectionHandshakeResponder {
     }
 
     public Pair<ConnectionHandshake.Request, NetworkEnvelope> verifyAndBuildRespond() throws IOException {
-        List<NetworkEnvelope> requestEnvelopes = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
+        return verifyAndBuildRespond(networkEnvelopeSocketChannel.receiveNetworkEnvelopes());
+    }
+
+    /**
+     * Used if the request envelopes have been received by a selector thread already.
+     */
+    public Pair<ConnectionHandshake.Request, NetworkEnvelope> verifyAndBuildRespond(List<NetworkEnvelope> requestEnvelopes) {
         validateRequestEnvelopes(requestEnvelopes);
 
         NetworkEnvelope requestProto = requestEnvelopes.get(0);
@@ -81,7 +86,6 @@ public class ConnectionHandshakeResponder {
                 request,
                 requestNetworkEnvelope.getAuthorizationToken(),
                 Load.INITIAL_LOAD,
-                UUID.randomUUID().toString(),
                 myAddress
         );
 
@@ -111,7 +115,7 @@ public class ConnectionHandshakeResponder {
     private NetworkEnvelope createResponseEnvelope(Load myLoad, Load peerLoad, Address peerAddress) {
         ConnectionHandshake.Response response = new ConnectionHandshake.Response(capability, myLoad);
         AuthorizationToken token = authorizationService.createToken(response, peerLoad, peerAddress.getFullAddress(), 0);
-        return new NetworkEnvelope(NetworkEnvelope.VERSION, token, response);
+        return new NetworkEnvelope(NetworkEnvelope.VERSION, token, response, Feature.SUPPORTED_FEATURES);
     }
 
     private void validateEnvelopeVersion(NetworkEnvelope requestNetworkEnvelope) {
@@ -0,0 +1,138 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.common.data.ByteArray;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drops DataRequests we have received already from another peer before we parse the envelope. The same broadcast
+ * arrives from many peers, but only the authorization token of the envelope differs, so we use the hash of the
+ * serialized NetworkMessage as key. We read it from the raw envelope bytes without parsing them.
+ * <p>
+ * A hash is only added once the message passed authorization. Otherwise, a peer could send a copy with an invalid
+ * token first to get the valid copies dropped.
+ * <p>
+ * Memory is bounded by keeping two generations of hashes. The current generation becomes the previous one once it
+ * is full or older than the generation duration.
+ */
+@Slf4j
+public class DuplicateBroadcastFilter {
+    private static final long GENERATION_DURATION = 5 * 60 * 1000;
+    private static final int MAX_GENERATION_SIZE = 50_000;
+
+    private static final int NETWORK_MESSAGE_FIELD_NUMBER = bisq.network.protobuf.NetworkEnvelope.NETWORKMESSAGE_FIELD_NUMBER;
+    private static final int DATA_REQUEST_TAG = WireFormat.makeTag(bisq.network.protobuf.NetworkMessage.DATAREQUEST_FIELD_NUMBER,
+            WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private final long generationDuration;
+    private final int maxGenerationSize;
+    private volatile Set<ByteArray> current = ConcurrentHashMap.newKeySet();
+    private volatile Set<ByteArray> previous = ConcurrentHashMap.newKeySet();
+    private volatile long generationStart = System.currentTimeMillis();
+    @Getter
+    private final AtomicLong numDroppedMessages = new AtomicLong();
+    @Getter
+    private final AtomicLong numDroppedBytes = new AtomicLong();
+
+    public DuplicateBroadcastFilter() {
+        this(GENERATION_DURATION, MAX_GENERATION_SIZE);
+    }
+
+    @VisibleForTesting
+    DuplicateBroadcastFilter(long generationDuration, int maxGenerationSize) {
+        this.generationDuration = generationDuration;
+        this.maxGenerationSize = maxGenerationSize;
+    }
+
+    /**
+     * @return The hash of the NetworkMessage if the serialized envelope contains a DataRequest.
+     */
+    public static Optional<ByteArray> getDataRequestHash(byte[] envelopeBytes) {
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(envelopeBytes);
+            while (!input.isAtEnd()) {
+                int tag = input.readTag();
+                if (WireFormat.getTagFieldNumber(tag) == NETWORK_MESSAGE_FIELD_NUMBER &&
+                        WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                    int length = input.readRawVarint32();
+                    int offset = input.getTotalBytesRead();
+                    if (length <= 0 || offset + length > envelopeBytes.length) {
+                        return Optional.empty();
+                    }
+                    // The DataRequest is the only field of the NetworkMessage and its tag fits into one byte
+                    if (envelopeBytes[offset] != DATA_REQUEST_TAG) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(new ByteArray(Hashing.sha256().hashBytes(envelopeBytes, offset, length).asBytes()));
+                } else if (!input.skipField(tag)) {
+                    return Optional.empty();
+                }
+            }
+        } catch (IOException e) {
+            // Malformed data will be reported when the envelope gets parsed
+        }
+        return Optional.empty();
+    }
+
+    public boolean isDuplicate(ByteArray hash) {
+        return current.contains(hash) || previous.contains(hash);
+    }
+
+    public void onDropped(int numBytes) {
+        long numDropped = numDroppedMessages.incrementAndGet();
+        numDroppedBytes.addAndGet(numBytes);
+        if (numDropped % 1000 == 0) {
+            log.info("Dropped {} duplicate broadcast messages with {} bytes in total", numDropped, numDroppedBytes.get());
+        }
+    }
+
+    public void add(ByteArray hash) {
+        maybeStartNewGeneration();
+        current.add(hash);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void maybeStartNewGeneration() {
+        if (current.size() < maxGenerationSize && System.currentTimeMillis() - generationStart < generationDuration) {
+            return;
+        }
+        synchronized (this) {
+            if (current.size() >= maxGenerationSize || System.currentTimeMillis() - generationStart >= generationDuration) {
+                previous = current;
+                current = ConcurrentHashMap.newKeySet();
+                generationStart = System.currentTimeMillis();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import com.google.common.base.Enums;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Optional protocol features a node supports. They are announced in the envelopes of the connection handshake.
+ * The features are not part of the handshake messages, as older nodes would drop the unknown field and then fail
+ * the proof of work check of the re-serialized message. Old nodes ignore the unknown envelope field.
+ * We only use a feature at a connection if the peer has announced it.
+ */
+public enum Feature {
+    // The peer accepts a bloom filter in the DataFilter of an InventoryRequest
+    INVENTORY_BLOOM_FILTER,
+    // The peer accepts a proof of work for a DataRequest which is bound to the message instead of to the peer
+    // address and message counter. See AuthorizationService.createToken.
+    BROADCAST_PROOF_OF_WORK;
+
+    public static final Set<Feature> SUPPORTED_FEATURES = Set.of(INVENTORY_BLOOM_FILTER, BROADCAST_PROOF_OF_WORK);
+
+    // Features announced by newer nodes which we do not know are ignored
+    public static Set<Feature> fromNames(Collection<String> names) {
+        return names.stream()
+                .map(name -> Enums.getIfPresent(Feature.class, name).orNull())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+}
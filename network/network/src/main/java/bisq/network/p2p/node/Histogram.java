@@ -0,0 +1,120 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values with a fixed memory footprint (similar to HdrHistogram).
+ * Values below 16 get their own bucket. Above, each power of 2 is split into 8 buckets, so the values of a bucket
+ * differ by at most 12.5%. Values above 2^40 are counted in the last bucket.
+ * Recording is lock-free, so it can be called from the network threads.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int NUM_SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_LINEAR_BUCKETS = 2 * NUM_SUB_BUCKETS;
+    private static final int MAX_EXPONENT = 40;
+    // One more bucket for the values above 2^MAX_EXPONENT
+    private static final int NUM_BUCKETS = NUM_LINEAR_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * NUM_SUB_BUCKETS + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        long nonNegative = Math.max(0, value);
+        counts.incrementAndGet(getBucketIndex(nonNegative));
+        count.incrementAndGet();
+        sum.addAndGet(nonNegative);
+        max.accumulateAndGet(nonNegative, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long num = count.get();
+        return num == 0 ? 0 : sum.get() / (double) num;
+    }
+
+    /**
+     * @param percentile Value between 0 and 100.
+     * @return The highest value of the bucket containing the percentile, but at most the max recorded value.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long num = count.get();
+        if (num == 0) {
+            return 0;
+        }
+        long targetCount = Math.max(1, (long) Math.ceil(num * Math.min(100, percentile) / 100));
+        long accumulated = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            accumulated += counts.get(i);
+            if (accumulated >= targetCount) {
+                return Math.min(getHighestValueOfBucket(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int getBucketIndex(long value) {
+        if (value < NUM_LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return NUM_BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (NUM_SUB_BUCKETS - 1);
+        return NUM_LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * NUM_SUB_BUCKETS + subBucket;
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{count=" + getCount() +
+                ", mean=" + getMean() +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", max=" + getMax() + "}";
+    }
+
+    static long getHighestValueOfBucket(int index) {
+        if (index < NUM_LINEAR_BUCKETS) {
+            return index;
+        }
+        if (index == NUM_BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int exponent = (index - NUM_LINEAR_BUCKETS) / NUM_SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (index - NUM_LINEAR_BUCKETS) % NUM_SUB_BUCKETS;
+        long bucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * bucketWidth - 1;
+    }
+}
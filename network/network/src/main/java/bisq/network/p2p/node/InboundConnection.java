@@ -23,6 +23,7 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.net.Socket;
+import java.util.Set;
 import java.util.function.BiConsumer;
 
 @Slf4j
@@ -36,11 +37,25 @@ public class InboundConnection extends Connection {
     InboundConnection(Socket socket,
                       Transport.ServerSocketResult serverSocketResult,
                       Capability peersCapability,
+                      Set<Feature> peersFeatures,
                       Load peersLoad,
                       Metrics metrics,
                       Handler handler,
                       BiConsumer<Connection, Exception> errorHandler) {
-        super(socket, peersCapability, peersLoad, metrics, handler, errorHandler);
+        super(socket, peersCapability, peersFeatures, peersLoad, metrics, handler, errorHandler);
+        this.serverSocketResult = serverSocketResult;
+        log.debug("Create inboundConnection from server: {}", serverSocketResult);
+    }
+
+    InboundConnection(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                      Transport.ServerSocketResult serverSocketResult,
+                      Capability peersCapability,
+                      Set<Feature> peersFeatures,
+                      Load peersLoad,
+                      Metrics metrics,
+                      Handler handler,
+                      BiConsumer<Connection, Exception> errorHandler) {
+        super(networkEnvelopeSocketChannel, peersCapability, peersFeatures, peersLoad, metrics, handler, errorHandler);
         this.serverSocketResult = serverSocketResult;
         log.debug("Create inboundConnection from server: {}", serverSocketResult);
     }
@@ -18,48 +18,62 @@
 package bisq.network.p2p.node;
 
 import bisq.common.data.Pair;
+import bisq.network.NetworkService;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.network.p2p.node.transport.Transport;
 import bisq.network.p2p.services.peergroup.BanList;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.nio.channels.*;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
+/**
+ * Accepts inbound connections and serves them on the selector thread of the ServerChannel. The handle methods are
+ * called from that thread and must not block.
+ */
 @Slf4j
 public class InboundConnectionsManager {
 
     private final BanList banList;
     private final Capability myCapability;
     private final AuthorizationService authorizationService;
+    private final Transport.ServerSocketResult serverSocketResult;
 
     private final ServerSocketChannel serverSocketChannel;
+    private final int handshakeTimeout;
     private final Selector selector;
     private final Node node;
-    private final List<SocketChannel> inboundHandshakeChannels = new CopyOnWriteArrayList<>();
-    private final List<SocketChannel> verifiedConnections = new CopyOnWriteArrayList<>();
-    private final Map<SocketChannel, InboundConnectionChannel> connectionByChannel = new ConcurrentHashMap<>();
-    private final Map<Address, InboundConnectionChannel> connectionByAddress = new ConcurrentHashMap<>();
-    private final Map<SocketChannel, NetworkEnvelopeSocketChannel> networkEnvelopeChannelBySocketChannel = new ConcurrentHashMap<>();
+    private final BiConsumer<Connection, Exception> errorHandler;
+    private final Map<SocketChannel, NetworkEnvelopeSocketChannel> handshakeChannelBySocketChannel = new ConcurrentHashMap<>();
+    private final Map<SocketChannel, InboundConnection> connectionByChannel = new ConcurrentHashMap<>();
 
     public InboundConnectionsManager(BanList banList,
                                      Capability myCapability,
                                      AuthorizationService authorizationService,
+                                     Transport.ServerSocketResult serverSocketResult,
                                      ServerSocketChannel serverSocketChannel,
+                                     int handshakeTimeout,
                                      Selector selector,
-                                     Node node) {
+                                     Node node,
+                                     BiConsumer<Connection, Exception> errorHandler) {
         this.banList = banList;
         this.myCapability = myCapability;
         this.authorizationService = authorizationService;
+        this.serverSocketResult = serverSocketResult;
         this.serverSocketChannel = serverSocketChannel;
+        this.handshakeTimeout = handshakeTimeout;
         this.selector = selector;
         this.node = node;
+        this.errorHandler = errorHandler;
     }
 
     public void registerOpAccept() {
@@ -78,12 +92,26 @@ public class InboundConnectionsManager {
         try {
             ServerSocketChannel nextReadySocketChannel = (ServerSocketChannel) selectionKey.channel();
             newConnectionSocketChannel = nextReadySocketChannel.accept();
+            if (newConnectionSocketChannel == null) {
+                return;
+            }
             log.info("Accepted new inbound connection with peer: {}", newConnectionSocketChannel.getRemoteAddress());
 
             newConnectionSocketChannel.configureBlocking(false);
-            newConnectionSocketChannel.register(selector, SelectionKey.OP_READ);
+            SelectionKey newSelectionKey = newConnectionSocketChannel.register(selector, SelectionKey.OP_READ);
+
+            NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(newConnectionSocketChannel);
+            networkEnvelopeSocketChannel.setSelectionKey(newSelectionKey);
+            handshakeChannelBySocketChannel.put(newConnectionSocketChannel, networkEnvelopeSocketChannel);
 
-            inboundHandshakeChannels.add(newConnectionSocketChannel);
+            // A peer which never completes its handshake request would keep the channel open forever
+            SocketChannel socketChannel = newConnectionSocketChannel;
+            CompletableFuture.runAsync(() -> {
+                if (handshakeChannelBySocketChannel.remove(socketChannel, networkEnvelopeSocketChannel)) {
+                    log.warn("Inbound handshake timed out after {} ms", handshakeTimeout);
+                    closeChannel(networkEnvelopeSocketChannel);
+                }
+            }, CompletableFuture.delayedExecutor(handshakeTimeout, TimeUnit.MILLISECONDS));
         } catch (IOException e) {
             log.warn("Cannot accept new connection", e);
             try {
@@ -96,120 +124,113 @@ public class InboundConnectionsManager {
         }
     }
 
-    public void handleInboundConnection(SocketChannel socketChannel) {
-        if (inboundHandshakeChannels.contains(socketChannel)) {
-            NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(socketChannel);
-            networkEnvelopeChannelBySocketChannel.put(socketChannel, networkEnvelopeSocketChannel);
-
-            log.debug("Inbound handshake request at: {}", myCapability.getAddress());
-            Optional<InboundConnectionChannel> inboundConnectionOptional = performHandshake(networkEnvelopeSocketChannel);
-
-            if (inboundConnectionOptional.isPresent()) {
-                InboundConnectionChannel inboundConnection = inboundConnectionOptional.get();
-                Address peerAddress = inboundConnection.getPeerAddress();
-                log.debug("Inbound handshake completed: Initiated by {} to {}",
-                        peerAddress, myCapability.getAddress());
-
-                if (isAlreadyConnectedToPeer(peerAddress)) {
-                    log.warn("Node {} have already an InboundConnection from {}. This can happen when a " + "handshake was in progress while we received a new connection from that address. " + "We will close the socket of that new connection and use the existing instead.", this, peerAddress);
-                    closeChannel(networkEnvelopeSocketChannel);
-                } else {
-                    connectionByChannel.put(socketChannel, inboundConnection);
-                    connectionByAddress.put(peerAddress, inboundConnection);
-                    verifiedConnections.add(socketChannel);
-
-                    log.info("Calling node.onNewIncomingConnection for peer {}", peerAddress.getFullAddress());
-                    node.onNewIncomingConnection(inboundConnection);
-                }
-
-            } else {
-                closeChannel(networkEnvelopeSocketChannel);
-            }
-
-            inboundHandshakeChannels.remove(socketChannel);
+    public void handleReadableChannel(SocketChannel socketChannel) {
+        InboundConnection connection = connectionByChannel.get(socketChannel);
+        if (connection != null) {
+            connection.onReadable();
+            return;
+        }
 
-        } else if (verifiedConnections.contains(socketChannel)) {
-            InboundConnectionChannel inboundConnection = connectionByChannel.get(socketChannel);
-            Address peerAddress = inboundConnection.getPeerAddress();
+        NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = handshakeChannelBySocketChannel.get(socketChannel);
+        if (networkEnvelopeSocketChannel == null) {
+            return;
+        }
+        List<byte[]> requestEnvelopeBytesList;
+        try {
+            requestEnvelopeBytesList = networkEnvelopeSocketChannel.receiveNetworkEnvelopeBytes();
+        } catch (Exception e) {
+            log.warn("Couldn't receive handshake request", e);
+            handshakeChannelBySocketChannel.remove(socketChannel);
+            closeChannel(networkEnvelopeSocketChannel);
+            return;
+        }
+        if (requestEnvelopeBytesList.isEmpty()) {
+            // Request not complete yet
+            return;
+        }
 
-            NetworkEnvelopeSocketChannel networkEnvelopeChannel = networkEnvelopeChannelBySocketChannel.get(socketChannel);
-            try {
-                List<NetworkEnvelope> networkEnvelopes = networkEnvelopeChannel.receiveNetworkEnvelopes();
-                log.debug("Received {} messages from peer {}.", networkEnvelopes.size(), peerAddress.getFullAddress());
-
-                networkEnvelopes.forEach(networkEnvelope -> node.handleNetworkMessage(
-                        networkEnvelope.getNetworkMessage(),
-                        networkEnvelope.getAuthorizationToken(),
-                        inboundConnection
-                ));
-            } catch (IOException e) {
-                log.error("Couldn't receive messages from socketChannel", e);
-            }
+        // Verifying the PoW of the request and creating the PoW for the response is too expensive for the selector
+        // thread. We stop reading from the channel until the handshake is completed.
+        if (!handshakeChannelBySocketChannel.remove(socketChannel, networkEnvelopeSocketChannel)) {
+            // Handshake timed out in the meantime
+            return;
         }
+        socketChannel.keyFor(selector).interestOps(0);
+        NetworkService.NETWORK_IO_POOL.submit(() -> completeHandshake(socketChannel, networkEnvelopeSocketChannel, requestEnvelopeBytesList));
     }
 
-    public boolean isInboundConnection(SocketChannel socketChannel) {
-        return inboundHandshakeChannels.contains(socketChannel) || verifiedConnections.contains(socketChannel);
+    public void handleWritableChannel(SocketChannel socketChannel) {
+        InboundConnection connection = connectionByChannel.get(socketChannel);
+        if (connection != null) {
+            connection.onWritable();
+        }
     }
 
-    public Optional<InboundConnectionChannel> getConnectionByAddress(Address address) {
-        InboundConnectionChannel inboundConnection = connectionByAddress.get(address);
-        return Optional.ofNullable(inboundConnection);
+    public void onConnectionClosed(Connection connection) {
+        connectionByChannel.values().remove(connection);
     }
 
-    public Collection<InboundConnectionChannel> getAllInboundConnections() {
-        return connectionByAddress.values();
+    public Collection<InboundConnection> getAllInboundConnections() {
+        return connectionByChannel.values();
     }
 
-    private Optional<InboundConnectionChannel> performHandshake(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel) {
+    private void completeHandshake(SocketChannel socketChannel,
+                                   NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                                   List<byte[]> requestEnvelopeBytesList) {
         try {
+            List<NetworkEnvelope> requestEnvelopes = new ArrayList<>();
+            for (byte[] envelopeBytes : requestEnvelopeBytesList) {
+                requestEnvelopes.add(NetworkEnvelope.fromProto(bisq.network.protobuf.NetworkEnvelope.parseFrom(envelopeBytes)));
+            }
+
+            log.debug("Inbound handshake request at: {}", myCapability.getAddress());
             var handshakeResponder = new ConnectionHandshakeResponder(
                     banList,
                     myCapability,
                     authorizationService,
                     networkEnvelopeSocketChannel
             );
-            Pair<ConnectionHandshake.Request, NetworkEnvelope>
-                    requestAndResponseNetworkEnvelopes = handshakeResponder.verifyAndBuildRespond();
+            Pair<ConnectionHandshake.Request, NetworkEnvelope> requestAndResponseNetworkEnvelopes =
+                    handshakeResponder.verifyAndBuildRespond(requestEnvelopes);
 
             ConnectionHandshake.Request handshakeRequest = requestAndResponseNetworkEnvelopes.getFirst();
             Address peerAddress = handshakeRequest.getCapability().getAddress();
+            Metrics metrics = new Metrics();
+            metrics.onReceived(requestEnvelopes.get(0), requestEnvelopeBytesList.get(0).length);
+            InboundConnection connection = new InboundConnection(networkEnvelopeSocketChannel,
+                    serverSocketResult,
+                    handshakeRequest.getCapability(),
+                    requestEnvelopes.get(0).getFeatures(),
+                    handshakeRequest.getLoad(),
+                    metrics,
+                    node,
+                    errorHandler);
+            connectionByChannel.put(socketChannel, connection);
 
             log.debug("Sending PoW response to peer {}", peerAddress.getFullAddress());
-            bisq.network.p2p.message.NetworkEnvelope responseEnvelope = requestAndResponseNetworkEnvelopes.getSecond();
-            try {
-                networkEnvelopeSocketChannel.send(responseEnvelope);
-            } catch (IOException e) {
-                log.warn("Couldn't send PoW response to peer {}", peerAddress.getFullAddress(), e);
-                throw e;
+            NetworkEnvelope responseEnvelope = requestAndResponseNetworkEnvelopes.getSecond();
+            int numBytesSent = networkEnvelopeSocketChannel.send(responseEnvelope);
+            metrics.onSent(responseEnvelope, numBytesSent);
+            log.debug("Inbound handshake completed: Initiated by {} to {}", peerAddress, myCapability.getAddress());
+
+            // We notify the node before we read the first message, so listeners get the connection before its messages
+            node.onNewIncomingConnection(connection);
+            if (connection.isRunning()) {
+                SelectionKey selectionKey = socketChannel.keyFor(selector);
+                selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_READ);
+                selector.wakeup();
             }
-
-            return Optional.of(
-                    new InboundConnectionChannel(
-                            handshakeRequest.getCapability(),
-                            handshakeRequest.getLoad(),
-                            networkEnvelopeSocketChannel,
-                            new Metrics()
-                    )
-            );
-        } catch (ConnectionException e) {
-            log.warn("Peer failed PoW challenge.", e);
-        } catch (IOException e) {
-            log.warn("Handshake failed with peer: ", e);
+        } catch (Exception e) {
+            log.warn("Inbound handshake failed", e);
+            connectionByChannel.remove(socketChannel);
+            closeChannel(networkEnvelopeSocketChannel);
         }
-
-        return Optional.empty();
-    }
-
-    private boolean isAlreadyConnectedToPeer(Address peerAddress) {
-        return connectionByAddress.containsKey(peerAddress);
     }
 
     private void closeChannel(NetworkEnvelopeSocketChannel networkEnvelopeSocket) {
         try {
             networkEnvelopeSocket.close();
-        } catch (IOException e) {
-            // ignored
+        } catch (IOException ignore) {
         }
     }
 }
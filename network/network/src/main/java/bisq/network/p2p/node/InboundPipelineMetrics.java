@@ -0,0 +1,75 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue sizes and latencies of the stages of the inbound message pipeline: Messages get authorized on the
+ * authorization pool (in order per connection) and then dispatched to the listeners on the dispatcher thread.
+ * The latency of a stage is the time a message waited in the queue of that stage.
+ */
+@Getter
+@ToString
+public class InboundPipelineMetrics {
+    private final AtomicInteger authorizationQueueSize = new AtomicInteger();
+    private final AtomicLong numAuthorized = new AtomicLong();
+    private final AtomicLong totalAuthorizationLatency = new AtomicLong();
+    private final AtomicLong maxAuthorizationLatency = new AtomicLong();
+
+    private final AtomicInteger dispatchQueueSize = new AtomicInteger();
+    private final AtomicLong numDispatched = new AtomicLong();
+    private final AtomicLong totalDispatchLatency = new AtomicLong();
+    private final AtomicLong maxDispatchLatency = new AtomicLong();
+
+    void onAuthorizationQueued() {
+        authorizationQueueSize.incrementAndGet();
+    }
+
+    void onAuthorizationStarted(long latency) {
+        authorizationQueueSize.decrementAndGet();
+        numAuthorized.incrementAndGet();
+        totalAuthorizationLatency.addAndGet(latency);
+        maxAuthorizationLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    void onDispatchQueued() {
+        dispatchQueueSize.incrementAndGet();
+    }
+
+    void onDispatchStarted(long latency) {
+        dispatchQueueSize.decrementAndGet();
+        numDispatched.incrementAndGet();
+        totalDispatchLatency.addAndGet(latency);
+        maxDispatchLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    public double getAverageAuthorizationLatency() {
+        long num = numAuthorized.get();
+        return num == 0 ? 0 : totalAuthorizationLatency.get() / (double) num;
+    }
+
+    public double getAverageDispatchLatency() {
+        long num = numDispatched.get();
+        return num == 0 ? 0 : totalDispatchLatency.get() / (double) num;
+    }
+}
@@ -17,15 +17,20 @@
 
 package bisq.network.p2p.node;
 
+import bisq.network.NetworkService;
 import bisq.network.p2p.message.NetworkEnvelope;
 import lombok.Getter;
 import lombok.ToString;
 
 import java.util.Date;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Traffic metrics of a connection. The byte counts are provided by the framing layer, so we do not need to serialize
+ * the envelope again. The data is also added to the node-wide TrafficMetrics.
+ */
 @Getter
 @ToString
 public class Metrics {
@@ -35,7 +40,9 @@ public class Metrics {
     private final AtomicLong receivedBytes = new AtomicLong();
     private final AtomicLong numMessagesSent = new AtomicLong();
     private final AtomicLong numMessagesReceived = new AtomicLong();
-    private final List<Long> rrtList = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicLong> numMessagesSentByMessageType = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> numMessagesReceivedByMessageType = new ConcurrentHashMap<>();
+    private final Histogram rttHistogram = new Histogram();
 
     public Metrics() {
         created = new Date().getTime();
@@ -49,23 +56,40 @@ public class Metrics {
         return System.currentTimeMillis() - created;
     }
 
-    public void onSent(NetworkEnvelope networkEnvelope) {
+    /**
+     * @param numBytes The size of the serialized envelope as written by the framing layer.
+     */
+    public void onSent(NetworkEnvelope networkEnvelope, int numBytes) {
         lastUpdate.set(System.currentTimeMillis());
-        sentBytes.addAndGet(networkEnvelope.toProto().getSerializedSize());
+        sentBytes.addAndGet(numBytes);
         numMessagesSent.incrementAndGet();
+        String messageType = getMessageType(networkEnvelope);
+        numMessagesSentByMessageType.computeIfAbsent(messageType, key -> new AtomicLong()).incrementAndGet();
+        NetworkService.TRAFFIC_METRICS.onSent(messageType, numBytes);
     }
 
-    public void onReceived(NetworkEnvelope networkEnvelope) {
+    /**
+     * @param numBytes The size of the serialized envelope as read by the framing layer.
+     */
+    public void onReceived(NetworkEnvelope networkEnvelope, int numBytes) {
         lastUpdate.set(System.currentTimeMillis());
-        receivedBytes.addAndGet(networkEnvelope.toProto().getSerializedSize());
+        receivedBytes.addAndGet(numBytes);
         numMessagesReceived.incrementAndGet();
+        String messageType = getMessageType(networkEnvelope);
+        numMessagesReceivedByMessageType.computeIfAbsent(messageType, key -> new AtomicLong()).incrementAndGet();
+        NetworkService.TRAFFIC_METRICS.onReceived(messageType, numBytes);
     }
 
     public void addRtt(long value) {
-        this.rrtList.add(value);
+        rttHistogram.record(value);
+        NetworkService.TRAFFIC_METRICS.onRtt(value);
     }
 
     public double getAverageRtt() {
-        return rrtList.stream().mapToLong(e -> e).average().orElse(0d);
+        return rttHistogram.getMean();
+    }
+
+    private static String getMessageType(NetworkEnvelope networkEnvelope) {
+        return networkEnvelope.getNetworkMessage().getClass().getSimpleName();
     }
-}
\ No newline at end of file
+}
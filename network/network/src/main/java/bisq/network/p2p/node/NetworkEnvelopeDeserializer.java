@@ -27,20 +27,28 @@ import java.util.*;
 @Slf4j
 public class NetworkEnvelopeDeserializer {
 
-    private final ByteBuffer byteBuffer;
+    private ByteBuffer byteBuffer;
     private final ProtoBufMessageLengthParser messageLengthParser;
     private boolean parsingMessage = false;
     private long currentMessageLength = 0;
     private int parsedMessageLength = 0;
     private byte[] currentProtobufMessage;
 
-    private final Queue<bisq.network.p2p.message.NetworkEnvelope> parsedNetworkEnvelopes = new LinkedList<>();
+    private final Queue<byte[]> completedMessages = new LinkedList<>();
 
     public NetworkEnvelopeDeserializer(ByteBuffer byteBuffer) {
         this.byteBuffer = byteBuffer;
         this.messageLengthParser = new ProtoBufMessageLengthParser(byteBuffer);
     }
 
+    /**
+     * Replaces the buffer we read from. Must only be called once the current buffer has been consumed.
+     */
+    public void setByteBuffer(ByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer;
+        messageLengthParser.setByteBuffer(byteBuffer);
+    }
+
     public void readFromByteBuffer() {
         while (byteBuffer.hasRemaining()) {
             if (!parsingMessage) {
@@ -51,7 +59,7 @@ public class NetworkEnvelopeDeserializer {
                     parsePartialMessage();
 
                     if (isMessageComplete()) {
-                        tryToParseProtoBufMessage();
+                        onMessageComplete();
                     }
 
                 } else {
@@ -64,6 +72,10 @@ public class NetworkEnvelopeDeserializer {
     private void parseMessageLength() {
         long messageLength = messageLengthParser.parseMessageLength();
         if (isMessageLengthParsed(messageLength)) {
+            if (messageLength < 0 || messageLength > bisq.network.p2p.message.NetworkEnvelope.MAX_SIZE) {
+                throw new ConnectionException("Envelope size of " + messageLength + " bytes exceeds the max. size of " +
+                        bisq.network.p2p.message.NetworkEnvelope.MAX_SIZE + " bytes");
+            }
             currentMessageLength = messageLength;
             parsedMessageLength = 0;
             parsingMessage = true;
@@ -89,18 +101,9 @@ public class NetworkEnvelopeDeserializer {
         return parsedMessageLength == currentMessageLength;
     }
 
-    private void tryToParseProtoBufMessage() {
-        try {
-            NetworkEnvelope message = NetworkEnvelope.parseFrom(currentProtobufMessage);
-            bisq.network.p2p.message.NetworkEnvelope
-                    networkEnvelope = bisq.network.p2p.message.NetworkEnvelope.fromProto(message);
-            parsedNetworkEnvelopes.add(networkEnvelope);
-
-        } catch (InvalidProtocolBufferException e) {
-            log.error("Couldn't parse protocol buffer message.", e);
-        } finally {
-            resetState();
-        }
+    private void onMessageComplete() {
+        completedMessages.add(currentProtobufMessage);
+        resetState();
     }
 
     private void parseNewIncomingMessage() {
@@ -109,14 +112,14 @@ public class NetworkEnvelopeDeserializer {
 
         if (isFullMessageInByteBuffer()) {
             byteBuffer.get(currentProtobufMessage, parsedMessageLength, (int) currentMessageLength);
-            tryToParseProtoBufMessage();
+            onMessageComplete();
 
         } else {
             int lengthOfMessageInBuffer = byteBuffer.remaining();
             parsePartialMessageFromByteBuffer(lengthOfMessageInBuffer);
 
             if (isMessageComplete()) {
-                tryToParseProtoBufMessage();
+                onMessageComplete();
             }
         }
     }
@@ -134,18 +137,38 @@ public class NetworkEnvelopeDeserializer {
     }
 
     public List<bisq.network.p2p.message.NetworkEnvelope> getAllNetworkEnvelopes() {
-        if (parsedNetworkEnvelopes.isEmpty()) {
+        if (completedMessages.isEmpty()) {
             return Collections.emptyList();
         }
 
-        List<bisq.network.p2p.message.NetworkEnvelope> networkEnvelopes = new ArrayList<>(parsedNetworkEnvelopes.size());
-        networkEnvelopes.addAll(parsedNetworkEnvelopes);
+        List<bisq.network.p2p.message.NetworkEnvelope> networkEnvelopes = new ArrayList<>(completedMessages.size());
+        for (byte[] message : completedMessages) {
+            try {
+                NetworkEnvelope proto = NetworkEnvelope.parseFrom(message);
+                networkEnvelopes.add(bisq.network.p2p.message.NetworkEnvelope.fromProto(proto));
+            } catch (InvalidProtocolBufferException e) {
+                log.error("Couldn't parse protocol buffer message.", e);
+            }
+        }
 
-        parsedNetworkEnvelopes.clear();
+        completedMessages.clear();
 
         return networkEnvelopes;
     }
 
+    /**
+     * @return The serialized envelopes which have been read completely, without parsing them.
+     */
+    public List<byte[]> getAllNetworkEnvelopeBytes() {
+        if (completedMessages.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<byte[]> envelopeBytes = new ArrayList<>(completedMessages);
+        completedMessages.clear();
+        return envelopeBytes;
+    }
+
     private boolean isMessageLengthParsed(long messageLength) {
         return messageLength != ProtoBufMessageLengthParser.STILL_PARSING_MESSAGE_LENGTH;
     }
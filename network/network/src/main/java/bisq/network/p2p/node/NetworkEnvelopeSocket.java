@@ -18,9 +18,12 @@
 package bisq.network.p2p.node;
 
 import bisq.network.p2p.message.NetworkEnvelope;
+import com.google.protobuf.CodedInputStream;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -40,17 +43,44 @@ public class NetworkEnvelopeSocket implements Closeable {
         this.outputStream = socket.getOutputStream();
     }
 
-    public void send(NetworkEnvelope networkEnvelope) throws IOException {
+    /**
+     * @return The size of the serialized envelope.
+     */
+    public int send(NetworkEnvelope networkEnvelope) throws IOException {
         bisq.network.protobuf.NetworkEnvelope proto = checkNotNull(networkEnvelope.toProto(),
                 "networkEnvelope.toProto() must not be null");
         proto.writeDelimitedTo(outputStream);
         outputStream.flush();
+        // The size got computed and memoized by writeDelimitedTo
+        return proto.getSerializedSize();
     }
 
     public bisq.network.protobuf.NetworkEnvelope receiveNextEnvelope() throws IOException {
         return bisq.network.protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream);
     }
 
+    /**
+     * Reads the next length delimited envelope without parsing it.
+     *
+     * @return The serialized envelope or null if the end of the stream has been reached.
+     */
+    @Nullable
+    public byte[] receiveNextEnvelopeBytes() throws IOException {
+        int firstByte = inputStream.read();
+        if (firstByte == -1) {
+            return null;
+        }
+        int size = CodedInputStream.readRawVarint32(firstByte, inputStream);
+        if (size < 0) {
+            throw new ConnectionException("Invalid envelope size of " + size + " bytes");
+        }
+        byte[] bytes = inputStream.readNBytes(size);
+        if (bytes.length < size) {
+            throw new EOFException("Stream ended before the envelope was completely read");
+        }
+        return bytes;
+    }
+
     @Override
     public void close() throws IOException {
         socket.close();
@@ -20,29 +20,63 @@ package bisq.network.p2p.node;
 import bisq.common.util.StringUtils;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.message.NetworkMessage;
+import com.google.protobuf.CodedOutputStream;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Frames NetworkEnvelopes as length delimited protobuf messages on a SocketChannel.
+ * <p>
+ * Envelopes are serialized directly into pooled direct buffers and appended to a write queue, which is flushed with
+ * gathering writes. Frames larger than ByteBufferPool.MAX_BUFFER_SIZE are split over several pooled buffers, so that
+ * large envelopes like inventory responses do not get copied into a temporary direct buffer by the JDK.
+ * If a non-blocking channel cannot take all data, the rest stays in the queue and we register OP_WRITE at the
+ * selection key, so the selector thread continues with flushPendingWrites once the channel is writable again.
+ * If the peer does not read and the capacity of the already queued buffers reaches MAX_PENDING_WRITE_BYTES, send
+ * fails. A frame is always accepted if the queue is below that limit, so envelopes up to NetworkEnvelope.MAX_SIZE
+ * can be sent.
+ * <p>
+ * The read buffer starts with the given size and grows if reads fill it completely, up to MAX_READ_BUFFER_SIZE.
+ */
 @Slf4j
 public class NetworkEnvelopeSocketChannel implements Closeable {
     public static final int BYTE_BUFFER_SIZE = 1024;
+    private static final int MAX_READ_BUFFER_SIZE = 256 * 1024;
+    // Counts the capacity of the queued buffers, as that is the memory we hold for the peer. Only applied to the
+    // already queued buffers, so a single frame can be larger.
+    private static final int MAX_PENDING_WRITE_BYTES = 10 * 1024 * 1024;
+    private static final int MAX_BUFFERS_PER_WRITE = 64;
 
     private static final int END_OF_STREAM = -1;
 
     @Getter
     private final SocketChannel socketChannel;
-    private final ByteBuffer byteBuffer;
+    private ByteBuffer byteBuffer;
     private final NetworkEnvelopeDeserializer networkEnvelopeDeserializer;
 
+    private final Deque<ByteBuffer> writeQueue = new ArrayDeque<>();
+    // Reused for the gathering writes, so that we do not allocate an array at each write
+    private final ByteBuffer[] writeBuffers = new ByteBuffer[MAX_BUFFERS_PER_WRITE];
+    private long numPendingWriteBytes;
+    @Nullable
+    private volatile SelectionKey selectionKey;
 
     public NetworkEnvelopeSocketChannel(SocketChannel socketChannel) {
         this(socketChannel, BYTE_BUFFER_SIZE);
@@ -50,37 +84,99 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
 
     public NetworkEnvelopeSocketChannel(SocketChannel socketChannel, int byteBufferSize) {
         this.socketChannel = socketChannel;
-        this.byteBuffer = ByteBuffer.allocate(byteBufferSize);
+        this.byteBuffer = ByteBuffer.allocateDirect(byteBufferSize);
         this.networkEnvelopeDeserializer = new NetworkEnvelopeDeserializer(byteBuffer);
     }
 
-    public void send(NetworkEnvelope networkEnvelope) throws IOException {
+    /**
+     * Sets the selection key of the channel at the selector which handles OP_WRITE by calling flushPendingWrites.
+     * Without a selection key (e.g. for blocking channels) we do not register OP_WRITE.
+     */
+    public void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    /**
+     * @return The size of the serialized envelope.
+     */
+    public int send(NetworkEnvelope networkEnvelope) throws IOException {
         bisq.network.protobuf.NetworkEnvelope proto = checkNotNull(networkEnvelope.toProto(),
                 "networkEnvelope.toProto() must not be null");
-        byte[] protoInBytes = proto.toByteArray();
-        int messageLength = protoInBytes.length;
+        int messageLength = proto.getSerializedSize();
+        int frameLength = CodedOutputStream.computeUInt32SizeNoTag(messageLength) + messageLength;
 
-        ByteBuffer byteBuffer1 = ByteBuffer.allocate(messageLength + 10);
-        ProtoBufMessageLengthWriter.writeToBuffer(messageLength, byteBuffer1);
+        boolean fitsIntoSingleBuffer = frameLength <= ByteBufferPool.MAX_BUFFER_SIZE;
+        List<ByteBuffer> frameBuffers = fitsIntoSingleBuffer ?
+                List.of(ByteBufferPool.INSTANCE.acquire(frameLength)) :
+                new ArrayList<>(frameLength / ByteBufferPool.MAX_BUFFER_SIZE + 1);
+        try {
+            if (fitsIntoSingleBuffer) {
+                ByteBuffer frame = frameBuffers.get(0);
+                writeFrame(proto, messageLength, CodedOutputStream.newInstance(frame));
+                frame.flip();
+            } else {
+                PooledBuffersOutputStream outputStream = new PooledBuffersOutputStream(frameBuffers);
+                writeFrame(proto, messageLength, CodedOutputStream.newInstance(outputStream, ByteBufferPool.MIN_BUFFER_SIZE));
+                frameBuffers.forEach(ByteBuffer::flip);
+            }
+        } catch (IOException | RuntimeException e) {
+            frameBuffers.forEach(ByteBufferPool.INSTANCE::release);
+            throw e;
+        }
+
+        synchronized (writeQueue) {
+            if (numPendingWriteBytes >= MAX_PENDING_WRITE_BYTES) {
+                frameBuffers.forEach(ByteBufferPool.INSTANCE::release);
+                throw new IOException("Write queue exceeds " + MAX_PENDING_WRITE_BYTES + " bytes. Peer does not read our data.");
+            }
+            for (ByteBuffer buffer : frameBuffers) {
+                writeQueue.add(buffer);
+                numPendingWriteBytes += buffer.capacity();
+            }
+            flushPendingWrites();
+        }
+        return messageLength;
+    }
 
-        byteBuffer1.put(protoInBytes);
-        byteBuffer1.flip();
+    /**
+     * Writes as much of the queued data as the channel accepts. To be called by the selector thread if the channel
+     * is writable.
+     */
+    public void flushPendingWrites() throws IOException {
+        synchronized (writeQueue) {
+            while (!writeQueue.isEmpty()) {
+                int numBuffers = 0;
+                for (ByteBuffer buffer : writeQueue) {
+                    if (numBuffers == writeBuffers.length) {
+                        break;
+                    }
+                    writeBuffers[numBuffers++] = buffer;
+                }
+                socketChannel.write(writeBuffers, 0, numBuffers);
+                boolean isSendBufferFull = writeBuffers[numBuffers - 1].hasRemaining();
+                // We do not keep references to buffers which go back to the pool
+                Arrays.fill(writeBuffers, 0, numBuffers, null);
 
-        socketChannel.write(byteBuffer1);
+                while (!writeQueue.isEmpty() && !writeQueue.peekFirst().hasRemaining()) {
+                    ByteBuffer buffer = writeQueue.pollFirst();
+                    numPendingWriteBytes -= buffer.capacity();
+                    ByteBufferPool.INSTANCE.release(buffer);
+                }
+                if (isSendBufferFull && !socketChannel.isBlocking()) {
+                    // The socket send buffer is full. We continue once the channel is writable again.
+                    break;
+                }
+            }
+            updateWriteInterest(!writeQueue.isEmpty());
+        }
     }
 
     public List<NetworkEnvelope> receiveNetworkEnvelopes() throws IOException {
-        byteBuffer.clear();
-
-        int numberOfReadBytes = socketChannel.read(byteBuffer);
-        if (numberOfReadBytes == END_OF_STREAM) {
+        if (!readFromChannel()) {
             socketChannel.close();
             return Collections.emptyList();
         }
 
-        byteBuffer.flip();
-        networkEnvelopeDeserializer.readFromByteBuffer();
-
         List<NetworkEnvelope>
                 allNetworkEnvelopes = networkEnvelopeDeserializer.getAllNetworkEnvelopes();
         allNetworkEnvelopes.forEach(this::validateNetworkMessage);
@@ -88,6 +184,20 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
         return allNetworkEnvelopes;
     }
 
+    /**
+     * Reads the available data and returns the envelopes which are complete without parsing them. Allows the caller
+     * to drop messages before paying for parsing them.
+     *
+     * @throws EOFException If the peer has closed the connection.
+     */
+    public List<byte[]> receiveNetworkEnvelopeBytes() throws IOException {
+        if (!readFromChannel()) {
+            socketChannel.close();
+            throw new EOFException("Peer closed the connection");
+        }
+        return networkEnvelopeDeserializer.getAllNetworkEnvelopeBytes();
+    }
+
     private void validateNetworkMessage(NetworkEnvelope networkEnvelope) {
         if (networkEnvelope.getVersion() != NetworkEnvelope.VERSION) {
             throw new ConnectionException("Invalid network version. " +
@@ -102,5 +212,98 @@ public class NetworkEnvelopeSocketChannel implements Closeable {
     @Override
     public void close() throws IOException {
         socketChannel.close();
+        synchronized (writeQueue) {
+            writeQueue.forEach(ByteBufferPool.INSTANCE::release);
+            writeQueue.clear();
+            numPendingWriteBytes = 0;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Returns false if the end of the stream has been reached
+    private boolean readFromChannel() throws IOException {
+        byteBuffer.clear();
+
+        int numberOfReadBytes = socketChannel.read(byteBuffer);
+        if (numberOfReadBytes == END_OF_STREAM) {
+            return false;
+        }
+
+        byteBuffer.flip();
+        networkEnvelopeDeserializer.readFromByteBuffer();
+        maybeGrowReadBuffer(numberOfReadBytes);
+        return true;
+    }
+
+    // If a read filled the whole buffer there is likely more data available, so we use a larger buffer for the
+    // next reads to need fewer reads for large messages. The deserializer has consumed the buffer at that point.
+    private void maybeGrowReadBuffer(int numberOfReadBytes) {
+        int capacity = byteBuffer.capacity();
+        if (numberOfReadBytes == capacity && capacity < MAX_READ_BUFFER_SIZE) {
+            byteBuffer = ByteBuffer.allocateDirect(Math.min(2 * capacity, MAX_READ_BUFFER_SIZE));
+            networkEnvelopeDeserializer.setByteBuffer(byteBuffer);
+        }
+    }
+
+    private static void writeFrame(bisq.network.protobuf.NetworkEnvelope proto,
+                                   int messageLength,
+                                   CodedOutputStream codedOutputStream) throws IOException {
+        codedOutputStream.writeUInt32NoTag(messageLength);
+        proto.writeTo(codedOutputStream);
+        codedOutputStream.flush();
+    }
+
+    private void updateWriteInterest(boolean hasPendingWrites) {
+        SelectionKey key = selectionKey;
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        int interestOps = key.interestOps();
+        int newInterestOps = hasPendingWrites ?
+                interestOps | SelectionKey.OP_WRITE :
+                interestOps & ~SelectionKey.OP_WRITE;
+        if (newInterestOps != interestOps) {
+            key.interestOps(newInterestOps);
+            // We might not be on the selector thread, so we wake up the selector to apply the new interest set
+            key.selector().wakeup();
+        }
+    }
+
+    // Fills pooled buffers of MAX_BUFFER_SIZE one after the other
+    private static final class PooledBuffersOutputStream extends OutputStream {
+        private final List<ByteBuffer> buffers;
+        private ByteBuffer current;
+
+        private PooledBuffersOutputStream(List<ByteBuffer> buffers) {
+            this.buffers = buffers;
+        }
+
+        @Override
+        public void write(int b) {
+            ensureRemaining();
+            current.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            while (length > 0) {
+                ensureRemaining();
+                int numBytes = Math.min(length, current.remaining());
+                current.put(bytes, offset, numBytes);
+                offset += numBytes;
+                length -= numBytes;
+            }
+        }
+
+        private void ensureRemaining() {
+            if (current == null || !current.hasRemaining()) {
+                current = ByteBufferPool.INSTANCE.acquire(ByteBufferPool.MAX_BUFFER_SIZE);
+                buffers.add(current);
+            }
+        }
     }
 }
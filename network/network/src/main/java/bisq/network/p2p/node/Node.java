@@ -31,6 +31,7 @@ import bisq.network.p2p.node.transport.ClearNetTransport;
 import bisq.network.p2p.node.transport.I2PTransport;
 import bisq.network.p2p.node.transport.TorTransport;
 import bisq.network.p2p.node.transport.Transport;
+import bisq.network.p2p.node.transport.socketchannel.SocketChannelFactory;
 import bisq.network.p2p.services.peergroup.BanList;
 import com.runjva.sourceforge.jsocks.protocol.Socks5Proxy;
 import dev.failsafe.Failsafe;
@@ -53,19 +54,22 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static bisq.network.NetworkService.DISPATCHER;
+import static bisq.network.NetworkService.INBOUND_PIPELINE_METRICS;
 import static bisq.network.p2p.node.Node.State.*;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Responsibility:
  * - Creates Transport based on TransportType
- * - Creates 1 Server associated with that server
+ * - Creates 1 Server associated with that server, or a PeerConnectionsManager if the selector transport is enabled
  * - Creates inbound and outbound connections.
  * - Checks if a connection has been created when sending a proto and creates one otherwise.
  * - Performs initial connection handshake for exchanging capability and performing authorization
@@ -135,8 +139,12 @@ public class Node implements Connection.Handler {
     private final Transport.Type transportType;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     private final Map<String, ConnectionHandshake> connectionHandshakes = new ConcurrentHashMap<>();
+    // Each node processes the broadcasts it receives, so the duplicates are filtered per node
+    @Getter
+    private final DuplicateBroadcastFilter duplicateBroadcastFilter = new DuplicateBroadcastFilter();
     private final RetryPolicy<Boolean> retryPolicy;
     private Optional<Server> server = Optional.empty();
+    private Optional<PeerConnectionsManager> peerConnectionsManager = Optional.empty();
     private Optional<Capability> myCapability = Optional.empty();
     @Getter
     public AtomicReference<State> state = new AtomicReference<>(State.NEW);
@@ -209,6 +217,30 @@ public class Node implements Connection.Handler {
     private void createServerAndListen(int port) {
         Transport.ServerSocketResult serverSocketResult = transport.getServerSocket(port, nodeId);
         myCapability = Optional.of(new Capability(serverSocketResult.getAddress(), new ArrayList<>(config.getSupportedTransportTypes())));
+        Optional<SocketChannelFactory> socketChannelFactory = transport.getSocketChannelFactory();
+        boolean useSelectorTransport = config.getTransportConfig().isSelectorTransportEnabled();
+        if (useSelectorTransport &&
+                (socketChannelFactory.isEmpty() || serverSocketResult.getServerSocket().getChannel() == null)) {
+            log.warn("Selector transport is enabled but not supported by transport {}. We use blocking sockets.",
+                    transportType);
+            useSelectorTransport = false;
+        }
+        if (useSelectorTransport) {
+            PeerConnectionsManager peerConnectionsManager = new PeerConnectionsManager(banList,
+                    authorizationService,
+                    socketChannelFactory.get(),
+                    config.getSocketTimeout(),
+                    this,
+                    this::handleException);
+            try {
+                peerConnectionsManager.start(serverSocketResult, myCapability.get());
+            } catch (IOException e) {
+                peerConnectionsManager.shutdown();
+                throw new ConnectionException(e);
+            }
+            this.peerConnectionsManager = Optional.of(peerConnectionsManager);
+            return;
+        }
         server = Optional.of(new Server(serverSocketResult,
                 socket -> onClientSocket(socket, serverSocketResult, myCapability.get()),
                 exception -> {
@@ -243,7 +275,7 @@ public class Node implements Connection.Handler {
                 return;
             }
 
-            InboundConnection connection = new InboundConnection(socket, serverSocketResult, result.getCapability(), result.getLoad(), result.getMetrics(), this, this::handleException);
+            InboundConnection connection = new InboundConnection(socket, serverSocketResult, result.getCapability(), result.getFeatures(), result.getLoad(), result.getMetrics(), this, this::handleException);
             inboundConnectionsByAddress.put(connection.getPeerAddress(), connection);
             DISPATCHER.submit(() -> listeners.forEach(listener -> listener.onConnection(connection)));
         } catch (Throwable throwable) {
@@ -258,18 +290,17 @@ public class Node implements Connection.Handler {
         }
     }
 
-    public void onNewIncomingConnection(InboundConnectionChannel inboundConnectionChannel) {
-        try {
-            // inboundConnectionsByAddress.put(inboundConnectionChannel.getPeerAddress(), inboundConnectionChannel);
-            // DISPATCHER.submit(() -> listeners.forEach(listener -> listener.onConnection(inboundConnectionChannel)));
-        } catch (Throwable throwable) {
-            try {
-                inboundConnectionChannel.getNetworkEnvelopeSocketChannel().close();
-            } catch (IOException ignore) {
-            }
-
-            handleException(throwable);
+    /**
+     * Called by the InboundConnectionsManager once the handshake of a selector based connection has completed.
+     */
+    void onNewIncomingConnection(InboundConnection connection) {
+        Address address = connection.getPeerAddress();
+        if (inboundConnectionsByAddress.putIfAbsent(address, connection) != null) {
+            log.warn("Node {} have already an InboundConnection from {}. This can happen when a " + "handshake was in progress while we received a new connection from that address. " + "We will close the socket of that new connection and use the existing instead.", this, address);
+            connection.close(CloseReason.DUPLICATE_CONNECTION);
+            return;
         }
+        DISPATCHER.submit(() -> listeners.forEach(listener -> listener.onConnection(connection)));
     }
 
 
@@ -290,7 +321,8 @@ public class Node implements Connection.Handler {
             AuthorizationToken token = authorizationService.createToken(networkMessage,
                     connection.getPeersLoad(),
                     connection.getPeerAddress().getFullAddress(),
-                    connection.getSentMessageCounter().incrementAndGet());
+                    connection.getSentMessageCounter().incrementAndGet(),
+                    connection.getPeersFeatures());
             return connection.send(networkMessage, token);
         } catch (Throwable throwable) {
             if (connection.isRunning()) {
@@ -339,6 +371,9 @@ public class Node implements Connection.Handler {
         if (banList.isBanned(address)) {
             throw new ConnectionException("Create outbound connection failed. PeerAddress is banned. address=" + address);
         }
+        if (peerConnectionsManager.isPresent()) {
+            return createOutboundConnection(address, myCapability, peerConnectionsManager.get());
+        }
         Socket socket;
         try {
             socket = transport.getSocket(address); // Blocking call
@@ -382,7 +417,7 @@ public class Node implements Connection.Handler {
                 return outboundConnectionsByAddress.get(address);
             }
 
-            OutboundConnection connection = new OutboundConnection(socket, address, result.getCapability(), result.getLoad(), result.getMetrics(), this, this::handleException);
+            OutboundConnection connection = new OutboundConnection(socket, address, result.getCapability(), result.getFeatures(), result.getLoad(), result.getMetrics(), this, this::handleException);
             outboundConnectionsByAddress.put(address, connection);
             DISPATCHER.submit(() -> listeners.forEach(listener -> listener.onConnection(connection)));
             return connection;
@@ -399,6 +434,42 @@ public class Node implements Connection.Handler {
         }
     }
 
+    private Connection createOutboundConnection(Address address,
+                                                Capability myCapability,
+                                                PeerConnectionsManager peerConnectionsManager) {
+        log.debug("Outbound handshake started: Initiated by {} to {}", myCapability.getAddress(), address);
+        OutboundConnection connection;
+        try {
+            connection = peerConnectionsManager.createOutboundConnection(address, getMyLoad())
+                    .get(config.getSocketTimeout(), MILLISECONDS); // Blocking call
+        } catch (Throwable throwable) {
+            Throwable cause = throwable instanceof ExecutionException ? throwable.getCause() : throwable;
+            handleException(cause);
+            throw new ConnectionException(cause);
+        }
+        log.debug("Outbound handshake completed: Initiated by {} to {}", myCapability.getAddress(), address);
+
+        if (!address.isClearNetAddress() && !address.equals(connection.getPeersCapability().getAddress())) {
+            // See comment at createOutboundConnection with blocking sockets
+            IllegalArgumentException exception = new IllegalArgumentException("Peers reported address must match address we used to connect");
+            connection.close(CloseReason.EXCEPTION.exception(exception));
+            handleException(exception);
+            throw new ConnectionException(exception);
+        }
+
+        // As time passed we check again if connection is still not available
+        OutboundConnection existingConnection = outboundConnectionsByAddress.putIfAbsent(address, connection);
+        if (existingConnection != null) {
+            log.warn("Node {} has already an OutboundConnection to {}. This can happen when a " + "handshake was in progress while we started a new connection to that address and as the " + "handshake was not completed we did not consider that as an available connection. " + "We will close the new connection and use the existing instead.", this, address);
+            connection.close(CloseReason.DUPLICATE_CONNECTION);
+            return existingConnection;
+        }
+        DISPATCHER.submit(() -> listeners.forEach(listener -> listener.onConnection(connection)));
+        // We start reading after notifying the listeners, so they get the connection before its messages
+        peerConnectionsManager.startReading(connection);
+        return connection;
+    }
+
     public Stream<Connection> getAllConnections() {
         return Stream.concat(inboundConnectionsByAddress.values().stream(), outboundConnectionsByAddress.values().stream());
     }
@@ -409,56 +480,39 @@ public class Node implements Connection.Handler {
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
-    public void handleNetworkMessage(NetworkMessage networkMessage, AuthorizationToken authorizationToken, Connection connection) {
-        if (isShutdown()) {
-            return;
-        }
-        String myAddress = findMyAddress().orElseThrow().getFullAddress();
-        boolean isAuthorized = authorizationService.isAuthorized(networkMessage,
-                authorizationToken,
-                getMyLoad(),
-                connection.getId(),
-                myAddress);
-        if (isAuthorized) {
-            if (networkMessage instanceof CloseConnectionMessage) {
-                CloseConnectionMessage closeConnectionMessage = (CloseConnectionMessage) networkMessage;
-                log.debug("Node {} received CloseConnectionMessage from {} with reason: {}", this, connection.getPeerAddress(), closeConnectionMessage.getCloseReason());
-                closeConnection(connection, CloseReason.CLOSE_MSG_RECEIVED.details(closeConnectionMessage.getCloseReason().name()));
-            } else {
-                // We got called from Connection on the dispatcher thread, so no mapping needed here.
-                connection.notifyListeners(networkMessage);
-                listeners.forEach(listener -> listener.onMessage(networkMessage, connection, nodeId));
-            }
-        } else {
-            //todo handle
-            log.warn("Message authorization failed. authorizedMessage={}", StringUtils.truncate(networkMessage.toString()));
-        }
-    }
-
-    public void handleNetworkMessage(NetworkMessage networkMessage, AuthorizationToken authorizationToken, ConnectionChannel connection) {
-        if (isShutdown()) {
-            return;
+    public boolean handleNetworkMessage(NetworkMessage networkMessage, AuthorizationToken authorizationToken, Connection connection) {
+        // Messages which are still queued at the connection when it gets closed are dropped
+        if (isShutdown() || connection.isStopped()) {
+            return false;
         }
         String myAddress = findMyAddress().orElseThrow().getFullAddress();
         boolean isAuthorized = authorizationService.isAuthorized(networkMessage,
                 authorizationToken,
                 getMyLoad(),
-                connection.getId(),
+                connection.getReplayWindow(),
                 myAddress);
         if (isAuthorized) {
-            if (networkMessage instanceof CloseConnectionMessage) {
-                CloseConnectionMessage closeConnectionMessage = (CloseConnectionMessage) networkMessage;
-                log.debug("Node {} received CloseConnectionMessage from {} with reason: {}", this, connection.getPeerAddress(), closeConnectionMessage.getCloseReason());
-                // closeConnection(connection, CloseReason.CLOSE_MSG_RECEIVED.details(closeConnectionMessage.getCloseReason().name()));
-            } else {
-                // We got called from Connection on the dispatcher thread, so no mapping needed here.
-                connection.notifyListeners(networkMessage);
-                // listeners.forEach(listener -> listener.onMessage(networkMessage, connection, nodeId));
-            }
+            // We got called from Connection on the authorization pool. Listeners expect to be called on the
+            // dispatcher thread. As messages of a connection are authorized sequentially, they get dispatched in
+            // the order they have been received.
+            long queued = System.currentTimeMillis();
+            INBOUND_PIPELINE_METRICS.onDispatchQueued();
+            DISPATCHER.submit(() -> {
+                INBOUND_PIPELINE_METRICS.onDispatchStarted(System.currentTimeMillis() - queued);
+                if (networkMessage instanceof CloseConnectionMessage) {
+                    CloseConnectionMessage closeConnectionMessage = (CloseConnectionMessage) networkMessage;
+                    log.debug("Node {} received CloseConnectionMessage from {} with reason: {}", this, connection.getPeerAddress(), closeConnectionMessage.getCloseReason());
+                    closeConnection(connection, CloseReason.CLOSE_MSG_RECEIVED.details(closeConnectionMessage.getCloseReason().name()));
+                } else {
+                    connection.notifyListeners(networkMessage);
+                    listeners.forEach(listener -> listener.onMessage(networkMessage, connection, nodeId));
+                }
+            });
         } else {
             //todo handle
             log.warn("Message authorization failed. authorizedMessage={}", StringUtils.truncate(networkMessage.toString()));
         }
+        return isAuthorized;
     }
 
 
@@ -466,14 +520,17 @@ public class Node implements Connection.Handler {
     public void handleConnectionClosed(Connection connection, CloseReason closeReason) {
         Address peerAddress = connection.getPeerAddress();
         log.debug("Node {} got called onConnectionClosed. connection={}, peerAddress={}", this, connection, peerAddress);
+        peerConnectionsManager.ifPresent(manager -> manager.onConnectionClosed(connection));
+        // We only remove the connection if it is the one we have registered. A closed duplicate connection must not
+        // remove the existing connection to that peer.
         boolean wasRemoved = false;
         if (connection instanceof InboundConnection) {
-            wasRemoved = inboundConnectionsByAddress.remove(peerAddress) != null;
+            wasRemoved = inboundConnectionsByAddress.remove(peerAddress, connection);
             if (!wasRemoved) {
                 log.debug("Node {} did not had entry in inboundConnections at onConnectionClosed. " + "This can happen if different threads triggered a close. connection={}, peerAddress={}", this, connection, peerAddress);
             }
         } else if (connection instanceof OutboundConnection) {
-            wasRemoved = outboundConnectionsByAddress.remove(peerAddress) != null;
+            wasRemoved = outboundConnectionsByAddress.remove(peerAddress, connection);
             if (!wasRemoved) {
                 log.debug("Node {} did not had entry in outboundConnections at onConnectionClosed. " + "This can happen if different threads triggered a close. connection={}, peerAddress={}", this, connection, peerAddress);
             }
@@ -525,6 +582,8 @@ public class Node implements Connection.Handler {
                     if (throwable != null) {
                         log.warn("Exception at node shutdown", throwable);
                     }
+                    // Selector threads must be running until the close messages have been written
+                    peerConnectionsManager.ifPresent(PeerConnectionsManager::shutdown);
                     transport.shutdown();
                     outboundConnectionsByAddress.clear();
                     inboundConnectionsByAddress.clear();
@@ -548,6 +607,9 @@ public class Node implements Connection.Handler {
     }
 
     public Optional<Address> findMyAddress() {
+        if (peerConnectionsManager.isPresent()) {
+            return myCapability.map(Capability::getAddress);
+        }
         return server.map(Server::getAddress);
     }
 
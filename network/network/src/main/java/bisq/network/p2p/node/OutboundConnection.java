@@ -21,6 +21,7 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.net.Socket;
+import java.util.Set;
 import java.util.function.BiConsumer;
 
 @Slf4j
@@ -32,11 +33,26 @@ public class OutboundConnection extends Connection {
     OutboundConnection(Socket socket,
                        Address address,
                        Capability peersCapability,
+                       Set<Feature> peersFeatures,
                        Load peersLoad,
                        Metrics metrics,
                        Handler handler,
                        BiConsumer<Connection, Exception> errorHandler) {
-        super(socket, peersCapability, peersLoad, metrics, handler, errorHandler);
+        super(socket, peersCapability, peersFeatures, peersLoad, metrics, handler, errorHandler);
+
+        this.address = address;
+        log.debug("Create outboundConnection to {}", address);
+    }
+
+    OutboundConnection(NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                       Address address,
+                       Capability peersCapability,
+                       Set<Feature> peersFeatures,
+                       Load peersLoad,
+                       Metrics metrics,
+                       Handler handler,
+                       BiConsumer<Connection, Exception> errorHandler) {
+        super(networkEnvelopeSocketChannel, peersCapability, peersFeatures, peersLoad, metrics, handler, errorHandler);
 
         this.address = address;
         log.debug("Create outboundConnection to {}", address);
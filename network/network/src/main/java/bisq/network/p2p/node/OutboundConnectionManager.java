@@ -17,222 +17,305 @@
 
 package bisq.network.p2p.node;
 
+import bisq.common.data.Pair;
+import bisq.network.NetworkService;
 import bisq.network.p2p.ConnectionHandshakeInitiator;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.network.p2p.node.transport.socketchannel.SocketChannelFactory;
 import bisq.network.p2p.services.peergroup.BanList;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.net.ConnectException;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
-import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Creates outbound connections on non-blocking socket channels which are served by the selector thread of the
+ * OutboundConnectionMultiplexer. The handle methods are called from that thread and must not block.
+ * The PoW of the handshake response is verified at the NETWORK_IO_POOL and the channel is not read until the node has
+ * registered the new connection and called {@link #startReading(OutboundConnection)}.
+ */
 @Slf4j
 public class OutboundConnectionManager {
-    public interface Listener {
-        void onNewConnection(OutboundConnectionChannel outboundConnectionChannel);
+    private static final class OutboundHandshake {
+        private final Address address;
+        private final ConnectionHandshakeInitiator handshakeInitiator;
+        private final NetworkEnvelope handshakeRequest;
+        private final NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel;
+        private final CompletableFuture<OutboundConnection> completableFuture;
+        private final Metrics metrics = new Metrics();
+
+        private OutboundHandshake(Address address,
+                                  ConnectionHandshakeInitiator handshakeInitiator,
+                                  NetworkEnvelope handshakeRequest,
+                                  NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
+                                  CompletableFuture<OutboundConnection> completableFuture) {
+            this.address = address;
+            this.handshakeInitiator = handshakeInitiator;
+            this.handshakeRequest = handshakeRequest;
+            this.networkEnvelopeSocketChannel = networkEnvelopeSocketChannel;
+            this.completableFuture = completableFuture;
+        }
     }
 
     private final AuthorizationService authorizationService;
     private final BanList banList;
-    private final Load myLoad;
     private final Capability myCapability;
+    private final SocketChannelFactory socketChannelFactory;
+    private final int handshakeTimeout;
     private final Node node;
+    private final BiConsumer<Connection, Exception> errorHandler;
     @Getter
     private final Selector selector;
 
-    private final Map<SocketChannel, Address> addressByChannel = new ConcurrentHashMap<>();
-    private final Map<Address, SocketChannel> channelByAddress = new ConcurrentHashMap<>();
-    private final Map<SocketChannel, ConnectionHandshakeInitiator> handshakeInitiatorByChannel = new ConcurrentHashMap<>();
-
-    private final List<SocketChannel> outboundHandshakeChannels = new CopyOnWriteArrayList<>();
-    private final List<SocketChannel> verifiedConnections = new CopyOnWriteArrayList<>();
-
-    private final Map<SocketChannel, OutboundConnectionChannel> connectionByChannel = new ConcurrentHashMap<>();
-    private final Map<Address, CompletableFuture<OutboundConnectionChannel>> completableFutureByPeerAddress = new ConcurrentHashMap<>();
-    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<SocketChannel, OutboundHandshake> handshakeByChannel = new ConcurrentHashMap<>();
+    private final Map<SocketChannel, OutboundConnection> connectionByChannel = new ConcurrentHashMap<>();
+    private final Map<Address, CompletableFuture<OutboundConnection>> completableFutureByPeerAddress = new ConcurrentHashMap<>();
+    // Connections which are not registered at the node yet, with the messages read together with the handshake response
+    private final Map<OutboundConnection, Pair<SocketChannel, List<byte[]>>> pendingReadByConnection = new ConcurrentHashMap<>();
 
     public OutboundConnectionManager(AuthorizationService authorizationService,
                                      BanList banList,
-                                     Load myLoad,
                                      Capability myCapability,
+                                     SocketChannelFactory socketChannelFactory,
+                                     int handshakeTimeout,
                                      Node node,
+                                     BiConsumer<Connection, Exception> errorHandler,
                                      Selector selector) {
         this.authorizationService = authorizationService;
         this.banList = banList;
-        this.myLoad = myLoad;
         this.myCapability = myCapability;
+        this.socketChannelFactory = socketChannelFactory;
+        this.handshakeTimeout = handshakeTimeout;
         this.node = node;
+        this.errorHandler = errorHandler;
         this.selector = selector;
     }
 
-    public CompletableFuture<OutboundConnectionChannel> createNewConnection(Address address) {
-        if (completableFutureByPeerAddress.containsKey(address)) {
-            return completableFutureByPeerAddress.get(address);
+    /**
+     * Creates the PoW of the handshake request and, at Tor, performs the SOCKS handshake on the calling thread.
+     * The rest of the handshake is done by the selector thread.
+     */
+    public CompletableFuture<OutboundConnection> createNewConnection(Address address, Load myLoad) {
+        var completableFuture = new CompletableFuture<OutboundConnection>();
+        CompletableFuture<OutboundConnection> pending = completableFutureByPeerAddress.putIfAbsent(address, completableFuture);
+        if (pending != null) {
+            return pending;
         }
+        completableFuture.whenComplete((connection, throwable) ->
+                completableFutureByPeerAddress.remove(address, completableFuture));
 
-        var completableFuture = new CompletableFuture<OutboundConnectionChannel>();
-        completableFutureByPeerAddress.put(address, completableFuture);
-
+        SocketChannel socketChannel = null;
         try {
-            SocketChannel socketChannel = SocketChannel.open();
-            socketChannel.configureBlocking(false);
-            socketChannel.register(selector, SelectionKey.OP_CONNECT);
-
-            addressByChannel.put(socketChannel, address);
-            channelByAddress.put(address, socketChannel);
+            var handshakeInitiator = new ConnectionHandshakeInitiator(myCapability,
+                    authorizationService,
+                    banList,
+                    myLoad,
+                    address);
+            NetworkEnvelope handshakeRequest = handshakeInitiator.initiate();
 
-            InetSocketAddress socketAddress = new InetSocketAddress(address.getHost(), address.getPort());
-            boolean isConnectedImmediately = socketChannel.connect(socketAddress);
-            if (isConnectedImmediately) {
-                handleConnectedChannel(socketChannel);
+            socketChannel = socketChannelFactory.getSocketChannelForAddress(address);
+            socketChannel.configureBlocking(false);
+            var handshake = new OutboundHandshake(address,
+                    handshakeInitiator,
+                    handshakeRequest,
+                    new NetworkEnvelopeSocketChannel(socketChannel),
+                    completableFuture);
+            handshakeByChannel.put(socketChannel, handshake);
+            scheduleHandshakeTimeout(socketChannel, handshake);
+
+            if (socketChannel.isConnected()) {
+                startHandshake(handshake, socketChannel.register(selector, SelectionKey.OP_READ));
+            } else {
+                SelectionKey selectionKey = socketChannel.register(selector, SelectionKey.OP_CONNECT);
+                InetSocketAddress socketAddress = new InetSocketAddress(address.getHost(), address.getPort());
+                boolean isConnectedImmediately = socketChannel.connect(socketAddress);
+                if (isConnectedImmediately) {
+                    startHandshake(handshake, selectionKey);
+                }
             }
-
-        } catch (IOException e) {
-            log.warn("Couldn't create connection to " + address.getFullAddress(), e);
+            selector.wakeup();
+        } catch (Exception e) {
+            log.warn("Couldn't create connection to {}", address.getFullAddress(), e);
+            if (socketChannel != null) {
+                handshakeByChannel.remove(socketChannel);
+                try {
+                    socketChannel.close();
+                } catch (IOException ignore) {
+                }
+            }
+            completableFuture.completeExceptionally(toConnectionException(e));
         }
 
         return completableFuture;
     }
 
-    public void handleConnectableChannel(SocketChannel socketChannel) throws IOException {
+    public void handleConnectableChannel(SocketChannel socketChannel) {
+        OutboundHandshake handshake = handshakeByChannel.get(socketChannel);
+        if (handshake == null) {
+            return;
+        }
         try {
-            socketChannel.finishConnect();
-            handleConnectedChannel(socketChannel);
-
-        } catch (ConnectException e) {
+            if (socketChannel.finishConnect()) {
+                startHandshake(handshake, socketChannel.keyFor(selector));
+            }
+        } catch (IOException e) {
             // Couldn't connect to peer, nothing we can do.
-            Address address = addressByChannel.get(socketChannel);
-            channelByAddress.remove(address);
-
-            addressByChannel.remove(socketChannel);
+            failHandshake(socketChannel, handshake, e);
         }
     }
 
-    public void handleWritableChannel(SocketChannel socketChannel) throws IOException {
-        if (outboundHandshakeChannels.contains(socketChannel)) {
-            var handshakeInitiator = new ConnectionHandshakeInitiator(
-                    myCapability,
-                    authorizationService,
-                    banList,
-                    myLoad,
-                    addressByChannel.get(socketChannel)
-            );
-            handshakeInitiatorByChannel.put(socketChannel, handshakeInitiator);
-
-            NetworkEnvelope handshakeRequest = handshakeInitiator.initiate();
-            ByteBuffer byteBuffer = wrapPayloadInByteBuffer(handshakeRequest);
-
-            socketChannel.register(selector, SelectionKey.OP_READ);
+    public void handleWritableChannel(SocketChannel socketChannel) {
+        OutboundConnection connection = connectionByChannel.get(socketChannel);
+        if (connection != null) {
+            connection.onWritable();
+            return;
+        }
 
-            log.info("Sending PoW request to peer.");
-            socketChannel.write(byteBuffer);
+        OutboundHandshake handshake = handshakeByChannel.get(socketChannel);
+        if (handshake != null) {
+            try {
+                handshake.networkEnvelopeSocketChannel.flushPendingWrites();
+            } catch (IOException e) {
+                failHandshake(socketChannel, handshake, e);
+            }
         }
     }
 
-    public void handleReadableChannel(SocketChannel socketChannel) throws IOException {
-        if (outboundHandshakeChannels.contains(socketChannel)) {
-            NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel = new NetworkEnvelopeSocketChannel(socketChannel);
-            List<NetworkEnvelope> networkEnvelopeList = networkEnvelopeSocketChannel.receiveNetworkEnvelopes();
-
-            ConnectionHandshakeInitiator handshakeInitiator = handshakeInitiatorByChannel.get(socketChannel);
-            ConnectionHandshake.Response handshakeResponse = handshakeInitiator.finish(networkEnvelopeList);
-
-            verifiedConnections.add(socketChannel);
-            outboundHandshakeChannels.remove(socketChannel);
-
-            Capability peerCapability = handshakeResponse.getCapability();
-            OutboundConnectionChannel outboundConnectionChannel = new OutboundConnectionChannel(
-                    peerCapability,
-                    handshakeResponse.getLoad(),
-                    networkEnvelopeSocketChannel,
-                    new Metrics()
-            );
-
-            connectionByChannel.put(socketChannel, outboundConnectionChannel);
-            listeners.forEach(l -> l.onNewConnection(outboundConnectionChannel));
-
-            CompletableFuture<OutboundConnectionChannel> completableFuture =
-                    completableFutureByPeerAddress.get(peerCapability.getAddress());
-            completableFuture.complete(outboundConnectionChannel);
-
-        } else if (verifiedConnections.contains(socketChannel)) {
-            OutboundConnectionChannel connectionChannel = connectionByChannel.get(socketChannel);
-
-            NetworkEnvelopeSocketChannel envelopeSocketChannel = connectionChannel.getNetworkEnvelopeSocketChannel();
-            List<NetworkEnvelope> networkEnvelopes = envelopeSocketChannel.receiveNetworkEnvelopes();
-            log.debug("Received {} messages from peer {}.",
-                    networkEnvelopes.size(), connectionChannel.getPeerAddress().getFullAddress());
+    public void handleReadableChannel(SocketChannel socketChannel) {
+        OutboundConnection connection = connectionByChannel.get(socketChannel);
+        if (connection != null) {
+            connection.onReadable();
+            return;
+        }
 
-            networkEnvelopes.forEach(networkEnvelope -> node.handleNetworkMessage(
-                    networkEnvelope.getNetworkMessage(),
-                    networkEnvelope.getAuthorizationToken(),
-                    connectionChannel
-            ));
+        OutboundHandshake handshake = handshakeByChannel.get(socketChannel);
+        if (handshake == null) {
+            return;
+        }
+        List<byte[]> envelopeBytesList;
+        try {
+            envelopeBytesList = handshake.networkEnvelopeSocketChannel.receiveNetworkEnvelopeBytes();
+        } catch (Exception e) {
+            failHandshake(socketChannel, handshake, e);
+            return;
         }
+        if (envelopeBytesList.isEmpty()) {
+            // Response not complete yet
+            return;
+        }
+
+        // Verifying the PoW of the response is too expensive for the selector thread. We stop reading from the
+        // channel until the node has registered the connection.
+        socketChannel.keyFor(selector).interestOps(0);
+        NetworkService.NETWORK_IO_POOL.submit(() -> completeHandshake(socketChannel, handshake, envelopeBytesList));
     }
 
-    public Optional<OutboundConnectionChannel> getConnection(Address address) {
-        if (channelByAddress.containsKey(address)) {
-            SocketChannel socketChannel = channelByAddress.get(address);
-            OutboundConnectionChannel connectionChannel = connectionByChannel.get(socketChannel);
-            return Optional.ofNullable(connectionChannel);
+    /**
+     * Called by the node after it has registered the connection and notified its listeners. Handles the messages
+     * which got read together with the handshake response and resumes reading from the channel.
+     */
+    public void startReading(OutboundConnection connection) {
+        Pair<SocketChannel, List<byte[]>> pendingRead = pendingReadByConnection.remove(connection);
+        if (pendingRead == null) {
+            // Closed in the meantime
+            return;
         }
+        pendingRead.getSecond().forEach(connection::onNetworkEnvelopeBytesReceived);
+        SelectionKey selectionKey = pendingRead.getFirst().keyFor(selector);
+        if (connection.isRunning() && selectionKey != null && selectionKey.isValid()) {
+            selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_READ);
+            selector.wakeup();
+        }
+    }
 
-        return Optional.empty();
+    public void onConnectionClosed(Connection connection) {
+        connectionByChannel.values().remove(connection);
+        pendingReadByConnection.remove(connection);
     }
 
-    public Collection<OutboundConnectionChannel> getAllOutboundConnections() {
+    public Collection<OutboundConnection> getAllOutboundConnections() {
         return connectionByChannel.values();
     }
 
-    public void registerListener(Listener l) {
-        listeners.add(l);
+    public void shutdown() {
+        new ArrayList<>(handshakeByChannel.keySet()).forEach(socketChannel -> {
+            OutboundHandshake handshake = handshakeByChannel.get(socketChannel);
+            if (handshake != null) {
+                failHandshake(socketChannel, handshake, new ConnectionException("Shutdown"));
+            }
+        });
     }
 
-    public void removeListener(Listener l) {
-        listeners.remove(l);
+    private void startHandshake(OutboundHandshake handshake, SelectionKey selectionKey) throws IOException {
+        selectionKey.interestOps(SelectionKey.OP_READ);
+        handshake.networkEnvelopeSocketChannel.setSelectionKey(selectionKey);
+        log.info("Sending PoW request to peer {}.", handshake.address.getFullAddress());
+        int numBytes = handshake.networkEnvelopeSocketChannel.send(handshake.handshakeRequest);
+        handshake.metrics.onSent(handshake.handshakeRequest, numBytes);
     }
 
-    private void handleConnectedChannel(SocketChannel socketChannel) {
+    private void completeHandshake(SocketChannel socketChannel, OutboundHandshake handshake, List<byte[]> envelopeBytesList) {
         try {
-            socketChannel.register(selector, SelectionKey.OP_WRITE);
-            outboundHandshakeChannels.add(socketChannel);
+            // The peer might have sent messages right after its response, so we only pass the first envelope
+            byte[] responseBytes = envelopeBytesList.get(0);
+            NetworkEnvelope responseEnvelope = NetworkEnvelope.fromProto(bisq.network.protobuf.NetworkEnvelope.parseFrom(responseBytes));
+            ConnectionHandshake.Response handshakeResponse = handshake.handshakeInitiator.finish(List.of(responseEnvelope));
+            handshake.metrics.onReceived(responseEnvelope, responseBytes.length);
+            if (!handshakeByChannel.remove(socketChannel, handshake)) {
+                // Handshake timed out in the meantime
+                return;
+            }
 
-            Address address = addressByChannel.get(socketChannel);
-            log.info("Created outbound connection to {}", address.getFullAddress());
-        } catch (ClosedChannelException e) {
-            log.error("Couldn't connect to channel.", e);
+            OutboundConnection connection = new OutboundConnection(handshake.networkEnvelopeSocketChannel,
+                    handshake.address,
+                    handshakeResponse.getCapability(),
+                    responseEnvelope.getFeatures(),
+                    handshakeResponse.getLoad(),
+                    handshake.metrics,
+                    node,
+                    errorHandler);
+            List<byte[]> pendingEnvelopeBytesList = new ArrayList<>(envelopeBytesList.subList(1, envelopeBytesList.size()));
+            pendingReadByConnection.put(connection, new Pair<>(socketChannel, pendingEnvelopeBytesList));
+            connectionByChannel.put(socketChannel, connection);
+            handshake.completableFuture.complete(connection);
+        } catch (Exception e) {
+            failHandshake(socketChannel, handshake, e);
+        }
+    }
 
-            // Connection closed.
-            Address address = addressByChannel.get(socketChannel);
-            channelByAddress.remove(address);
+    private void scheduleHandshakeTimeout(SocketChannel socketChannel, OutboundHandshake handshake) {
+        CompletableFuture.runAsync(() -> failHandshake(socketChannel, handshake,
+                        new ConnectionException("Handshake timed out after " + handshakeTimeout + " ms")),
+                CompletableFuture.delayedExecutor(handshakeTimeout, TimeUnit.MILLISECONDS));
+    }
 
-            addressByChannel.remove(socketChannel);
+    private void failHandshake(SocketChannel socketChannel, OutboundHandshake handshake, Exception exception) {
+        if (!handshakeByChannel.remove(socketChannel, handshake)) {
+            // Already completed or failed
+            return;
         }
+        log.debug("Outbound handshake to {} failed. exception={}", handshake.address, exception.toString());
+        try {
+            handshake.networkEnvelopeSocketChannel.close();
+        } catch (IOException ignore) {
+        }
+        handshake.completableFuture.completeExceptionally(toConnectionException(exception));
     }
 
-    private ByteBuffer wrapPayloadInByteBuffer(NetworkEnvelope networkEnvelope) {
-        bisq.network.protobuf.NetworkEnvelope poWRequest = networkEnvelope.toProto();
-        byte[] requestInBytes = poWRequest.toByteArray();
-        ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
-        ProtoBufMessageLengthWriter.writeToBuffer(requestInBytes.length, byteBuffer);
-        byteBuffer.put(requestInBytes);
-
-        byteBuffer.flip();
-        return byteBuffer;
+    private static ConnectionException toConnectionException(Exception exception) {
+        return exception instanceof ConnectionException ? (ConnectionException) exception : new ConnectionException(exception);
     }
 }
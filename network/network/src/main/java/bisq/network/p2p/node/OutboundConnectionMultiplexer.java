@@ -21,17 +21,20 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
+/**
+ * Runs the selector thread which serves all outbound connections of a node.
+ */
 @Slf4j
-public class OutboundConnectionMultiplexer implements OutboundConnectionManager.Listener {
+public class OutboundConnectionMultiplexer {
 
     private final Selector selector;
     private final OutboundConnectionManager outboundConnectionManager;
@@ -45,77 +48,74 @@ public class OutboundConnectionMultiplexer implements OutboundConnectionManager.
     }
 
     public void start() {
-        outboundConnectionManager.registerListener(this);
-
-        var thread = new Thread(this::workerLoop);
+        var thread = new Thread(this::workerLoop, "OutboundConnectionMultiplexer.select");
         workerThread = Optional.of(thread);
         thread.start();
     }
 
     public void shutdown() {
         workerThread.ifPresent(Thread::interrupt);
-    }
-
-    public CompletableFuture<OutboundConnectionChannel> getConnection(Address address) {
-        Optional<OutboundConnectionChannel> optionalConnectionChannel =
-                outboundConnectionManager.getConnection(address);
-
-        if (optionalConnectionChannel.isPresent()) {
-            return CompletableFuture.completedFuture(
-                    optionalConnectionChannel.get()
-            );
+        outboundConnectionManager.shutdown();
+        try {
+            selector.close();
+        } catch (IOException ignore) {
         }
+    }
 
-        CompletableFuture<OutboundConnectionChannel> completableFuture = outboundConnectionManager.createNewConnection(address);
-        selector.wakeup();
-
-        return completableFuture;
+    public CompletableFuture<OutboundConnection> getConnection(Address address, Load myLoad) {
+        return outboundConnectionManager.createNewConnection(address, myLoad);
     }
 
-    @Override
-    public void onNewConnection(OutboundConnectionChannel outboundConnectionChannel) {
+    public void startReading(OutboundConnection connection) {
+        outboundConnectionManager.startReading(connection);
     }
 
-    public Collection<OutboundConnectionChannel> getAllOutboundConnections() {
+    public Collection<OutboundConnection> getAllOutboundConnections() {
         return outboundConnectionManager.getAllOutboundConnections();
     }
 
+    public void onConnectionClosed(Connection connection) {
+        outboundConnectionManager.onConnectionClosed(connection);
+    }
+
     private void workerLoop() {
-        while (true) {
+        while (!Thread.currentThread().isInterrupted() && selector.isOpen()) {
             selectorLoop();
         }
     }
 
     private void selectorLoop() {
         try {
-            while (selector.select() > 0) {
-                Set<SelectionKey> readyKeys = selector.selectedKeys();
-                Iterator<SelectionKey> keyIterator = readyKeys.iterator();
-
-                while (keyIterator.hasNext()) {
-                    SelectionKey selectionKey = keyIterator.next();
-                    keyIterator.remove();
-
-                    SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
-
-                    if (selectionKey.isConnectable()) {
+            // select() returns 0 if the selector got woken up to apply new registrations or interest sets
+            if (selector.select() == 0) {
+                return;
+            }
+            Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+            while (keyIterator.hasNext()) {
+                SelectionKey selectionKey = keyIterator.next();
+                keyIterator.remove();
+
+                SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
+                try {
+                    if (selectionKey.isValid() && selectionKey.isConnectable()) {
                         outboundConnectionManager.handleConnectableChannel(socketChannel);
                     }
 
-                    if (selectionKey.isReadable()) {
+                    if (selectionKey.isValid() && selectionKey.isReadable()) {
                         outboundConnectionManager.handleReadableChannel(socketChannel);
                     }
 
-                    if (selectionKey.isWritable()) {
+                    if (selectionKey.isValid() && selectionKey.isWritable()) {
                         outboundConnectionManager.handleWritableChannel(socketChannel);
                     }
-
+                } catch (CancelledKeyException e) {
+                    // Connection got closed. Nothing we can do here.
                 }
             }
+        } catch (ClosedSelectorException e) {
+            // Shutdown
         } catch (IOException e) {
             log.warn("IOException in OutboundConnectionMultiplexer selector.", e);
-        } catch (CancelledKeyException e) {
-            // Connection attempt failed. Nothing we can do here.
         }
     }
 }
@@ -19,54 +19,77 @@ package bisq.network.p2p.node;
 
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.transport.Transport;
+import bisq.network.p2p.node.transport.socketchannel.SocketChannelFactory;
 import bisq.network.p2p.services.peergroup.BanList;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.spi.SelectorProvider;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeoutException;
-import java.util.stream.Stream;
-
-import static java.util.concurrent.TimeUnit.MINUTES;
+import java.util.function.BiConsumer;
 
+/**
+ * Selector based transport of a node. All inbound connections are served by the selector thread of the
+ * ServerChannel and all outbound connections by the selector thread of the OutboundConnectionMultiplexer, instead
+ * of one blocked read thread per connection. Handshake, authorization and listener notification are the same as
+ * with the blocking sockets, as the connections are handled by the node in the same way.
+ */
 @Slf4j
 public class PeerConnectionsManager {
-
-    private final Node.Config config;
-    private final String nodeId;
     private final BanList banList;
     private final AuthorizationService authorizationService;
-    private final Transport transport;
+    private final SocketChannelFactory socketChannelFactory;
+    private final int handshakeTimeout;
+    private final Node node;
+    private final BiConsumer<Connection, Exception> errorHandler;
 
     private Optional<ServerChannel> server = Optional.empty();
-    private Optional<OutboundConnectionMultiplexer> outboundConnectionMultiplexer;
+    private Optional<OutboundConnectionMultiplexer> outboundConnectionMultiplexer = Optional.empty();
 
-    public PeerConnectionsManager(Node.Config config,
-                                  String nodeId,
-                                  BanList banList,
+    public PeerConnectionsManager(BanList banList,
                                   AuthorizationService authorizationService,
-                                  Transport transport) {
-        this.config = config;
-        this.nodeId = nodeId;
+                                  SocketChannelFactory socketChannelFactory,
+                                  int handshakeTimeout,
+                                  Node node,
+                                  BiConsumer<Connection, Exception> errorHandler) {
         this.banList = banList;
         this.authorizationService = authorizationService;
-        this.transport = transport;
+        this.socketChannelFactory = socketChannelFactory;
+        this.handshakeTimeout = handshakeTimeout;
+        this.node = node;
+        this.errorHandler = errorHandler;
     }
 
-    public void start(Node node, int port) {
-        try {
-            Capability myCapability = createServerAndListen(node, port);
-            createAndStartOutboundConnectionMultiplexer(myCapability, node);
-        } catch (IOException e) {
-            log.error("Couldn't start PeerConnectionsManager", e);
-        }
+    public void start(Transport.ServerSocketResult serverSocketResult, Capability myCapability) throws IOException {
+        ServerChannel serverChannel = new ServerChannel(
+                myCapability,
+                serverSocketResult,
+                banList,
+                authorizationService,
+                handshakeTimeout,
+                node,
+                errorHandler
+        );
+        server = Optional.of(serverChannel);
+        serverChannel.start();
+
+        OutboundConnectionManager outboundConnectionManager = new OutboundConnectionManager(
+                authorizationService,
+                banList,
+                myCapability,
+                socketChannelFactory,
+                handshakeTimeout,
+                node,
+                errorHandler,
+                SelectorProvider.provider().openSelector()
+        );
+        OutboundConnectionMultiplexer connectionMultiplexer =
+                new OutboundConnectionMultiplexer(outboundConnectionManager);
+        outboundConnectionMultiplexer = Optional.of(connectionMultiplexer);
+        connectionMultiplexer.start();
     }
 
     public void shutdown() {
@@ -74,79 +97,30 @@ public class PeerConnectionsManager {
         outboundConnectionMultiplexer.ifPresent(OutboundConnectionMultiplexer::shutdown);
     }
 
-    public Optional<Address> findMyAddress() {
-        return server.map(ServerChannel::getAddress);
-    }
-
-    public ConnectionChannel getConnection(Address address) {
-        if (server.isPresent()) {
-            Optional<InboundConnectionChannel> connectionOptional = server.get().getConnectionByAddress(address);
-            if (connectionOptional.isPresent()) {
-                return connectionOptional.get();
-            }
-        }
-
-        if (outboundConnectionMultiplexer.isPresent()) {
-            CompletableFuture<OutboundConnectionChannel> connection = outboundConnectionMultiplexer.get().getConnection(address);
-            try {
-                return connection.get(2, MINUTES);
-            } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                log.warn("Couldn't connect to {}", address);
-            }
-        }
-
-        return null;
+    public CompletableFuture<OutboundConnection> createOutboundConnection(Address address, Load myLoad) {
+        return outboundConnectionMultiplexer
+                .map(multiplexer -> multiplexer.getConnection(address, myLoad))
+                .orElseGet(() -> CompletableFuture.failedFuture(new ConnectionException("PeerConnectionsManager not started")));
     }
 
-    public Stream<ConnectionChannel> getAllConnections() {
-        return Stream.concat(getInboundConnections().stream(), getOutboundConnections().stream());
+    public void startReading(OutboundConnection connection) {
+        outboundConnectionMultiplexer.ifPresent(multiplexer -> multiplexer.startReading(connection));
     }
 
-    public int getNumConnections() {
-        return getInboundConnections().size() + getOutboundConnections().size();
+    public void onConnectionClosed(Connection connection) {
+        if (connection instanceof InboundConnection) {
+            server.ifPresent(serverChannel -> serverChannel.onConnectionClosed(connection));
+        } else {
+            outboundConnectionMultiplexer.ifPresent(multiplexer -> multiplexer.onConnectionClosed(connection));
+        }
     }
 
-    public Collection<InboundConnectionChannel> getInboundConnections() {
+    public Collection<InboundConnection> getInboundConnections() {
         return server.isPresent() ? server.get().getAllInboundConnections() : Collections.emptyList();
     }
 
-    public Collection<OutboundConnectionChannel> getOutboundConnections() {
+    public Collection<OutboundConnection> getOutboundConnections() {
         return outboundConnectionMultiplexer.isPresent() ?
                 outboundConnectionMultiplexer.get().getAllOutboundConnections() : Collections.emptyList();
     }
-
-    private Capability createServerAndListen(Node node, int port) throws IOException {
-        Transport.ServerSocketResult serverSocketResult = transport.getServerSocket(port, nodeId);
-        Capability serverCapability = new Capability(serverSocketResult.getAddress(), new ArrayList<>(config.getSupportedTransportTypes()));
-        ServerChannel serverChannel = new ServerChannel(
-                serverCapability,
-                banList,
-                authorizationService,
-                node,
-                ServerSocketChannel.open()
-        );
-        server = Optional.of(serverChannel);
-        serverChannel.start();
-
-        return serverCapability;
-    }
-
-    private void createAndStartOutboundConnectionMultiplexer(Capability serverCapability, Node node) {
-        try {
-            OutboundConnectionManager outboundConnectionManager = new OutboundConnectionManager(
-                    authorizationService,
-                    banList,
-                    Load.INITIAL_LOAD,
-                    serverCapability,
-                    node,
-                    SelectorProvider.provider().openSelector()
-            );
-            OutboundConnectionMultiplexer connectionMultiplexer =
-                    new OutboundConnectionMultiplexer(outboundConnectionManager);
-            outboundConnectionMultiplexer = Optional.of(connectionMultiplexer);
-            connectionMultiplexer.start();
-        } catch (IOException e) {
-            log.error("Couldn't create OutboundConnectionManager", e);
-        }
-    }
 }
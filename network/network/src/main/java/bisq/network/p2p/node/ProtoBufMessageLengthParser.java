@@ -21,7 +21,7 @@ import java.nio.ByteBuffer;
 
 public class ProtoBufMessageLengthParser {
     public static final int STILL_PARSING_MESSAGE_LENGTH = -1;
-    private final ByteBuffer byteBuffer;
+    private ByteBuffer byteBuffer;
 
     private int readLengthBytes = 0;
     private long currentMessageLength = 0;
@@ -30,6 +30,10 @@ public class ProtoBufMessageLengthParser {
         this.byteBuffer = byteBuffer;
     }
 
+    public void setByteBuffer(ByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer;
+    }
+
     public long parseMessageLength() {
         byte readByte = byteBuffer.get();
         long thisNumber = (readByte & 0x7f);
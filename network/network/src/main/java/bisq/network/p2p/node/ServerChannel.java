@@ -18,20 +18,29 @@
 package bisq.network.p2p.node;
 
 import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.network.p2p.node.transport.Transport;
 import bisq.network.p2p.services.peergroup.BanList;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
 import java.util.*;
+import java.util.function.BiConsumer;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs the selector thread which accepts and serves all inbound connections of a node.
+ * <p>
+ * The transport has created a channel backed server socket already (at Tor the onion service forwards to its
+ * port). We use its channel, so the port stays bound and there is no gap in which another process could take it.
+ */
 @Slf4j
 public class ServerChannel {
 
@@ -40,9 +49,12 @@ public class ServerChannel {
     }
 
     private final Capability myCapability;
+    private final Transport.ServerSocketResult serverSocketResult;
     private final BanList banList;
     private final AuthorizationService authorizationService;
+    private final int handshakeTimeout;
     private final Node node;
+    private final BiConsumer<Connection, Exception> errorHandler;
 
     private final ServerSocketChannel serverSocketChannel;
 
@@ -53,15 +65,21 @@ public class ServerChannel {
     private Optional<Listener> onServerReadyListener = Optional.empty();
 
     public ServerChannel(Capability myCapability,
+                         Transport.ServerSocketResult serverSocketResult,
                          BanList banList,
                          AuthorizationService authorizationService,
+                         int handshakeTimeout,
                          Node node,
-                         ServerSocketChannel serverSocketChannel) {
+                         BiConsumer<Connection, Exception> errorHandler) {
         this.myCapability = myCapability;
+        this.serverSocketResult = serverSocketResult;
         this.banList = banList;
         this.authorizationService = authorizationService;
+        this.handshakeTimeout = handshakeTimeout;
         this.node = node;
-        this.serverSocketChannel = serverSocketChannel;
+        this.errorHandler = errorHandler;
+        this.serverSocketChannel = checkNotNull(serverSocketResult.getServerSocket().getChannel(),
+                "The server socket must be created from a ServerSocketChannel");
     }
 
     public void start() {
@@ -70,30 +88,28 @@ public class ServerChannel {
 
         serverThread = new Thread(() -> {
             try {
-                InetSocketAddress socketAddress = new InetSocketAddress(
-                        InetAddress.getLocalHost(),
-                        myAddress.getPort()
-                );
-                serverSocketChannel.socket().bind(socketAddress);
-
                 Selector selector = SelectorProvider.provider().openSelector();
                 InboundConnectionsManager inboundConnectionsManager =
                         new InboundConnectionsManager(
                                 banList,
                                 myCapability,
                                 authorizationService,
+                                serverSocketResult,
                                 serverSocketChannel,
+                                handshakeTimeout,
                                 selector,
-                                node
+                                node,
+                                errorHandler
                         );
                 this.inboundConnectionsManager = Optional.of(inboundConnectionsManager);
 
                 inboundConnectionsManager.registerOpAccept();
                 onServerReadyListener.ifPresent(Listener::onServerReady);
 
-                while (selector.select() > 0) {
-                    if (isServerStopped()) {
-                        return;
+                // select() returns 0 if the selector got woken up to apply changed interest sets
+                while (!isServerStopped()) {
+                    if (selector.select() == 0) {
+                        continue;
                     }
 
                     Set<SelectionKey> readyKeys = selector.selectedKeys();
@@ -103,20 +119,30 @@ public class ServerChannel {
                         SelectionKey selectionKey = keyIterator.next();
                         keyIterator.remove();
 
-                        if (selectionKey.isAcceptable()) {
-                            inboundConnectionsManager.acceptNewConnection(selectionKey);
-                        }
+                        try {
+                            if (!selectionKey.isValid()) {
+                                continue;
+                            }
+
+                            if (selectionKey.isAcceptable()) {
+                                inboundConnectionsManager.acceptNewConnection(selectionKey);
+                                continue;
+                            }
 
-                        if (selectionKey.isReadable()) {
                             SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
-                            log.info("Received message from {}", socketChannel.getRemoteAddress());
+                            if (selectionKey.isWritable()) {
+                                inboundConnectionsManager.handleWritableChannel(socketChannel);
+                            }
 
-                            if (inboundConnectionsManager.isInboundConnection(socketChannel)) {
-                                inboundConnectionsManager.handleInboundConnection(socketChannel);
+                            if (selectionKey.isValid() && selectionKey.isReadable()) {
+                                inboundConnectionsManager.handleReadableChannel(socketChannel);
                             }
+                        } catch (CancelledKeyException e) {
+                            // Connection got closed. Nothing we can do here.
                         }
                     }
                 }
+                selector.close();
 
             } catch (IOException e) {
                 if (!isServerStopped()) {
@@ -152,14 +178,11 @@ public class ServerChannel {
         return myCapability.getAddress();
     }
 
-    public Optional<InboundConnectionChannel> getConnectionByAddress(Address address) {
-        if (inboundConnectionsManager.isPresent()) {
-            return inboundConnectionsManager.get().getConnectionByAddress(address);
-        }
-        return Optional.empty();
+    public void onConnectionClosed(Connection connection) {
+        inboundConnectionsManager.ifPresent(manager -> manager.onConnectionClosed(connection));
     }
 
-    public Collection<InboundConnectionChannel> getAllInboundConnections() {
+    public Collection<InboundConnection> getAllInboundConnections() {
         if (inboundConnectionsManager.isPresent()) {
             return inboundConnectionsManager.get().getAllInboundConnections();
         }
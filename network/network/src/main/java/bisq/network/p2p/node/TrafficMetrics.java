@@ -0,0 +1,71 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Traffic of all connections by message type. The histograms have a fixed size, so memory does not grow with the
+ * traffic, only with the number of message types.
+ */
+public class TrafficMetrics {
+    @Getter
+    public static class MessageTypeMetrics {
+        private final AtomicLong numMessagesSent = new AtomicLong();
+        private final AtomicLong numMessagesReceived = new AtomicLong();
+        private final AtomicLong sentBytes = new AtomicLong();
+        private final AtomicLong receivedBytes = new AtomicLong();
+        private final Histogram sentMessageSizeHistogram = new Histogram();
+        private final Histogram receivedMessageSizeHistogram = new Histogram();
+    }
+
+    private final Map<String, MessageTypeMetrics> metricsByMessageType = new ConcurrentHashMap<>();
+    @Getter
+    private final Histogram rttHistogram = new Histogram();
+
+    void onSent(String messageType, int numBytes) {
+        MessageTypeMetrics metrics = getOrCreate(messageType);
+        metrics.numMessagesSent.incrementAndGet();
+        metrics.sentBytes.addAndGet(numBytes);
+        metrics.sentMessageSizeHistogram.record(numBytes);
+    }
+
+    void onReceived(String messageType, int numBytes) {
+        MessageTypeMetrics metrics = getOrCreate(messageType);
+        metrics.numMessagesReceived.incrementAndGet();
+        metrics.receivedBytes.addAndGet(numBytes);
+        metrics.receivedMessageSizeHistogram.record(numBytes);
+    }
+
+    void onRtt(long rtt) {
+        rttHistogram.record(rtt);
+    }
+
+    public Map<String, MessageTypeMetrics> getMetricsByMessageType() {
+        return Collections.unmodifiableMap(metricsByMessageType);
+    }
+
+    private MessageTypeMetrics getOrCreate(String messageType) {
+        return metricsByMessageType.computeIfAbsent(messageType, key -> new MessageTypeMetrics());
+    }
+}
@@ -19,57 +19,130 @@ package bisq.network.p2p.node.authorization;
 
 import bisq.common.util.ByteArrayUtils;
 import bisq.network.p2p.message.NetworkMessage;
+import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.Load;
+import bisq.network.p2p.services.data.DataRequest;
 import bisq.security.DigestUtil;
 import bisq.security.pow.ProofOfWork;
 import bisq.security.pow.ProofOfWorkService;
 import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigInteger;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class AuthorizationService {
+    // The challenge of a proof of work of a broadcast DataRequest is bound to the message and to the time period in
+    // which it was minted. We accept the previous, the current and the next period to tolerate clock differences, so a proof of work is
+    // valid for 2 to 3 periods. See createToken.
+    static final long BROADCAST_CHALLENGE_PERIOD = TimeUnit.MINUTES.toMillis(5);
+    private static final byte[] BROADCAST_CHALLENGE_PREFIX = "DataRequest".getBytes(Charsets.UTF_8);
+
     private final ProofOfWorkService proofOfWorkService;
-    // Keep track of message counter per connection to avoid reuse of pow
-    private final Map<String, Set<Integer>> receivedMessageCountersByConnectionId = new ConcurrentHashMap<>();
+    // At broadcasts the same message instance is sent to many peers. We cache the serialized message, so that it is
+    // only serialized once instead of once per peer. Weak keys use identity comparison, thus we avoid the costs of
+    // hashCode and equals of large messages and the entries get removed once the message is not used anymore.
+    private final Cache<NetworkMessage, byte[]> payloadByMessage = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(100)
+            .build();
+    // Proof of work of a broadcast DataRequest by period and difficulty. It is minted once and used for all peers.
+    private final Cache<NetworkMessage, Map<BroadcastProofOfWorkKey, CompletableFuture<ProofOfWork>>> broadcastProofOfWorkByMessage =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .maximumSize(100)
+                    .build();
 
     public AuthorizationService(ProofOfWorkService proofOfWorkService) {
         this.proofOfWorkService = proofOfWorkService;
     }
 
     public AuthorizationToken createToken(NetworkMessage message, Load peersLoad, String peerAddress, int messageCounter) {
+        return createToken(message, peersLoad, peerAddress, messageCounter, Set.of());
+    }
+
+    /**
+     * If the peer supports the BROADCAST_PROOF_OF_WORK feature, the challenge of the proof of work of a DataRequest is
+     * derived from the hash of the message and the current BROADCAST_CHALLENGE_PERIOD, but not from the peer address
+     * and message counter. It is minted once and used for all peers of the broadcast.
+     * <p>
+     * The proof of work is only valid for that message, but within its validity of up to 3 periods anyone who received
+     * the message can relay it with its proof of work to any peer, as we have no secret shared with the peer which could
+     * bind the proof of work to the connection. We rely on the following to limit that reuse:
+     * <ul>
+     *   <li>The ReplayWindow of the connection rejects a message counter which was used already on that connection.</li>
+     *   <li>The DuplicateBroadcastFilter drops the message on any other connection, as its key is the same message
+     *   hash. Once the filter has forgotten it, the store ignores the DataRequest as it has it already.</li>
+     * </ul>
+     * Relaying a valid DataRequest is what the broadcast does anyway, so the replay only saves the relaying peer the
+     * proof of work for a message the receiver already has. Other broadcast messages like the InventoryRequest are not
+     * covered, as a replay would be costly for the receiver.
+     */
+    public AuthorizationToken createToken(NetworkMessage message,
+                                          Load peersLoad,
+                                          String peerAddress,
+                                          int messageCounter,
+                                          Set<Feature> peersFeatures) {
         long ts = System.currentTimeMillis();
-        AuthorizationToken token = proofOfWorkService.mint(getPayload(message), getChallenge(peerAddress, messageCounter), calculateDifficulty(message, peersLoad))
-                .thenApply(proofOfWork -> new AuthorizationToken(proofOfWork, messageCounter))
+        double difficulty = calculateDifficulty(message, peersLoad);
+        CompletableFuture<ProofOfWork> proofOfWork;
+        if (message instanceof DataRequest && peersFeatures.contains(Feature.BROADCAST_PROOF_OF_WORK)) {
+            proofOfWork = getBroadcastProofOfWork(message, difficulty, getBroadcastChallengePeriod(System.currentTimeMillis()));
+        } else {
+            proofOfWork = proofOfWorkService.mint(getCachedPayload(message), getChallenge(peerAddress, messageCounter), difficulty);
+        }
+        AuthorizationToken token = proofOfWork
+                .thenApply(pow -> new AuthorizationToken(pow, messageCounter))
                 .join();
         log.debug("Create token for {} took {} ms\n token={}, peersLoad={}, peerAddress={}",
                 message.getClass().getSimpleName(), System.currentTimeMillis() - ts, token, peersLoad, peerAddress);
         return token;
     }
 
-    public boolean isAuthorized(NetworkMessage message, AuthorizationToken authorizationToken, Load myLoad, String connectionId, String myAddress) {
-        ProofOfWork proofOfWork = authorizationToken.getProofOfWork();
-        int messageCounter = authorizationToken.getMessageCounter();
-
+    /**
+     * @param replayWindow The replay window of the connection. It keeps track of the message counters to avoid the
+     *                     reuse of a proof of work.
+     */
+    public boolean isAuthorized(NetworkMessage message,
+                                AuthorizationToken authorizationToken,
+                                Load myLoad,
+                                ReplayWindow replayWindow,
+                                String myAddress) {
         // Verify that pow is not reused
-        Set<Integer> receivedMessageCounters;
-        if (receivedMessageCountersByConnectionId.containsKey(connectionId)) {
-            receivedMessageCounters = receivedMessageCountersByConnectionId.get(connectionId);
-            if (receivedMessageCounters.contains(messageCounter)) {
-                log.warn("Invalid receivedMessageCounters. We received the proofOfWork for that message already.");
-                return false;
-            }
-        } else {
-            receivedMessageCounters = new HashSet<>();
-            receivedMessageCountersByConnectionId.put(connectionId, receivedMessageCounters);
+        if (!replayWindow.tryAdd(authorizationToken.getMessageCounter())) {
+            log.warn("Invalid messageCounter. We received the proofOfWork for that message already or it is outside of our replay window.");
+            return false;
         }
-        receivedMessageCounters.add(messageCounter);
+
+        return isAuthorized(message, authorizationToken, myLoad, myAddress);
+    }
+
+    /**
+     * Used for the handshake messages, which are the first messages of a connection. As the connection is not
+     * established yet, we do not track the message counter.
+     */
+    public boolean isAuthorized(NetworkMessage message, AuthorizationToken authorizationToken, Load myLoad, String myAddress) {
+        return isAuthorized(message, authorizationToken, myLoad, myAddress, System.currentTimeMillis());
+    }
+
+    boolean isAuthorized(NetworkMessage message,
+                         AuthorizationToken authorizationToken,
+                         Load myLoad,
+                         String myAddress,
+                         long now) {
+        ProofOfWork proofOfWork = authorizationToken.getProofOfWork();
+        int messageCounter = authorizationToken.getMessageCounter();
 
         // Verify difficulty
         if (calculateDifficulty(message, myLoad) != proofOfWork.getDifficulty()) {
@@ -78,13 +151,16 @@ public class AuthorizationService {
         }
 
         // Verify payload
-        if (!Arrays.equals(getPayload(message), proofOfWork.getPayload())) {
+        byte[] payload = getPayload(message);
+        if (!Arrays.equals(payload, proofOfWork.getPayload())) {
             log.warn("Invalid payload");
             return false;
         }
 
         // Verify challenge
-        if (!Arrays.equals(getChallenge(myAddress, messageCounter), proofOfWork.getChallenge())) {
+        boolean isBroadcastChallenge = message instanceof DataRequest &&
+                isValidBroadcastChallenge(proofOfWork.getChallenge(), DigestUtil.sha256(payload), now);
+        if (!isBroadcastChallenge && !Arrays.equals(getChallenge(myAddress, messageCounter), proofOfWork.getChallenge())) {
             log.warn("Invalid challenge");
             return false;
         }
@@ -98,6 +174,48 @@ public class AuthorizationService {
         return message.toProto().toByteArray();
     }
 
+    private byte[] getCachedPayload(NetworkMessage message) {
+        try {
+            return payloadByMessage.get(message, () -> getPayload(message));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private CompletableFuture<ProofOfWork> getBroadcastProofOfWork(NetworkMessage message, double difficulty, long period) {
+        try {
+            Map<BroadcastProofOfWorkKey, CompletableFuture<ProofOfWork>> proofOfWorkByKey =
+                    broadcastProofOfWorkByMessage.get(message, ConcurrentHashMap::new);
+            // Proofs of work of past periods are not used anymore
+            proofOfWorkByKey.keySet().removeIf(key -> key.getPeriod() < period);
+            return proofOfWorkByKey.computeIfAbsent(new BroadcastProofOfWorkKey(period, difficulty), key -> {
+                byte[] payload = getCachedPayload(message);
+                byte[] challenge = getBroadcastChallenge(DigestUtil.sha256(payload), period);
+                return proofOfWorkService.mint(payload, challenge, difficulty);
+            });
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private boolean isValidBroadcastChallenge(byte[] challenge, byte[] messageHash, long now) {
+        long period = getBroadcastChallengePeriod(now);
+        return Arrays.equals(getBroadcastChallenge(messageHash, period), challenge) ||
+                Arrays.equals(getBroadcastChallenge(messageHash, period - 1), challenge) ||
+                Arrays.equals(getBroadcastChallenge(messageHash, period + 1), challenge);
+    }
+
+    private static long getBroadcastChallengePeriod(long time) {
+        return time / BROADCAST_CHALLENGE_PERIOD;
+    }
+
+    // The message hash is the same as the key of the DuplicateBroadcastFilter
+    private static byte[] getBroadcastChallenge(byte[] messageHash, long period) {
+        return DigestUtil.sha256(ByteArrayUtils.concat(BROADCAST_CHALLENGE_PREFIX,
+                messageHash,
+                BigInteger.valueOf(period).toByteArray()));
+    }
+
     private byte[] getChallenge(String peerAddress, int messageCounter) {
         return DigestUtil.sha256(ByteArrayUtils.concat(peerAddress.getBytes(Charsets.UTF_8),
                 BigInteger.valueOf(messageCounter).toByteArray()));
@@ -110,4 +228,16 @@ public class AuthorizationService {
         return cost * loadFactor;
         // return 1048576; // = Math.pow(2, 20) = 1048576; -> high value which takes several seconds
     }
+
+    @Getter
+    @EqualsAndHashCode
+    private static final class BroadcastProofOfWorkKey {
+        private final long period;
+        private final double difficulty;
+
+        private BroadcastProofOfWorkKey(long period, double difficulty) {
+            this.period = period;
+            this.difficulty = difficulty;
+        }
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of the message counters received on a connection (as used for anti-replay in IPsec).
+ * We keep the highest received counter and a bitmap of the WINDOW_SIZE counters below it. Counters older than the
+ * window are rejected. As the peer increments the counter with each message, only messages which got delayed
+ * by more than WINDOW_SIZE other messages would be rejected wrongly.
+ * <p>
+ * The window is owned by the connection, so it gets released together with the connection.
+ */
+public class ReplayWindow {
+    static final int WINDOW_SIZE = 1024;
+
+    // Bit i of the window is set if we have received the counter (highestCounter - i)
+    private final long[] window = new long[WINDOW_SIZE / 64];
+    private long highestCounter = -1;
+
+    /**
+     * @return True if the counter has not been received before and got added, false if it is a replay or too old.
+     */
+    synchronized boolean tryAdd(int messageCounter) {
+        long counter = messageCounter;
+        if (counter > highestCounter) {
+            shift(counter - highestCounter);
+            highestCounter = counter;
+            window[0] |= 1;
+            return true;
+        }
+
+        long offset = highestCounter - counter;
+        if (offset >= WINDOW_SIZE) {
+            return false;
+        }
+        int index = (int) (offset >>> 6);
+        long mask = 1L << (offset & 63);
+        if ((window[index] & mask) != 0) {
+            return false;
+        }
+        window[index] |= mask;
+        return true;
+    }
+
+    // Moves all bits by the given distance to higher offsets. Bits moved beyond the window get dropped.
+    private void shift(long distance) {
+        if (distance >= WINDOW_SIZE) {
+            Arrays.fill(window, 0);
+            return;
+        }
+        int words = (int) (distance >>> 6);
+        int bits = (int) (distance & 63);
+        for (int i = window.length - 1; i >= 0; i--) {
+            int source = i - words;
+            long value = source >= 0 ? window[source] << bits : 0;
+            if (bits > 0 && source > 0) {
+                value |= window[source - 1] >>> (64 - bits);
+            }
+            window[i] = value;
+        }
+    }
+}
@@ -2,14 +2,18 @@ package bisq.network.p2p.node.transport;
 
 import bisq.network.common.TransportConfig;
 import bisq.network.p2p.node.Address;
+import bisq.network.p2p.node.transport.socketchannel.ClearNetSocketChannelFactory;
+import bisq.network.p2p.node.transport.socketchannel.SocketChannelFactory;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -25,15 +29,19 @@ public class ClearNetTransport implements Transport {
     @EqualsAndHashCode
     public static final class Config implements TransportConfig {
         public static Config from(Path dataDir, com.typesafe.config.Config config) {
-            return new Config(dataDir, (int) TimeUnit.SECONDS.toMillis(config.getInt("socketTimeout")));
+            return new Config(dataDir,
+                    (int) TimeUnit.SECONDS.toMillis(config.getInt("socketTimeout")),
+                    config.hasPath("selectorTransportEnabled") && config.getBoolean("selectorTransportEnabled"));
         }
 
         private final int socketTimeout;
         private final Path dataDir;
+        private final boolean selectorTransportEnabled;
 
-        public Config(Path dataDir, int socketTimeout) {
+        public Config(Path dataDir, int socketTimeout, boolean selectorTransportEnabled) {
             this.dataDir = dataDir;
             this.socketTimeout = socketTimeout;
+            this.selectorTransportEnabled = selectorTransportEnabled;
         }
     }
 
@@ -59,7 +67,14 @@ public class ClearNetTransport implements Transport {
     public ServerSocketResult getServerSocket(int port, String nodeId) {
         log.info("Create serverSocket at port {}", port);
         try {
-            ServerSocket serverSocket = new ServerSocket(port);
+            // The selector transport needs a channel backed server socket
+            ServerSocket serverSocket;
+            if (config.isSelectorTransportEnabled()) {
+                serverSocket = ServerSocketChannel.open().socket();
+                serverSocket.bind(new InetSocketAddress(port));
+            } else {
+                serverSocket = new ServerSocket(port);
+            }
             Address address = Address.localHost(port);
             log.debug("ServerSocket created at port {}", port);
             return new ServerSocketResult(nodeId, serverSocket, address);
@@ -75,6 +90,11 @@ public class ClearNetTransport implements Transport {
         return new Socket(address.getHost(), address.getPort());
     }
 
+    @Override
+    public Optional<SocketChannelFactory> getSocketChannelFactory() {
+        return Optional.of(new ClearNetSocketChannelFactory());
+    }
+
     @Override
     public CompletableFuture<Void> shutdown() {
         return CompletableFuture.runAsync(() -> {
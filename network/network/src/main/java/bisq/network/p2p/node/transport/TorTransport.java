@@ -3,6 +3,8 @@ package bisq.network.p2p.node.transport;
 import bisq.network.common.TransportConfig;
 import bisq.network.p2p.node.Address;
 import bisq.network.p2p.node.ConnectionException;
+import bisq.network.p2p.node.transport.socketchannel.SocketChannelFactory;
+import bisq.network.p2p.node.transport.socketchannel.TorSocketChannelFactory;
 import bisq.tor.TorService;
 import bisq.tor.TorTransportConfig;
 import bisq.tor.onionservice.CreateOnionServiceResponse;
@@ -59,6 +61,11 @@ public class TorTransport implements Transport {
         return socket;
     }
 
+    @Override
+    public Optional<SocketChannelFactory> getSocketChannelFactory() {
+        return Optional.of(new TorSocketChannelFactory(torService.getSocksPort()));
+    }
+
     @Override
     public boolean isPeerOnline(Address address) {
         return torService.isOnionServiceOnline(address.getHost());
@@ -18,6 +18,7 @@
 package bisq.network.p2p.node.transport;
 
 import bisq.network.p2p.node.Address;
+import bisq.network.p2p.node.transport.socketchannel.SocketChannelFactory;
 import bisq.tor.onionservice.CreateOnionServiceResponse;
 import com.runjva.sourceforge.jsocks.protocol.Socks5Proxy;
 import lombok.EqualsAndHashCode;
@@ -77,6 +78,16 @@ public interface Transport {
 
     Socket getSocket(Address address) throws IOException;
 
+    /**
+     * Used if the selector transport is enabled in the TransportConfig.
+     *
+     * @return The factory for non-blocking socket channels, or empty if the transport does not support the selector
+     * transport. In that case the node uses blocking sockets.
+     */
+    default Optional<SocketChannelFactory> getSocketChannelFactory() {
+        return Optional.empty();
+    }
+
     default Optional<Socks5Proxy> getSocksProxy() throws IOException {
         return Optional.empty();
     }
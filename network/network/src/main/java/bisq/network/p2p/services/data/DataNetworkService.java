@@ -25,12 +25,14 @@ import bisq.network.p2p.services.data.broadcast.BroadcastMessage;
 import bisq.network.p2p.services.data.broadcast.BroadcastResult;
 import bisq.network.p2p.services.data.broadcast.Broadcaster;
 import bisq.network.p2p.services.data.filter.DataFilter;
+import bisq.network.p2p.services.data.filter.FilterEntry;
 import bisq.network.p2p.services.data.inventory.Inventory;
 import bisq.network.p2p.services.data.inventory.InventoryService;
 import bisq.network.p2p.services.peergroup.PeerGroup;
 import bisq.network.p2p.services.peergroup.PeerGroupService;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -121,8 +123,8 @@ public class DataNetworkService implements PeerGroupService.Listener, Node.Liste
         return broadcaster.reBroadcast(broadcastMessage);
     }
 
-    List<CompletableFuture<Inventory>> requestInventory(DataFilter dataFilter) {
-        return inventoryService.request(dataFilter);
+    List<CompletableFuture<Inventory>> requestInventory(Collection<FilterEntry> filterEntries) {
+        return inventoryService.request(filterEntries);
     }
 
     void addListener(DataNetworkService.Listener listener) {
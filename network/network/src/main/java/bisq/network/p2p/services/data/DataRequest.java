@@ -33,6 +33,23 @@ public interface DataRequest extends BroadcastMessage {
 
     boolean isExpired();
 
+    /**
+     * @return The date in ms after which the request is expired. Long.MAX_VALUE if it never expires.
+     */
+    long getExpiryDate();
+
+    /**
+     * @return The sum of created and ttl, capped at Long.MAX_VALUE and Long.MIN_VALUE if it overflows. The ttl of some
+     * requests comes from the wire, so a huge ttl must not wrap around to an expiry date in the past.
+     */
+    static long toExpiryDate(long created, long ttl) {
+        try {
+            return Math.addExact(created, ttl);
+        } catch (ArithmeticException e) {
+            return ttl > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+    }
+
     static DataRequest fromProto(bisq.network.protobuf.DataRequest proto) {
         switch (proto.getMessageCase()) {
             case ADDAUTHENTICATEDDATAREQUEST: {
@@ -23,7 +23,7 @@ import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
 import bisq.network.p2p.node.transport.Transport;
 import bisq.network.p2p.services.data.broadcast.BroadcastResult;
-import bisq.network.p2p.services.data.filter.DataFilter;
+import bisq.network.p2p.services.data.filter.FilterEntry;
 import bisq.network.p2p.services.data.storage.Result;
 import bisq.network.p2p.services.data.storage.StorageData;
 import bisq.network.p2p.services.data.storage.StorageService;
@@ -43,8 +43,9 @@ import lombok.extern.slf4j.Slf4j;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -324,27 +325,41 @@ public class DataService implements DataNetworkService.Listener {
     }
 
     public void requestInventory(StorageService.StoreType storeType) {
-        requestInventory(new DataFilter(new ArrayList<>(storageService.getFilterEntries(storeType))));
+        requestInventory(storageService.getFilterEntries(storeType));
     }
 
     public void requestInventory(String storeName) {
-        requestInventory(new DataFilter(new ArrayList<>(storageService.getFilterEntries(storeName))));
+        requestInventory(storageService.getFilterEntries(storeName));
     }
 
-    public void requestInventory(DataFilter dataFilter) {
-        dataNetworkServiceByTransportType.values().forEach(service -> requestInventory(dataFilter, service));
+    public void requestInventory(Collection<FilterEntry> filterEntries) {
+        dataNetworkServiceByTransportType.values().forEach(service -> requestInventory(filterEntries, service));
     }
 
-    public void requestInventory(DataFilter dataFilter, DataNetworkService dataNetworkService) {
-        dataNetworkService.requestInventory(dataFilter).forEach(future -> {
+    public void requestInventory(Collection<FilterEntry> filterEntries, DataNetworkService dataNetworkService) {
+        dataNetworkService.requestInventory(filterEntries).forEach(future -> {
             future.whenComplete(((inventory, throwable) -> {
-                inventory.getEntries().forEach(dataRequest -> {
-                    if (dataRequest instanceof AddDataRequest) {
-                        processAddDataRequest((AddDataRequest) dataRequest, false);
-                    } else if (dataRequest instanceof RemoveDataRequest) {
-                        processRemoveDataRequest((RemoveDataRequest) dataRequest, false);
-                    }
-                });
+                if (throwable != null || inventory == null) {
+                    return;
+                }
+                // The add requests are verified in parallel and added per store in one batch
+                List<AddDataRequest> addDataRequests = inventory.getEntries().stream()
+                        .filter(dataRequest -> dataRequest instanceof AddDataRequest)
+                        .map(dataRequest -> (AddDataRequest) dataRequest)
+                        .collect(Collectors.toList());
+                // We apply the remove requests after the add requests, as the data they remove might be added by
+                // the same inventory
+                storageService.onAddDataRequests(addDataRequests)
+                        .whenComplete((storageDataList, error) -> {
+                            if (error != null) {
+                                log.warn("Adding the data of the inventory failed", error);
+                            } else {
+                                storageDataList.forEach(this::onStorageDataAdded);
+                            }
+                            inventory.getEntries().stream()
+                                    .filter(dataRequest -> dataRequest instanceof RemoveDataRequest)
+                                    .forEach(dataRequest -> processRemoveDataRequest((RemoveDataRequest) dataRequest, false));
+                        });
             }));
         });
     }
@@ -373,16 +388,7 @@ public class DataService implements DataNetworkService.Listener {
                     optionalData.ifPresent(storageData -> {
                         // We get called on dispatcher thread with onMessage, and we don't switch thread in 
                         // async calls
-
-                        if (storageData instanceof AuthorizedData) {
-                            listeners.forEach(e -> e.onAuthorizedDataAdded((AuthorizedData) storageData));
-                        } else if (storageData instanceof AuthenticatedData) {
-                            listeners.forEach(e -> e.onAuthenticatedDataAdded((AuthenticatedData) storageData));
-                        } else if (storageData instanceof MailboxData) {
-                            listeners.forEach(listener -> listener.onMailboxDataAdded((MailboxData) storageData));
-                        } else if (storageData instanceof AppendOnlyData) {
-                            listeners.forEach(listener -> listener.onAppendOnlyDataAdded((AppendOnlyData) storageData));
-                        }
+                        onStorageDataAdded(storageData);
                         if (allowReBroadcast) {
                             dataNetworkServiceByTransportType.values().forEach(e -> e.reBroadcast(addDataRequest));
                         }
@@ -390,6 +396,18 @@ public class DataService implements DataNetworkService.Listener {
                 });
     }
 
+    private void onStorageDataAdded(StorageData storageData) {
+        if (storageData instanceof AuthorizedData) {
+            listeners.forEach(e -> e.onAuthorizedDataAdded((AuthorizedData) storageData));
+        } else if (storageData instanceof AuthenticatedData) {
+            listeners.forEach(e -> e.onAuthenticatedDataAdded((AuthenticatedData) storageData));
+        } else if (storageData instanceof MailboxData) {
+            listeners.forEach(listener -> listener.onMailboxDataAdded((MailboxData) storageData));
+        } else if (storageData instanceof AppendOnlyData) {
+            listeners.forEach(listener -> listener.onAppendOnlyDataAdded((AppendOnlyData) storageData));
+        }
+    }
+
     private void processRemoveDataRequest(RemoveDataRequest removeDataRequest, boolean allowReBroadcast) {
         storageService.onRemoveDataRequest(removeDataRequest)
                 .whenComplete((optionalData, throwable) -> {
@@ -409,6 +427,6 @@ public class DataService implements DataNetworkService.Listener {
     }
 
     private void doRequestInventory(DataNetworkService dataNetworkService) {
-        requestInventory(new DataFilter(new ArrayList<>(storageService.getFilterEntries(StorageService.StoreType.ALL))), dataNetworkService);
+        requestInventory(storageService.getFilterEntries(StorageService.StoreType.ALL), dataNetworkService);
     }
 }
\ No newline at end of file
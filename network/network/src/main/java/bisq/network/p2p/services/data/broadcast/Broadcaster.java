@@ -89,24 +89,25 @@ public class Broadcaster {
                 broadcastMessage.getClass().getSimpleName(), numBroadcasts, numConnections, distributionFactor);
         List<Connection> allConnections = peerGroup.getAllConnections().collect(Collectors.toList());
         Collections.shuffle(allConnections);
-        NetworkService.NETWORK_IO_POOL.submit(() -> {
-            allConnections.stream()
-                    .limit(numBroadcasts)
-                    .forEach(connection -> {
-                        log.debug("Node {} broadcast to {}", node, connection.getPeerAddress());
-                        try {
-                            node.send(broadcastMessage, connection);
-                            numSuccess.incrementAndGet();
-                        } catch (Throwable throwable) {
-                            numFaults.incrementAndGet();
-                        }
-                        if (numSuccess.get() + numFaults.get() == numBroadcasts) {
-                            future.complete(new BroadcastResult(numSuccess.get(),
-                                    numFaults.get(),
-                                    System.currentTimeMillis() - ts));
-                        }
-                    });
-        });
+        // The proof of work of a DataRequest is minted only once for all peers supporting the BROADCAST_PROOF_OF_WORK
+        // feature. For other peers each send mints its own proof of work, so we send in parallel to not accumulate
+        // the minting time of all peers. The serialized message is cached by the AuthorizationService.
+        allConnections.stream()
+                .limit(numBroadcasts)
+                .forEach(connection -> NetworkService.NETWORK_IO_POOL.submit(() -> {
+                    log.debug("Node {} broadcast to {}", node, connection.getPeerAddress());
+                    try {
+                        node.send(broadcastMessage, connection);
+                        numSuccess.incrementAndGet();
+                    } catch (Throwable throwable) {
+                        numFaults.incrementAndGet();
+                    }
+                    if (numSuccess.get() + numFaults.get() == numBroadcasts) {
+                        future.complete(new BroadcastResult(numSuccess.get(),
+                                numFaults.get(),
+                                System.currentTimeMillis() - ts));
+                    }
+                }));
         return future;
     }
 
@@ -0,0 +1,130 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.filter;
+
+import bisq.common.proto.Proto;
+import com.google.protobuf.ByteString;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Collection;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compact probabilistic representation of a set of filter entries. A lookup never returns a false negative, but
+ * with a probability of about FALSE_POSITIVE_RATE an entry not added to the filter is reported as contained.
+ * As the seed is chosen randomly at each creation, a false positive at one inventory request is independent of the
+ * next request. The exact reconciliation is done by the inventory requests which use the list of filter entries.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class BloomFilter implements Proto {
+    // Requires about 24 bits per entry, compared to about 24 bytes per entry for a FilterEntry
+    public static final double FALSE_POSITIVE_RATE = 0.00001;
+    public static final int MAX_NUM_HASH_FUNCTIONS = 30;
+    // Enough for about 3.3 million entries at FALSE_POSITIVE_RATE
+    public static final int MAX_NUM_BYTES = 10_000_000;
+    // Above that number of entries the size cap would increase the false positive rate
+    public static final int MAX_NUM_ENTRIES = 3_000_000;
+
+    @ToString.Exclude
+    private final byte[] bits;
+    private final int numHashFunctions;
+    private final long seed;
+
+    public BloomFilter(byte[] bits, int numHashFunctions, long seed) {
+        this.bits = bits;
+        this.numHashFunctions = numHashFunctions;
+        this.seed = seed;
+
+        checkArgument(bits.length > 0 && bits.length <= MAX_NUM_BYTES,
+                "Invalid bits length. bits.length=" + bits.length);
+        checkArgument(numHashFunctions > 0 && numHashFunctions <= MAX_NUM_HASH_FUNCTIONS,
+                "Invalid numHashFunctions. numHashFunctions=" + numHashFunctions);
+    }
+
+    public static BloomFilter from(Collection<FilterEntry> filterEntries) {
+        int numEntries = Math.max(1, filterEntries.size());
+        double ln2 = Math.log(2);
+        long numBits = (long) Math.ceil(-numEntries * Math.log(FALSE_POSITIVE_RATE) / (ln2 * ln2));
+        int numBytes = (int) Math.min(MAX_NUM_BYTES, (numBits + 7) / 8);
+        int numHashFunctions = (int) Math.round(8d * numBytes / numEntries * ln2);
+        numHashFunctions = Math.max(1, Math.min(MAX_NUM_HASH_FUNCTIONS, numHashFunctions));
+        BloomFilter bloomFilter = new BloomFilter(new byte[numBytes], numHashFunctions, new SecureRandom().nextLong());
+        filterEntries.forEach(bloomFilter::put);
+        return bloomFilter;
+    }
+
+    public bisq.network.protobuf.BloomFilter toProto() {
+        return bisq.network.protobuf.BloomFilter.newBuilder()
+                .setBits(ByteString.copyFrom(bits))
+                .setNumHashFunctions(numHashFunctions)
+                .setSeed(seed)
+                .build();
+    }
+
+    public static BloomFilter fromProto(bisq.network.protobuf.BloomFilter proto) {
+        return new BloomFilter(proto.getBits().toByteArray(), proto.getNumHashFunctions(), proto.getSeed());
+    }
+
+    public boolean mightContain(FilterEntry filterEntry) {
+        long numBits = bits.length * 8L;
+        long hash1 = getHash1(filterEntry);
+        long hash2 = getHash2(filterEntry);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, numBits);
+            if ((bits[(int) (index >>> 3)] & (1 << (index & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(FilterEntry filterEntry) {
+        long numBits = bits.length * 8L;
+        long hash1 = getHash1(filterEntry);
+        long hash2 = getHash2(filterEntry);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, numBits);
+            bits[(int) (index >>> 3)] |= (byte) (1 << (index & 7));
+        }
+    }
+
+    // The hash of the filter entry is already a cryptographic hash, so we only need to mix in the seed and the
+    // sequence number to derive the two base hashes used for double hashing.
+    private long getHash1(FilterEntry filterEntry) {
+        long value = ByteBuffer.wrap(filterEntry.getHash(), 0, 8).getLong();
+        return mix(mix(value ^ seed) ^ filterEntry.getSequenceNumber());
+    }
+
+    private long getHash2(FilterEntry filterEntry) {
+        long value = ByteBuffer.wrap(filterEntry.getHash(), 8, 8).getLong();
+        return mix(value ^ seed ^ ((long) filterEntry.getSequenceNumber() << 32)) | 1;
+    }
+
+    // Finalizer of the SplitMix64 generator
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
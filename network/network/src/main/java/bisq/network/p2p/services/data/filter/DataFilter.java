@@ -23,33 +23,64 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Getter
 @ToString
 @EqualsAndHashCode
 public final class DataFilter implements Proto {
+    // If we have more entries we send a bloom filter instead of the list of filter entries.
+    public static final int MIN_NUM_ENTRIES_FOR_BLOOM_FILTER = 1000;
+
     private final List<FilterEntry> filterEntries;
+    private final Optional<BloomFilter> bloomFilter;
+
+    /**
+     * Must only be used for peers which have announced the INVENTORY_BLOOM_FILTER feature.
+     * A false positive of the bloom filter means that the peer does not send us an entry we are missing. For each
+     * missing entry this happens with a probability of at most BloomFilter.FALSE_POSITIVE_RATE per request. As we
+     * only use the bloom filter up to BloomFilter.MAX_NUM_ENTRIES, the size cap of the filter does not increase that
+     * rate. InventoryService sends the exact list to one peer of each request round, so that peer delivers such an
+     * entry if it has it.
+     */
+    public static DataFilter from(Collection<FilterEntry> filterEntries) {
+        if (filterEntries.size() >= MIN_NUM_ENTRIES_FOR_BLOOM_FILTER &&
+                filterEntries.size() <= BloomFilter.MAX_NUM_ENTRIES) {
+            return new DataFilter(BloomFilter.from(filterEntries));
+        } else {
+            return new DataFilter(new ArrayList<>(filterEntries));
+        }
+    }
 
     public DataFilter(List<FilterEntry> filterEntries) {
+        this(filterEntries, Optional.empty());
+    }
+
+    public DataFilter(BloomFilter bloomFilter) {
+        this(new ArrayList<>(), Optional.of(bloomFilter));
+    }
+
+    private DataFilter(List<FilterEntry> filterEntries, Optional<BloomFilter> bloomFilter) {
         this.filterEntries = filterEntries;
+        this.bloomFilter = bloomFilter;
         // We need to sort deterministically as the data is used in the proof of work check
         Collections.sort(this.filterEntries);
     }
 
     public bisq.network.protobuf.DataFilter toProto() {
-        return bisq.network.protobuf.DataFilter.newBuilder()
+        bisq.network.protobuf.DataFilter.Builder builder = bisq.network.protobuf.DataFilter.newBuilder()
                 .addAllFilterEntries(filterEntries.stream()
                         .map(FilterEntry::toProto)
-                        .collect(Collectors.toList()))
-                .build();
+                        .collect(Collectors.toList()));
+        bloomFilter.ifPresent(e -> builder.setBloomFilter(e.toProto()));
+        return builder.build();
     }
 
     public static DataFilter fromProto(bisq.network.protobuf.DataFilter proto) {
         return new DataFilter(proto.getFilterEntriesList().stream()
                 .map(FilterEntry::fromProto)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList()),
+                proto.hasBloomFilter() ? Optional.of(BloomFilter.fromProto(proto.getBloomFilter())) : Optional.empty());
     }
-}
\ No newline at end of file
+}
@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data.inventory;
 
 import bisq.common.data.ByteArray;
 import bisq.common.proto.Proto;
+import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.services.data.DataRequest;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -36,6 +37,9 @@ import java.util.stream.Collectors;
 @EqualsAndHashCode
 @Slf4j
 public final class Inventory implements Proto {
+    // Max. summed up size of the serialized entries. Leaves room for the envelope within NetworkEnvelope.MAX_SIZE.
+    public static final int MAX_SIZE = NetworkEnvelope.MAX_SIZE - 1024 * 1024;
+
     private final List<? extends DataRequest> entries;
     private final int peersNumEntries;
 
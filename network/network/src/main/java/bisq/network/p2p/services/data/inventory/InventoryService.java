@@ -21,16 +21,23 @@ import bisq.network.NetworkService;
 import bisq.network.p2p.message.NetworkMessage;
 import bisq.network.p2p.node.CloseReason;
 import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.Node;
 import bisq.network.p2p.services.data.filter.DataFilter;
+import bisq.network.p2p.services.data.filter.FilterEntry;
 import bisq.network.p2p.services.peergroup.PeerGroup;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -53,7 +60,14 @@ public class InventoryService implements Node.Listener {
     public void initialize() {
     }
 
-    public List<CompletableFuture<Inventory>> request(DataFilter dataFilter) {
+    public List<CompletableFuture<Inventory>> request(Collection<FilterEntry> filterEntries) {
+        // Older nodes drop the unknown bloom filter field and would then fail the proof of work check of the
+        // re-serialized request. So we send the bloom filter only to peers which have announced support for it.
+        Supplier<DataFilter> listDataFilter = Suppliers.memoize(() -> new DataFilter(new ArrayList<>(filterEntries)));
+        Supplier<DataFilter> bloomDataFilter = Suppliers.memoize(() -> DataFilter.from(filterEntries));
+        // A false positive of the bloom filter withholds an entry we are missing. The first request of each round uses
+        // the exact list, so that peer sends us all entries we are missing, independent of the bloom filter.
+        AtomicBoolean hasExactRequest = new AtomicBoolean();
         int maxRequests = 400;
         return peerGroup.getAllConnections()
                 .filter(connection -> !requestHandlerMap.containsKey(connection.getId()))
@@ -62,6 +76,9 @@ public class InventoryService implements Node.Listener {
                     String key = connection.getId();
                     InventoryHandler handler = new InventoryHandler(node, connection);
                     requestHandlerMap.put(key, handler);
+                    boolean supportsBloomFilter = connection.getPeersFeatures().contains(Feature.INVENTORY_BLOOM_FILTER);
+                    boolean useExactList = !hasExactRequest.getAndSet(true) || !supportsBloomFilter;
+                    DataFilter dataFilter = useExactList ? listDataFilter.get() : bloomDataFilter.get();
                     return handler.request(dataFilter)
                             .orTimeout(TIMEOUT, TimeUnit.SECONDS)
                             .whenComplete((__, throwable) -> requestHandlerMap.remove(key));
@@ -0,0 +1,70 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Map of a DataStore. Besides the Map methods it offers the accessors which an off-heap map can serve without
+ * decoding the values (see OffHeapDataRequestMap). HeapDataRequestMap implements them on top of the stored values.
+ */
+public interface DataRequestMap<T extends DataRequest> extends Map<ByteArray, T> {
+    /**
+     * Like put but without returning the previous value.
+     */
+    void set(ByteArray key, T value);
+
+    /**
+     * Like remove but without returning the previous value.
+     *
+     * @return True if the map contained the key
+     */
+    boolean delete(Object key);
+
+    /**
+     * @return The sequence number, creation and expiry date of the value.
+     */
+    Optional<DataStoreEntryInfo> findEntryInfo(ByteArray key);
+
+    /**
+     * @return The serialized protobuf DataRequest of the value.
+     */
+    Optional<byte[]> findSerializedValue(ByteArray key);
+
+    /**
+     * Passes the serialized value of each entry to the consumer. Iteration is weakly consistent.
+     */
+    void forEachSerializedValue(BiConsumer<ByteArray, byte[]> consumer);
+
+    /**
+     * @return A copy of the map at the time of the call.
+     */
+    DataRequestMap<T> snapshot();
+
+    /**
+     * @return Maps with at most maxSize entries, which together contain all entries of this map. Returns one empty
+     * map if this map is empty.
+     */
+    List<? extends DataRequestMap<T>> split(int maxSize);
+}
@@ -29,6 +29,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.File;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -39,22 +40,55 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
     @Getter
     protected final Persistence<DataStore<T>> persistence;
     @Getter
-    public final DataStore<T> persistableStore = new DataStore<>();
+    public final DataStore<T> persistableStore;
     @Getter
     private final String storeKey;
     @Getter
     protected final String subDirectory;
     protected Optional<Integer> maxMapSize = Optional.empty();
+    private final DataStoreLog<T> dataStoreLog;
+    protected final ExpiryIndex expiryIndex = new ExpiryIndex();
 
-    public DataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
+    public DataStorageService(PersistenceService persistenceService,
+                              String storeName,
+                              String storeKey,
+                              boolean useOffHeapMap) {
         super();
         this.storeKey = storeKey;
+        persistableStore = useOffHeapMap ? DataStore.createWithOffHeapMap() : new DataStore<>();
         String storageFileName = StringUtils.camelCaseToSnakeCase(storeKey + STORE_POST_FIX);
         subDirectory = SUB_PATH + File.separator + storeName;
         persistence = persistenceService.getOrCreatePersistence(this, subDirectory, storageFileName, persistableStore);
+        dataStoreLog = new DataStoreLog<>(persistence.getStorePath());
     }
 
     public void shutdown() {
+        dataStoreLog.shutdown();
+    }
+
+    /**
+     * Reads the persisted snapshot and applies the changes from the DataStoreLog on top of it.
+     */
+    @Override
+    public CompletableFuture<Optional<DataStore<T>>> readPersisted() {
+        return persistence.readAsync()
+                .thenApplyAsync(optionalPersisted -> {
+                    DataStore<T> persisted = optionalPersisted.orElseGet(DataStore::new);
+                    int numReplayed = dataStoreLog.replay(persisted.getMap());
+                    if (optionalPersisted.isEmpty() && numReplayed == 0) {
+                        return Optional.empty();
+                    }
+
+                    persisted = prunePersisted(persisted);
+                    persistableStore.applyPersisted(persisted);
+                    expiryIndex.rebuild(persistableStore);
+                    onPersistedApplied(persisted);
+                    if (numReplayed > 0) {
+                        log.info("Applied {} log entries to {}", numReplayed, getStoreKey());
+                        compact();
+                    }
+                    return Optional.of(persisted);
+                }, Persistence.getApplyExecutorService());
     }
 
     @Override
@@ -69,16 +103,37 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
             return persisted;
         }
 
-        Map<ByteArray, T> pruned = map.entrySet().stream()
-                .filter(entry -> !entry.getValue().isExpired())
-                .sorted((o1, o2) -> Long.compare(o2.getValue().getCreated(), o1.getValue().getCreated()))
-                .limit(getMaxMapSize())
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        map.clear();
-        map.putAll(pruned);
+        map.entrySet().stream()
+                .filter(entry -> entry.getValue().isExpired())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(map::remove);
+
+        // Only if we exceed the max. map size we need to sort by date to keep the most recent entries
+        int maxMapSize = getMaxMapSize();
+        if (map.size() > maxMapSize) {
+            Map<ByteArray, T> pruned = map.entrySet().stream()
+                    .sorted((o1, o2) -> Long.compare(o2.getValue().getCreated(), o1.getValue().getCreated()))
+                    .limit(maxMapSize)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            map.clear();
+            map.putAll(pruned);
+        }
         return persisted;
     }
 
+    /**
+     * Updates the expiry index and persists the change of the map entry with the given key by appending it to the
+     * DataStoreLog. Must be called after each change of the map.
+     */
+    protected void onMapEntryChanged(ByteArray key) {
+        expiryIndex.update(key, persistableStore);
+        dataStoreLog.append(key, persistableStore);
+        if (dataStoreLog.isCompactionRequired(persistableStore.getMap().size())) {
+            compact();
+        }
+    }
+
     protected int getMaxMapSize() {
         if (maxMapSize.isPresent()) {
             return maxMapSize.get();
@@ -86,4 +141,16 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
         maxMapSize = persistableStore.getMap().values().stream().map(DataRequest::getMaxMapSize).findFirst();
         return maxMapSize.orElse(MetaData.MAX_MAP_SIZE_10_000);
     }
+
+    // Writes a snapshot of the store and removes the log entries which are covered by the snapshot.
+    private void compact() {
+        dataStoreLog.rotate()
+                .thenCompose(nil -> persistence.persistAsync(persistableStore.getClone()))
+                .whenComplete((success, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Compaction of {} failed", getStoreKey(), throwable);
+                    }
+                    dataStoreLog.onCompactionCompleted(throwable == null && success);
+                });
+    }
 }
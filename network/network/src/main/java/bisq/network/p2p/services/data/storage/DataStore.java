@@ -21,28 +21,118 @@ import bisq.common.data.ByteArray;
 import bisq.common.proto.ProtoResolver;
 import bisq.common.proto.UnresolvableProtobufMessageException;
 import bisq.network.p2p.services.data.DataRequest;
+import bisq.persistence.ChunkedPersistableStore;
 import bisq.persistence.PersistableStore;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
 @ToString
-public final class DataStore<T extends DataRequest> implements PersistableStore<DataStore<T>> {
+public final class DataStore<T extends DataRequest> implements ChunkedPersistableStore<DataStore<T>> {
+    private static final String TYPE_URL = "type.googleapis.com/" + bisq.network.protobuf.DataStore.getDescriptor().getFullName();
+
+    /**
+     * @return A DataStore which keeps the serialized data in off-heap memory. See OffHeapDataRequestMap.
+     */
+    public static <T extends DataRequest> DataStore<T> createWithOffHeapMap() {
+        return new DataStore<>(new OffHeapDataRequestMap<>());
+    }
+
     @Getter
-    private final Map<ByteArray, T> map = new ConcurrentHashMap<>();
+    private final DataRequestMap<T> map;
 
     public DataStore() {
+        map = new HeapDataRequestMap<>();
     }
 
     public DataStore(Map<ByteArray, T> map) {
-        this.map.putAll(map);
+        this.map = new HeapDataRequestMap<>(map);
+    }
+
+    private DataStore(DataRequestMap<T> map) {
+        this.map = map;
+    }
+
+    /**
+     * @return A read only view on the map. As the map supports concurrent access, iteration is weakly consistent and
+     * does not require a copy of the map.
+     */
+    public Map<ByteArray, T> getUnmodifiableMap() {
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Puts the value into the map. Other than map.put it does not return the previous value, which the off-heap
+     * map would need to decode.
+     */
+    public void put(ByteArray key, T value) {
+        map.set(key, value);
+    }
+
+    /**
+     * Removes the value from the map. Other than map.remove it does not return the previous value, which the
+     * off-heap map would need to decode.
+     */
+    public void remove(ByteArray key) {
+        map.delete(key);
+    }
+
+    /**
+     * @return The sequence number, creation and expiry date of the value. The off-heap map does not need to decode
+     * the value for it.
+     */
+    public Optional<DataStoreEntryInfo> findEntryInfo(ByteArray key) {
+        return map.findEntryInfo(key);
+    }
+
+    /**
+     * @return The serialized protobuf DataRequest of the value. The off-heap map does not need to decode the value
+     * for it.
+     */
+    public Optional<byte[]> findSerializedValue(ByteArray key) {
+        return map.findSerializedValue(key);
+    }
+
+    /**
+     * We write the serialized values of the map directly, so that the off-heap map does not need to decode them for
+     * toProto. The result is the same as Any.pack(toProto()).
+     */
+    @Override
+    public Any toAny() {
+        ByteString.Output output = ByteString.newOutput();
+        CodedOutputStream outputStream = CodedOutputStream.newInstance(output);
+        map.forEachSerializedValue((key, value) -> {
+            try {
+                DataStoreEntryEncoder.writeField(outputStream,
+                        bisq.network.protobuf.DataStore.MAPENTRIES_FIELD_NUMBER,
+                        key,
+                        Optional.of(value));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Any.newBuilder()
+                .setTypeUrl(TYPE_URL)
+                .setValue(output.toByteString())
+                .build();
     }
 
     @Override
@@ -81,8 +171,23 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
         map.putAll(persisted.getMap());
     }
 
+    /**
+     * The clone of an off-heap map shares the serialized data with our map, so it neither copies nor decodes it.
+     */
     @Override
     public DataStore<T> getClone() {
-        return new DataStore<>(map);
+        return new DataStore<>(map.snapshot());
+    }
+
+    @Override
+    public List<DataStore<T>> getChunks(int maxChunkSize) {
+        return map.split(maxChunkSize).stream()
+                .map(chunkMap -> new DataStore<T>(chunkMap))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void addChunk(DataStore<T> chunk) {
+        map.putAll(chunk.getMap());
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Writes a key and a serialized DataRequest in the wire format of DataStore.MapEntry and DataStoreLogEntry, which
+ * have the same fields. This lets us write the stored bytes without decoding them into a DataRequest and encoding
+ * them again.
+ */
+final class DataStoreEntryEncoder {
+    private static final int KEY_FIELD_NUMBER = 1;
+    private static final int VALUE_FIELD_NUMBER = 2;
+
+    private DataStoreEntryEncoder() {
+    }
+
+    static int computeSize(ByteArray key, Optional<byte[]> value) {
+        int size = CodedOutputStream.computeMessageSize(KEY_FIELD_NUMBER, key.toProto());
+        if (value.isPresent()) {
+            size += CodedOutputStream.computeByteArraySize(VALUE_FIELD_NUMBER, value.get());
+        }
+        return size;
+    }
+
+    /**
+     * Writes the entry with a length prefix like writeDelimitedTo.
+     */
+    static void writeDelimited(CodedOutputStream outputStream, ByteArray key, Optional<byte[]> value) throws IOException {
+        outputStream.writeUInt32NoTag(computeSize(key, value));
+        write(outputStream, key, value);
+    }
+
+    /**
+     * Writes the entry as the field with the given number of the enclosing message.
+     */
+    static void writeField(CodedOutputStream outputStream, int fieldNumber, ByteArray key, Optional<byte[]> value) throws IOException {
+        outputStream.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        writeDelimited(outputStream, key, value);
+    }
+
+    private static void write(CodedOutputStream outputStream, ByteArray key, Optional<byte[]> value) throws IOException {
+        outputStream.writeMessage(KEY_FIELD_NUMBER, key.toProto());
+        if (value.isPresent()) {
+            outputStream.writeByteArray(VALUE_FIELD_NUMBER, value.get());
+        }
+    }
+}
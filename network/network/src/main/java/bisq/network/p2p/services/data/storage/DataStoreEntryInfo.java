@@ -0,0 +1,56 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The fields of a stored DataRequest which are needed for writes and pruning. The off-heap map keeps them on the heap
+ * next to the location of the serialized request, so that those paths do not need to decode the request.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class DataStoreEntryInfo {
+    public static DataStoreEntryInfo from(DataRequest request) {
+        int sequenceNumber = request instanceof AuthenticatedDataRequest ?
+                ((AuthenticatedDataRequest) request).getSequenceNumber() :
+                0;
+        return new DataStoreEntryInfo(sequenceNumber, request.getCreated(), request.getExpiryDate());
+    }
+
+    // 0 for requests which do not have a sequence number
+    private final int sequenceNumber;
+    private final long created;
+    // Long.MAX_VALUE if the request never expires
+    private final long expiryDate;
+
+    public DataStoreEntryInfo(int sequenceNumber, long created, long expiryDate) {
+        this.sequenceNumber = sequenceNumber;
+        this.created = created;
+        this.expiryDate = expiryDate;
+    }
+
+    public boolean isExpired(long now) {
+        return now > expiryDate;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.common.threading.ExecutorFactory;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.persistence.Persistence;
+import com.google.protobuf.CodedOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append only log of the changes of a DataStore map. Each change is written as a length delimited DataStoreLogEntry
+ * containing the key and the new value (or no value if the entry got removed). This avoids that we need to write
+ * the whole DataStore at each change.
+ * <p>
+ * Once the log contains more entries as the map, we compact it by writing a snapshot of the DataStore with the
+ * default persistence and delete the log entries covered by the snapshot. At startup the snapshot is read and the
+ * log is replayed on top of it.
+ * <p>
+ * As a log entry always carries the value of the map at the time it got written, replaying a log entry more than once
+ * is harmless. We use that at compaction: The log is rotated before we take the snapshot, thus all rotated entries
+ * are covered by the snapshot, and entries written concurrently to the snapshot end up in the new log.
+ */
+@Slf4j
+public class DataStoreLog<T extends DataRequest> {
+    public static final String EXTENSION = ".log";
+    public static final String COMPACTING_EXTENSION = ".log_compacting";
+    private static final int MIN_NUM_ENTRIES_FOR_COMPACTION = 1000;
+
+    // All log files are written by one thread. The order of writes of different stores is not relevant.
+    private static final ExecutorService EXECUTOR = ExecutorFactory.newSingleThreadExecutor("DataStoreLog");
+
+    public static Path getLogPath(Path storePath) {
+        return getPath(storePath, EXTENSION);
+    }
+
+    private static Path getPath(Path storePath, String extension) {
+        String storeFileName = storePath.getFileName().toString();
+        String baseName = storeFileName.endsWith(Persistence.EXTENSION) ?
+                storeFileName.substring(0, storeFileName.length() - Persistence.EXTENSION.length()) :
+                storeFileName;
+        return storePath.resolveSibling(baseName + extension);
+    }
+
+    @Getter
+    private final Path logPath;
+    private final Path compactingLogPath;
+    private final Object appendLock = new Object();
+    private final AtomicInteger numPendingWrites = new AtomicInteger();
+    private int numEntries;
+    private boolean compactionInProgress;
+    private OutputStream outputStream;
+    private CodedOutputStream codedOutputStream;
+
+    public DataStoreLog(Path storePath) {
+        logPath = getLogPath(storePath);
+        compactingLogPath = getPath(storePath, COMPACTING_EXTENSION);
+    }
+
+    /**
+     * Appends the current value of the given key in the store to the log. The value is written in its serialized
+     * form, so an off-heap store does not need to decode it.
+     * Must be called after each change of the map entry.
+     */
+    public void append(ByteArray key, DataStore<T> store) {
+        synchronized (appendLock) {
+            // Reading the value and queueing the write need to be atomic, so that the last log entry of a key
+            // always reflects the latest value in the map.
+            Optional<byte[]> value = store.findSerializedValue(key);
+            numEntries++;
+            numPendingWrites.incrementAndGet();
+            EXECUTOR.execute(() -> write(key, value));
+        }
+    }
+
+    public boolean isCompactionRequired(int mapSize) {
+        synchronized (appendLock) {
+            return !compactionInProgress && numEntries >= Math.max(MIN_NUM_ENTRIES_FOR_COMPACTION, mapSize);
+        }
+    }
+
+    /**
+     * Moves the current log entries aside. The returned future completes after the rotation is done, so that a
+     * snapshot taken afterwards covers all rotated log entries.
+     */
+    public CompletableFuture<Void> rotate() {
+        synchronized (appendLock) {
+            compactionInProgress = true;
+            numEntries = 0;
+            return CompletableFuture.runAsync(this::doRotate, EXECUTOR);
+        }
+    }
+
+    /**
+     * Deletes the rotated log entries after the snapshot has been written successfully.
+     */
+    public CompletableFuture<Void> onCompactionCompleted(boolean success) {
+        return CompletableFuture.runAsync(() -> {
+            if (success) {
+                try {
+                    Files.deleteIfExists(compactingLogPath);
+                } catch (IOException e) {
+                    log.error("Could not delete {}", compactingLogPath, e);
+                }
+            }
+            synchronized (appendLock) {
+                compactionInProgress = false;
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Applies the persisted log entries to the given map. Must not be called concurrently to writes.
+     *
+     * @return The number of applied log entries
+     */
+    public int replay(Map<ByteArray, T> map) {
+        int numReplayed = replay(compactingLogPath, map) + replay(logPath, map);
+        synchronized (appendLock) {
+            numEntries += numReplayed;
+        }
+        return numReplayed;
+    }
+
+    public boolean exists() {
+        return logPath.toFile().exists() || compactingLogPath.toFile().exists();
+    }
+
+    /**
+     * Waits until all queued log entries are written and closes the log file.
+     */
+    public void shutdown() {
+        try {
+            CompletableFuture.runAsync(this::closeOutputStream, EXECUTOR).get(1, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("Could not flush {} at shutdown", logPath, e);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private int replay(Path path, Map<ByteArray, T> map) {
+        File file = path.toFile();
+        if (!file.exists()) {
+            return 0;
+        }
+        int numReplayed = 0;
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            while (true) {
+                bisq.network.protobuf.DataStoreLogEntry proto = bisq.network.protobuf.DataStoreLogEntry.parseDelimitedFrom(inputStream);
+                if (proto == null) {
+                    break;
+                }
+                DataStoreLogEntry logEntry = DataStoreLogEntry.fromProto(proto);
+                //noinspection unchecked
+                Optional<T> value = (Optional<T>) logEntry.getValue();
+                if (value.isPresent()) {
+                    map.put(logEntry.getKey(), value.get());
+                } else {
+                    map.remove(logEntry.getKey());
+                }
+                numReplayed++;
+            }
+        } catch (Exception e) {
+            // A crash while writing can leave an incomplete last entry. We keep what we have read so far.
+            log.warn("Could not read all entries from {}. Number of read entries={}", path, numReplayed, e);
+        }
+        return numReplayed;
+    }
+
+    // Writes the same bytes as DataStoreLogEntry.toProto().writeDelimitedTo would do
+    private void write(ByteArray key, Optional<byte[]> value) {
+        // We flush only after the last queued entry instead of after each entry, so that a burst of changes (e.g.
+        // from an inventory) is written with few system calls.
+        boolean isLastPendingWrite = numPendingWrites.decrementAndGet() == 0;
+        try {
+            if (outputStream == null) {
+                Files.createDirectories(logPath.getParent());
+                outputStream = new FileOutputStream(logPath.toFile(), true);
+                codedOutputStream = CodedOutputStream.newInstance(outputStream);
+            }
+            DataStoreEntryEncoder.writeDelimited(codedOutputStream, key, value);
+            if (isLastPendingWrite) {
+                codedOutputStream.flush();
+            }
+        } catch (IOException e) {
+            log.error("Could not write to {}", logPath, e);
+            closeOutputStream();
+        }
+    }
+
+    private void doRotate() {
+        closeOutputStream();
+        File logFile = logPath.toFile();
+        if (!logFile.exists()) {
+            return;
+        }
+        try {
+            if (compactingLogPath.toFile().exists()) {
+                // A previous compaction has failed. We append our entries to the not yet compacted ones.
+                try (OutputStream compactingOutputStream = new FileOutputStream(compactingLogPath.toFile(), true)) {
+                    Files.copy(logPath, compactingOutputStream);
+                }
+                Files.delete(logPath);
+            } else {
+                Files.move(logPath, compactingLogPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            log.error("Could not rotate {}", logPath, e);
+        }
+    }
+
+    private void closeOutputStream() {
+        if (outputStream != null) {
+            try {
+                try {
+                    codedOutputStream.flush();
+                } finally {
+                    outputStream.close();
+                }
+            } catch (IOException e) {
+                log.error("Could not close {}", logPath, e);
+            }
+            outputStream = null;
+            codedOutputStream = null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.common.proto.Proto;
+import bisq.network.p2p.services.data.DataRequest;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Optional;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class DataStoreLogEntry implements Proto {
+    private final ByteArray key;
+    // Empty if the entry got removed from the map
+    private final Optional<? extends DataRequest> value;
+
+    public DataStoreLogEntry(ByteArray key, Optional<? extends DataRequest> value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    @Override
+    public bisq.network.protobuf.DataStoreLogEntry toProto() {
+        bisq.network.protobuf.DataStoreLogEntry.Builder builder = bisq.network.protobuf.DataStoreLogEntry.newBuilder()
+                .setKey(key.toProto());
+        value.ifPresent(dataRequest -> builder.setValue(dataRequest.toProto().getDataRequest()));
+        return builder.build();
+    }
+
+    public static DataStoreLogEntry fromProto(bisq.network.protobuf.DataStoreLogEntry proto) {
+        return new DataStoreLogEntry(ByteArray.fromProto(proto.getKey()),
+                proto.hasValue() ? Optional.of(DataRequest.fromProto(proto.getValue())) : Optional.empty());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+
+import java.util.*;
+
+/**
+ * Index of the keys of a DataStore map by the expiry date of their values. Keys are grouped into buckets of
+ * BUCKET_SIZE_IN_MS, so that pruning only needs to look at the buckets which have passed instead of iterating the
+ * whole map. Values which never expire are not indexed.
+ * <p>
+ * The index is only a hint: Callers still check the expiry date of the entry in the store before removing it.
+ */
+public class ExpiryIndex {
+    private static final long BUCKET_SIZE_IN_MS = 1000;
+
+    private final NavigableMap<Long, Set<ByteArray>> keysByBucket = new TreeMap<>();
+    private final Map<ByteArray, Long> bucketByKey = new HashMap<>();
+
+    /**
+     * Updates the index with the current expiry date of the given key in the store. We read the expiry date inside
+     * our lock, so that concurrent updates of the same key cannot leave a stale value in the index.
+     */
+    public synchronized void update(ByteArray key, DataStore<?> store) {
+        Optional<DataStoreEntryInfo> info = store.findEntryInfo(key);
+        remove(key);
+        info.ifPresent(entryInfo -> add(key, entryInfo.getExpiryDate()));
+    }
+
+    public synchronized void rebuild(DataStore<?> store) {
+        keysByBucket.clear();
+        bucketByKey.clear();
+        // Iterating the keys does not decode the values of an off-heap map
+        store.getMap().keySet().forEach(key ->
+                store.findEntryInfo(key).ifPresent(entryInfo -> add(key, entryInfo.getExpiryDate())));
+    }
+
+    /**
+     * Removes and returns the keys of all buckets which ended before the given date.
+     */
+    public synchronized Set<ByteArray> pollExpired(long now) {
+        NavigableMap<Long, Set<ByteArray>> expiredBuckets = keysByBucket.headMap(now / BUCKET_SIZE_IN_MS, false);
+        if (expiredBuckets.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<ByteArray> expired = new HashSet<>();
+        expiredBuckets.values().forEach(expired::addAll);
+        expiredBuckets.clear();
+        expired.forEach(bucketByKey::remove);
+        return expired;
+    }
+
+    public synchronized int size() {
+        return bucketByKey.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void add(ByteArray key, long expiryDate) {
+        if (expiryDate == Long.MAX_VALUE) {
+            return;
+        }
+        long bucket = expiryDate / BUCKET_SIZE_IN_MS;
+        keysByBucket.computeIfAbsent(bucket, k -> new HashSet<>()).add(key);
+        bucketByKey.put(key, bucket);
+    }
+
+    private void remove(ByteArray key) {
+        Long bucket = bucketByKey.remove(key);
+        if (bucket == null) {
+            return;
+        }
+        Set<ByteArray> keys = keysByBucket.get(bucket);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByBucket.remove(bucket);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Default map of a DataStore, which keeps the decoded values on the heap.
+ */
+public class HeapDataRequestMap<T extends DataRequest> extends ConcurrentHashMap<ByteArray, T> implements DataRequestMap<T> {
+    public HeapDataRequestMap() {
+    }
+
+    public HeapDataRequestMap(Map<ByteArray, T> map) {
+        super(map);
+    }
+
+    @Override
+    public void set(ByteArray key, T value) {
+        put(key, value);
+    }
+
+    @Override
+    public boolean delete(Object key) {
+        return remove(key) != null;
+    }
+
+    @Override
+    public Optional<DataStoreEntryInfo> findEntryInfo(ByteArray key) {
+        return Optional.ofNullable(get(key)).map(DataStoreEntryInfo::from);
+    }
+
+    @Override
+    public Optional<byte[]> findSerializedValue(ByteArray key) {
+        return Optional.ofNullable(get(key)).map(HeapDataRequestMap::serialize);
+    }
+
+    @Override
+    public void forEachSerializedValue(BiConsumer<ByteArray, byte[]> consumer) {
+        forEach((key, value) -> consumer.accept(key, serialize(value)));
+    }
+
+    @Override
+    public HeapDataRequestMap<T> snapshot() {
+        return new HeapDataRequestMap<>(this);
+    }
+
+    @Override
+    public List<HeapDataRequestMap<T>> split(int maxSize) {
+        List<HeapDataRequestMap<T>> maps = new ArrayList<>();
+        Map<ByteArray, T> chunk = new HashMap<>();
+        for (Entry<ByteArray, T> entry : entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == maxSize) {
+                maps.add(new HeapDataRequestMap<>(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty() || maps.isEmpty()) {
+            maps.add(new HeapDataRequestMap<>(chunk));
+        }
+        return maps;
+    }
+
+    private static byte[] serialize(DataRequest value) {
+        return value.toProto().getDataRequest().toByteArray();
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.common.proto.UnresolvableProtobufMessageException;
+import bisq.network.p2p.services.data.DataRequest;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Map which keeps the serialized DataRequests in direct (off-heap) memory. On the heap we only keep an index of the
+ * key to the location of the serialized data. Values are decoded at each access, so this trades CPU for heap size.
+ * It is intended for nodes which keep large stores resident (e.g. seed nodes).
+ * <p>
+ * Data is appended to segments of direct memory. Removed or replaced values leave garbage in the segments, which
+ * gets reclaimed by copying all live values into new segments once more than half of the written bytes are garbage.
+ * As a location keeps a reference to its segment, readers are never affected by a compaction.
+ * <p>
+ * Iteration is weakly consistent like for a ConcurrentHashMap. Entries returned by the iterator are immutable and
+ * decode their value only when it is accessed.
+ * <p>
+ * The sequence number, creation and expiry date of each value are kept on the heap (see DataStoreEntryInfo), and the
+ * serialized values can be read without decoding them, so that persistence and pruning do not decode the store.
+ */
+@Slf4j
+public class OffHeapDataRequestMap<T extends DataRequest> extends AbstractMap<ByteArray, T> implements DataRequestMap<T> {
+    private static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    private static final class Location {
+        private final ByteBuffer segment;
+        private final int offset;
+        private final int length;
+        private final DataStoreEntryInfo info;
+
+        private Location(ByteBuffer segment, int offset, int length, DataStoreEntryInfo info) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.info = info;
+        }
+    }
+
+    private final Map<ByteArray, Location> index;
+    private final Object writeLock = new Object();
+    private ByteBuffer currentSegment;
+    @Getter
+    private long numAllocatedBytes;
+    private long numWrittenBytes;
+    private long numGarbageBytes;
+
+    public OffHeapDataRequestMap() {
+        index = new ConcurrentHashMap<>();
+    }
+
+    // Used for snapshots and chunks, which share the locations with the map they got created from
+    private OffHeapDataRequestMap(Map<ByteArray, Location> index) {
+        this.index = new ConcurrentHashMap<>(index);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public T get(Object key) {
+        Location location = index.get(key);
+        return location != null ? decode(location) : null;
+    }
+
+    /**
+     * As the previous value has to be decoded, callers which do not use it should use {@link #set} instead.
+     */
+    @Override
+    public T put(ByteArray key, T value) {
+        Location previous = putLocation(key, value);
+        return previous != null ? decode(previous) : null;
+    }
+
+    /**
+     * Like {@link #put} but without decoding the previous value.
+     */
+    @Override
+    public void set(ByteArray key, T value) {
+        putLocation(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends ByteArray, ? extends T> map) {
+        map.forEach(this::set);
+    }
+
+    /**
+     * As the previous value has to be decoded, callers which do not use it should use {@link #delete} instead.
+     */
+    @Override
+    public T remove(Object key) {
+        Location previous = removeLocation(key);
+        return previous != null ? decode(previous) : null;
+    }
+
+    /**
+     * Like {@link #remove} but without decoding the previous value.
+     *
+     * @return True if the map contained the key
+     */
+    @Override
+    public boolean delete(Object key) {
+        return removeLocation(key) != null;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            index.clear();
+            currentSegment = null;
+            numAllocatedBytes = 0;
+            numWrittenBytes = 0;
+            numGarbageBytes = 0;
+        }
+    }
+
+    /**
+     * @return The sequence number, creation and expiry date of the value without decoding it.
+     */
+    @Override
+    public Optional<DataStoreEntryInfo> findEntryInfo(ByteArray key) {
+        return Optional.ofNullable(index.get(key)).map(location -> location.info);
+    }
+
+    /**
+     * @return The serialized protobuf DataRequest of the value without decoding it.
+     */
+    @Override
+    public Optional<byte[]> findSerializedValue(ByteArray key) {
+        return Optional.ofNullable(index.get(key)).map(OffHeapDataRequestMap::read);
+    }
+
+    /**
+     * Passes the serialized value of each entry to the consumer. Iteration is weakly consistent.
+     */
+    @Override
+    public void forEachSerializedValue(BiConsumer<ByteArray, byte[]> consumer) {
+        index.forEach((key, location) -> consumer.accept(key, read(location)));
+    }
+
+    /**
+     * @return A copy of the map at the time of the call. As locations stay readable after they got replaced or
+     * removed, the copy only duplicates the index and shares the serialized data with this map.
+     */
+    @Override
+    public OffHeapDataRequestMap<T> snapshot() {
+        synchronized (writeLock) {
+            return new OffHeapDataRequestMap<>(index);
+        }
+    }
+
+    /**
+     * @return Maps with at most maxSize entries, which together contain all entries of this map. Like at
+     * {@link #snapshot} the serialized data is shared and not copied.
+     */
+    @Override
+    public List<OffHeapDataRequestMap<T>> split(int maxSize) {
+        List<OffHeapDataRequestMap<T>> maps = new ArrayList<>();
+        Map<ByteArray, Location> chunk = new HashMap<>();
+        for (Entry<ByteArray, Location> entry : index.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == maxSize) {
+                maps.add(new OffHeapDataRequestMap<>(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty() || maps.isEmpty()) {
+            maps.add(new OffHeapDataRequestMap<>(chunk));
+        }
+        return maps;
+    }
+
+    @Override
+    public Set<Entry<ByteArray, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<ByteArray, T>> iterator() {
+                Iterator<Entry<ByteArray, Location>> iterator = index.entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<ByteArray, T> next() {
+                        Entry<ByteArray, Location> entry = iterator.next();
+                        return new LazyEntry(entry.getKey(), entry.getValue());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return index.size();
+            }
+        };
+    }
+
+
+    // Decodes the value only when it is accessed, so that iterations which only need the keys (e.g. keySet)
+    // do not decode the whole store.
+    private final class LazyEntry implements Entry<ByteArray, T> {
+        private final ByteArray key;
+        private final Location location;
+        private T value;
+
+        private LazyEntry(ByteArray key, Location location) {
+            this.key = key;
+            this.location = location;
+        }
+
+        @Override
+        public ByteArray getKey() {
+            return key;
+        }
+
+        @Override
+        public T getValue() {
+            if (value == null) {
+                value = decode(location);
+            }
+            return value;
+        }
+
+        @Override
+        public T setValue(T value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return key.equals(entry.getKey()) && getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // A location stays readable after it got replaced or removed, so the caller can decode it outside the lock
+    private Location putLocation(ByteArray key, T value) {
+        byte[] bytes = value.toProto().getDataRequest().toByteArray();
+        DataStoreEntryInfo info = DataStoreEntryInfo.from(value);
+        synchronized (writeLock) {
+            Location previous = index.put(key, write(bytes, info));
+            if (previous != null) {
+                numGarbageBytes += previous.length;
+                maybeCompact();
+            }
+            return previous;
+        }
+    }
+
+    private Location removeLocation(Object key) {
+        synchronized (writeLock) {
+            Location previous = index.remove(key);
+            if (previous != null) {
+                numGarbageBytes += previous.length;
+                maybeCompact();
+            }
+            return previous;
+        }
+    }
+
+    private Location write(byte[] bytes, DataStoreEntryInfo info) {
+        if (currentSegment == null || currentSegment.remaining() < bytes.length) {
+            // Large values which do not fit into a default segment get their own segment
+            int segmentSize = Math.max(SEGMENT_SIZE, bytes.length);
+            currentSegment = ByteBuffer.allocateDirect(segmentSize);
+            numAllocatedBytes += segmentSize;
+        }
+        int offset = currentSegment.position();
+        currentSegment.put(bytes);
+        numWrittenBytes += bytes.length;
+        return new Location(currentSegment, offset, bytes.length, info);
+    }
+
+    private void maybeCompact() {
+        if (numWrittenBytes < SEGMENT_SIZE || numGarbageBytes * 2 < numWrittenBytes) {
+            return;
+        }
+
+        long ts = System.currentTimeMillis();
+        long previousNumAllocatedBytes = numAllocatedBytes;
+        // The old segments get released by the GC once no location references them anymore.
+        currentSegment = null;
+        numAllocatedBytes = 0;
+        numWrittenBytes = 0;
+        numGarbageBytes = 0;
+        index.forEach((key, location) -> index.replace(key, location, write(read(location), location.info)));
+        log.info("Compacted off-heap map from {} to {} allocated bytes in {} ms",
+                previousNumAllocatedBytes, numAllocatedBytes, System.currentTimeMillis() - ts);
+    }
+
+    private static byte[] read(Location location) {
+        byte[] bytes = new byte[location.length];
+        ByteBuffer buffer = location.segment.duplicate();
+        buffer.position(location.offset);
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private T decode(Location location) {
+        try {
+            bisq.network.protobuf.DataRequest proto = bisq.network.protobuf.DataRequest.parseFrom(read(location));
+            //noinspection unchecked
+            return (T) DataRequest.fromProto(proto);
+        } catch (InvalidProtocolBufferException e) {
+            throw new UnresolvableProtobufMessageException(e);
+        }
+    }
+}
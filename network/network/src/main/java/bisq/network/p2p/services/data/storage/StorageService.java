@@ -25,6 +25,7 @@ import bisq.network.NetworkService;
 import bisq.network.p2p.services.data.AddDataRequest;
 import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.RemoveDataRequest;
+import bisq.network.p2p.services.data.filter.BloomFilter;
 import bisq.network.p2p.services.data.filter.DataFilter;
 import bisq.network.p2p.services.data.filter.FilterEntry;
 import bisq.network.p2p.services.data.inventory.Inventory;
@@ -81,10 +82,17 @@ public class StorageService {
     final Map<String, MailboxDataStorageService> mailboxStores = new ConcurrentHashMap<>();
     final Map<String, AppendOnlyDataStorageService> appendOnlyDataStores = new ConcurrentHashMap<>();
     private final PersistenceService persistenceService;
+    // If true, the stores keep their data in off-heap memory. Reduces heap usage for nodes with large stores.
+    private final boolean useOffHeapMap;
     private final Set<StorageService.Listener> listeners = new CopyOnWriteArraySet<>();
 
     public StorageService(PersistenceService persistenceService) {
+        this(persistenceService, false);
+    }
+
+    public StorageService(PersistenceService persistenceService, boolean useOffHeapMap) {
         this.persistenceService = persistenceService;
+        this.useOffHeapMap = useOffHeapMap;
 
         // We create all stores for those files we have already persisted.
         // Persisted data is read at the very early stages of the application start.
@@ -95,7 +103,7 @@ public class StorageService {
             if (new File(directory).exists()) {
                 getExistingStoreKeys(directory)
                         .forEach(storeKey -> {
-                            AuthenticatedDataStorageService dataStore = new AuthenticatedDataStorageService(persistenceService, authStoreName, storeKey);
+                            AuthenticatedDataStorageService dataStore = new AuthenticatedDataStorageService(persistenceService, authStoreName, storeKey, useOffHeapMap);
                             dataStore.addListener(new AuthenticatedDataStorageService.Listener() {
                                 @Override
                                 public void onAdded(AuthenticatedData authenticatedData) {
@@ -115,7 +123,7 @@ public class StorageService {
             if (new File(directory).exists()) {
                 getExistingStoreKeys(directory)
                         .forEach(storeKey -> {
-                            MailboxDataStorageService dataStore = new MailboxDataStorageService(persistenceService, mailboxStoreName, storeKey);
+                            MailboxDataStorageService dataStore = new MailboxDataStorageService(persistenceService, mailboxStoreName, storeKey, useOffHeapMap);
                             dataStore.addListener(new MailboxDataStorageService.Listener() {
                                 @Override
                                 public void onAdded(MailboxData mailboxData) {
@@ -136,7 +144,7 @@ public class StorageService {
             if (new File(directory).exists()) {
                 getExistingStoreKeys(directory)
                         .forEach(storeKey -> {
-                            AppendOnlyDataStorageService dataStore = new AppendOnlyDataStorageService(persistenceService, appendStoreName, storeKey);
+                            AppendOnlyDataStorageService dataStore = new AppendOnlyDataStorageService(persistenceService, appendStoreName, storeKey, useOffHeapMap);
                             dataStore.addListener(appendOnlyData -> listeners.forEach(listener -> listener.onAdded(appendOnlyData)));
                             appendOnlyDataStores.put(storeKey, dataStore);
                         });
@@ -177,8 +185,13 @@ public class StorageService {
         return stores.flatMap(this::getAuthenticatedData);
     }
 
+    public Map<String, Integer> getNumEntriesByStoreKey() {
+        return getAllStores().collect(Collectors.toMap(DataStorageService::getStoreKey,
+                store -> store.getPersistableStore().getMap().size()));
+    }
+
     private Stream<AuthenticatedData> getAuthenticatedData(DataStorageService<? extends DataRequest> store) {
-        return store.getPersistableStore().getClone().getMap().values().stream()
+        return store.getPersistableStore().getUnmodifiableMap().values().stream()
                 .filter(e -> e instanceof AddAuthenticatedDataRequest)
                 .map(e -> (AddAuthenticatedDataRequest) e)
                 .map(e -> e.getAuthenticatedSequentialData().getAuthenticatedData());
@@ -203,6 +216,53 @@ public class StorageService {
         }
     }
 
+    /**
+     * Adds the requests of an inventory. Mailbox and authenticated data requests are added per store in one batch,
+     * append-only data requests one by one. A failure at one store is logged and does not affect the other stores.
+     *
+     * @return The added data.
+     */
+    public CompletableFuture<List<StorageData>> onAddDataRequests(List<AddDataRequest> addDataRequests) {
+        Map<String, List<AddMailboxRequest>> mailboxRequestsByStoreKey = new HashMap<>();
+        Map<String, List<AddAuthenticatedDataRequest>> authenticatedDataRequestsByStoreKey = new HashMap<>();
+        List<CompletableFuture<List<StorageData>>> futures = new ArrayList<>();
+        addDataRequests.forEach(addDataRequest -> {
+            if (addDataRequest instanceof AddMailboxRequest) {
+                AddMailboxRequest request = (AddMailboxRequest) addDataRequest;
+                String storeKey = request.getMailboxSequentialData().getMailboxData().getClassName();
+                mailboxRequestsByStoreKey.computeIfAbsent(storeKey, key -> new ArrayList<>()).add(request);
+            } else if (addDataRequest instanceof AddAuthenticatedDataRequest) {
+                AddAuthenticatedDataRequest request = (AddAuthenticatedDataRequest) addDataRequest;
+                String storeKey = request.getAuthenticatedSequentialData().getAuthenticatedData().getClassName();
+                authenticatedDataRequestsByStoreKey.computeIfAbsent(storeKey, key -> new ArrayList<>()).add(request);
+            } else {
+                String storeKey = addDataRequest.getClass().getSimpleName();
+                futures.add(logFailure(onAddDataRequest(addDataRequest)
+                        .thenApply(optionalData -> optionalData.map(List::of).orElse(List.of())), storeKey));
+            }
+        });
+
+        mailboxRequestsByStoreKey.forEach((storeKey, requests) ->
+                futures.add(logFailure(getOrCreateMailboxDataStore(storeKey)
+                        .thenApply(store -> new ArrayList<>(store.addAll(requests))), storeKey)));
+        authenticatedDataRequestsByStoreKey.forEach((storeKey, requests) ->
+                futures.add(logFailure(getOrCreateAuthenticatedDataStore(storeKey)
+                        .thenApply(store -> new ArrayList<>(store.addAll(requests))), storeKey)));
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(nil -> futures.stream()
+                        .flatMap(future -> future.join().stream())
+                        .collect(Collectors.toList()));
+    }
+
+    private static CompletableFuture<List<StorageData>> logFailure(CompletableFuture<List<StorageData>> future,
+                                                                   String storeKey) {
+        return future.exceptionally(throwable -> {
+            log.warn("Adding data requests to store {} failed", storeKey, throwable);
+            return List.of();
+        });
+    }
+
     private CompletableFuture<Optional<StorageData>> onAddMailboxRequest(AddMailboxRequest request) {
         MailboxData mailboxData = request.getMailboxSequentialData().getMailboxData();
         return getOrCreateMailboxDataStore(mailboxData.getClassName())
@@ -305,20 +365,53 @@ public class StorageService {
 
     public Inventory getInventoryOfAllStores(DataFilter dataFilter) {
         return getInventory(dataFilter, getAllStores()
-                .flatMap(store -> store.getPersistableStore().getClone().getMap().entrySet().stream()).collect(Collectors.toSet()));
+                .<DataStore<? extends DataRequest>>map(DataStorageService::getPersistableStore)
+                .collect(Collectors.toList()));
     }
 
     public Inventory getInventoryFromStore(DataFilter dataFilter, DataStorageService<? extends DataRequest> store) {
-        return getInventory(dataFilter, store.getPersistableStore().getClone().getMap().entrySet());
+        return getInventory(dataFilter, List.of(store.getPersistableStore()));
     }
 
-    private Inventory getInventory(DataFilter dataFilter,
-                                   Set<? extends Map.Entry<ByteArray, ? extends DataRequest>> entrySet) {
-        Set<? extends DataRequest> result = entrySet.stream()
-                .filter(mapEntry -> !dataFilter.getFilterEntries().contains(getFilterEntry(mapEntry)))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return new Inventory(result, entrySet.size());
+    private Inventory getInventory(DataFilter dataFilter, List<DataStore<? extends DataRequest>> dataStores) {
+        // The filter entries list can contain many thousands of entries, so we use a hash set for the lookup
+        // to avoid a linear scan of the list for each stored entry.
+        Set<FilterEntry> filterEntries = new HashSet<>(dataFilter.getFilterEntries());
+        Optional<BloomFilter> bloomFilter = dataFilter.getBloomFilter();
+        // We iterate the maps directly without copying them. Concurrent changes might or might not be reflected.
+        // The filter entries come from the entry infos, so an off-heap map only decodes the values we send.
+        Stream<? extends DataRequest> missingDataRequests = dataStores.stream()
+                .flatMap(dataStore -> dataStore.getUnmodifiableMap().entrySet().stream()
+                        .filter(mapEntry -> {
+                            FilterEntry filterEntry = getFilterEntry(dataStore, mapEntry.getKey());
+                            if (filterEntries.contains(filterEntry)) {
+                                return false;
+                            }
+                            return bloomFilter.map(filter -> !filter.mightContain(filterEntry)).orElse(true);
+                        }))
+                .map(Map.Entry::getValue);
+        Set<DataRequest> result = collectUpToMaxSize(missingDataRequests, Inventory.MAX_SIZE);
+        int numEntries = dataStores.stream().mapToInt(dataStore -> dataStore.getMap().size()).sum();
+        return new Inventory(result, numEntries);
+    }
+
+    // The response must stay below the max. envelope size of the selector transport, otherwise the requester
+    // disconnects. The remaining entries are not in the requester's filter at its next request, so they get
+    // delivered then.
+    static Set<DataRequest> collectUpToMaxSize(Stream<? extends DataRequest> dataRequests, int maxSize) {
+        Set<DataRequest> result = new HashSet<>();
+        long size = 0;
+        Iterator<? extends DataRequest> iterator = dataRequests.iterator();
+        while (iterator.hasNext()) {
+            DataRequest dataRequest = iterator.next();
+            size += dataRequest.serialize().length;
+            if (size > maxSize) {
+                log.info("Inventory reached the max. size of {} bytes. We send only {} entries.", maxSize, result.size());
+                break;
+            }
+            result.add(dataRequest);
+        }
+        return result;
     }
 
 
@@ -335,26 +428,19 @@ public class StorageService {
     }
 
     private Set<FilterEntry> getFilterEntries(Stream<DataStorageService<? extends DataRequest>> stores) {
-        return stores.flatMap(store -> new HashMap<>(store.getPersistableStore().getMap()).entrySet().stream())
-                .map(this::getFilterEntry)
+        return stores.<DataStore<? extends DataRequest>>map(DataStorageService::getPersistableStore)
+                .flatMap(dataStore -> dataStore.getMap().keySet().stream()
+                        .map(key -> getFilterEntry(dataStore, key)))
                 .collect(Collectors.toSet());
     }
 
-    private FilterEntry getFilterEntry(Map.Entry<ByteArray, ? extends DataRequest> mapEntry) {
-        DataRequest dataRequest = mapEntry.getValue();
-        int sequenceNumber = 0;
-        byte[] hash = mapEntry.getKey().getBytes();
-        if (dataRequest instanceof AddAppendOnlyDataRequest) {
-            // AddAppendOnlyDataRequest does not use a seq nr.
-            return new FilterEntry(hash, 0);
-        } else if (dataRequest instanceof AddAuthenticatedDataRequest) {
-            // AddMailboxRequest extends AddAuthenticatedDataRequest so its covered here as well
-            sequenceNumber = ((AddAuthenticatedDataRequest) dataRequest).getAuthenticatedSequentialData().getSequenceNumber();
-        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest) {
-            // RemoveMailboxRequest extends RemoveAuthenticatedDataRequest so its covered here as well
-            sequenceNumber = ((RemoveAuthenticatedDataRequest) dataRequest).getSequenceNumber();
-        }
-        return new FilterEntry(hash, sequenceNumber);
+    // We take the sequence number from the entry info, so that an off-heap map does not need to decode the value.
+    // AddAppendOnlyDataRequest does not use a sequence number, so its entry info has 0 like before.
+    private FilterEntry getFilterEntry(DataStore<? extends DataRequest> dataStore, ByteArray key) {
+        int sequenceNumber = dataStore.findEntryInfo(key)
+                .map(DataStoreEntryInfo::getSequenceNumber)
+                .orElse(0);
+        return new FilterEntry(key.getBytes(), sequenceNumber);
     }
 
 
@@ -366,7 +452,8 @@ public class StorageService {
         if (!authenticatedDataStores.containsKey(storeKey)) {
             AuthenticatedDataStorageService dataStore = new AuthenticatedDataStorageService(persistenceService,
                     AUTHENTICATED_DATA_STORE.getStoreName(),
-                    storeKey);
+                    storeKey,
+                    useOffHeapMap);
             dataStore.addListener(new AuthenticatedDataStorageService.Listener() {
                 @Override
                 public void onAdded(AuthenticatedData authenticatedData) {
@@ -389,7 +476,8 @@ public class StorageService {
         if (!mailboxStores.containsKey(storeKey)) {
             MailboxDataStorageService dataStore = new MailboxDataStorageService(persistenceService,
                     MAILBOX_DATA_STORE.getStoreName(),
-                    storeKey);
+                    storeKey,
+                    useOffHeapMap);
             dataStore.addListener(new MailboxDataStorageService.Listener() {
                 @Override
                 public void onAdded(MailboxData mailboxData) {
@@ -412,7 +500,8 @@ public class StorageService {
         if (!appendOnlyDataStores.containsKey(storeKey)) {
             AppendOnlyDataStorageService dataStore = new AppendOnlyDataStorageService(persistenceService,
                     APPEND_ONLY_DATA_STORE.getStoreName(),
-                    storeKey);
+                    storeKey,
+                    useOffHeapMap);
             appendOnlyDataStores.put(storeKey, dataStore);
             return dataStore.readPersisted().thenApply(nil -> dataStore);
         } else {
@@ -461,7 +550,9 @@ public class StorageService {
         return NetworkStorageWhiteList.getClassNames().stream()
                 .filter(storeKey -> {
                     String storageFileName = StringUtils.camelCaseToSnakeCase(storeKey + DataStorageService.STORE_POST_FIX) + Persistence.EXTENSION;
-                    return Path.of(directory, storageFileName).toFile().exists();
+                    Path storePath = Path.of(directory, storageFileName);
+                    // If only changes but no snapshot have been written yet, we have only the log file.
+                    return storePath.toFile().exists() || new DataStoreLog<>(storePath).exists();
                 })
                 .collect(Collectors.toSet());
     }
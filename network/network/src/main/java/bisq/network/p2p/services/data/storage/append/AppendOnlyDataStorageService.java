@@ -42,8 +42,11 @@ public class AppendOnlyDataStorageService extends DataStorageService<AddAppendOn
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     private final Object mapAccessLock = new Object();
 
-    public AppendOnlyDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
-        super(persistenceService, storeName, storeKey);
+    public AppendOnlyDataStorageService(PersistenceService persistenceService,
+                                         String storeName,
+                                         String storeKey,
+                                         boolean useOffHeapMap) {
+        super(persistenceService, storeName, storeKey, useOffHeapMap);
     }
 
     @Override
@@ -60,20 +63,21 @@ public class AppendOnlyDataStorageService extends DataStorageService<AddAppendOn
     public Result add(AddAppendOnlyDataRequest addAppendOnlyDataRequest) {
         AppendOnlyData appendOnlyData = addAppendOnlyDataRequest.getAppendOnlyData();
         Map<ByteArray, AddAppendOnlyDataRequest> map = persistableStore.getMap();
+        ByteArray byteArray;
         synchronized (mapAccessLock) {
             if (map.size() > getMaxMapSize()) {
                 return new Result(false).maxMapSizeReached();
             }
 
             byte[] hash = DigestUtil.hash(appendOnlyData.serialize());
-            ByteArray byteArray = new ByteArray(hash);
+            byteArray = new ByteArray(hash);
             if (map.containsKey(byteArray)) {
                 return new Result(false).payloadAlreadyStored();
             }
 
-            map.put(byteArray, addAppendOnlyDataRequest);
+            persistableStore.put(byteArray, addAppendOnlyDataRequest);
         }
-        persist();
+        onMapEntryChanged(byteArray);
         listeners.forEach(listener -> listener.onAppended(appendOnlyData));
         return new Result(true);
     }
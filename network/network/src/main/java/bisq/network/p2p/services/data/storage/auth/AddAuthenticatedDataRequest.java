@@ -163,6 +163,11 @@ public final class AddAuthenticatedDataRequest implements AuthenticatedDataReque
         return authenticatedSequentialData.isExpired();
     }
 
+    @Override
+    public long getExpiryDate() {
+        return authenticatedSequentialData.getExpiryDate();
+    }
+
     @Override
     public String toString() {
         return "AddAuthenticatedDataRequest{" +
@@ -18,8 +18,10 @@
 package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.data.ByteArray;
+import bisq.common.data.Pair;
 import bisq.common.timer.Scheduler;
 import bisq.network.p2p.services.data.storage.DataStorageService;
+import bisq.network.p2p.services.data.storage.DataStoreEntryInfo;
 import bisq.network.p2p.services.data.storage.Result;
 import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedData;
 import bisq.persistence.PersistenceService;
@@ -27,11 +29,15 @@ import bisq.security.DigestUtil;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -46,13 +52,22 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         }
     }
 
+    // Changes of the map entry of a key are done under the lock of its stripe. The signature verification is done
+    // before taking the lock, so concurrent writers of different keys do not wait for each other.
+    private static final int NUM_LOCK_STRIPES = 64;
+
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
-    private final Object mapAccessLock = new Object();
+    private final Object[] lockStripes = Stream.generate(Object::new).limit(NUM_LOCK_STRIPES).toArray();
     private final Scheduler scheduler;
 
-    public AuthenticatedDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
-        super(persistenceService, storeName, storeKey);
-        scheduler = Scheduler.run(this::pruneExpired).periodically(60, TimeUnit.SECONDS);
+    public AuthenticatedDataStorageService(PersistenceService persistenceService,
+                                            String storeName,
+                                            String storeKey,
+                                            boolean useOffHeapMap) {
+        super(persistenceService, storeName, storeKey, useOffHeapMap);
+        // A prune run only polls the passed buckets of the expiry index, so we can afford to run it at the bucket size
+        // of the index. Expired data gets removed within about a second instead of up to a minute.
+        scheduler = Scheduler.run(this::pruneExpired).periodically(1, TimeUnit.SECONDS);
     }
 
     @Override
@@ -66,54 +81,32 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         AuthenticatedData authenticatedData = authenticatedSequentialData.getAuthenticatedData();
         byte[] hash = DigestUtil.hash(authenticatedData.serialize());
         ByteArray byteArray = new ByteArray(hash);
-        AuthenticatedDataRequest requestFromMap;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (map.size() > getMaxMapSize()) {
-                return new Result(false).maxMapSizeReached();
-            }
-            requestFromMap = map.get(byteArray);
-            if (request.equals(requestFromMap)) {
-                return new Result(false).requestAlreadyReceived();
-            }
-
-            if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                return new Result(false).sequenceNrInvalid();
-            }
-
-            if (authenticatedSequentialData.isExpired()) {
-                log.info("Data is expired at add. request object={}",
-                        request.getAuthenticatedSequentialData().getAuthenticatedData().distributedData.getClass().getSimpleName());
-                log.debug("Data is expired at add. request={}", request);
-                return new Result(false).expired();
-            }
-
-            if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
-                log.warn("AuthenticatedData is invalid at add. request={}", request);
-                return new Result(false).dataInvalid();
-            }
+        if (map.size() > getMaxMapSize()) {
+            return new Result(false).maxMapSizeReached();
+        }
 
-            if (authenticatedData instanceof AuthorizedData) {
-                AuthorizedData authorizedData = (AuthorizedData) authenticatedData;
-                if (authorizedData.isNotAuthorized()) {
-                    log.warn("AuthorizedData is not authorized. request={}", request);
-                    return new Result(false).isNotAuthorized();
-                }
-            }
+        // We check first against the map to not verify the signature of requests we would reject anyway
+        Optional<Result> rejectedResult = checkAgainstMapEntry(request, persistableStore.findEntryInfo(byteArray));
+        if (rejectedResult.isPresent()) {
+            return rejectedResult.get();
+        }
 
-            if (request.isPublicKeyInvalid()) {
-                log.warn("PublicKey is invalid at add. request={}", request);
-                return new Result(false).publicKeyHashInvalid();
-            }
+        Optional<Result> invalidResult = validate(request);
+        if (invalidResult.isPresent()) {
+            return invalidResult.get();
+        }
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at add. request={}", request);
-                return new Result(false).signatureInvalid();
+        synchronized (getLock(byteArray)) {
+            // Another thread might have changed the entry while we verified the request
+            rejectedResult = checkAgainstMapEntry(request, persistableStore.findEntryInfo(byteArray));
+            if (rejectedResult.isPresent()) {
+                return rejectedResult.get();
             }
-            map.put(byteArray, request);
+            persistableStore.put(byteArray, request);
         }
 
-        persist();
+        onMapEntryChanged(byteArray);
 
         // If we had already the data (only updated seq nr) we return false as well and do not notify listeners.
        /* if (requestFromMap != null) {
@@ -125,18 +118,65 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         return new Result(true);
     }
 
+    /**
+     * Adds the requests of an inventory. Requests we have already stored are skipped first. The checks which do not
+     * depend on the map, like the signature verification, are done in parallel. The valid requests are then applied
+     * one by one under the lock of their key.
+     *
+     * @return The data of the added requests.
+     */
+    public List<AuthenticatedData> addAll(List<AddAuthenticatedDataRequest> requests) {
+        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
+        // The inventory might contain several requests for the same data. We only apply the one with the highest
+        // sequence number, so that the listeners get notified once per data.
+        Map<ByteArray, AddAuthenticatedDataRequest> validRequests = requests.parallelStream()
+                .map(request -> new Pair<>(getHash(request), request))
+                .filter(pair -> checkAgainstMapEntry(pair.getSecond(), persistableStore.findEntryInfo(pair.getFirst())).isEmpty())
+                .filter(pair -> validate(pair.getSecond()).isEmpty())
+                .collect(Collectors.toMap(Pair::getFirst, Pair::getSecond, AuthenticatedDataStorageService::getLatest));
+
+        List<ByteArray> changedKeys = new ArrayList<>();
+        List<AuthenticatedData> addedData = new ArrayList<>();
+        for (Map.Entry<ByteArray, AddAuthenticatedDataRequest> entry : validRequests.entrySet()) {
+            if (map.size() > getMaxMapSize()) {
+                log.warn("Max map size reached. We skip the remaining {} requests",
+                        validRequests.size() - changedKeys.size());
+                break;
+            }
+            ByteArray byteArray = entry.getKey();
+            AddAuthenticatedDataRequest request = entry.getValue();
+            synchronized (getLock(byteArray)) {
+                // Another thread might have changed the entry while we verified the requests
+                if (checkAgainstMapEntry(request, persistableStore.findEntryInfo(byteArray)).isPresent()) {
+                    continue;
+                }
+                persistableStore.put(byteArray, request);
+            }
+            changedKeys.add(byteArray);
+            addedData.add(request.getAuthenticatedSequentialData().getAuthenticatedData());
+        }
+
+        changedKeys.forEach(this::onMapEntryChanged);
+        addedData.forEach(authenticatedData -> listeners.forEach(listener -> listener.onAdded(authenticatedData)));
+        return addedData;
+    }
+
     public Result remove(RemoveAuthenticatedDataRequest request) {
         ByteArray byteArray = new ByteArray(request.getHash());
         AuthenticatedData authenticatedDataFromMap;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
+        // The signature is only checked if we have the data. If so, we verify it before taking the lock.
+        Optional<Boolean> isSignatureInvalid = map.get(byteArray) instanceof AddAuthenticatedDataRequest ?
+                Optional.of(request.isSignatureInvalid()) :
+                Optional.empty();
+        synchronized (getLock(byteArray)) {
             AuthenticatedDataRequest requestFromMap = map.get(byteArray);
             if (requestFromMap == null) {
                 log.debug("No entry at remove. hash={}", byteArray);
                 // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
                 // track of the sequence number
-                map.put(byteArray, request);
-                persist();
+                persistableStore.put(byteArray, request);
+                onMapEntryChanged(byteArray);
                 return new Result(false).noEntry();
             }
 
@@ -145,8 +185,8 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                 // We have had the entry already removed.
                 if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
                     // We update the map with the new request with the fresh sequence number.
-                    map.put(byteArray, request);
-                    persist();
+                    persistableStore.put(byteArray, request);
+                    onMapEntryChanged(byteArray);
                 }
                 return new Result(false).alreadyRemoved();
             }
@@ -178,13 +218,14 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                 return new Result(false).publicKeyHashInvalid();
             }
 
-            if (request.isSignatureInvalid()) {
+            // If the data got added in the meantime we have not verified the signature yet
+            if (isSignatureInvalid.orElseGet(request::isSignatureInvalid)) {
                 log.warn("Signature is invalid at remove. request={}", request);
                 return new Result(false).signatureInvalid();
             }
-            map.put(byteArray, request);
+            persistableStore.put(byteArray, request);
         }
-        persist();
+        onMapEntryChanged(byteArray);
         listeners.forEach(listener -> listener.onRemoved(authenticatedDataFromMap));
         return new Result(true).removedData(authenticatedDataFromMap);
     }
@@ -193,7 +234,10 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         ByteArray byteArray = new ByteArray(request.getHash());
         AddAuthenticatedDataRequest updatedRequest;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
+        Optional<Boolean> isSignatureInvalid = map.get(byteArray) instanceof AddAuthenticatedDataRequest ?
+                Optional.of(request.isSignatureInvalid()) :
+                Optional.empty();
+        synchronized (getLock(byteArray)) {
             AuthenticatedDataRequest requestFromMap = map.get(byteArray);
 
             if (requestFromMap == null) {
@@ -222,7 +266,7 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                 return new Result(false).publicKeyHashInvalid();
             }
 
-            if (request.isSignatureInvalid()) {
+            if (isSignatureInvalid.orElseGet(request::isSignatureInvalid)) {
                 log.warn("Signature is invalid at refresh. request={}", request);
                 return new Result(false).signatureInvalid();
             }
@@ -232,9 +276,9 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                     addRequestFromMap.getSignature(),
                     addRequestFromMap.getOwnerPublicKey());
 
-            map.put(byteArray, updatedRequest);
+            persistableStore.put(byteArray, updatedRequest);
         }
-        persist();
+        onMapEntryChanged(byteArray);
         listeners.forEach(listener -> listener.onRefreshed(updatedRequest.getAuthenticatedSequentialData().getAuthenticatedData()));
         return new Result(true);
     }
@@ -250,29 +294,116 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
     @VisibleForTesting
     public int getSequenceNumber(byte[] hash) {
         ByteArray byteArray = new ByteArray(hash);
-        int sequenceNumber = 0;
-        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (map.containsKey(byteArray)) {
-                sequenceNumber = map.get(byteArray).getSequenceNumber();
+        synchronized (getLock(byteArray)) {
+            return persistableStore.findEntryInfo(byteArray)
+                    .map(DataStoreEntryInfo::getSequenceNumber)
+                    .orElse(0);
+        }
+    }
+
+    private static AddAuthenticatedDataRequest getLatest(AddAuthenticatedDataRequest request1,
+                                                         AddAuthenticatedDataRequest request2) {
+        return request1.getSequenceNumber() >= request2.getSequenceNumber() ? request1 : request2;
+    }
+
+    private Object getLock(ByteArray key) {
+        return lockStripes[Math.floorMod(key.hashCode(), NUM_LOCK_STRIPES)];
+    }
+
+    private ByteArray getHash(AddAuthenticatedDataRequest request) {
+        return new ByteArray(DigestUtil.hash(request.getAuthenticatedSequentialData().getAuthenticatedData().serialize()));
+    }
+
+    // We only use the entry info of the request from the map, so that we do not need to decode it. As the key is the
+    // hash of the data, the same sequence number, creation and expiry date means that we have the request already.
+    private Optional<Result> checkAgainstMapEntry(AddAuthenticatedDataRequest request,
+                                                  Optional<DataStoreEntryInfo> infoFromMap) {
+        if (infoFromMap.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (infoFromMap.get().equals(DataStoreEntryInfo.from(request))) {
+            return Optional.of(new Result(false).requestAlreadyReceived());
+        }
+
+        if (request.getAuthenticatedSequentialData().isSequenceNrInvalid(infoFromMap.get().getSequenceNumber())) {
+            return Optional.of(new Result(false).sequenceNrInvalid());
+        }
+        return Optional.empty();
+    }
+
+    // The checks which do not depend on the map, so they can be done outside the lock
+    private Optional<Result> validate(AddAuthenticatedDataRequest request) {
+        AuthenticatedSequentialData authenticatedSequentialData = request.getAuthenticatedSequentialData();
+        AuthenticatedData authenticatedData = authenticatedSequentialData.getAuthenticatedData();
+        if (authenticatedSequentialData.isExpired()) {
+            log.info("Data is expired at add. request object={}",
+                    authenticatedData.distributedData.getClass().getSimpleName());
+            log.debug("Data is expired at add. request={}", request);
+            return Optional.of(new Result(false).expired());
+        }
+
+        if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
+            log.warn("AuthenticatedData is invalid at add. request={}", request);
+            return Optional.of(new Result(false).dataInvalid());
+        }
+
+        if (authenticatedData instanceof AuthorizedData) {
+            AuthorizedData authorizedData = (AuthorizedData) authenticatedData;
+            if (authorizedData.isNotAuthorized()) {
+                log.warn("AuthorizedData is not authorized. request={}", request);
+                return Optional.of(new Result(false).isNotAuthorized());
             }
         }
-        return sequenceNumber;
+
+        if (request.isPublicKeyInvalid()) {
+            log.warn("PublicKey is invalid at add. request={}", request);
+            return Optional.of(new Result(false).publicKeyHashInvalid());
+        }
+
+        if (request.isSignatureInvalid()) {
+            log.warn("Signature is invalid at add. request={}", request);
+            return Optional.of(new Result(false).signatureInvalid());
+        }
+        return Optional.empty();
     }
 
     private void pruneExpired() {
-        Set<Map.Entry<ByteArray, AuthenticatedDataRequest>> expiredEntries = persistableStore.getMap().entrySet().stream()
-                .filter(entry -> entry.getValue().isExpired())
-                .collect(Collectors.toSet());
-        if (!expiredEntries.isEmpty()) {
-            log.info("We remove {} expired entries from our map", expiredEntries.size());
-            expiredEntries.forEach(entry -> {
-                persistableStore.getMap().remove(entry.getKey());
-                if (entry.getValue() instanceof AddAuthenticatedDataRequest) {
-                    AuthenticatedData data = ((AddAuthenticatedDataRequest) entry.getValue()).getAuthenticatedSequentialData().getAuthenticatedData();
-                    listeners.forEach(listener -> listener.onRemoved(data));
+        long now = System.currentTimeMillis();
+        Set<ByteArray> candidates = expiryIndex.pollExpired(now);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
+        List<AuthenticatedDataRequest> removedRequests = new ArrayList<>();
+        candidates.forEach(key -> {
+            AuthenticatedDataRequest removed = null;
+            synchronized (getLock(key)) {
+                // We decode only the requests we remove, as the listeners need their data
+                boolean isExpired = persistableStore.findEntryInfo(key)
+                        .map(info -> info.isExpired(now))
+                        .orElse(false);
+                if (isExpired) {
+                    removed = map.get(key);
+                    persistableStore.remove(key);
                 }
-            });
+            }
+            if (removed != null) {
+                onMapEntryChanged(key);
+                removedRequests.add(removed);
+            } else {
+                // The entry got replaced by a not expired request in the meantime, so we only need to re-index it
+                expiryIndex.update(key, persistableStore);
+            }
+        });
+
+        if (!removedRequests.isEmpty()) {
+            log.info("We removed {} expired entries from our map", removedRequests.size());
+            removedRequests.stream()
+                    .filter(request -> request instanceof AddAuthenticatedDataRequest)
+                    .map(request -> ((AddAuthenticatedDataRequest) request).getAuthenticatedSequentialData().getAuthenticatedData())
+                    .forEach(data -> listeners.forEach(listener -> listener.onRemoved(data)));
         }
     }
 }
@@ -20,6 +20,7 @@ package bisq.network.p2p.services.data.storage.auth;
 import bisq.common.encoding.Hex;
 import bisq.common.proto.Proto;
 import bisq.common.validation.NetworkDataValidation;
+import bisq.network.p2p.services.data.DataRequest;
 import com.google.protobuf.ByteString;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -78,6 +79,10 @@ public final class AuthenticatedSequentialData implements Proto {
         return (System.currentTimeMillis() - created) > authenticatedData.getMetaData().getTtl();
     }
 
+    public long getExpiryDate() {
+        return DataRequest.toExpiryDate(created, authenticatedData.getMetaData().getTtl());
+    }
+
     public boolean isSequenceNrInvalid(long seqNumberFromMap) {
         return sequenceNumber <= seqNumberFromMap;
     }
@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.encoding.Hex;
 import bisq.common.validation.NetworkDataValidation;
+import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.RemoveDataRequest;
 import bisq.network.p2p.services.data.storage.MetaData;
 import bisq.security.DigestUtil;
@@ -169,6 +170,11 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
         return (System.currentTimeMillis() - created) > metaData.getTtl();
     }
 
+    @Override
+    public long getExpiryDate() {
+        return DataRequest.toExpiryDate(created, metaData.getTtl());
+    }
+
     @Override
     public int getMaxMapSize() {
         return metaData.getMaxMapSize();
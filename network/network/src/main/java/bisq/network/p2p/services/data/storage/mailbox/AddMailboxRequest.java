@@ -150,6 +150,11 @@ public final class AddMailboxRequest implements MailboxRequest, AddDataRequest {
         return mailboxSequentialData.isExpired();
     }
 
+    @Override
+    public long getExpiryDate() {
+        return mailboxSequentialData.getExpiryDate();
+    }
+
     @Override
     public int getMaxMapSize() {
         return mailboxSequentialData.getMailboxData().getMetaData().getMaxMapSize();
@@ -18,14 +18,19 @@
 package bisq.network.p2p.services.data.storage.mailbox;
 
 import bisq.common.data.ByteArray;
+import bisq.common.data.Pair;
 import bisq.common.timer.Scheduler;
 import bisq.network.p2p.services.data.storage.DataStorageService;
+import bisq.network.p2p.services.data.storage.DataStoreEntryInfo;
 import bisq.network.p2p.services.data.storage.Result;
 import bisq.persistence.PersistenceService;
 import bisq.security.DigestUtil;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
@@ -43,9 +48,13 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
     private final Object mapAccessLock = new Object();
     private final Scheduler scheduler;
 
-    public MailboxDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
-        super(persistenceService, storeName, storeKey);
-        scheduler = Scheduler.run(this::pruneExpired).periodically(60, TimeUnit.SECONDS);
+    public MailboxDataStorageService(PersistenceService persistenceService,
+                                      String storeName,
+                                      String storeKey,
+                                      boolean useOffHeapMap) {
+        super(persistenceService, storeName, storeKey, useOffHeapMap);
+        // Cheap with the expiry index, see AuthenticatedDataStorageService
+        scheduler = Scheduler.run(this::pruneExpired).periodically(1, TimeUnit.SECONDS);
     }
 
     @Override
@@ -59,45 +68,29 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         MailboxData mailboxData = mailboxSequentialData.getMailboxData();
         byte[] hash = DigestUtil.hash(mailboxData.serialize());
         ByteArray byteArray = new ByteArray(hash);
-        MailboxRequest requestFromMap;
+        Optional<DataStoreEntryInfo> infoFromMap;
         Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
         synchronized (mapAccessLock) {
             if (map.size() > getMaxMapSize()) {
                 return new Result(false).maxMapSizeReached();
             }
-            requestFromMap = map.get(byteArray);
-            int sequenceNumberFromMap = requestFromMap != null ? requestFromMap.getSequenceNumber() : 0;
-
-            if (request.equals(requestFromMap)) {
-                return new Result(false).requestAlreadyReceived();
-            }
-
-            if (requestFromMap != null && mailboxSequentialData.isSequenceNrInvalid(sequenceNumberFromMap)) {
-                return new Result(false).sequenceNrInvalid();
+            infoFromMap = persistableStore.findEntryInfo(byteArray);
+            Optional<Result> rejectedResult = checkAgainstMapEntry(request, infoFromMap);
+            if (rejectedResult.isPresent()) {
+                return rejectedResult.get();
             }
 
-            if (mailboxSequentialData.isExpired()) {
-                return new Result(false).expired();
-            }
-
-            if (mailboxData.isDataInvalid(mailboxSequentialData.getSenderPublicKeyHash())) {
-                return new Result(false).dataInvalid();
-            }
-
-            if (request.isPublicKeyInvalid()) {
-                return new Result(false).publicKeyHashInvalid();
-            }
-
-            if (request.isSignatureInvalid()) {
-                return new Result(false).signatureInvalid();
+            Optional<Result> invalidResult = validate(request);
+            if (invalidResult.isPresent()) {
+                return invalidResult.get();
             }
-            map.put(byteArray, request);
+            persistableStore.put(byteArray, request);
         }
-        persist();
+        onMapEntryChanged(byteArray);
 
         // If we had already the data (only updated seq nr) we return false as well and do not notify listeners.
         // This should only happen if client re-publishes mailbox data 
-        if (requestFromMap != null) {
+        if (infoFromMap.isPresent()) {
             return new Result(false).payloadAlreadyStored();
         }
 
@@ -105,6 +98,50 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         return new Result(true);
     }
 
+    /**
+     * Adds the requests of an inventory. Like at AuthenticatedDataStorageService.addAll the signatures are verified in
+     * parallel and the valid requests are applied under one lock.
+     *
+     * @return The data of the added requests. Requests which only updated the sequence number are not included.
+     */
+    public List<MailboxData> addAll(List<AddMailboxRequest> requests) {
+        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
+        // Like at AuthenticatedDataStorageService we only apply the request with the highest sequence number per data
+        Map<ByteArray, AddMailboxRequest> validRequests = requests.parallelStream()
+                .map(request -> new Pair<>(new ByteArray(DigestUtil.hash(request.getMailboxSequentialData().getMailboxData().serialize())), request))
+                .filter(pair -> checkAgainstMapEntry(pair.getSecond(), persistableStore.findEntryInfo(pair.getFirst())).isEmpty())
+                .filter(pair -> validate(pair.getSecond()).isEmpty())
+                .collect(Collectors.toMap(Pair::getFirst, Pair::getSecond, MailboxDataStorageService::getLatest));
+
+        List<ByteArray> changedKeys = new ArrayList<>();
+        List<MailboxData> addedData = new ArrayList<>();
+        synchronized (mapAccessLock) {
+            for (Map.Entry<ByteArray, AddMailboxRequest> entry : validRequests.entrySet()) {
+                if (map.size() > getMaxMapSize()) {
+                    log.warn("Max map size reached. We skip the remaining {} requests",
+                            validRequests.size() - changedKeys.size());
+                    break;
+                }
+                ByteArray byteArray = entry.getKey();
+                AddMailboxRequest request = entry.getValue();
+                Optional<DataStoreEntryInfo> infoFromMap = persistableStore.findEntryInfo(byteArray);
+                // Another thread might have changed the entry while we verified the requests
+                if (checkAgainstMapEntry(request, infoFromMap).isPresent()) {
+                    continue;
+                }
+                persistableStore.put(byteArray, request);
+                changedKeys.add(byteArray);
+                if (infoFromMap.isEmpty()) {
+                    addedData.add(request.getMailboxSequentialData().getMailboxData());
+                }
+            }
+        }
+
+        changedKeys.forEach(this::onMapEntryChanged);
+        addedData.forEach(mailboxData -> listeners.forEach(listener -> listener.onAdded(mailboxData)));
+        return addedData;
+    }
+
     public Result remove(RemoveMailboxRequest request) {
         ByteArray byteArray = new ByteArray(request.getHash());
         Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
@@ -114,8 +151,8 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
             if (requestFromMap == null) {
                 // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
                 // track of the sequence number
-                map.put(byteArray, request);
-                persist();
+                persistableStore.put(byteArray, request);
+                onMapEntryChanged(byteArray);
                 return new Result(false).noEntry();
             }
 
@@ -123,8 +160,8 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
                 // We have had the entry already removed.
                 if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
                     // We update the request, so we have the latest sequence number.
-                    map.put(byteArray, request);
-                    persist();
+                    persistableStore.put(byteArray, request);
+                    onMapEntryChanged(byteArray);
                 }
                 return new Result(false).alreadyRemoved();
             }
@@ -147,11 +184,11 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
                 return new Result(false).signatureInvalid();
             }
 
-            map.put(byteArray, request);
+            persistableStore.put(byteArray, request);
             listeners.forEach(listener -> listener.onRemoved(sequentialDataFromMap.getMailboxData()));
         }
 
-        persist();
+        onMapEntryChanged(byteArray);
         return new Result(true).removedData(sequentialDataFromMap.getMailboxData());
     }
 
@@ -170,14 +207,11 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
 
     int getSequenceNumber(byte[] hash) {
         ByteArray byteArray = new ByteArray(hash);
-        int sequenceNumber = 0;
-        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
         synchronized (mapAccessLock) {
-            if (map.containsKey(byteArray)) {
-                sequenceNumber = map.get(byteArray).getSequenceNumber();
-            }
+            return persistableStore.findEntryInfo(byteArray)
+                    .map(DataStoreEntryInfo::getSequenceNumber)
+                    .orElse(0);
         }
-        return sequenceNumber;
     }
 
     boolean contains(byte[] hash) {
@@ -192,13 +226,77 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         return getSequenceNumber(hash) < Integer.MAX_VALUE;
     }
 
+    private static AddMailboxRequest getLatest(AddMailboxRequest request1, AddMailboxRequest request2) {
+        return request1.getSequenceNumber() >= request2.getSequenceNumber() ? request1 : request2;
+    }
+
+    // Like at AuthenticatedDataStorageService we only use the entry info of the request from the map, so that we do
+    // not need to decode it.
+    private Optional<Result> checkAgainstMapEntry(AddMailboxRequest request, Optional<DataStoreEntryInfo> infoFromMap) {
+        if (infoFromMap.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (infoFromMap.get().equals(DataStoreEntryInfo.from(request))) {
+            return Optional.of(new Result(false).requestAlreadyReceived());
+        }
+
+        if (request.getMailboxSequentialData().isSequenceNrInvalid(infoFromMap.get().getSequenceNumber())) {
+            return Optional.of(new Result(false).sequenceNrInvalid());
+        }
+        return Optional.empty();
+    }
+
+    // The checks which do not depend on the map, so they can be done outside the lock
+    private Optional<Result> validate(AddMailboxRequest request) {
+        MailboxSequentialData mailboxSequentialData = request.getMailboxSequentialData();
+        if (mailboxSequentialData.isExpired()) {
+            return Optional.of(new Result(false).expired());
+        }
+
+        if (mailboxSequentialData.getMailboxData().isDataInvalid(mailboxSequentialData.getSenderPublicKeyHash())) {
+            return Optional.of(new Result(false).dataInvalid());
+        }
+
+        if (request.isPublicKeyInvalid()) {
+            return Optional.of(new Result(false).publicKeyHashInvalid());
+        }
+
+        if (request.isSignatureInvalid()) {
+            return Optional.of(new Result(false).signatureInvalid());
+        }
+        return Optional.empty();
+    }
+
     private void pruneExpired() {
-        Set<Map.Entry<ByteArray, MailboxRequest>> expiredEntries = persistableStore.getMap().entrySet().stream()
-                .filter(entry -> entry.getValue().isExpired())
-                .collect(Collectors.toSet());
-        if (!expiredEntries.isEmpty()) {
-            log.info("We remove {} expired entries from our map", expiredEntries.size());
-            expiredEntries.forEach(entry -> persistableStore.getMap().remove(entry.getKey()));
+        long now = System.currentTimeMillis();
+        Set<ByteArray> candidates = expiryIndex.pollExpired(now);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        int numRemoved = 0;
+        for (ByteArray key : candidates) {
+            boolean isRemoved = false;
+            synchronized (mapAccessLock) {
+                boolean isExpired = persistableStore.findEntryInfo(key)
+                        .map(info -> info.isExpired(now))
+                        .orElse(false);
+                if (isExpired) {
+                    persistableStore.remove(key);
+                    isRemoved = true;
+                }
+            }
+            if (isRemoved) {
+                onMapEntryChanged(key);
+                numRemoved++;
+            } else {
+                // The entry got replaced by a not expired request in the meantime, so we only need to re-index it
+                expiryIndex.update(key, persistableStore);
+            }
+        }
+        if (numRemoved > 0) {
+            log.info("We removed {} expired entries from our map", numRemoved);
         }
     }
 }
@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data.storage.mailbox;
 
 import bisq.common.proto.Proto;
 import bisq.common.validation.NetworkDataValidation;
+import bisq.network.p2p.services.data.DataRequest;
 import bisq.security.KeyGeneration;
 import com.google.protobuf.ByteString;
 import lombok.EqualsAndHashCode;
@@ -127,4 +128,8 @@ public final class MailboxSequentialData implements Proto {
     public boolean isExpired() {
         return (System.currentTimeMillis() - created) > Math.min(MailboxData.MAX_TLL, mailboxData.getMetaData().getTtl());
     }
+
+    public long getExpiryDate() {
+        return DataRequest.toExpiryDate(created, Math.min(MailboxData.MAX_TLL, mailboxData.getMetaData().getTtl()));
+    }
 }
@@ -18,6 +18,7 @@
 package bisq.network.p2p.services.data.storage.mailbox;
 
 import bisq.common.validation.NetworkDataValidation;
+import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.RemoveDataRequest;
 import bisq.network.p2p.services.data.storage.MetaData;
 import bisq.security.DigestUtil;
@@ -152,6 +153,11 @@ public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataReq
         return (System.currentTimeMillis() - created) > Math.min(MailboxData.MAX_TLL, metaData.getTtl());
     }
 
+    @Override
+    public long getExpiryDate() {
+        return DataRequest.toExpiryDate(created, Math.min(MailboxData.MAX_TLL, metaData.getTtl()));
+    }
+
     @Override
     public int getMaxMapSize() {
         return metaData.getMaxMapSize();
@@ -42,6 +42,7 @@ import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -72,16 +73,23 @@ public class InboundConnectionsManagerTests {
 
         Selector selector = SelectorProvider.provider().openSelector();
         InboundConnectionsManager inboundConnectionsManager = new InboundConnectionsManager(
-                mock(BanList.class), myCapability, authorizationService, serverSocketChannel,
+                mock(BanList.class), myCapability, authorizationService,
+                new Transport.ServerSocketResult("node", null, myAddress),
+                serverSocketChannel,
+                (int) TimeUnit.SECONDS.toMillis(30),
                 selector,
-                mock(Node.class)
+                mock(Node.class),
+                (connection, exception) -> log.error("Error: ", exception)
         );
 
         inboundConnectionsManager.registerOpAccept();
 
         Thread serverThread = new Thread(() -> {
             try {
-                while (selector.select() > 0) {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (selector.select() == 0) {
+                        continue;
+                    }
                     Set<SelectionKey> readyKeys = selector.selectedKeys();
                     Iterator<SelectionKey> keyIterator = readyKeys.iterator();
 
@@ -93,13 +101,10 @@ public class InboundConnectionsManagerTests {
                             inboundConnectionsManager.acceptNewConnection(selectionKey);
                         }
 
-                        if (selectionKey.isReadable()) {
+                        if (selectionKey.isValid() && selectionKey.isReadable()) {
                             SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
                             log.info("Received message from {}", socketChannel.getRemoteAddress());
-
-                            if (inboundConnectionsManager.isInboundConnection(socketChannel)) {
-                                inboundConnectionsManager.handleInboundConnection(socketChannel);
-                            }
+                            inboundConnectionsManager.handleReadableChannel(socketChannel);
                         }
                     }
                 }
@@ -157,16 +162,23 @@ public class InboundConnectionsManagerTests {
 
         Selector selector = SelectorProvider.provider().openSelector();
         InboundConnectionsManager inboundConnectionsManager = new InboundConnectionsManager(
-                mock(BanList.class), myCapability, authorizationService, serverSocketChannel,
+                mock(BanList.class), myCapability, authorizationService,
+                new Transport.ServerSocketResult("node", null, myAddress),
+                serverSocketChannel,
+                (int) TimeUnit.SECONDS.toMillis(30),
                 selector,
-                mock(Node.class)
+                mock(Node.class),
+                (connection, exception) -> log.error("Error: ", exception)
         );
 
         inboundConnectionsManager.registerOpAccept();
 
         Thread serverThread = new Thread(() -> {
             try {
-                while (selector.select() > 0) {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (selector.select() == 0) {
+                        continue;
+                    }
                     Set<SelectionKey> readyKeys = selector.selectedKeys();
                     Iterator<SelectionKey> keyIterator = readyKeys.iterator();
 
@@ -178,13 +190,10 @@ public class InboundConnectionsManagerTests {
                             inboundConnectionsManager.acceptNewConnection(selectionKey);
                         }
 
-                        if (selectionKey.isReadable()) {
+                        if (selectionKey.isValid() && selectionKey.isReadable()) {
                             SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
                             log.info("Received message from {}", socketChannel.getRemoteAddress());
-
-                            if (inboundConnectionsManager.isInboundConnection(socketChannel)) {
-                                inboundConnectionsManager.handleInboundConnection(socketChannel);
-                            }
+                            inboundConnectionsManager.handleReadableChannel(socketChannel);
                         }
                     }
                 }
@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class ProtoBufMessageLengthTests {
 
@@ -65,6 +66,17 @@ public class ProtoBufMessageLengthTests {
         assertThat(parsedLength).isEqualTo(envelopeInBytes.length);
     }
 
+    @Test
+    void rejectsEnvelopeExceedingMaxSize() {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
+        ProtoBufMessageLengthWriter.writeToBuffer(NetworkEnvelope.MAX_SIZE + 1, byteBuffer);
+        byteBuffer.put(new byte[16]);
+        byteBuffer.flip();
+
+        NetworkEnvelopeDeserializer deserializer = new NetworkEnvelopeDeserializer(byteBuffer);
+        assertThatThrownBy(deserializer::readFromByteBuffer).isInstanceOf(ConnectionException.class);
+    }
+
     private AuthorizationService createAuthorizationService() {
         String baseDir = tmpDir.toAbsolutePath().toString();
         PersistenceService persistenceService = new PersistenceService(baseDir);
@@ -0,0 +1,56 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ByteBufferPoolTest {
+    @Test
+    void buffersHaveTheSmallestFittingSizeClass() {
+        ByteBufferPool pool = new ByteBufferPool();
+
+        assertThat(pool.acquire(100).capacity()).isEqualTo(1024);
+        assertThat(pool.acquire(1024).capacity()).isEqualTo(1024);
+        assertThat(pool.acquire(1025).capacity()).isEqualTo(4 * 1024);
+        assertThat(pool.acquire(5000).capacity()).isEqualTo(16 * 1024);
+        assertThat(pool.acquire(ByteBufferPool.MAX_BUFFER_SIZE).capacity()).isEqualTo(ByteBufferPool.MAX_BUFFER_SIZE);
+        assertThat(pool.acquire(100).isDirect()).isTrue();
+
+        ByteBuffer large = pool.acquire(ByteBufferPool.MAX_BUFFER_SIZE + 1);
+        assertThat(large.isDirect()).isFalse();
+        assertThat(large.capacity()).isEqualTo(ByteBufferPool.MAX_BUFFER_SIZE + 1);
+    }
+
+    @Test
+    void releasedBuffersAreReusedWithinTheirSizeClass() {
+        ByteBufferPool pool = new ByteBufferPool();
+        ByteBuffer small = pool.acquire(100);
+        small.put((byte) 1);
+        pool.release(small);
+
+        assertThat(pool.acquire(20 * 1024)).isNotSameAs(small);
+        ByteBuffer reused = pool.acquire(500);
+        assertThat(reused).isSameAs(small);
+        assertThat(reused.position()).isEqualTo(0);
+        assertThat(pool.acquire(500)).isNotSameAs(small);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DuplicateBroadcastFilterTest {
+    private static KeyPair keyPair;
+
+    @BeforeAll
+    static void setUp() throws GeneralSecurityException {
+        keyPair = KeyGeneration.generateKeyPair();
+    }
+
+    @Test
+    void sameDataRequestWithDifferentTokensHasSameHash() {
+        bisq.network.protobuf.NetworkMessage networkMessage = createDataRequest(1).toProto();
+        byte[] envelope1 = createEnvelope(networkMessage, createToken(1, new byte[]{1}));
+        byte[] envelope2 = createEnvelope(networkMessage, createToken(2, new byte[]{2, 3}));
+
+        assertThat(envelope1).isNotEqualTo(envelope2);
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(envelope1)).isPresent();
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(envelope1))
+                .isEqualTo(DuplicateBroadcastFilter.getDataRequestHash(envelope2));
+
+        byte[] otherEnvelope = createEnvelope(createDataRequest(2).toProto(), createToken(1, new byte[]{1}));
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(otherEnvelope))
+                .isNotEqualTo(DuplicateBroadcastFilter.getDataRequestHash(envelope1));
+    }
+
+    @Test
+    void otherMessagesHaveNoHash() {
+        bisq.network.protobuf.NetworkMessage networkMessage = bisq.network.protobuf.NetworkMessage.newBuilder()
+                .setCloseConnectionMessage(bisq.network.protobuf.CloseConnectionMessage.newBuilder()
+                        .setCloseReason("SHUTDOWN"))
+                .build();
+        byte[] envelope = createEnvelope(networkMessage, createToken(1, new byte[]{1}));
+
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(envelope)).isEmpty();
+    }
+
+    @Test
+    void truncatedOrMalformedInputHasNoHash() {
+        byte[] envelope = createEnvelope(createDataRequest(1).toProto(), createToken(1, new byte[]{1}));
+
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(Arrays.copyOf(envelope, envelope.length - 1))).isEmpty();
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(Arrays.copyOf(envelope, 3))).isEmpty();
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(new byte[0])).isEmpty();
+        // A length delimited field with a length far beyond the input
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(new byte[]{0x1a, (byte) 0xff, (byte) 0xff, 0x7f})).isEmpty();
+        // An invalid wire type
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(new byte[]{0x0f, 0x01})).isEmpty();
+    }
+
+    @Test
+    void hashesAreKeptForTwoGenerations() {
+        DuplicateBroadcastFilter filter = new DuplicateBroadcastFilter(Long.MAX_VALUE, 2);
+        ByteArray hash1 = createHash(1);
+        ByteArray hash2 = createHash(2);
+        ByteArray hash3 = createHash(3);
+        ByteArray hash4 = createHash(4);
+        ByteArray hash5 = createHash(5);
+
+        assertThat(filter.isDuplicate(hash1)).isFalse();
+        filter.add(hash1);
+        filter.add(hash2);
+        // The full generation becomes the previous one
+        filter.add(hash3);
+        assertThat(filter.isDuplicate(hash1)).isTrue();
+        assertThat(filter.isDuplicate(hash2)).isTrue();
+        assertThat(filter.isDuplicate(hash3)).isTrue();
+
+        filter.add(hash4);
+        // The generation of hash1 and hash2 gets dropped
+        filter.add(hash5);
+        assertThat(filter.isDuplicate(hash1)).isFalse();
+        assertThat(filter.isDuplicate(hash2)).isFalse();
+        assertThat(filter.isDuplicate(hash3)).isTrue();
+        assertThat(filter.isDuplicate(hash4)).isTrue();
+        assertThat(filter.isDuplicate(hash5)).isTrue();
+    }
+
+    @Test
+    void generationRotatesAfterDuration() {
+        DuplicateBroadcastFilter filter = new DuplicateBroadcastFilter(0, Integer.MAX_VALUE);
+        ByteArray hash1 = createHash(1);
+        filter.add(hash1);
+        filter.add(createHash(2));
+        filter.add(createHash(3));
+
+        assertThat(filter.isDuplicate(hash1)).isFalse();
+    }
+
+    private static ByteArray createHash(int index) {
+        return new ByteArray(DigestUtil.hash(new byte[]{(byte) index}));
+    }
+
+    private static RemoveAuthenticatedDataRequest createDataRequest(int index) {
+        byte[] hash = DigestUtil.hash(String.valueOf(index).getBytes());
+        return new RemoveAuthenticatedDataRequest(new MetaData("TestData"),
+                hash,
+                keyPair.getPublic(),
+                1,
+                DigestUtil.hash(hash));
+    }
+
+    private static bisq.network.protobuf.AuthorizationToken createToken(int messageCounter, byte[] solution) {
+        return bisq.network.protobuf.AuthorizationToken.newBuilder()
+                .setProofOfWork(bisq.security.protobuf.ProofOfWork.newBuilder()
+                        .setPayload(ByteString.copyFrom(new byte[]{9}))
+                        .setDifficulty(1)
+                        .setSolution(ByteString.copyFrom(solution)))
+                .setMessageCounter(messageCounter)
+                .build();
+    }
+
+    private static byte[] createEnvelope(bisq.network.protobuf.NetworkMessage networkMessage,
+                                         bisq.network.protobuf.AuthorizationToken token) {
+        return bisq.network.protobuf.NetworkEnvelope.newBuilder()
+                .setVersion(1)
+                .setAuthorizationToken(token)
+                .setNetworkMessage(networkMessage)
+                .build()
+                .toByteArray();
+    }
+}
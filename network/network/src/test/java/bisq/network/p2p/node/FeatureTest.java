@@ -17,24 +17,17 @@
 
 package bisq.network.p2p.node;
 
-import lombok.Setter;
-import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
 
-@Slf4j
-public class InboundConnectionChannel extends ConnectionChannel {
-    @Setter
-    private boolean isPeerAddressVerified;
+import java.util.List;
 
-    public InboundConnectionChannel(Capability peersCapability,
-                                    Load peersLoad,
-                                    NetworkEnvelopeSocketChannel networkEnvelopeSocketChannel,
-                                    Metrics metrics) {
-        super(peersCapability, peersLoad, networkEnvelopeSocketChannel, metrics);
-        log.debug("Create inboundConnection");
-    }
+import static org.assertj.core.api.Assertions.assertThat;
 
-    @Override
-    public boolean isPeerAddressVerified() {
-        return isPeerAddressVerified;
+public class FeatureTest {
+    @Test
+    void unknownFeaturesAreIgnored() {
+        assertThat(Feature.fromNames(List.of("INVENTORY_BLOOM_FILTER", "FEATURE_OF_A_NEWER_NODE")))
+                .containsExactly(Feature.INVENTORY_BLOOM_FILTER);
+        assertThat(Feature.fromNames(List.of())).isEmpty();
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistogramTest {
+    @Test
+    void bucketsCoverAllValues() {
+        int previousIndex = -1;
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = Histogram.getBucketIndex(value);
+            assertThat(index).isBetween(previousIndex, previousIndex + 1);
+            assertThat(Histogram.getHighestValueOfBucket(index)).isGreaterThanOrEqualTo(value);
+            previousIndex = index;
+        }
+        assertThat(Histogram.getBucketIndex(Long.MAX_VALUE)).isEqualTo(Histogram.getBucketIndex(1L << 40));
+    }
+
+    @Test
+    void percentilesAreWithinPrecision() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMean()).isEqualTo(500.5);
+        assertThat(histogram.getMax()).isEqualTo(1000);
+        assertThat(histogram.getValueAtPercentile(50)).isBetween(500L, 563L);
+        assertThat(histogram.getValueAtPercentile(99)).isBetween(990L, 1000L);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1000);
+    }
+
+    @Test
+    void emptyHistogram() {
+        Histogram histogram = new Histogram();
+        assertThat(histogram.getMean()).isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.message.NetworkMessage;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.security.pow.ProofOfWork;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NetworkEnvelopeSocketChannelTest {
+    private static final int LARGE_PAYLOAD_SIZE = 12 * 1024 * 1024;
+
+    @Test
+    void sendsFramesLargerThanTheWriteQueueLimit() throws Exception {
+        byte[] largePayload = new byte[LARGE_PAYLOAD_SIZE];
+        new Random(1).nextBytes(largePayload);
+
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open()) {
+            serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (NetworkEnvelopeSocketChannel sender = new NetworkEnvelopeSocketChannel(
+                    SocketChannel.open(serverSocketChannel.getLocalAddress()));
+                 NetworkEnvelopeSocketChannel receiver = new NetworkEnvelopeSocketChannel(serverSocketChannel.accept())) {
+
+                CompletableFuture<Integer> sendFuture = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        sender.send(createEnvelope(largePayload));
+                        return sender.send(createEnvelope(new byte[]{1, 2, 3}));
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+
+                List<byte[]> received = new ArrayList<>();
+                while (received.size() < 2) {
+                    received.addAll(receiver.receiveNetworkEnvelopeBytes());
+                }
+                assertThat(sendFuture.get(30, TimeUnit.SECONDS)).isPositive();
+
+                assertThat(getPayload(received.get(0))).isEqualTo(largePayload);
+                assertThat(getPayload(received.get(1))).isEqualTo(new byte[]{1, 2, 3});
+            }
+        }
+    }
+
+    private static NetworkEnvelope createEnvelope(byte[] payload) {
+        ProofOfWork proofOfWork = new ProofOfWork(new byte[]{0}, null, 0, new byte[]{0});
+        NetworkMessage networkMessage = new NetworkMessage() {
+            @Override
+            public bisq.network.protobuf.NetworkMessage toProto() {
+                return getNetworkMessageBuilder().setExternalNetworkMessage(
+                                bisq.network.protobuf.ExternalNetworkMessage.newBuilder()
+                                        .setAny(Any.newBuilder()
+                                                .setTypeUrl("test")
+                                                .setValue(ByteString.copyFrom(payload))))
+                        .build();
+            }
+        };
+        return new NetworkEnvelope(NetworkEnvelope.VERSION, new AuthorizationToken(proofOfWork, 0), networkMessage);
+    }
+
+    private static byte[] getPayload(byte[] envelopeBytes) throws Exception {
+        return bisq.network.protobuf.NetworkEnvelope.parseFrom(envelopeBytes)
+                .getNetworkMessage()
+                .getExternalNetworkMessage()
+                .getAny()
+                .getValue()
+                .toByteArray();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.DuplicateBroadcastFilter;
+import bisq.network.p2p.node.Feature;
+import bisq.network.p2p.node.Load;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.network.p2p.services.peergroup.keepalive.Ping;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import bisq.security.pow.EquihashProofOfWorkService;
+import bisq.security.pow.ProofOfWork;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthorizationServiceTest {
+    private static final String PEER_1 = "peer1.onion:1000";
+    private static final String PEER_2 = "peer2.onion:1000";
+
+    private final AuthorizationService authorizationService = new AuthorizationService(new EquihashProofOfWorkService());
+
+    @Test
+    void broadcastProofOfWorkIsMintedOnceForAllPeers() throws GeneralSecurityException {
+        RemoveAuthenticatedDataRequest request = createDataRequest();
+        Set<Feature> peersFeatures = Set.of(Feature.BROADCAST_PROOF_OF_WORK);
+        AuthorizationToken token1 = authorizationService.createToken(request, Load.INITIAL_LOAD, PEER_1, 1, peersFeatures);
+        AuthorizationToken token2 = authorizationService.createToken(request, Load.INITIAL_LOAD, PEER_2, 5, peersFeatures);
+
+        assertThat(token2.getProofOfWork()).isSameAs(token1.getProofOfWork());
+        assertThat(token2.getMessageCounter()).isEqualTo(5);
+        assertThat(authorizationService.isAuthorized(request, token1, Load.INITIAL_LOAD, PEER_1)).isTrue();
+        assertThat(authorizationService.isAuthorized(request, token2, Load.INITIAL_LOAD, PEER_2)).isTrue();
+    }
+
+    @Test
+    void broadcastProofOfWorkExpiresAfterItsChallengePeriods() throws GeneralSecurityException {
+        RemoveAuthenticatedDataRequest request = createDataRequest();
+        AuthorizationToken token = authorizationService.createToken(request, Load.INITIAL_LOAD, PEER_1, 1,
+                Set.of(Feature.BROADCAST_PROOF_OF_WORK));
+        long now = System.currentTimeMillis();
+        long period = AuthorizationService.BROADCAST_CHALLENGE_PERIOD;
+
+        assertThat(authorizationService.isAuthorized(request, token, Load.INITIAL_LOAD, PEER_2, now)).isTrue();
+        assertThat(authorizationService.isAuthorized(request, token, Load.INITIAL_LOAD, PEER_2, now + 3 * period)).isFalse();
+        assertThat(authorizationService.isAuthorized(request, token, Load.INITIAL_LOAD, PEER_2, now - 3 * period)).isFalse();
+    }
+
+    @Test
+    void broadcastProofOfWorkIsBoundToTheMessage() throws GeneralSecurityException {
+        RemoveAuthenticatedDataRequest request = createDataRequest();
+        RemoveAuthenticatedDataRequest otherRequest = createDataRequest();
+        ProofOfWork proofOfWork = authorizationService.createToken(request, Load.INITIAL_LOAD, PEER_1, 1,
+                Set.of(Feature.BROADCAST_PROOF_OF_WORK)).getProofOfWork();
+
+        // Same challenge and solution, but with the payload of another message
+        ProofOfWork otherProofOfWork = new ProofOfWork(otherRequest.toProto().toByteArray(),
+                proofOfWork.getChallenge(),
+                proofOfWork.getDifficulty(),
+                proofOfWork.getSolution());
+        AuthorizationToken otherToken = new AuthorizationToken(otherProofOfWork, 1);
+        assertThat(authorizationService.isAuthorized(otherRequest, otherToken, Load.INITIAL_LOAD, PEER_1)).isFalse();
+    }
+
+    @Test
+    void replayOfBroadcastProofOfWorkIsLimitedByReplayWindowAndDuplicateFilter() throws GeneralSecurityException {
+        RemoveAuthenticatedDataRequest request = createDataRequest();
+        AuthorizationToken token = authorizationService.createToken(request, Load.INITIAL_LOAD, PEER_1, 1,
+                Set.of(Feature.BROADCAST_PROOF_OF_WORK));
+        byte[] envelopeBytes = new NetworkEnvelope(NetworkEnvelope.VERSION, token, request).toProto().toByteArray();
+        ByteArray messageHash = DuplicateBroadcastFilter.getDataRequestHash(envelopeBytes).orElseThrow();
+        DuplicateBroadcastFilter duplicateBroadcastFilter = new DuplicateBroadcastFilter();
+
+        // Received on the first connection. As in Connection, the hash is added once the message is authorized.
+        ReplayWindow replayWindowOfFirstConnection = new ReplayWindow();
+        assertThat(duplicateBroadcastFilter.isDuplicate(messageHash)).isFalse();
+        assertThat(authorizationService.isAuthorized(request, token, Load.INITIAL_LOAD, replayWindowOfFirstConnection, PEER_2)).isTrue();
+        duplicateBroadcastFilter.add(messageHash);
+
+        // A replay on the same connection is rejected by its replay window
+        assertThat(authorizationService.isAuthorized(request, token, Load.INITIAL_LOAD, replayWindowOfFirstConnection, PEER_2)).isFalse();
+
+        // The token is not bound to the connection, so another connection would authorize it. The replayed message is
+        // dropped by the duplicate filter before authorization.
+        ReplayWindow replayWindowOfSecondConnection = new ReplayWindow();
+        assertThat(authorizationService.isAuthorized(request, token, Load.INITIAL_LOAD, replayWindowOfSecondConnection, PEER_2)).isTrue();
+        byte[] replayedEnvelopeBytes = new NetworkEnvelope(NetworkEnvelope.VERSION, new AuthorizationToken(token.getProofOfWork(), 7), request)
+                .toProto().toByteArray();
+        assertThat(DuplicateBroadcastFilter.getDataRequestHash(replayedEnvelopeBytes)).contains(messageHash);
+        assertThat(duplicateBroadcastFilter.isDuplicate(messageHash)).isTrue();
+    }
+
+    @Test
+    void proofOfWorkIsBoundToPeerWithoutBroadcastFeature() throws GeneralSecurityException {
+        RemoveAuthenticatedDataRequest request = createDataRequest();
+        AuthorizationToken token1 = authorizationService.createToken(request, Load.INITIAL_LOAD, PEER_1, 1);
+        AuthorizationToken token2 = authorizationService.createToken(request, Load.INITIAL_LOAD, PEER_2, 1);
+
+        assertThat(token2.getProofOfWork()).isNotSameAs(token1.getProofOfWork());
+        assertThat(authorizationService.isAuthorized(request, token1, Load.INITIAL_LOAD, PEER_1)).isTrue();
+        assertThat(authorizationService.isAuthorized(request, token1, Load.INITIAL_LOAD, PEER_2)).isFalse();
+    }
+
+    @Test
+    void otherMessagesAreAlwaysBoundToPeer() {
+        Ping ping = new Ping(1);
+        AuthorizationToken token = authorizationService.createToken(ping, Load.INITIAL_LOAD, PEER_1, 1,
+                Set.of(Feature.BROADCAST_PROOF_OF_WORK));
+
+        assertThat(authorizationService.isAuthorized(ping, token, Load.INITIAL_LOAD, PEER_1)).isTrue();
+        assertThat(authorizationService.isAuthorized(ping, token, Load.INITIAL_LOAD, PEER_2)).isFalse();
+    }
+
+    private static RemoveAuthenticatedDataRequest createDataRequest() throws GeneralSecurityException {
+        KeyPair keyPair = KeyGeneration.generateKeyPair();
+        byte[] hash = DigestUtil.hash("data".getBytes());
+        return new RemoveAuthenticatedDataRequest(new MetaData("TestData"),
+                hash,
+                keyPair.getPublic(),
+                1,
+                DigestUtil.hash(hash));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplayWindowTest {
+    @Test
+    void rejectsReplayedCounters() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertThat(replayWindow.tryAdd(1)).isTrue();
+        assertThat(replayWindow.tryAdd(1)).isFalse();
+        assertThat(replayWindow.tryAdd(2)).isTrue();
+        assertThat(replayWindow.tryAdd(1)).isFalse();
+        assertThat(replayWindow.tryAdd(2)).isFalse();
+    }
+
+    @Test
+    void acceptsReorderedCountersInsideWindow() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertThat(replayWindow.tryAdd(100)).isTrue();
+        assertThat(replayWindow.tryAdd(37)).isTrue();
+        assertThat(replayWindow.tryAdd(99)).isTrue();
+        assertThat(replayWindow.tryAdd(165)).isTrue();
+        assertThat(replayWindow.tryAdd(37)).isFalse();
+        assertThat(replayWindow.tryAdd(99)).isFalse();
+        assertThat(replayWindow.tryAdd(100)).isFalse();
+        assertThat(replayWindow.tryAdd(98)).isTrue();
+    }
+
+    @Test
+    void rejectsCountersOutsideWindow() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertThat(replayWindow.tryAdd(1)).isTrue();
+        assertThat(replayWindow.tryAdd(1 + ReplayWindow.WINDOW_SIZE)).isTrue();
+        assertThat(replayWindow.tryAdd(1)).isFalse();
+        assertThat(replayWindow.tryAdd(2)).isTrue();
+        assertThat(replayWindow.tryAdd(5 * ReplayWindow.WINDOW_SIZE)).isTrue();
+        assertThat(replayWindow.tryAdd(1 + ReplayWindow.WINDOW_SIZE)).isFalse();
+        assertThat(replayWindow.tryAdd(5 * ReplayWindow.WINDOW_SIZE - 1)).isTrue();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data;
+
+import bisq.network.p2p.services.data.inventory.Inventory;
+import bisq.network.p2p.services.data.storage.StorageData;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.auth.*;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import bisq.security.SignatureUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DataServiceTest {
+    private StorageService storageService;
+    private DataNetworkService dataNetworkService;
+    private DataService dataService;
+    private AddAuthenticatedDataRequest addRequest;
+    private RemoveAuthenticatedDataRequest removeRequest;
+
+    @BeforeEach
+    void setUp() throws GeneralSecurityException {
+        storageService = mock(StorageService.class);
+        dataNetworkService = mock(DataNetworkService.class);
+        dataService = new DataService(storageService);
+
+        KeyPair keyPair = KeyGeneration.generateKeyPair();
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data"));
+        AuthenticatedSequentialData data = new AuthenticatedSequentialData(authenticatedData,
+                1,
+                DigestUtil.hash(keyPair.getPublic().getEncoded()),
+                System.currentTimeMillis());
+        addRequest = new AddAuthenticatedDataRequest(data,
+                SignatureUtil.sign(data.serialize(), keyPair.getPrivate()),
+                keyPair.getPublic());
+        byte[] hash = DigestUtil.hash(authenticatedData.serialize());
+        removeRequest = new RemoveAuthenticatedDataRequest(authenticatedData.getMetaData(),
+                hash,
+                keyPair.getPublic(),
+                2,
+                SignatureUtil.sign(hash, keyPair.getPrivate()));
+
+        Inventory inventory = new Inventory(List.of(removeRequest, addRequest), 2);
+        when(dataNetworkService.requestInventory(any())).thenReturn(List.of(CompletableFuture.completedFuture(inventory)));
+        when(storageService.onRemoveDataRequest(any())).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+    }
+
+    @Test
+    void removeRequestsOfInventoryAreAppliedAfterAddRequests() {
+        CompletableFuture<List<StorageData>> addFuture = new CompletableFuture<>();
+        when(storageService.onAddDataRequests(any())).thenReturn(addFuture);
+
+        dataService.requestInventory(List.of(), dataNetworkService);
+
+        verify(storageService).onAddDataRequests(List.of(addRequest));
+        verify(storageService, never()).onRemoveDataRequest(any());
+
+        addFuture.complete(List.of());
+
+        InOrder inOrder = inOrder(storageService);
+        inOrder.verify(storageService).onAddDataRequests(List.of(addRequest));
+        inOrder.verify(storageService).onRemoveDataRequest(removeRequest);
+    }
+
+    @Test
+    void removeRequestsOfInventoryAreAppliedIfAddingFailed() {
+        CompletableFuture<List<StorageData>> addFuture = new CompletableFuture<>();
+        when(storageService.onAddDataRequests(any())).thenReturn(addFuture);
+
+        dataService.requestInventory(List.of(), dataNetworkService);
+        addFuture.completeExceptionally(new RuntimeException("Adding failed"));
+
+        verify(storageService).onRemoveDataRequest(removeRequest);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BloomFilterTest {
+    private final Random random = new Random(42);
+
+    @Test
+    void noFalseNegatives() {
+        List<FilterEntry> filterEntries = createFilterEntries(10_000);
+        BloomFilter bloomFilter = BloomFilter.from(filterEntries);
+        assertThat(filterEntries).allMatch(bloomFilter::mightContain);
+    }
+
+    @Test
+    void differentSequenceNumberIsNotContained() {
+        List<FilterEntry> filterEntries = createFilterEntries(1000);
+        BloomFilter bloomFilter = BloomFilter.from(filterEntries);
+        long numFalsePositives = filterEntries.stream()
+                .map(e -> new FilterEntry(e.getHash(), e.getSequenceNumber() + 1))
+                .filter(bloomFilter::mightContain)
+                .count();
+        assertThat(numFalsePositives).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void falsePositiveRate() {
+        BloomFilter bloomFilter = BloomFilter.from(createFilterEntries(10_000));
+        long numFalsePositives = createFilterEntries(100_000).stream()
+                .filter(bloomFilter::mightContain)
+                .count();
+        // Expected are about 1 false positive at 100 000 lookups
+        assertThat(numFalsePositives).isLessThan(10);
+    }
+
+    @Test
+    void protoRoundTrip() {
+        List<FilterEntry> filterEntries = createFilterEntries(2000);
+        DataFilter dataFilter = DataFilter.from(filterEntries);
+        assertThat(dataFilter.getBloomFilter()).isPresent();
+        assertThat(dataFilter.getFilterEntries()).isEmpty();
+
+        DataFilter fromProto = DataFilter.fromProto(dataFilter.toProto());
+        assertThat(fromProto).isEqualTo(dataFilter);
+        assertThat(filterEntries).allMatch(fromProto.getBloomFilter().orElseThrow()::mightContain);
+    }
+
+    @Test
+    void smallFilterUsesFilterEntries() {
+        DataFilter dataFilter = DataFilter.from(createFilterEntries(10));
+        assertThat(dataFilter.getBloomFilter()).isEmpty();
+        assertThat(dataFilter.getFilterEntries()).hasSize(10);
+    }
+
+    private List<FilterEntry> createFilterEntries(int numEntries) {
+        List<FilterEntry> filterEntries = new ArrayList<>(numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            byte[] hash = new byte[20];
+            random.nextBytes(hash);
+            filterEntries.add(new FilterEntry(hash, random.nextInt(100)));
+        }
+        return filterEntries;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory;
+
+import bisq.network.p2p.message.NetworkMessage;
+import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Feature;
+import bisq.network.p2p.node.Node;
+import bisq.network.p2p.services.data.filter.DataFilter;
+import bisq.network.p2p.services.data.filter.FilterEntry;
+import bisq.network.p2p.services.peergroup.PeerGroup;
+import bisq.security.DigestUtil;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class InventoryServiceTest {
+    @Test
+    void firstRequestOfRoundUsesExactList() {
+        Node node = mock(Node.class);
+        PeerGroup peerGroup = mock(PeerGroup.class);
+        List<Connection> connections = List.of(
+                createConnection("1", Set.of(Feature.INVENTORY_BLOOM_FILTER)),
+                createConnection("2", Set.of(Feature.INVENTORY_BLOOM_FILTER)),
+                createConnection("3", Set.of()),
+                createConnection("4", Set.of(Feature.INVENTORY_BLOOM_FILTER)));
+        when(peerGroup.getAllConnections()).thenAnswer(invocation -> connections.stream());
+        InventoryService inventoryService = new InventoryService(node, peerGroup, dataFilter -> null);
+
+        List<FilterEntry> filterEntries = IntStream.range(0, DataFilter.MIN_NUM_ENTRIES_FOR_BLOOM_FILTER)
+                .mapToObj(i -> new FilterEntry(DigestUtil.sha256(BigInteger.valueOf(i).toByteArray()), 1))
+                .collect(Collectors.toList());
+        inventoryService.request(filterEntries);
+
+        ArgumentCaptor<NetworkMessage> messages = ArgumentCaptor.forClass(NetworkMessage.class);
+        ArgumentCaptor<Connection> sentToConnections = ArgumentCaptor.forClass(Connection.class);
+        verify(node, timeout(5000).times(connections.size())).send(messages.capture(), sentToConnections.capture());
+        Map<String, DataFilter> dataFilterByConnectionId = new HashMap<>();
+        for (int i = 0; i < connections.size(); i++) {
+            dataFilterByConnectionId.put(sentToConnections.getAllValues().get(i).getId(),
+                    ((InventoryRequest) messages.getAllValues().get(i)).getDataFilter());
+        }
+
+        assertThat(dataFilterByConnectionId.get("1").getBloomFilter()).isEmpty();
+        assertThat(dataFilterByConnectionId.get("1").getFilterEntries()).hasSize(filterEntries.size());
+        assertThat(dataFilterByConnectionId.get("2").getBloomFilter()).isPresent();
+        assertThat(dataFilterByConnectionId.get("3").getBloomFilter()).isEmpty();
+        assertThat(dataFilterByConnectionId.get("4").getBloomFilter()).isPresent();
+
+        inventoryService.shutdown();
+    }
+
+    private static Connection createConnection(String id, Set<Feature> peersFeatures) {
+        Connection connection = mock(Connection.class);
+        when(connection.getId()).thenReturn(id);
+        when(connection.getPeersFeatures()).thenReturn(peersFeatures);
+        return connection;
+    }
+}
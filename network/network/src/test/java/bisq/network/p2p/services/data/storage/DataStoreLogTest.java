@@ -0,0 +1,189 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.persistence.Persistence;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import com.google.protobuf.Any;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataStoreLogTest {
+    private static KeyPair keyPair;
+
+    private Path storePath;
+    private Path compactingLogPath;
+    private DataStore<AuthenticatedDataRequest> store;
+    private DataStoreLog<AuthenticatedDataRequest> dataStoreLog;
+
+    @BeforeAll
+    static void setUpKeyPair() throws GeneralSecurityException {
+        keyPair = KeyGeneration.generateKeyPair();
+    }
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        storePath = tempDir.resolve("test_store" + Persistence.EXTENSION);
+        compactingLogPath = tempDir.resolve("test_store" + DataStoreLog.COMPACTING_EXTENSION);
+        store = DataStore.createWithOffHeapMap();
+        dataStoreLog = new DataStoreLog<>(storePath);
+    }
+
+    @Test
+    void replayAppliesCompactingLogBeforeLog() throws Exception {
+        put(createRequest(1, 1));
+        put(createRequest(2, 1));
+        dataStoreLog.rotate().get();
+        put(createRequest(1, 2));
+        remove(createRequest(2, 1));
+        dataStoreLog.shutdown();
+
+        assertThat(compactingLogPath).exists();
+        assertThat(dataStoreLog.getLogPath()).exists();
+        Map<ByteArray, AuthenticatedDataRequest> replayed = new HashMap<>();
+        assertThat(new DataStoreLog<AuthenticatedDataRequest>(storePath).replay(replayed)).isEqualTo(4);
+        assertThat(replayed).isEqualTo(store.getMap());
+        assertThat(replayed.get(getKey(createRequest(1, 2))).getSequenceNumber()).isEqualTo(2);
+    }
+
+    @Test
+    void truncatedLastEntryIsIgnoredAtReplay() throws Exception {
+        RemoveAuthenticatedDataRequest request1 = createRequest(1, 1);
+        put(request1);
+        put(createRequest(2, 1));
+        dataStoreLog.shutdown();
+
+        // Simulates a crash while the last entry was written
+        Path logPath = dataStoreLog.getLogPath();
+        try (RandomAccessFile file = new RandomAccessFile(logPath.toFile(), "rw")) {
+            file.setLength(Files.size(logPath) - 3);
+        }
+
+        Map<ByteArray, AuthenticatedDataRequest> replayed = new HashMap<>();
+        assertThat(new DataStoreLog<AuthenticatedDataRequest>(storePath).replay(replayed)).isEqualTo(1);
+        assertThat(replayed).containsOnlyKeys(getKey(request1));
+        assertThat(replayed.get(getKey(request1))).isEqualTo(request1);
+    }
+
+    @Test
+    void rotateAfterFailedCompactionAppendsToCompactingLog() throws Exception {
+        put(createRequest(1, 1));
+        dataStoreLog.rotate().get();
+        dataStoreLog.onCompactionCompleted(false).get();
+        assertThat(compactingLogPath).exists();
+
+        put(createRequest(2, 1));
+        dataStoreLog.rotate().get();
+        assertThat(dataStoreLog.getLogPath()).doesNotExist();
+
+        Map<ByteArray, AuthenticatedDataRequest> replayed = new HashMap<>();
+        assertThat(new DataStoreLog<AuthenticatedDataRequest>(storePath).replay(replayed)).isEqualTo(2);
+        assertThat(replayed).isEqualTo(store.getMap());
+
+        dataStoreLog.onCompactionCompleted(true).get();
+        assertThat(compactingLogPath).doesNotExist();
+        assertThat(dataStoreLog.exists()).isFalse();
+    }
+
+    @Test
+    void compactionIsNotRequiredWhileInProgress() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            put(createRequest(i, 1));
+        }
+        assertThat(dataStoreLog.isCompactionRequired(store.getMap().size())).isTrue();
+        assertThat(dataStoreLog.isCompactionRequired(2000)).isFalse();
+
+        dataStoreLog.rotate().get();
+        assertThat(dataStoreLog.isCompactionRequired(0)).isFalse();
+        for (int i = 0; i < 1000; i++) {
+            put(createRequest(i, 2));
+        }
+        assertThat(dataStoreLog.isCompactionRequired(0)).isFalse();
+
+        dataStoreLog.onCompactionCompleted(true).get();
+        assertThat(dataStoreLog.isCompactionRequired(0)).isTrue();
+        dataStoreLog.shutdown();
+    }
+
+    @Test
+    void snapshotAndReplayGiveTheSameMap() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            put(createRequest(i, 1));
+        }
+        dataStoreLog.rotate().get();
+        Any snapshot = store.getClone().toAny();
+        dataStoreLog.onCompactionCompleted(true).get();
+
+        // Changes after the snapshot only exist in the log
+        for (int i = 0; i < 10; i++) {
+            put(createRequest(i, 2));
+        }
+        for (int i = 10; i < 15; i++) {
+            remove(createRequest(i, 1));
+        }
+        put(createRequest(20, 1));
+        dataStoreLog.shutdown();
+
+        //noinspection unchecked
+        DataStore<AuthenticatedDataRequest> restored = (DataStore<AuthenticatedDataRequest>)
+                DataStore.fromProto(snapshot.unpack(bisq.network.protobuf.DataStore.class));
+        assertThat(new DataStoreLog<AuthenticatedDataRequest>(storePath).replay(restored.getMap())).isEqualTo(16);
+        assertThat(restored.getMap()).isEqualTo(store.getMap());
+    }
+
+    private void put(RemoveAuthenticatedDataRequest request) {
+        ByteArray key = getKey(request);
+        store.put(key, request);
+        dataStoreLog.append(key, store);
+    }
+
+    private void remove(RemoveAuthenticatedDataRequest request) {
+        ByteArray key = getKey(request);
+        store.remove(key);
+        dataStoreLog.append(key, store);
+    }
+
+    private static ByteArray getKey(RemoveAuthenticatedDataRequest request) {
+        return new ByteArray(request.getHash());
+    }
+
+    private static RemoveAuthenticatedDataRequest createRequest(int index, int sequenceNumber) {
+        byte[] hash = DigestUtil.hash(String.valueOf(index).getBytes());
+        return new RemoveAuthenticatedDataRequest(new MetaData("TestData"),
+                hash,
+                keyPair.getPublic(),
+                sequenceNumber,
+                DigestUtil.hash(hash));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpiryIndexTest {
+    private static KeyPair keyPair;
+
+    private ExpiryIndex expiryIndex;
+    private DataStore<AuthenticatedDataRequest> store;
+
+    @BeforeAll
+    static void setUpKeyPair() throws GeneralSecurityException {
+        keyPair = KeyGeneration.generateKeyPair();
+    }
+
+    @BeforeEach
+    void setUp() {
+        expiryIndex = new ExpiryIndex();
+        store = new DataStore<>();
+    }
+
+    @Test
+    void pollReturnsOnlyKeysOfPassedBuckets() {
+        RemoveAuthenticatedDataRequest shortLived = createRequest(1, 1, MetaData.TTL_2_DAYS);
+        RemoveAuthenticatedDataRequest longLived = createRequest(2, 1, MetaData.TTL_10_DAYS);
+        put(shortLived);
+        put(longLived);
+        assertThat(expiryIndex.size()).isEqualTo(2);
+
+        // The bucket of the expiry date has not passed yet
+        assertThat(expiryIndex.pollExpired(shortLived.getExpiryDate())).isEmpty();
+
+        assertThat(expiryIndex.pollExpired(shortLived.getExpiryDate() + 1000)).containsExactly(getKey(shortLived));
+        assertThat(expiryIndex.pollExpired(shortLived.getExpiryDate() + 1000)).isEmpty();
+        assertThat(expiryIndex.size()).isEqualTo(1);
+
+        assertThat(expiryIndex.pollExpired(longLived.getExpiryDate() + 1000)).containsExactly(getKey(longLived));
+        assertThat(expiryIndex.size()).isEqualTo(0);
+    }
+
+    @Test
+    void hugeTtlDoesNotOverflowToAnExpiredEntry() {
+        RemoveAuthenticatedDataRequest request = createRequest(1, 1, Long.MAX_VALUE - 1);
+        put(request);
+
+        assertThat(request.getExpiryDate()).isEqualTo(Long.MAX_VALUE);
+        assertThat(store.findEntryInfo(getKey(request)).orElseThrow().isExpired(System.currentTimeMillis())).isFalse();
+        assertThat(expiryIndex.size()).isEqualTo(0);
+    }
+
+    @Test
+    void updateReinsertsKeyAfterRefresh() {
+        RemoveAuthenticatedDataRequest request = createRequest(1, 1, MetaData.TTL_2_DAYS);
+        put(request);
+        long pollDate = request.getExpiryDate() + 1000;
+        assertThat(expiryIndex.pollExpired(pollDate)).containsExactly(getKey(request));
+
+        // The entry got replaced by a request with a later expiry date before it got pruned
+        RemoveAuthenticatedDataRequest refreshed = createRequest(1, 2, MetaData.TTL_10_DAYS);
+        put(refreshed);
+
+        assertThat(expiryIndex.size()).isEqualTo(1);
+        assertThat(expiryIndex.pollExpired(pollDate)).isEmpty();
+        assertThat(expiryIndex.pollExpired(refreshed.getExpiryDate() + 1000)).containsExactly(getKey(refreshed));
+    }
+
+    @Test
+    void updateRemovesKeyOfRemovedEntry() {
+        RemoveAuthenticatedDataRequest request = createRequest(1, 1, MetaData.TTL_2_DAYS);
+        put(request);
+
+        store.remove(getKey(request));
+        expiryIndex.update(getKey(request), store);
+
+        assertThat(expiryIndex.size()).isEqualTo(0);
+        assertThat(expiryIndex.pollExpired(request.getExpiryDate() + 1000)).isEmpty();
+    }
+
+    @Test
+    void rebuildIndexesAllEntriesOfTheStore() {
+        RemoveAuthenticatedDataRequest stale = createRequest(1, 1, MetaData.TTL_2_DAYS);
+        put(stale);
+        store.remove(getKey(stale));
+
+        RemoveAuthenticatedDataRequest request1 = createRequest(2, 1, MetaData.TTL_2_DAYS);
+        RemoveAuthenticatedDataRequest request2 = createRequest(3, 1, MetaData.TTL_10_DAYS);
+        store.put(getKey(request1), request1);
+        store.put(getKey(request2), request2);
+
+        expiryIndex.rebuild(store);
+
+        assertThat(expiryIndex.size()).isEqualTo(2);
+        assertThat(expiryIndex.pollExpired(request2.getExpiryDate() + 1000))
+                .containsExactlyInAnyOrder(getKey(request1), getKey(request2));
+    }
+
+    private void put(RemoveAuthenticatedDataRequest request) {
+        store.put(getKey(request), request);
+        expiryIndex.update(getKey(request), store);
+    }
+
+    private static ByteArray getKey(RemoveAuthenticatedDataRequest request) {
+        return new ByteArray(request.getHash());
+    }
+
+    private static RemoveAuthenticatedDataRequest createRequest(int index, int sequenceNumber, long ttl) {
+        byte[] hash = DigestUtil.hash(String.valueOf(index).getBytes());
+        return new RemoveAuthenticatedDataRequest(new MetaData(ttl, "TestData"),
+                hash,
+                keyPair.getPublic(),
+                sequenceNumber,
+                DigestUtil.hash(hash));
+    }
+}
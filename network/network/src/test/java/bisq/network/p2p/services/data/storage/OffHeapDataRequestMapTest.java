@@ -0,0 +1,181 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OffHeapDataRequestMapTest {
+    private static KeyPair keyPair;
+
+    @BeforeAll
+    static void setUp() throws GeneralSecurityException {
+        keyPair = KeyGeneration.generateKeyPair();
+    }
+
+    @Test
+    void putGetAndRemove() {
+        OffHeapDataRequestMap<AuthenticatedDataRequest> map = new OffHeapDataRequestMap<>();
+        ByteArray key = new ByteArray(DigestUtil.hash(new byte[]{1}));
+        RemoveAuthenticatedDataRequest request1 = createRequest(1, 1);
+        RemoveAuthenticatedDataRequest request2 = createRequest(1, 2);
+
+        assertThat(map.put(key, request1)).isNull();
+        assertThat(map.put(key, request2)).isEqualTo(request1);
+        assertThat(map.get(key)).isEqualTo(request2);
+        assertThat(map.remove(key)).isEqualTo(request2);
+        assertThat(map).isEmpty();
+
+        map.set(key, request1);
+        map.set(key, request2);
+        assertThat(map.get(key)).isEqualTo(request2);
+        assertThat(map.delete(key)).isTrue();
+        assertThat(map.delete(key)).isFalse();
+        assertThat(map.get(key)).isNull();
+    }
+
+    @Test
+    void valuesSurviveCompaction() {
+        OffHeapDataRequestMap<AuthenticatedDataRequest> map = new OffHeapDataRequestMap<>();
+        Map<ByteArray, AuthenticatedDataRequest> expected = new ConcurrentHashMap<>();
+        int numEntries = 1000;
+        // Replacing all values many times creates enough garbage to trigger compactions
+        for (int sequenceNumber = 1; sequenceNumber <= 100; sequenceNumber++) {
+            for (int i = 0; i < numEntries; i++) {
+                RemoveAuthenticatedDataRequest request = createRequest(i, sequenceNumber);
+                ByteArray key = new ByteArray(request.getHash());
+                map.set(key, request);
+                expected.put(key, request);
+            }
+        }
+
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.keySet()).isEqualTo(expected.keySet());
+    }
+
+    @Test
+    void entryInfoIsKeptWithoutDecoding() {
+        OffHeapDataRequestMap<AuthenticatedDataRequest> map = new OffHeapDataRequestMap<>();
+        RemoveAuthenticatedDataRequest request1 = createRequest(1, 1);
+        RemoveAuthenticatedDataRequest request2 = createRequest(1, 2);
+        ByteArray key = new ByteArray(request1.getHash());
+
+        assertThat(map.findEntryInfo(key)).isEmpty();
+        map.set(key, request1);
+        assertThat(map.findEntryInfo(key)).contains(DataStoreEntryInfo.from(request1));
+        map.set(key, request2);
+        DataStoreEntryInfo info = map.findEntryInfo(key).orElseThrow();
+        assertThat(info.getSequenceNumber()).isEqualTo(2);
+        assertThat(info.getCreated()).isEqualTo(request2.getCreated());
+        assertThat(info.getExpiryDate()).isEqualTo(request2.getExpiryDate());
+        assertThat(map.findSerializedValue(key)).hasValueSatisfying(bytes ->
+                assertThat(bytes).isEqualTo(request2.toProto().getDataRequest().toByteArray()));
+
+        map.delete(key);
+        assertThat(map.findEntryInfo(key)).isEmpty();
+        assertThat(map.findSerializedValue(key)).isEmpty();
+    }
+
+    @Test
+    void snapshotIsNotAffectedByLaterChanges() {
+        OffHeapDataRequestMap<AuthenticatedDataRequest> map = new OffHeapDataRequestMap<>();
+        Map<ByteArray, AuthenticatedDataRequest> expected = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            RemoveAuthenticatedDataRequest request = createRequest(i, 1);
+            map.set(new ByteArray(request.getHash()), request);
+            expected.put(new ByteArray(request.getHash()), request);
+        }
+
+        OffHeapDataRequestMap<AuthenticatedDataRequest> snapshot = map.snapshot();
+        RemoveAuthenticatedDataRequest replaced = createRequest(0, 2);
+        map.set(new ByteArray(replaced.getHash()), replaced);
+        map.delete(new ByteArray(createRequest(1, 1).getHash()));
+
+        assertThat(snapshot).isEqualTo(expected);
+        assertThat(map).hasSize(99);
+        assertThat(map.get(new ByteArray(replaced.getHash()))).isEqualTo(replaced);
+    }
+
+    @Test
+    void splitContainsAllEntries() {
+        OffHeapDataRequestMap<AuthenticatedDataRequest> map = new OffHeapDataRequestMap<>();
+        for (int i = 0; i < 25; i++) {
+            RemoveAuthenticatedDataRequest request = createRequest(i, 1);
+            map.set(new ByteArray(request.getHash()), request);
+        }
+
+        List<OffHeapDataRequestMap<AuthenticatedDataRequest>> chunks = map.split(10);
+
+        assertThat(chunks.stream().map(Map::size)).containsExactlyInAnyOrder(10, 10, 5);
+        Map<ByteArray, AuthenticatedDataRequest> merged = new HashMap<>();
+        chunks.forEach(merged::putAll);
+        assertThat(merged).isEqualTo(map);
+        assertThat(new OffHeapDataRequestMap<AuthenticatedDataRequest>().split(10)).hasSize(1);
+    }
+
+    @Test
+    void offHeapStoreWritesTheSameProtoAsOnHeapStore() throws InvalidProtocolBufferException {
+        DataStore<AuthenticatedDataRequest> offHeapStore = DataStore.createWithOffHeapMap();
+        DataStore<AuthenticatedDataRequest> onHeapStore = new DataStore<>();
+        for (int i = 0; i < 25; i++) {
+            RemoveAuthenticatedDataRequest request = createRequest(i, 1);
+            offHeapStore.put(new ByteArray(request.getHash()), request);
+            onHeapStore.put(new ByteArray(request.getHash()), request);
+        }
+
+        assertThat(readMap(offHeapStore.toAny())).isEqualTo(onHeapStore.getMap());
+        assertThat(offHeapStore.toAny()).isEqualTo(Any.pack(offHeapStore.toProto()));
+
+        Map<ByteArray, DataRequest> fromChunks = new HashMap<>();
+        for (DataStore<AuthenticatedDataRequest> chunk : offHeapStore.getClone().getChunks(10)) {
+            fromChunks.putAll(readMap(chunk.toAny()));
+        }
+        assertThat(fromChunks).isEqualTo(onHeapStore.getMap());
+    }
+
+    private static Map<ByteArray, ? extends DataRequest> readMap(Any any) throws InvalidProtocolBufferException {
+        DataStore<?> store = (DataStore<?>) DataStore.fromProto(any.unpack(bisq.network.protobuf.DataStore.class));
+        return store.getMap();
+    }
+
+    private RemoveAuthenticatedDataRequest createRequest(int index, int sequenceNumber) {
+        byte[] hash = DigestUtil.hash(String.valueOf(index).getBytes());
+        return new RemoveAuthenticatedDataRequest(new MetaData("TestData"),
+                hash,
+                keyPair.getPublic(),
+                sequenceNumber,
+                DigestUtil.hash(hash));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage;
+
+import bisq.network.p2p.services.data.DataRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StorageServiceTest {
+    @Test
+    void inventoryEntriesAreCappedAtMaxSize() {
+        List<DataRequest> dataRequests = IntStream.range(0, 10)
+                .mapToObj(i -> createDataRequest(100))
+                .collect(Collectors.toList());
+
+        assertThat(StorageService.collectUpToMaxSize(dataRequests.stream(), 350)).hasSize(3);
+        assertThat(StorageService.collectUpToMaxSize(dataRequests.stream(), 1000)).hasSize(10);
+        assertThat(StorageService.collectUpToMaxSize(dataRequests.stream(), 99)).isEmpty();
+    }
+
+    private static DataRequest createDataRequest(int size) {
+        DataRequest dataRequest = mock(DataRequest.class);
+        when(dataRequest.serialize()).thenReturn(new byte[size]);
+        return dataRequest;
+    }
+}
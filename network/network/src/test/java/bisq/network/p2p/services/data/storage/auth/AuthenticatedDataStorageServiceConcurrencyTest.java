@@ -0,0 +1,128 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.common.data.ByteArray;
+import bisq.persistence.PersistenceService;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import bisq.security.SignatureUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthenticatedDataStorageServiceConcurrencyTest {
+    private static final int NUM_THREADS = 8;
+
+    private AuthenticatedDataStorageService store;
+    private KeyPair keyPair;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws GeneralSecurityException {
+        store = new AuthenticatedDataStorageService(new PersistenceService(tempDir.toString()),
+                "authenticated",
+                TestData.class.getSimpleName(),
+                false);
+        keyPair = KeyGeneration.generateKeyPair();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void concurrentAddsKeepHighestSequenceNumber() throws Exception {
+        int numRequests = 200;
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data"));
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int sequenceNumber = 1; sequenceNumber <= numRequests; sequenceNumber++) {
+            AddAuthenticatedDataRequest request = createAddRequest(authenticatedData, sequenceNumber);
+            tasks.add(Executors.callable(() -> store.add(request)));
+        }
+        Collections.shuffle(tasks);
+
+        runConcurrently(tasks);
+
+        byte[] hash = DigestUtil.hash(authenticatedData.serialize());
+        assertThat(store.getSequenceNumber(hash)).isEqualTo(numRequests);
+    }
+
+    @Test
+    void removeBeforeAddKeepsTombstone() throws Exception {
+        int numData = 100;
+        List<Callable<Object>> tasks = new ArrayList<>();
+        List<ByteArray> hashes = new ArrayList<>();
+        for (int i = 0; i < numData; i++) {
+            AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data_" + i));
+            byte[] hash = DigestUtil.hash(authenticatedData.serialize());
+            hashes.add(new ByteArray(hash));
+            AddAuthenticatedDataRequest addRequest = createAddRequest(authenticatedData, 1);
+            RemoveAuthenticatedDataRequest removeRequest = new RemoveAuthenticatedDataRequest(authenticatedData.getMetaData(),
+                    hash,
+                    keyPair.getPublic(),
+                    2,
+                    SignatureUtil.sign(hash, keyPair.getPrivate()));
+            tasks.add(Executors.callable(() -> store.add(addRequest)));
+            tasks.add(Executors.callable(() -> store.remove(removeRequest)));
+        }
+        Collections.shuffle(tasks);
+
+        runConcurrently(tasks);
+
+        // Independent of the order, the add request must not replace the tombstone of the remove request
+        hashes.forEach(hash -> {
+            AuthenticatedDataRequest requestFromMap = store.getPersistableStore().getMap().get(hash);
+            assertThat(requestFromMap).isInstanceOf(RemoveAuthenticatedDataRequest.class);
+            assertThat(requestFromMap.getSequenceNumber()).isEqualTo(2);
+        });
+    }
+
+    private AddAuthenticatedDataRequest createAddRequest(AuthenticatedData authenticatedData, int sequenceNumber)
+            throws GeneralSecurityException {
+        byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
+        AuthenticatedSequentialData data = new AuthenticatedSequentialData(authenticatedData,
+                sequenceNumber,
+                pubKeyHash,
+                System.currentTimeMillis());
+        byte[] signature = SignatureUtil.sign(data.serialize(), keyPair.getPrivate());
+        return new AddAuthenticatedDataRequest(data, signature, keyPair.getPublic());
+    }
+
+    private void runConcurrently(List<Callable<Object>> tasks) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.persistence.PersistenceService;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import bisq.security.SignatureUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthenticatedDataStorageServiceTest {
+    private AuthenticatedDataStorageService store;
+    private KeyPair keyPair;
+    private final List<AuthenticatedData> addedData = new ArrayList<>();
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws GeneralSecurityException {
+        store = new AuthenticatedDataStorageService(new PersistenceService(tempDir.toString()),
+                "authenticated",
+                TestData.class.getSimpleName(),
+                false);
+        store.addListener(new AuthenticatedDataStorageService.Listener() {
+            @Override
+            public void onAdded(AuthenticatedData authenticatedData) {
+                addedData.add(authenticatedData);
+            }
+
+            @Override
+            public void onRemoved(AuthenticatedData authenticatedData) {
+            }
+        });
+        keyPair = KeyGeneration.generateKeyPair();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void addAllAppliesHighestSequenceNumberPerData() throws GeneralSecurityException {
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data"));
+        List<AddAuthenticatedDataRequest> requests = List.of(createAddRequest(authenticatedData, 1),
+                createAddRequest(authenticatedData, 3),
+                createAddRequest(authenticatedData, 2));
+
+        List<AuthenticatedData> result = store.addAll(requests);
+
+        assertThat(result).containsExactly(authenticatedData);
+        assertThat(addedData).containsExactly(authenticatedData);
+        assertThat(store.getSequenceNumber(DigestUtil.hash(authenticatedData.serialize()))).isEqualTo(3);
+    }
+
+    @Test
+    void addAllSkipsInvalidAndExpiredRequests() throws GeneralSecurityException {
+        AuthenticatedData valid = new DefaultAuthenticatedData(new TestData("valid"));
+        AuthenticatedData invalidSignature = new DefaultAuthenticatedData(new TestData("invalidSignature"));
+        AuthenticatedData expired = new DefaultAuthenticatedData(new TestData("expired"));
+        AuthenticatedSequentialData invalidSignatureData = createSequentialData(invalidSignature, 1, System.currentTimeMillis());
+        byte[] signatureOfOtherData = SignatureUtil.sign(valid.serialize(), keyPair.getPrivate());
+        long createdBeforeTtl = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(11);
+        List<AddAuthenticatedDataRequest> requests = List.of(createAddRequest(valid, 1),
+                new AddAuthenticatedDataRequest(invalidSignatureData, signatureOfOtherData, keyPair.getPublic()),
+                createAddRequest(createSequentialData(expired, 1, createdBeforeTtl)));
+
+        List<AuthenticatedData> result = store.addAll(requests);
+
+        assertThat(result).containsExactly(valid);
+        assertThat(addedData).containsExactly(valid);
+        assertThat(store.getPersistableStore().getMap()).hasSize(1);
+    }
+
+    @Test
+    void addAllStopsAtMaxMapSize() throws GeneralSecurityException {
+        List<AddAuthenticatedDataRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(createAddRequest(new DefaultAuthenticatedData(new TestData("data_" + i, 2)), 1));
+        }
+
+        List<AuthenticatedData> result = store.addAll(requests);
+
+        // Like at add, the size is checked before adding a request, so we end up with one more entry than maxMapSize
+        assertThat(store.getPersistableStore().getMap()).hasSize(3);
+        assertThat(result).hasSize(3);
+        assertThat(addedData).containsExactlyInAnyOrderElementsOf(result);
+    }
+
+    @Test
+    void addAllNotifiesListenersOncePerAddedData() throws GeneralSecurityException {
+        List<AddAuthenticatedDataRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data_" + i));
+            requests.add(createAddRequest(authenticatedData, 1));
+            requests.add(createAddRequest(authenticatedData, 2));
+        }
+
+        List<AuthenticatedData> result = store.addAll(requests);
+        // Requests we have already received are not reported again
+        List<AuthenticatedData> secondResult = store.addAll(requests);
+
+        assertThat(result).hasSize(10).doesNotHaveDuplicates();
+        assertThat(secondResult).isEmpty();
+        assertThat(addedData).containsExactlyInAnyOrderElementsOf(result);
+    }
+
+    private AddAuthenticatedDataRequest createAddRequest(AuthenticatedData authenticatedData, int sequenceNumber)
+            throws GeneralSecurityException {
+        return createAddRequest(createSequentialData(authenticatedData, sequenceNumber, System.currentTimeMillis()));
+    }
+
+    private AddAuthenticatedDataRequest createAddRequest(AuthenticatedSequentialData data) throws GeneralSecurityException {
+        byte[] signature = SignatureUtil.sign(data.serialize(), keyPair.getPrivate());
+        return new AddAuthenticatedDataRequest(data, signature, keyPair.getPublic());
+    }
+
+    private AuthenticatedSequentialData createSequentialData(AuthenticatedData authenticatedData,
+                                                             int sequenceNumber,
+                                                             long created) {
+        byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
+        return new AuthenticatedSequentialData(authenticatedData, sequenceNumber, pubKeyHash, created);
+    }
+}
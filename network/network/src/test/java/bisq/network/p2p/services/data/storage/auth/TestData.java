@@ -0,0 +1,53 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.MetaData;
+import com.google.protobuf.StringValue;
+import lombok.EqualsAndHashCode;
+
+@EqualsAndHashCode
+public class TestData implements DistributedData {
+    private final String text;
+    private final int maxMapSize;
+
+    public TestData(String text) {
+        this(text, MetaData.MAX_MAP_SIZE_10_000);
+    }
+
+    public TestData(String text, int maxMapSize) {
+        this.text = text;
+        this.maxMapSize = maxMapSize;
+    }
+
+    @Override
+    public StringValue toProto() {
+        return StringValue.of(text);
+    }
+
+    @Override
+    public MetaData getMetaData() {
+        return new MetaData(MetaData.TTL_10_DAYS, TestData.class.getSimpleName(), maxMapSize);
+    }
+
+    @Override
+    public boolean isDataInvalid(byte[] pubKeyHash) {
+        return false;
+    }
+}
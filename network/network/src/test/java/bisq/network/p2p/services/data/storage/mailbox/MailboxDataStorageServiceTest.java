@@ -0,0 +1,167 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.storage.mailbox;
+
+import bisq.network.p2p.services.confidential.ConfidentialMessage;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.persistence.PersistenceService;
+import bisq.security.ConfidentialData;
+import bisq.security.DigestUtil;
+import bisq.security.KeyGeneration;
+import bisq.security.SignatureUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MailboxDataStorageServiceTest {
+    private MailboxDataStorageService store;
+    private KeyPair senderKeyPair;
+    private KeyPair receiverKeyPair;
+    private final List<MailboxData> addedData = new ArrayList<>();
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws GeneralSecurityException {
+        store = new MailboxDataStorageService(new PersistenceService(tempDir.toString()),
+                "mailbox",
+                "TestMailbox",
+                true);
+        store.addListener(new MailboxDataStorageService.Listener() {
+            @Override
+            public void onAdded(MailboxData mailboxData) {
+                addedData.add(mailboxData);
+            }
+
+            @Override
+            public void onRemoved(MailboxData mailboxData) {
+            }
+        });
+        senderKeyPair = KeyGeneration.generateKeyPair();
+        receiverKeyPair = KeyGeneration.generateKeyPair();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void addAllAppliesHighestSequenceNumberPerData() throws GeneralSecurityException {
+        MailboxData mailboxData = createMailboxData("message", MetaData.MAX_MAP_SIZE_10_000);
+        List<AddMailboxRequest> requests = List.of(createAddRequest(mailboxData, 1),
+                createAddRequest(mailboxData, 3),
+                createAddRequest(mailboxData, 2));
+
+        List<MailboxData> result = store.addAll(requests);
+
+        assertThat(result).containsExactly(mailboxData);
+        assertThat(addedData).containsExactly(mailboxData);
+        assertThat(store.getSequenceNumber(DigestUtil.hash(mailboxData.serialize()))).isEqualTo(3);
+    }
+
+    @Test
+    void addAllSkipsInvalidAndExpiredRequests() throws GeneralSecurityException {
+        MailboxData valid = createMailboxData("valid", MetaData.MAX_MAP_SIZE_10_000);
+        MailboxData invalidSignature = createMailboxData("invalidSignature", MetaData.MAX_MAP_SIZE_10_000);
+        MailboxData expired = createMailboxData("expired", MetaData.MAX_MAP_SIZE_10_000);
+        byte[] signatureOfOtherData = SignatureUtil.sign(valid.serialize(), senderKeyPair.getPrivate());
+        long createdBeforeTtl = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(11);
+        List<AddMailboxRequest> requests = List.of(createAddRequest(valid, 1),
+                new AddMailboxRequest(createSequentialData(invalidSignature, 1, System.currentTimeMillis()),
+                        signatureOfOtherData,
+                        senderKeyPair.getPublic()),
+                createAddRequest(createSequentialData(expired, 1, createdBeforeTtl)));
+
+        List<MailboxData> result = store.addAll(requests);
+
+        assertThat(result).containsExactly(valid);
+        assertThat(addedData).containsExactly(valid);
+        assertThat(store.getPersistableStore().getMap()).hasSize(1);
+    }
+
+    @Test
+    void addAllStopsAtMaxMapSize() throws GeneralSecurityException {
+        List<AddMailboxRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(createAddRequest(createMailboxData("message_" + i, 2), 1));
+        }
+
+        List<MailboxData> result = store.addAll(requests);
+
+        // Like at add, the size is checked before adding a request, so we end up with one more entry than maxMapSize
+        assertThat(store.getPersistableStore().getMap()).hasSize(3);
+        assertThat(result).hasSize(3);
+        assertThat(addedData).containsExactlyInAnyOrderElementsOf(result);
+    }
+
+    @Test
+    void addAllNotifiesListenersOncePerAddedData() throws GeneralSecurityException {
+        List<AddMailboxRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            MailboxData mailboxData = createMailboxData("message_" + i, MetaData.MAX_MAP_SIZE_10_000);
+            requests.add(createAddRequest(mailboxData, 1));
+            requests.add(createAddRequest(mailboxData, 2));
+        }
+
+        List<MailboxData> result = store.addAll(requests);
+        // Requests we have already received are not reported again
+        List<MailboxData> secondResult = store.addAll(requests);
+
+        assertThat(result).hasSize(10).doesNotHaveDuplicates();
+        assertThat(secondResult).isEmpty();
+        assertThat(addedData).containsExactlyInAnyOrderElementsOf(result);
+    }
+
+    private MailboxData createMailboxData(String message, int maxMapSize) throws GeneralSecurityException {
+        byte[] cipherText = message.getBytes();
+        ConfidentialData confidentialData = new ConfidentialData(senderKeyPair.getPublic().getEncoded(),
+                new byte[16],
+                cipherText,
+                SignatureUtil.sign(cipherText, senderKeyPair.getPrivate()));
+        return new MailboxData(new ConfidentialMessage(confidentialData, "receiverKeyId"),
+                new MetaData(MetaData.TTL_10_DAYS, "TestMailbox", maxMapSize));
+    }
+
+    private AddMailboxRequest createAddRequest(MailboxData mailboxData, int sequenceNumber)
+            throws GeneralSecurityException {
+        return createAddRequest(createSequentialData(mailboxData, sequenceNumber, System.currentTimeMillis()));
+    }
+
+    private AddMailboxRequest createAddRequest(MailboxSequentialData data) throws GeneralSecurityException {
+        byte[] signature = SignatureUtil.sign(data.serialize(), senderKeyPair.getPrivate());
+        return new AddMailboxRequest(data, signature, senderKeyPair.getPublic());
+    }
+
+    private MailboxSequentialData createSequentialData(MailboxData mailboxData, int sequenceNumber, long created) {
+        return new MailboxSequentialData(mailboxData,
+                DigestUtil.hash(senderKeyPair.getPublic().getEncoded()),
+                DigestUtil.hash(receiverKeyPair.getPublic().getEncoded()),
+                receiverKeyPair.getPublic(),
+                created,
+                sequenceNumber);
+    }
+}
@@ -33,8 +33,10 @@ import net.freehaven.tor.control.PasswordDigest;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
@@ -125,7 +127,7 @@ public class TorService implements Service {
         log.info("Start hidden service with port {} and nodeId {}", port, nodeId);
         long ts = System.currentTimeMillis();
         try {
-            @SuppressWarnings("resource") ServerSocket localServerSocket = new ServerSocket(RANDOM_PORT);
+            @SuppressWarnings("resource") ServerSocket localServerSocket = createLocalServerSocket();
             int localPort = localServerSocket.getLocalPort();
 
             return onionServicePublishService.publish(nodeId, port, localPort)
@@ -146,7 +148,7 @@ public class TorService implements Service {
         log.info("Start hidden service with {}", torIdentity);
         long ts = System.currentTimeMillis();
         try {
-            @SuppressWarnings("resource") ServerSocket localServerSocket = new ServerSocket(RANDOM_PORT);
+            @SuppressWarnings("resource") ServerSocket localServerSocket = createLocalServerSocket();
             int localPort = localServerSocket.getLocalPort();
 
             return onionServicePublishService.publish(torIdentity, localPort)
@@ -175,6 +177,10 @@ public class TorService implements Service {
         return socksProxyFactory.getSocket(streamId);
     }
 
+    public int getSocksPort() {
+        return socksPort.orElseThrow();
+    }
+
     public Socks5Proxy getSocks5Proxy(String streamId) throws IOException {
         TorSocksProxyFactory socksProxyFactory = torSocksProxyFactory.orElseThrow();
         return socksProxyFactory.getSocks5Proxy(streamId);
@@ -209,4 +215,14 @@ public class TorService implements Service {
                 transportConfig.getDirectoryAuthorities());
         torrcFileGenerator.generate();
     }
+
+    // The selector transport needs a channel backed server socket
+    private ServerSocket createLocalServerSocket() throws IOException {
+        if (!transportConfig.isSelectorTransportEnabled()) {
+            return new ServerSocket(RANDOM_PORT);
+        }
+        ServerSocket serverSocket = ServerSocketChannel.open().socket();
+        serverSocket.bind(new InetSocketAddress(RANDOM_PORT));
+        return serverSocket;
+    }
 }
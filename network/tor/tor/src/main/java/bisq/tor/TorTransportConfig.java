@@ -43,7 +43,8 @@ public class TorTransportConfig implements TransportConfig {
                 (int) TimeUnit.SECONDS.toMillis(config.getInt("socketTimeout")),
                 config.getBoolean("testNetwork"),
                 parseDirectoryAuthorities(config.getList("directoryAuthorities")),
-                parseTorrcOverrideConfig(config.getConfig("torrcOverrides"))
+                parseTorrcOverrideConfig(config.getConfig("torrcOverrides")),
+                config.hasPath("selectorTransportEnabled") && config.getBoolean("selectorTransportEnabled")
         );
     }
 
@@ -86,14 +87,17 @@ public class TorTransportConfig implements TransportConfig {
     private final boolean isTestNetwork;
     private final Set<DirectoryAuthority> directoryAuthorities;
     private final Map<String, String> torrcOverrides;
+    private final boolean selectorTransportEnabled;
 
     public TorTransportConfig(Path dataDir, int socketTimeout, boolean isTestNetwork,
                               Set<DirectoryAuthority> directoryAuthorities,
-                              Map<String, String> torrcOverrides) {
+                              Map<String, String> torrcOverrides,
+                              boolean selectorTransportEnabled) {
         this.isTestNetwork = isTestNetwork;
         this.dataDir = dataDir;
         this.socketTimeout = socketTimeout;
         this.directoryAuthorities = directoryAuthorities;
         this.torrcOverrides = torrcOverrides;
+        this.selectorTransportEnabled = selectorTransportEnabled;
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.persistence;
+
+import java.util.List;
+
+/**
+ * A PersistableStore which can be split into independent chunks. Such stores are written as a sequence of chunks,
+ * so that we never need to hold the whole store as one protobuf message in memory at writing or reading.
+ */
+public interface ChunkedPersistableStore<T extends ChunkedPersistableStore<T>> extends PersistableStore<T> {
+    /**
+     * @param maxChunkSize The max. number of entries of a chunk
+     * @return The chunks of the store. Together they need to contain all entries of the store.
+     */
+    List<T> getChunks(int maxChunkSize);
+
+    /**
+     * Adds the entries of the given chunk to the store.
+     */
+    void addChunk(T chunk);
+}
@@ -18,18 +18,28 @@
 package bisq.persistence;
 
 import bisq.common.util.FileUtils;
+import bisq.persistence.protobuf.ChunkedStoreHeader;
 import com.google.protobuf.Any;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.*;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Reads and writes a PersistableStore as a length delimited Any. A ChunkedPersistableStore with more than
+ * MAX_CHUNK_SIZE entries is written as a ChunkedStoreHeader followed by its chunks.
+ * <p>
+ * Versions before the chunked format cannot read such files. They treat them as corrupted, move them to the
+ * corruptedFilesAtRead directory and start with an empty store, so a downgrade loses the data of the chunked stores.
+ * Only network data stores are chunked, and their data gets requested from the network again.
+ */
 @Slf4j
 public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
+    public static final int CHUNKED_STORE_VERSION = 1;
+    // Max. number of entries per chunk if the store is a ChunkedPersistableStore
+    public static final int MAX_CHUNK_SIZE = 1000;
 
     private final PersistableStoreFileManager storeFileManager;
     private final Path storeFilePath;
@@ -60,13 +70,17 @@ public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
         return Optional.empty();
     }
 
-    public synchronized void write(T persistableStore) {
+    /**
+     * @return True if the store has been written successfully.
+     */
+    public synchronized boolean write(T persistableStore) {
         storeFileManager.createParentDirectoriesIfNotExisting();
 
         try {
             writeStoreToTempFile(persistableStore);
             storeFileManager.tryToBackupCurrentStoreFile();
             storeFileManager.renameTempFileToCurrentFile();
+            return true;
 
         } catch (CouldNotSerializePersistableStore e) {
             log.error("Couldn't serialize " + persistableStore, e);
@@ -75,13 +89,41 @@ public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
             log.error("Couldn't write persistable store to disk. Trying restore backup.", e);
             storeFileManager.restoreBackupFileIfCurrentFileNotExisting();
         }
+        return false;
     }
 
     private PersistableStore<?> readStoreFromFile() throws IOException {
         File storeFile = storeFilePath.toFile();
-        try (FileInputStream fileInputStream = new FileInputStream(storeFile)) {
-            Any any = Any.parseDelimitedFrom(fileInputStream);
-            return PersistableStore.fromAny(any);
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(storeFile))) {
+            Any any = Any.parseDelimitedFrom(inputStream);
+            if (!any.is(ChunkedStoreHeader.class)) {
+                // Store is written as a single Any blob
+                return PersistableStore.fromAny(any);
+            }
+
+            // Each chunk gets parsed and converted separately, so we only hold the protobuf data of one chunk in memory.
+            ChunkedStoreHeader header = any.unpack(ChunkedStoreHeader.class);
+            if (header.getVersion() != CHUNKED_STORE_VERSION) {
+                throw new IOException("Unsupported chunked store version " + header.getVersion());
+            }
+            ChunkedPersistableStore<?> store = null;
+            for (int i = 0; i < header.getNumChunks(); i++) {
+                Any chunkAny = Any.parseDelimitedFrom(inputStream);
+                if (chunkAny == null) {
+                    throw new EOFException("Expected " + header.getNumChunks() + " chunks but got only " + i);
+                }
+                ChunkedPersistableStore<?> chunk = (ChunkedPersistableStore<?>) PersistableStore.fromAny(chunkAny);
+                if (store == null) {
+                    store = chunk;
+                } else {
+                    //noinspection unchecked,rawtypes
+                    ((ChunkedPersistableStore) store).addChunk(chunk);
+                }
+            }
+            if (store == null) {
+                throw new IOException("Chunked store does not contain any chunk");
+            }
+            return store;
         }
     }
 
@@ -104,12 +146,27 @@ public class PersistableStoreReaderWriter<T extends PersistableStore<T>> {
     }
 
     private void writeStoreToFile(T persistableStore, File file) {
-        try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
             // We use an Any container (byte blob) as we do not have the dependencies to the
             // external PersistableStore implementations (at deserialization we would have an issue otherwise as
             // it requires static access).
+            if (persistableStore instanceof ChunkedPersistableStore) {
+                //noinspection unchecked,rawtypes
+                List<? extends PersistableStore<?>> chunks = ((ChunkedPersistableStore) persistableStore).getChunks(MAX_CHUNK_SIZE);
+                if (chunks.size() > 1) {
+                    ChunkedStoreHeader header = ChunkedStoreHeader.newBuilder()
+                            .setVersion(CHUNKED_STORE_VERSION)
+                            .setNumChunks(chunks.size())
+                            .build();
+                    Any.pack(header).writeDelimitedTo(outputStream);
+                    for (PersistableStore<?> chunk : chunks) {
+                        chunk.toAny().writeDelimitedTo(outputStream);
+                    }
+                    return;
+                }
+            }
             Any any = persistableStore.toAny();
-            any.writeDelimitedTo(fileOutputStream);
+            any.writeDelimitedTo(outputStream);
         } catch (IOException e) {
             throw new CouldNotSerializePersistableStore(e);
         }
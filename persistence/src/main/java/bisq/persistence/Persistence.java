@@ -18,13 +18,16 @@
 package bisq.persistence;
 
 import bisq.common.threading.ExecutorFactory;
+import bisq.common.util.OsUtils;
 import bisq.common.util.StringUtils;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
@@ -32,10 +35,22 @@ import java.util.function.Consumer;
 public class Persistence<T extends PersistableStore<T>> {
     public static final String EXTENSION = ".protobuf";
 
-    private static final ExecutorService executorService = ExecutorFactory.newSingleThreadExecutor("Persistence-io-pool");
+    // Reads and writes of different stores can run in parallel. As reading at startup is mostly CPU bound
+    // (deserialization) we use the number of available processors as pool size.
+    private static final ExecutorService executorService = ExecutorFactory.newFixedThreadPool("Persistence-io-pool",
+            Math.max(2, OsUtils.availableProcessors()));
+    // Only reading and deserialization run in parallel. Applying the persisted data calls the hooks of the clients
+    // (e.g. onPersistedApplied), which are not written for concurrent calls, so we apply all stores on one thread.
+    @Getter
+    private static final ExecutorService applyExecutorService = ExecutorFactory.newSingleThreadExecutor("Persistence-apply");
 
     @Getter
     private final Path storePath;
+    // All reads and writes of one store are executed in order. They use the shared pool but never run in parallel.
+    private final Executor executor = MoreExecutors.newSequentialExecutor(executorService);
+    // Time in ms used for the last read from disk including deserialization
+    @Getter
+    private volatile long readDuration;
 
     private final PersistableStoreReaderWriter<T> persistableStoreReaderWriter;
 
@@ -47,21 +62,28 @@ public class Persistence<T extends PersistableStore<T>> {
     }
 
     public CompletableFuture<Optional<T>> readAsync(Consumer<T> consumer) {
-        return readAsync().whenComplete((result, throwable) -> result.ifPresent(consumer));
+        return readAsync().thenApplyAsync(result -> {
+            result.ifPresent(consumer);
+            return result;
+        }, applyExecutorService);
     }
 
     public CompletableFuture<Optional<T>> readAsync() {
-        return CompletableFuture.supplyAsync(persistableStoreReaderWriter::read, executorService);
+        return CompletableFuture.supplyAsync(() -> {
+            long ts = System.currentTimeMillis();
+            Optional<T> result = persistableStoreReaderWriter.read();
+            readDuration = System.currentTimeMillis() - ts;
+            return result;
+        }, executor);
     }
 
-    public CompletableFuture<Void> persistAsync(T serializable) {
-        return CompletableFuture.runAsync(() -> {
-            Thread.currentThread().setName("Persistence.persist-" + storePath);
-            persist(serializable);
-        }, executorService);
+    public CompletableFuture<Boolean> persistAsync(T serializable) {
+        // The threads of the shared pool get their name from its thread factory. We do not rename them per store, as
+        // the name would stick to the pooled thread after the write.
+        return CompletableFuture.supplyAsync(() -> persist(serializable), executor);
     }
 
-    protected void persist(T persistableStore) {
-        persistableStoreReaderWriter.write(persistableStore);
+    protected boolean persist(T persistableStore) {
+        return persistableStoreReaderWriter.write(persistableStore);
     }
 }
@@ -23,9 +23,11 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class PersistenceService {
@@ -61,15 +63,20 @@ public class PersistenceService {
         return persistence;
     }
 
+    /**
+     * Reads all persisted stores. Each store is read in parallel to the others, but the results are applied on a
+     * single thread.
+     */
     public CompletableFuture<Boolean> readAllPersisted() {
+        long ts = System.currentTimeMillis();
         return CompletableFutureUtils.allOf(clients.stream()
                         .map(persistenceClient -> persistenceClient.readPersisted()
                                 .whenComplete((optionalResult, throwable) -> {
-                                    String storagePath = persistenceClient.getPersistence().getStorePath()
-                                            .toAbsolutePath().toString();
+                                    Persistence<?> persistence = persistenceClient.getPersistence();
+                                    String storagePath = persistence.getStorePath().toAbsolutePath().toString();
                                     if (throwable == null) {
                                         if (optionalResult.isPresent()) {
-                                            log.info("Read persisted data from {}", storagePath);
+                                            log.info("Read persisted data from {} in {} ms", storagePath, persistence.getReadDuration());
                                         } else {
                                             log.debug("No persisted data at {} found", storagePath);
                                         }
@@ -78,7 +85,17 @@ public class PersistenceService {
                                         throwable.printStackTrace();
                                     }
                                 })))
-                .thenApply(list -> true);
+                .thenApply(list -> {
+                    String slowestStores = clients.stream()
+                            .<Persistence<?>>map(PersistenceClient::getPersistence)
+                            .sorted(Comparator.comparingLong((Persistence<?> persistence) -> persistence.getReadDuration()).reversed())
+                            .limit(5)
+                            .map(persistence -> persistence.getStorePath().getFileName() + ": " + persistence.getReadDuration() + " ms")
+                            .collect(Collectors.joining(", "));
+                    log.info("Reading all persisted data took {} ms. Slowest stores: {}",
+                            System.currentTimeMillis() - ts, slowestStores);
+                    return true;
+                });
     }
 
     public CompletableFuture<Boolean> persistAllClients() {
@@ -69,6 +69,28 @@ public class PersistableStoreReaderWriterTests {
         assertThat(readTimestampsByProfileId.get("C")).isEqualTo(3L);
     }
 
+    @Test
+    void writeAndReadChunkedStore(@TempDir Path tempDir) {
+        var timestampStore = new TimestampStore();
+        Map<String, Long> timestampsByProfileId = timestampStore.getTimestampsByProfileId();
+        int numEntries = PersistableStoreReaderWriter.MAX_CHUNK_SIZE * 2 + 500;
+        for (long i = 0; i < numEntries; i++) {
+            timestampsByProfileId.put(String.valueOf(i), i);
+        }
+        assertThat(timestampStore.getChunks(PersistableStoreReaderWriter.MAX_CHUNK_SIZE)).hasSize(3);
+
+        PersistableStoreResolver.addResolver(timestampStore.getResolver());
+
+        Path storageFilePath = tempDir.resolve("protoFile");
+        var storeFileManager = new PersistableStoreFileManager(storageFilePath);
+        var persistableStoreReaderWriter = new PersistableStoreReaderWriter<TimestampStore>(storeFileManager);
+        assertThat(persistableStoreReaderWriter.write(timestampStore)).isTrue();
+
+        Optional<TimestampStore> readOptionalStore = persistableStoreReaderWriter.read();
+        assertThat(readOptionalStore).isPresent();
+        assertThat(readOptionalStore.get().getTimestampsByProfileId()).isEqualTo(timestampsByProfileId);
+    }
+
     @Test
     void writeStoreTwice(@TempDir Path tempDir) {
         var timestampStore = new TimestampStore();
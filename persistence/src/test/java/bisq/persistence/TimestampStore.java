@@ -24,12 +24,15 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
-public final class TimestampStore  implements PersistableStore<TimestampStore> {
+public final class TimestampStore implements ChunkedPersistableStore<TimestampStore> {
     @Getter
     private final Map<String, Long> timestampsByProfileId = new ConcurrentHashMap<>();
 
@@ -73,6 +76,28 @@ public final class TimestampStore  implements PersistableStore<TimestampStore> {
         return new TimestampStore(timestampsByProfileId);
     }
 
+    @Override
+    public List<TimestampStore> getChunks(int maxChunkSize) {
+        List<TimestampStore> chunks = new ArrayList<>();
+        Map<String, Long> chunkMap = new HashMap<>();
+        timestampsByProfileId.forEach((key, value) -> {
+            chunkMap.put(key, value);
+            if (chunkMap.size() == maxChunkSize) {
+                chunks.add(new TimestampStore(chunkMap));
+                chunkMap.clear();
+            }
+        });
+        if (!chunkMap.isEmpty() || chunks.isEmpty()) {
+            chunks.add(new TimestampStore(chunkMap));
+        }
+        return chunks;
+    }
+
+    @Override
+    public void addChunk(TimestampStore chunk) {
+        timestampsByProfileId.putAll(chunk.getTimestampsByProfileId());
+    }
+
     @Override
     public void applyPersisted(TimestampStore persisted) {
         timestampsByProfileId.clear();
@@ -29,10 +29,10 @@ import bisq.presentation.notifications.osx.OsxNotifications;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -49,7 +49,8 @@ public class NotificationsService implements PersistenceClient<NotificationsStor
     @Getter
     private final Persistence<NotificationsStore> persistence;
     private NotificationsDelegate delegate;
-    private final Set<Listener> listeners = new HashSet<>();
+    // Listeners are notified in the order they got added
+    private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
 
     public NotificationsService(PersistenceService persistenceService) {
         persistence = persistenceService.getOrCreatePersistence(this, persistableStore);
@@ -132,6 +133,11 @@ public class NotificationsService implements PersistenceClient<NotificationsStor
         }
     }
 
+    public boolean isNotConsumed(String notificationId) {
+        DateAndConsumedFlag dateAndConsumedFlag = getNotificationIdMap().get(notificationId);
+        return dateAndConsumedFlag != null && !dateAndConsumedFlag.isConsumed();
+    }
+
     public Set<String> getNotConsumedNotificationIds() {
         return getNotificationIdMap().entrySet().stream()
                 .filter(entry -> !entry.getValue().isConsumed())
@@ -0,0 +1,58 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Logs the average mint and verify time of Equihash proofs of work at several difficulties.
+ */
+@Slf4j
+public class EquihashPerformanceTest {
+    private static final double[] DIFFICULTIES = {1, 1e4, 1e5, 1e6};
+    private static final int NUM_ITERATIONS = 5;
+
+    @Test
+    public void testMintAndVerifyPerformance() {
+        EquihashProofOfWorkService service = new EquihashProofOfWorkService();
+        byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+        byte[] challenge = service.getChallenge("itemId", "ownerId");
+        service.mint(payload, challenge, 1).join(); // call once to not pollute time tests, first call is slow.
+
+        for (double difficulty : DIFFICULTIES) {
+            long mintTime = 0;
+            long verifyTime = 0;
+            for (int i = 0; i < NUM_ITERATIONS; i++) {
+                long ts = System.currentTimeMillis();
+                ProofOfWork proofOfWork = service.mint(payload, challenge, difficulty).join();
+                mintTime += System.currentTimeMillis() - ts;
+
+                ts = System.currentTimeMillis();
+                assertTrue(service.verify(proofOfWork));
+                verifyTime += System.currentTimeMillis() - ts;
+            }
+            log.info("Difficulty {}: mint {} ms, verify {} ms (average of {} iterations)",
+                    difficulty, mintTime / NUM_ITERATIONS, verifyTime / NUM_ITERATIONS, NUM_ITERATIONS);
+        }
+    }
+}
@@ -36,15 +36,19 @@ public class AesGcm {
     private static final int MAX_TAG_LENGTH = 128;
     private static final int RECOMMENDED_IV_LENGTH = 12;
 
+    // Cipher instances are not thread safe, but can be reused after init. As we use a new IV for each encryption, the
+    // GCM check for key and IV reuse does not prevent the reuse of the instance.
+    private static final ThreadLocal<Cipher> CIPHER = new ThreadLocal<>();
+
     public static byte[] encrypt(SecretKey secretKey, byte[] iv, byte[] plainText) throws NoSuchPaddingException, NoSuchAlgorithmException, NoSuchProviderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
-        Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING_CIPHER_NAME, BouncyCastleProvider.PROVIDER_NAME);
+        Cipher cipher = getCipher();
         GCMParameterSpec spec = new GCMParameterSpec(MAX_TAG_LENGTH, iv);
         cipher.init(Cipher.ENCRYPT_MODE, secretKey, spec);
         return cipher.doFinal(plainText);
     }
 
     public static byte[] decrypt(SecretKey secretKey, byte[] iv, byte[] cipherText) throws NoSuchPaddingException, NoSuchAlgorithmException, NoSuchProviderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
-        Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING_CIPHER_NAME, BouncyCastleProvider.PROVIDER_NAME);
+        Cipher cipher = getCipher();
         GCMParameterSpec spec = new GCMParameterSpec(MAX_TAG_LENGTH, iv);
         cipher.init(Cipher.DECRYPT_MODE, secretKey, spec);
         return cipher.doFinal(cipherText);
@@ -61,5 +65,13 @@ public class AesGcm {
         return new IvParameterSpec(new SecureRandom().generateSeed(RECOMMENDED_IV_LENGTH));
     }
 
+    private static Cipher getCipher() throws NoSuchPaddingException, NoSuchAlgorithmException, NoSuchProviderException {
+        Cipher cipher = CIPHER.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(AES_GCM_NO_PADDING_CIPHER_NAME, BouncyCastleProvider.PROVIDER_NAME);
+            CIPHER.set(cipher);
+        }
+        return cipher;
+    }
 
 }
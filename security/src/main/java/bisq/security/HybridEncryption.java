@@ -17,6 +17,10 @@
 
 package bisq.security;
 
+import bisq.common.data.ByteArray;
+import bisq.common.data.Pair;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.crypto.SecretKey;
@@ -35,11 +39,16 @@ import static com.google.common.base.Preconditions.checkArgument;
  */
 @Slf4j
 public class HybridEncryption {
+    // Deriving the ECDH secret is expensive and we exchange many messages with the same peers.
+    // The key is the pair of our and the peer's encoded public key.
+    private static final Cache<Pair<ByteArray, ByteArray>, SecretKey> SHARED_SECRET_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .build();
 
     public static ConfidentialData encryptAndSign(byte[] message, PublicKey receiverPublicKey, KeyPair senderKeyPair)
             throws GeneralSecurityException {
         // Create shared secret with our private key and receivers public key
-        SecretKey sharedAesSecretKey = AesGcm.generateSharedAesSecretKey(senderKeyPair.getPrivate(), receiverPublicKey);
+        SecretKey sharedAesSecretKey = getSharedAesSecretKey(senderKeyPair, receiverPublicKey.getEncoded(), receiverPublicKey);
 
         byte[] iv = AesGcm.generateIv().getIV();
         byte[] cipherText = AesGcm.encrypt(sharedAesSecretKey, iv, message);
@@ -59,7 +68,20 @@ public class HybridEncryption {
         checkArgument(SignatureUtil.verify(cipherText, signature, senderPublicKey), "Invalid signature");
 
         // Create shared secret with our private key and senders public key
-        SecretKey sharedAesSecretKey = AesGcm.generateSharedAesSecretKey(receiversKeyPair.getPrivate(), senderPublicKey);
+        SecretKey sharedAesSecretKey = getSharedAesSecretKey(receiversKeyPair, encodedSenderPublicKey, senderPublicKey);
         return AesGcm.decrypt(sharedAesSecretKey, iv, cipherText);
     }
+
+    private static SecretKey getSharedAesSecretKey(KeyPair myKeyPair,
+                                                   byte[] encodedPeersPublicKey,
+                                                   PublicKey peersPublicKey) throws GeneralSecurityException {
+        Pair<ByteArray, ByteArray> cacheKey = new Pair<>(new ByteArray(myKeyPair.getPublic().getEncoded()),
+                new ByteArray(encodedPeersPublicKey.clone()));
+        SecretKey sharedAesSecretKey = SHARED_SECRET_CACHE.getIfPresent(cacheKey);
+        if (sharedAesSecretKey == null) {
+            sharedAesSecretKey = AesGcm.generateSharedAesSecretKey(myKeyPair.getPrivate(), peersPublicKey);
+            SHARED_SECRET_CACHE.put(cacheKey, sharedAesSecretKey);
+        }
+        return sharedAesSecretKey;
+    }
 }
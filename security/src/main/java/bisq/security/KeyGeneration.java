@@ -17,7 +17,11 @@
 
 package bisq.security;
 
+import bisq.common.data.ByteArray;
+import bisq.common.data.Pair;
 import bisq.common.encoding.Hex;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.bouncycastle.jcajce.provider.asymmetric.util.EC5Util;
 import org.bouncycastle.jce.ECNamedCurveTable;
 import org.bouncycastle.jce.ECPointUtil;
@@ -30,6 +34,8 @@ import java.security.spec.ECGenParameterSpec;
 import java.security.spec.EncodedKeySpec;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.HashMap;
+import java.util.Map;
 
 public class KeyGeneration {
     public static final String ECDH = "ECDH";
@@ -37,6 +43,14 @@ public class KeyGeneration {
     private static final String ECDSA = "ECDSA";
     public static final String DSA = "DSA";
 
+    // KeyFactory instances are not thread safe, so we keep one instance per algorithm and thread.
+    private static final ThreadLocal<Map<String, KeyFactory>> KEY_FACTORY_BY_ALGORITHM = ThreadLocal.withInitial(HashMap::new);
+    // We decode the public keys of the same peers and authors over and over again. Public keys are immutable, so we
+    // can share the decoded instances.
+    private static final Cache<Pair<String, ByteArray>, PublicKey> PUBLIC_KEY_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
     static {
         if (java.security.Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
             Security.addProvider(new BouncyCastleProvider());
@@ -55,8 +69,16 @@ public class KeyGeneration {
     }
 
     public static PublicKey generatePublic(byte[] encodedKey, String algorithm) throws GeneralSecurityException {
+        Pair<String, ByteArray> cacheKey = new Pair<>(algorithm, new ByteArray(encodedKey));
+        PublicKey publicKey = PUBLIC_KEY_CACHE.getIfPresent(cacheKey);
+        if (publicKey != null) {
+            return publicKey;
+        }
         EncodedKeySpec keySpec = new X509EncodedKeySpec(encodedKey);
-        return KeyFactory.getInstance(algorithm).generatePublic(keySpec);
+        publicKey = getKeyFactory(algorithm).generatePublic(keySpec);
+        // We copy the bytes as the caller might modify the array
+        PUBLIC_KEY_CACHE.put(new Pair<>(algorithm, new ByteArray(encodedKey.clone())), publicKey);
+        return publicKey;
     }
 
     public static PublicKey generatePublicFromCompressed(byte[] compressedKey) throws GeneralSecurityException {
@@ -76,7 +98,7 @@ public class KeyGeneration {
 
     public static PrivateKey generatePrivate(byte[] encodedKey, String algorithm) throws GeneralSecurityException {
         EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(encodedKey);
-        return KeyFactory.getInstance(algorithm).generatePrivate(keySpec);
+        return getKeyFactory(algorithm).generatePrivate(keySpec);
     }
 
     public static byte[] encodePublicKey(PublicKey publicKey) {
@@ -98,4 +120,14 @@ public class KeyGeneration {
             throw new RuntimeException(e);
         }
     }
+
+    private static KeyFactory getKeyFactory(String algorithm) throws NoSuchAlgorithmException {
+        Map<String, KeyFactory> keyFactoryByAlgorithm = KEY_FACTORY_BY_ALGORITHM.get();
+        KeyFactory keyFactory = keyFactoryByAlgorithm.get(algorithm);
+        if (keyFactory == null) {
+            keyFactory = KeyFactory.getInstance(algorithm);
+            keyFactoryByAlgorithm.put(algorithm, keyFactory);
+        }
+        return keyFactory;
+    }
 }
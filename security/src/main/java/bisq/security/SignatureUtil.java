@@ -25,11 +25,17 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
+import java.util.HashMap;
+import java.util.Map;
 
 public class SignatureUtil {
     public static final String SHA256withECDSA = "SHA256withECDSA";
     public static final String SHA256withDSA = "SHA256withDSA";
 
+    // The provider lookup of Signature.getInstance is expensive. Signature instances are not thread safe, but can be
+    // reused after initSign/initVerify, so we keep one instance per algorithm and thread.
+    private static final ThreadLocal<Map<String, Signature>> SIGNATURE_BY_ALGORITHM = ThreadLocal.withInitial(HashMap::new);
+
     static {
         if (java.security.Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
             Security.addProvider(new BouncyCastleProvider());
@@ -41,7 +47,7 @@ public class SignatureUtil {
     }
 
     public static byte[] sign(byte[] message, PrivateKey privateKey, String algorithm) throws GeneralSecurityException {
-        Signature signature = Signature.getInstance(algorithm, "BC");
+        Signature signature = getSignature(algorithm);
         signature.initSign(privateKey);
         signature.update(message);
         return signature.sign();
@@ -52,12 +58,22 @@ public class SignatureUtil {
     }
 
     public static boolean verify(byte[] message, byte[] signature, PublicKey publicKey, String algorithm) throws GeneralSecurityException {
-        Signature sig = Signature.getInstance(algorithm, "BC");
+        Signature sig = getSignature(algorithm);
         sig.initVerify(publicKey);
         sig.update(message);
         return sig.verify(signature);
     }
 
+    private static Signature getSignature(String algorithm) throws GeneralSecurityException {
+        Map<String, Signature> signatureByAlgorithm = SIGNATURE_BY_ALGORITHM.get();
+        Signature signature = signatureByAlgorithm.get(algorithm);
+        if (signature == null) {
+            signature = Signature.getInstance(algorithm, "BC");
+            signatureByAlgorithm.put(algorithm, signature);
+        }
+        return signature;
+    }
+
     // input: a base-64 bitcoin sig
     // output a DER signature
     public static byte[] bitcoinSigToDer(String bitcoinSig) {
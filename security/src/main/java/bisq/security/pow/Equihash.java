@@ -17,10 +17,9 @@
 
 package bisq.security.pow;
 
+import bisq.common.threading.ExecutorFactory;
 import bisq.common.util.ByteArrayUtils;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.MultimapBuilder;
 import com.google.common.primitives.*;
 import lombok.ToString;
 import org.bouncycastle.crypto.digests.Blake2bDigest;
@@ -29,6 +28,9 @@ import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -61,7 +63,10 @@ import static java.math.BigInteger.ONE;
  * the paper, the hash function BLAKE2b is used to supply 256 bits, which is shortened and
  * split into <i>k+1</i> 32-bit blocks. The blocks are masked to provide <i>n/(k+1)</i>
  * bits each and <i>n</i> bits in total. This allows working with 32-bit integers
- * throughout, for efficiency.
+ * throughout, for efficiency.<br><p>
+ * <br>
+ * To find a solution, several nonces are tried in parallel on the solver pool. Each solver thread reuses its work
+ * tables and digest for all the nonces it tries.
  *
  * Author: <a href="https://github.com/stejbac">stejbac</a>
  */
@@ -73,6 +78,9 @@ public class Equihash {
      * Mean solution count per nonce for Equihash puzzles with unit difficulty.
      */
     private static final double MEAN_SOLUTION_COUNT_PER_NONCE = 2.0;
+    private static final ExecutorService SOLVER_POOL = ExecutorFactory.newFixedThreadPool("Equihash-solver");
+    // Only used by the threads of the SOLVER_POOL, so the number of work tables is limited by the pool size
+    private static final ThreadLocal<Workspace> SOLVER_WORKSPACE = ThreadLocal.withInitial(Workspace::new);
 
     private final int k, N;
     private final int tableCapacity;
@@ -199,18 +207,45 @@ public class Equihash {
             return new Solution(nonce, inputs);
         }
 
+        /**
+         * Tries the nonces in parallel on all solver threads. Each thread takes the next untried nonce until a
+         * solution is found. As any solution is valid, the solution of whichever nonce completes first is used.
+         */
         public Solution findSolution() {
-            Optional<int[]> inputs;
-            for (int nonce = 0; ; nonce++) {
-                if ((inputs = withHashPrefix(seed, nonce).findInputs()).isPresent()) {
-                    return new Solution(nonce, inputs.get());
+            AtomicLong nextNonce = new AtomicLong();
+            CompletableFuture<Solution> result = new CompletableFuture<>();
+            int numSolvers = Math.max(1, Runtime.getRuntime().availableProcessors());
+            for (int i = 0; i < numSolvers; i++) {
+                SOLVER_POOL.execute(() -> searchNonces(nextNonce, result));
+            }
+            return result.join();
+        }
+
+        private void searchNonces(AtomicLong nextNonce, CompletableFuture<Solution> result) {
+            Workspace workspace = SOLVER_WORKSPACE.get();
+            try {
+                while (!result.isDone()) {
+                    long nonce = nextNonce.getAndIncrement();
+                    Optional<int[]> inputs = withHashPrefix(seed, nonce).findInputs(workspace);
+                    if (inputs.isPresent()) {
+                        result.complete(new Solution(nonce, inputs.get()));
+                    }
                 }
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
             }
         }
 
+        // The solution a single solver thread finds for the given nonce
+        @VisibleForTesting
+        Optional<Solution> findSolutionForNonce(long nonce) {
+            return withHashPrefix(seed, nonce).findInputs(new Workspace())
+                    .map(inputs -> new Solution(nonce, inputs));
+        }
+
         @VisibleForTesting
         int countAllSolutionsForNonce(long nonce) {
-            return (int) withHashPrefix(seed, nonce).streamInputsHits()
+            return (int) withHashPrefix(seed, nonce).streamInputsHits(new Workspace())
                     .map(ImmutableIntArray::copyOf)
                     .distinct()
                     .count();
@@ -228,42 +263,61 @@ public class Equihash {
             this.prefixBytes = prefixBytes;
         }
 
-        private int[] hashInputs(int... inputs) {
-            var digest = new Blake2bDigest(HASH_BIT_LENGTH);
+        // The returned array is reused by the next call with the same workspace
+        private int[] hashInputs(Workspace workspace, int... inputs) {
+            Blake2bDigest digest = workspace.digest;
             digest.update(prefixBytes, 0, prefixBytes.length);
-            byte[] inputBytes = ByteArrayUtils.integersToBytesBE(inputs);
-            digest.update(inputBytes, 0, inputBytes.length);
-            byte[] outputBytes = new byte[HASH_BIT_LENGTH / 8];
+            byte[] inputBytes = workspace.inputBytes;
+            for (int input : inputs) {
+                inputBytes[0] = (byte) (input >> 24);
+                inputBytes[1] = (byte) (input >> 16);
+                inputBytes[2] = (byte) (input >> 8);
+                inputBytes[3] = (byte) input;
+                digest.update(inputBytes, 0, 4);
+            }
+            byte[] outputBytes = workspace.outputBytes;
+            // doFinal resets the digest, so it can be used for the next hash
             digest.doFinal(outputBytes, 0);
-            return ByteArrayUtils.bytesToIntegersBE(outputBytes);
+            int[] hash = workspace.hash;
+            for (int i = 0; i < hash.length; i++) {
+                hash[i] = Ints.fromBytes(outputBytes[4 * i], outputBytes[4 * i + 1], outputBytes[4 * i + 2], outputBytes[4 * i + 3]);
+            }
+            return hash;
         }
 
-        Stream<int[]> streamInputsHits() {
-            var table = computeAllHashes();
+        Stream<int[]> streamInputsHits(Workspace workspace) {
+            var table = computeAllHashes(workspace);
             for (int i = 0; i < k; i++) {
-                table = findCollisions(table, i + 1 < k);
+                table = findCollisions(table, i + 1 < k, workspace, (i + 1) % 2);
             }
-            return IntStream.range(0, table.numRows)
-                    .mapToObj(table::getRow)
-                    .filter(row -> row.stream().distinct().count() == inputNum)
-                    .map(row -> sortInputs(row.toArray()))
-                    .filter(this::testDifficultyCondition);
+            var finalTable = table;
+            return IntStream.range(0, finalTable.numRows)
+                    .mapToObj(finalTable::getIndexTuple)
+                    .filter(row -> Arrays.stream(row).distinct().count() == inputNum)
+                    .map(Equihash::sortInputs)
+                    .filter(inputs -> testDifficultyCondition(inputs, workspace));
         }
 
-        Optional<int[]> findInputs() {
-            return streamInputsHits().findFirst();
+        Optional<int[]> findInputs(Workspace workspace) {
+            return streamInputsHits(workspace).findFirst();
         }
 
-        private XorTable computeAllHashes() {
-            var tableValues = IntStream.range(0, N).flatMap(i -> {
-                int[] hash = hashInputs(i);
-                return IntStream.range(0, k + 2).map(j -> j <= k ? hash[j] & (N / 2 - 1) : i);
-            });
-            return new XorTable(k + 1, 1, ImmutableIntArray.copyOf(tableValues.parallel()));
+        private XorTable computeAllHashes(Workspace workspace) {
+            int rowWidth = k + 2;
+            int[] values = workspace.getTableBuffer(0, N * rowWidth);
+            for (int i = 0; i < N; i++) {
+                int[] hash = hashInputs(workspace, i);
+                int offset = i * rowWidth;
+                for (int j = 0; j <= k; j++) {
+                    values[offset + j] = hash[j] & (N / 2 - 1);
+                }
+                values[offset + k + 1] = i;
+            }
+            return new XorTable(k + 1, 1, values, N * rowWidth);
         }
 
-        private boolean testDifficultyCondition(int[] inputs) {
-            int[] difficultyHash = hashInputs(inputs);
+        private boolean testDifficultyCondition(int[] inputs, Workspace workspace) {
+            int[] difficultyHash = hashInputs(workspace, inputs);
             return UnsignedInts.lexicographicalComparator().compare(difficultyHash, hashUpperBound) <= 0;
         }
 
@@ -277,12 +331,13 @@ public class Equihash {
             if (!Arrays.equals(inputs, sortInputs(inputs))) {
                 return false;
             }
-            if (!testDifficultyCondition(inputs)) {
+            Workspace workspace = new Workspace();
+            if (!testDifficultyCondition(inputs, workspace)) {
                 return false;
             }
             int[] hashBlockSums = new int[k + 1];
             for (int i = 0; i < inputs.length; i++) {
-                int[] hash = hashInputs(inputs[i]);
+                int[] hash = hashInputs(workspace, inputs[i]);
                 for (int j = 0; j <= k; j++) {
                     hashBlockSums[j] ^= hash[j] & (N / 2 - 1);
                 }
@@ -298,96 +353,108 @@ public class Equihash {
 
     private static class XorTable {
         private final int hashWidth, indexTupleWidth, rowWidth, numRows;
-        private final ImmutableIntArray values;
+        private final int[] values;
 
-        XorTable(int hashWidth, int indexTupleWidth, ImmutableIntArray values) {
+        XorTable(int hashWidth, int indexTupleWidth, int[] values, int length) {
             this.hashWidth = hashWidth;
             this.indexTupleWidth = indexTupleWidth;
             this.values = values;
             rowWidth = hashWidth + indexTupleWidth;
-            numRows = (values.length() + rowWidth - 1) / rowWidth;
+            numRows = (length + rowWidth - 1) / rowWidth;
         }
 
-        ImmutableIntArray getRow(int index) {
-            return values.subArray(index * rowWidth, index * rowWidth + hashWidth + indexTupleWidth);
+        int[] getIndexTuple(int index) {
+            int offset = index * rowWidth + hashWidth;
+            return Arrays.copyOfRange(values, offset, offset + indexTupleWidth);
         }
     }
 
-    private static class IntListMultimap {
-        final int[] shortLists;
-        final ListMultimap<Integer, Integer> overspillMultimap;
-
-        IntListMultimap(int keyUpperBound) {
-            shortLists = new int[keyUpperBound * 4];
-            overspillMultimap = MultimapBuilder.hashKeys().arrayListValues().build();
+    /**
+     * Work tables and digest which are reused for all the nonces tried by one thread. The table buffers are used
+     * alternately as source and target of the iterations of Wagner's Algorithm. Row indices with the same leading
+     * hash block are kept in linked lists (in insertion order) via the head, tail and next arrays.
+     */
+    private static class Workspace {
+        private final Blake2bDigest digest = new Blake2bDigest(HASH_BIT_LENGTH);
+        private final byte[] inputBytes = new byte[4];
+        private final byte[] outputBytes = new byte[HASH_BIT_LENGTH / 8];
+        private final int[] hash = new int[HASH_BIT_LENGTH / 32];
+        private final int[][] tableBuffers = new int[2][];
+        private int[] head = new int[0];
+        private int[] tail = new int[0];
+        private int[] next = new int[0];
+
+        int[] getTableBuffer(int index, int minCapacity) {
+            if (tableBuffers[index] == null || tableBuffers[index].length < minCapacity) {
+                tableBuffers[index] = new int[minCapacity];
+            }
+            return tableBuffers[index];
         }
 
-        PrimitiveIterator.OfInt get(int key) {
-            return new PrimitiveIterator.OfInt() {
-                int i;
-                Iterator<Integer> overspillIterator;
-
-                private Iterator<Integer> overspillIterator() {
-                    if (overspillIterator == null) {
-                        overspillIterator = overspillMultimap.get(key).iterator();
-                    }
-                    return overspillIterator;
-                }
-
-                @Override
-                public int nextInt() {
-                    if (!hasNext()) {
-                        throw new NoSuchElementException();
-                    }
-                    return i < 4 ? ~shortLists[key * 4 + i++] : overspillIterator().next();
-                }
-
-                @Override
-                public boolean hasNext() {
-                    return i < 4 && shortLists[key * 4 + i] < 0 || i == 4 && overspillIterator().hasNext();
-                }
-            };
+        void resetIndex(int keyUpperBound, int numRows) {
+            if (head.length < keyUpperBound) {
+                head = new int[keyUpperBound];
+                tail = new int[keyUpperBound];
+            }
+            if (next.length < numRows) {
+                next = new int[numRows];
+            }
+            Arrays.fill(head, 0, keyUpperBound, -1);
         }
 
-        // assumes non-negative values only:
-        void put(int key, int value) {
-            for (int i = 0; i < 4; i++) {
-                if (shortLists[key * 4 + i] == 0) {
-                    shortLists[key * 4 + i] = ~value;
-                    return;
-                }
+        void addToIndex(int key, int row) {
+            next[row] = -1;
+            if (head[key] < 0) {
+                head[key] = row;
+            } else {
+                next[tail[key]] = row;
             }
-            overspillMultimap.put(key, value);
+            tail[key] = row;
         }
     }
 
     // Apply a single iteration of Wagner's Algorithm.
-    private XorTable findCollisions(XorTable table, boolean isPartial) {
+    private XorTable findCollisions(XorTable table, boolean isPartial, Workspace workspace, int targetBufferIndex) {
         int newHashWidth = isPartial ? table.hashWidth - 1 : 0;
         int newIndexTupleWidth = table.indexTupleWidth * 2;
         int newRowWidth = newHashWidth + newIndexTupleWidth;
-        var newTableValues = ImmutableIntArray.builder(
-                newRowWidth * (isPartial ? tableCapacity : 10));
-
-        var indexMultimap = new IntListMultimap(N / 2);
+        int[] newValues = workspace.getTableBuffer(targetBufferIndex, newRowWidth * (isPartial ? tableCapacity : 10));
+        int length = 0;
+
+        int[] values = table.values;
+        int hashWidth = table.hashWidth;
+        int indexTupleWidth = table.indexTupleWidth;
+        int rowWidth = table.rowWidth;
+        workspace.resetIndex(N / 2, table.numRows);
+        int[] head = workspace.head;
+        int[] next = workspace.next;
         for (int i = 0; i < table.numRows; i++) {
-            var row = table.getRow(i);
-            var collisionIndices = indexMultimap.get(row.get(0));
-            while (collisionIndices.hasNext()) {
-                var collidingRow = table.getRow(collisionIndices.nextInt());
+            int offset = i * rowWidth;
+            int key = values[offset];
+            for (int j = head[key]; j >= 0; j = next[j]) {
+                int collidingOffset = j * rowWidth;
+                if (!isPartial && !Arrays.equals(values, collidingOffset + 1, collidingOffset + hashWidth,
+                        values, offset + 1, offset + hashWidth)) {
+                    continue;
+                }
+                if (length + newRowWidth > newValues.length) {
+                    newValues = Arrays.copyOf(newValues, Math.max(2 * newValues.length, length + newRowWidth));
+                }
                 if (isPartial) {
-                    for (int j = 1; j < table.hashWidth; j++) {
-                        newTableValues.add(collidingRow.get(j) ^ row.get(j));
+                    for (int c = 1; c < hashWidth; c++) {
+                        newValues[length++] = values[collidingOffset + c] ^ values[offset + c];
                     }
-                } else if (!collidingRow.subArray(1, table.hashWidth).equals(row.subArray(1, table.hashWidth))) {
-                    continue;
                 }
-                newTableValues.addAll(collidingRow.subArray(table.hashWidth, collidingRow.length()));
-                newTableValues.addAll(row.subArray(table.hashWidth, row.length()));
+                System.arraycopy(values, collidingOffset + hashWidth, newValues, length, indexTupleWidth);
+                length += indexTupleWidth;
+                System.arraycopy(values, offset + hashWidth, newValues, length, indexTupleWidth);
+                length += indexTupleWidth;
             }
-            indexMultimap.put(row.get(0), i);
+            workspace.addToIndex(key, i);
         }
-        return new XorTable(newHashWidth, newIndexTupleWidth, newTableValues.build());
+        // Keep the grown buffer for the next iterations
+        workspace.tableBuffers[targetBufferIndex] = newValues;
+        return new XorTable(newHashWidth, newIndexTupleWidth, newValues, length);
     }
 
     private static int[] sortInputs(int[] inputs) {
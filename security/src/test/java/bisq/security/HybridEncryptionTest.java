@@ -24,6 +24,10 @@ import javax.crypto.AEADBadTagException;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -45,6 +49,35 @@ public class HybridEncryptionTest {
         assertArrayEquals(message, decrypted);
     }
 
+    @Test
+    void testRepeatedEncryptionFromManyThreads() throws InterruptedException {
+        // The JCA instances are reused per thread and the shared secrets are cached
+        int numThreads = 8;
+        AtomicInteger numSuccess = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 20; j++) {
+                        byte[] message = ("hello" + j).getBytes();
+                        ConfidentialData confidentialData = HybridEncryption.encryptAndSign(message, keyPairReceiver.getPublic(), keyPairSender);
+                        if (Arrays.equals(message, HybridEncryption.decryptAndVerify(confidentialData, keyPairReceiver))) {
+                            numSuccess.incrementAndGet();
+                        }
+                    }
+                } catch (GeneralSecurityException e) {
+                    log.error("Encryption failed", e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(numThreads * 20, numSuccess.get());
+    }
+
     @Test
     void decryptWithWrongKey() throws GeneralSecurityException {
         byte[] message = "hello".getBytes();
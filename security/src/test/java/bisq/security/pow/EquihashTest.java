@@ -0,0 +1,79 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow;
+
+import com.google.common.primitives.Longs;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EquihashTest {
+    @Test
+    public void testFindSolutionVerifies() {
+        Equihash.Puzzle puzzle = new Equihash(90, 5, 2.0).puzzle("seed".getBytes(StandardCharsets.UTF_8));
+        Equihash.Puzzle.Solution solution = puzzle.findSolution();
+        assertTrue(solution.verify());
+
+        byte[] serialized = solution.serialize();
+        assertTrue(puzzle.deserializeSolution(serialized).verify());
+
+        Equihash.Puzzle otherPuzzle = new Equihash(90, 5, 2.0).puzzle("other seed".getBytes(StandardCharsets.UTF_8));
+        assertFalse(otherPuzzle.deserializeSolution(serialized).verify());
+    }
+
+    @Test
+    public void testParallelSolutionMatchesSequentialSolution() {
+        Equihash.Puzzle puzzle = new Equihash(90, 5, 2.0).puzzle("seed".getBytes(StandardCharsets.UTF_8));
+        byte[] parallelSolution = puzzle.findSolution().serialize();
+
+        // Any nonce might complete first, but for that nonce a single solver must find the same inputs
+        long nonce = Longs.fromByteArray(Arrays.copyOf(parallelSolution, 8));
+        Optional<Equihash.Puzzle.Solution> sequentialSolution = puzzle.findSolutionForNonce(nonce);
+        assertTrue(sequentialSolution.isPresent());
+        assertArrayEquals(parallelSolution, sequentialSolution.get().serialize());
+
+        Optional<Equihash.Puzzle.Solution> firstSequentialSolution = LongStream.iterate(0, i -> i + 1)
+                .mapToObj(puzzle::findSolutionForNonce)
+                .flatMap(Optional::stream)
+                .findFirst();
+        assertTrue(firstSequentialSolution.orElseThrow().verify());
+    }
+
+    @Test
+    public void testMintedProofOfWorkVerifiesAtEachDifficulty() {
+        EquihashProofOfWorkService service = new EquihashProofOfWorkService();
+        byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+        byte[] challenge = service.getChallenge("itemId", "ownerId");
+
+        for (double difficulty : new double[]{1, 1e4, 1e5}) {
+            ProofOfWork proofOfWork = service.mint(payload, challenge, difficulty).join();
+            assertTrue(service.verify(proofOfWork), "difficulty " + difficulty);
+
+            ProofOfWork otherPayload = new ProofOfWork("other payload".getBytes(StandardCharsets.UTF_8),
+                    challenge,
+                    difficulty,
+                    proofOfWork.getSolution());
+            assertFalse(service.verify(otherPayload), "difficulty " + difficulty);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.seed_node;
+
+import bisq.common.application.Service;
+import bisq.network.NetworkMetricsCollector;
+import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Exposes the network metrics for scraping by the seed node operators.
+ * At /metrics in the Prometheus text format, at /metrics/json as JSON object.
+ */
+@Slf4j
+public class MetricsServer implements Service {
+    @Getter
+    public static class Config {
+        private final boolean enabled;
+        private final String host;
+        private final int port;
+
+        public Config(boolean enabled, String host, int port) {
+            this.enabled = enabled;
+            this.host = host;
+            this.port = port;
+        }
+
+        public static MetricsServer.Config from(com.typesafe.config.Config config) {
+            return new MetricsServer.Config(config.getBoolean("enabled"),
+                    config.getString("host"),
+                    config.getInt("port"));
+        }
+    }
+
+    private final Optional<Config> optionalConfig;
+    private final NetworkMetricsCollector networkMetricsCollector;
+    private Optional<HttpServer> httpServer = Optional.empty();
+
+    public MetricsServer(Optional<Config> optionalConfig, NetworkMetricsCollector networkMetricsCollector) {
+        this.optionalConfig = optionalConfig;
+        this.networkMetricsCollector = networkMetricsCollector;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> initialize() {
+        optionalConfig.filter(Config::isEnabled).ifPresent(config -> {
+            try {
+                HttpServer server = HttpServer.create(new InetSocketAddress(config.getHost(), config.getPort()), 0);
+                server.createContext("/metrics/json", exchange -> respond(exchange, "application/json", this::toJson));
+                server.createContext("/metrics", exchange -> respond(exchange, "text/plain; version=0.0.4", this::toText));
+                server.start();
+                httpServer = Optional.of(server);
+                log.info("Metrics server started at {}:{}", config.getHost(), config.getPort());
+            } catch (IOException e) {
+                log.error("Could not start metrics server", e);
+            }
+        });
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> shutdown() {
+        httpServer.ifPresent(server -> server.stop(0));
+        return CompletableFuture.completedFuture(true);
+    }
+
+    private void respond(HttpExchange exchange, String contentType, Function<Map<String, Number>, String> formatter) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = formatter.apply(networkMetricsCollector.collect()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String toText(Map<String, Number> metrics) {
+        return metrics.entrySet().stream()
+                .map(entry -> entry.getKey() + " " + entry.getValue())
+                .collect(Collectors.joining("\n", "", "\n"));
+    }
+
+    private String toJson(Map<String, Number> metrics) {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(metrics);
+    }
+}
@@ -19,6 +19,7 @@ package bisq.seed_node;
 
 import bisq.application.ApplicationService;
 import bisq.bonded_roles.bonded_role.AuthorizedBondedRolesService;
+import bisq.network.NetworkMetricsCollector;
 import bisq.network.NetworkService;
 import bisq.network.NetworkServiceConfig;
 import bisq.security.SecurityService;
@@ -45,6 +46,7 @@ public class SeedNodeApplicationService extends ApplicationService {
     protected final SecurityService securityService;
     private final AuthorizedBondedRolesService authorizedBondedRolesService;
     private final SeedNodeService seedNodeService;
+    private final MetricsServer metricsServer;
 
     public SeedNodeApplicationService(String[] args) {
         super("seed_node", args);
@@ -63,6 +65,9 @@ public class SeedNodeApplicationService extends ApplicationService {
 
         Optional<SeedNodeService.Config> seedNodeConfig = hasConfig("seedNode") ? Optional.of(SeedNodeService.Config.from(getConfig("seedNode"))) : Optional.empty();
         seedNodeService = new SeedNodeService(seedNodeConfig, networkService, securityService.getKeyPairService());
+
+        Optional<MetricsServer.Config> metricsServerConfig = hasConfig("metricsServer") ? Optional.of(MetricsServer.Config.from(getConfig("metricsServer"))) : Optional.empty();
+        metricsServer = new MetricsServer(metricsServerConfig, new NetworkMetricsCollector(networkService));
     }
 
     @Override
@@ -71,6 +76,7 @@ public class SeedNodeApplicationService extends ApplicationService {
                 .thenCompose(result -> networkService.initialize())
                 .thenCompose(result -> authorizedBondedRolesService.initialize())
                 .thenCompose(result -> seedNodeService.initialize())
+                .thenCompose(result -> metricsServer.initialize())
                 .orTimeout(5, TimeUnit.MINUTES)
                 .whenComplete((success, throwable) -> {
                     if (success) {
@@ -84,7 +90,8 @@ public class SeedNodeApplicationService extends ApplicationService {
     @Override
     public CompletableFuture<Boolean> shutdown() {
         // We shut down services in opposite order as they are initialized
-        return supplyAsync(() -> seedNodeService.shutdown()
+        return supplyAsync(() -> metricsServer.shutdown()
+                .thenCompose(result -> seedNodeService.shutdown())
                 .thenCompose(result -> authorizedBondedRolesService.shutdown())
                 .thenCompose(result -> networkService.shutdown())
                 .thenCompose(result -> securityService.shutdown())
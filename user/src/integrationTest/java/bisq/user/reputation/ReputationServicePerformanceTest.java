@@ -0,0 +1,80 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.reputation;
+
+import bisq.common.util.FileUtils;
+import bisq.persistence.PersistenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures rank and max score lookups with 100k user profiles, once on the ScoreRankIndex and once through
+ * ReputationService.findReputationScore.
+ */
+@Slf4j
+public class ReputationServicePerformanceTest {
+    private static final int NUM_PROFILES = 100_000;
+
+    @Test
+    void testIndexLookupsWith100kProfiles() {
+        Random random = new Random(1);
+        ScoreRankIndex index = new ScoreRankIndex();
+        long[] scores = new long[NUM_PROFILES];
+        for (int i = 0; i < NUM_PROFILES; i++) {
+            scores[i] = random.nextInt(1_000_000);
+            index.add(scores[i]);
+        }
+        assertEquals(NUM_PROFILES, index.size());
+
+        long ts = System.nanoTime();
+        long checksum = 0;
+        for (long score : scores) {
+            checksum += index.getNumLowerScores(score) + index.getMaxScore();
+        }
+        long duration = System.nanoTime() - ts;
+        log.info("{} rank and max lookups with {} profiles took {} ms ({} ns per lookup). Checksum: {}",
+                NUM_PROFILES, NUM_PROFILES, duration / 1_000_000, duration / NUM_PROFILES, checksum);
+    }
+
+    @Test
+    void testFindReputationScoreWith100kProfiles() throws IOException {
+        String baseDir = FileUtils.createTempDir().toAbsolutePath().toString();
+        ReputationService reputationService = new ReputationService(new PersistenceService(baseDir), null, null, null, null, null);
+        ProofOfBurnService proofOfBurnService = reputationService.getProofOfBurnService();
+        Random random = new Random(1);
+        for (int i = 0; i < NUM_PROFILES; i++) {
+            String userProfileId = String.valueOf(i);
+            proofOfBurnService.getScoreByUserProfileId().put(userProfileId, (long) random.nextInt(1_000_000));
+            proofOfBurnService.getUserProfileIdOfUpdatedScore().set(userProfileId);
+        }
+
+        long ts = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < NUM_PROFILES; i++) {
+            checksum += reputationService.findReputationScore(String.valueOf(i)).orElseThrow().getRanking();
+        }
+        long duration = System.nanoTime() - ts;
+        log.info("{} findReputationScore calls with {} profiles took {} ms ({} ns per call). Checksum: {}",
+                NUM_PROFILES, NUM_PROFILES, duration / 1_000_000, duration / NUM_PROFILES, checksum);
+    }
+}
@@ -18,7 +18,7 @@
 package bisq.user.banned;
 
 import bisq.common.application.Service;
-import bisq.common.observable.collection.ObservableSet;
+import bisq.common.observable.collection.ReadOnlyObservableSet;
 import bisq.network.NetworkId;
 import bisq.network.NetworkService;
 import bisq.network.p2p.services.data.DataService;
@@ -73,8 +73,9 @@ public class BannedUserService implements PersistenceClient<BannedUserStore>, Se
     public void onAuthorizedDataAdded(AuthorizedData authorizedData) {
         if (authorizedData.getAuthorizedDistributedData() instanceof BannedUserProfileData) {
             BannedUserProfileData bannedUserProfileData = (BannedUserProfileData) authorizedData.getAuthorizedDistributedData();
-            getBannedUserProfileDataSet().add(bannedUserProfileData);
-            persist();
+            if (persistableStore.add(bannedUserProfileData)) {
+                persist();
+            }
         }
     }
 
@@ -82,8 +83,9 @@ public class BannedUserService implements PersistenceClient<BannedUserStore>, Se
     public void onAuthorizedDataRemoved(AuthorizedData authorizedData) {
         if (authorizedData.getAuthorizedDistributedData() instanceof BannedUserProfileData) {
             BannedUserProfileData bannedUserProfileData = (BannedUserProfileData) authorizedData.getAuthorizedDistributedData();
-            getBannedUserProfileDataSet().remove(bannedUserProfileData);
-            persist();
+            if (persistableStore.remove(bannedUserProfileData)) {
+                persist();
+            }
         }
     }
 
@@ -92,19 +94,19 @@ public class BannedUserService implements PersistenceClient<BannedUserStore>, Se
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
-    public ObservableSet<BannedUserProfileData> getBannedUserProfileDataSet() {
+    public ReadOnlyObservableSet<BannedUserProfileData> getBannedUserProfileDataSet() {
         return persistableStore.getBannedUserProfileDataSet();
     }
 
     public boolean isUserProfileBanned(String userProfileId) {
-        return getBannedUserProfileDataSet().stream().anyMatch(e -> e.getUserProfile().getId().equals(userProfileId));
+        return persistableStore.isUserProfileIdBanned(userProfileId);
     }
 
     public boolean isUserProfileBanned(UserProfile userProfile) {
-        return getBannedUserProfileDataSet().stream().anyMatch(e -> e.getUserProfile().equals(userProfile));
+        return persistableStore.isUserProfileBanned(userProfile);
     }
 
     public boolean isNetworkIdBanned(NetworkId networkId) {
-        return getBannedUserProfileDataSet().stream().anyMatch(e -> e.getUserProfile().getNetworkId().equals(networkId));
+        return persistableStore.isNetworkIdBanned(networkId);
     }
 }
\ No newline at end of file
@@ -17,27 +17,38 @@
 
 package bisq.user.banned;
 
-import bisq.common.observable.collection.ObservableSet;
+import bisq.common.observable.collection.ObservableHashSet;
+import bisq.common.observable.collection.ReadOnlyObservableSet;
 import bisq.common.proto.ProtoResolver;
 import bisq.common.proto.UnresolvableProtobufMessageException;
+import bisq.network.NetworkId;
 import bisq.persistence.PersistableStore;
+import bisq.user.profile.UserProfile;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
 public final class BannedUserStore implements PersistableStore<BannedUserStore> {
-    private final ObservableSet<BannedUserProfileData> bannedUserProfileDataSet = new ObservableSet<>();
+    // Only changed by the store together with the indexes. Clients get a ReadOnlyObservableSet.
+    private final ObservableHashSet<BannedUserProfileData> bannedUserProfileDataSet = new ObservableHashSet<>();
+    // Indexes for constant time lookups in the chat and offer filters.
+    // The values are the number of entries in bannedUserProfileDataSet for that key, as the same user profile can be
+    // banned by multiple moderators. Only updated together with bannedUserProfileDataSet while holding the lock.
+    private final Map<String, Integer> numBansByUserProfileId = new ConcurrentHashMap<>();
+    private final Map<UserProfile, Integer> numBansByUserProfile = new ConcurrentHashMap<>();
+    private final Map<NetworkId, Integer> numBansByNetworkId = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
 
     public BannedUserStore() {
         this(new HashSet<>());
     }
 
     private BannedUserStore(Set<BannedUserProfileData> bannedUserProfileDataSet) {
-        this.bannedUserProfileDataSet.addAll(bannedUserProfileDataSet);
+        bannedUserProfileDataSet.forEach(this::add);
     }
 
     @Override
@@ -73,11 +84,58 @@ public final class BannedUserStore implements PersistableStore<BannedUserStore>
 
     @Override
     public void applyPersisted(BannedUserStore persisted) {
-        bannedUserProfileDataSet.clear();
-        bannedUserProfileDataSet.addAll(persisted.getBannedUserProfileDataSet());
+        synchronized (lock) {
+            bannedUserProfileDataSet.clear();
+            numBansByUserProfileId.clear();
+            numBansByUserProfile.clear();
+            numBansByNetworkId.clear();
+            persisted.bannedUserProfileDataSet.forEach(this::add);
+        }
     }
 
-    ObservableSet<BannedUserProfileData> getBannedUserProfileDataSet() {
+    ReadOnlyObservableSet<BannedUserProfileData> getBannedUserProfileDataSet() {
         return bannedUserProfileDataSet;
     }
+
+    boolean add(BannedUserProfileData bannedUserProfileData) {
+        synchronized (lock) {
+            boolean added = bannedUserProfileDataSet.add(bannedUserProfileData);
+            if (added) {
+                UserProfile userProfile = bannedUserProfileData.getUserProfile();
+                numBansByUserProfileId.merge(userProfile.getId(), 1, Integer::sum);
+                numBansByUserProfile.merge(userProfile, 1, Integer::sum);
+                numBansByNetworkId.merge(userProfile.getNetworkId(), 1, Integer::sum);
+            }
+            return added;
+        }
+    }
+
+    boolean remove(BannedUserProfileData bannedUserProfileData) {
+        synchronized (lock) {
+            boolean removed = bannedUserProfileDataSet.remove(bannedUserProfileData);
+            if (removed) {
+                UserProfile userProfile = bannedUserProfileData.getUserProfile();
+                decrement(numBansByUserProfileId, userProfile.getId());
+                decrement(numBansByUserProfile, userProfile);
+                decrement(numBansByNetworkId, userProfile.getNetworkId());
+            }
+            return removed;
+        }
+    }
+
+    boolean isUserProfileIdBanned(String userProfileId) {
+        return numBansByUserProfileId.containsKey(userProfileId);
+    }
+
+    boolean isUserProfileBanned(UserProfile userProfile) {
+        return numBansByUserProfile.containsKey(userProfile);
+    }
+
+    boolean isNetworkIdBanned(NetworkId networkId) {
+        return numBansByNetworkId.containsKey(networkId);
+    }
+
+    private static <K> void decrement(Map<K, Integer> numBansByKey, K key) {
+        numBansByKey.computeIfPresent(key, (k, numBans) -> numBans > 1 ? numBans - 1 : null);
+    }
 }
\ No newline at end of file
@@ -32,9 +32,16 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 @Slf4j
 public class UserProfileService implements PersistenceClient<UserProfileStore>, DataService.Listener, Service {
+    public interface Listener {
+        void onUserProfileAdded(UserProfile userProfile);
+
+        void onUserProfileRemoved(UserProfile userProfile);
+    }
+
     private static final String SEPARATOR_START = " [";
     private static final String SEPARATOR_END = "]";
 
@@ -45,6 +52,7 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
     private final NetworkService networkService;
     @Getter
     private final Observable<Integer> numUserProfiles = new Observable<>();
+    private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
 
     public UserProfileService(PersistenceService persistenceService,
                               NetworkService networkService) {
@@ -90,6 +98,14 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////////////
 
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
     public Optional<UserProfile> findUserProfile(String id) {
         return Optional.ofNullable(getUserProfileById().get(id));
     }
@@ -99,9 +115,7 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
     }
 
     public boolean isChatUserIgnored(String profileId) {
-        return findUserProfile(profileId)
-                .map(this::isChatUserIgnored)
-                .orElse(false);
+        return getIgnoredUserProfileIds().contains(profileId);
     }
 
     public boolean isChatUserIgnored(UserProfile userProfile) {
@@ -146,6 +160,7 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
                 getUserProfileById().put(userProfile.getId(), userProfile);
             }
             numUserProfiles.set(getUserProfileById().values().size());
+            listeners.forEach(listener -> listener.onUserProfileAdded(userProfile));
             persist();
         }
     }
@@ -158,6 +173,7 @@ public class UserProfileService implements PersistenceClient<UserProfileStore>,
                 getUserProfileById().remove(userProfile.getId());
             }
             numUserProfiles.set(getUserProfileById().values().size());
+            listeners.forEach(listener -> listener.onUserProfileRemoved(userProfile));
             persist();
         }
     }
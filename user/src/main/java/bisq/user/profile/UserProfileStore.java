@@ -17,6 +17,7 @@
 
 package bisq.user.profile;
 
+import bisq.common.observable.collection.ObservableHashSet;
 import bisq.common.observable.collection.ObservableSet;
 import bisq.common.proto.ProtoResolver;
 import bisq.common.proto.UnresolvableProtobufMessageException;
@@ -39,7 +40,8 @@ import java.util.stream.Collectors;
 @Getter
 public final class UserProfileStore implements PersistableStore<UserProfileStore> {
     private final Map<String, Set<String>> nymsByNickName = new HashMap<>();
-    private final ObservableSet<String> ignoredUserProfileIds = new ObservableSet<>();
+    // Hash based for constant time lookups when filtering chat messages and offers
+    private final ObservableSet<String> ignoredUserProfileIds = new ObservableHashSet<>();
     private final Map<String, UserProfile> userProfileById = new ConcurrentHashMap<>();
 
     public UserProfileStore() {
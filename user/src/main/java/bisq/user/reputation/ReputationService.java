@@ -26,7 +26,7 @@ import bisq.user.banned.BannedUserService;
 import bisq.user.identity.UserIdentityService;
 import bisq.user.profile.UserProfile;
 import bisq.user.profile.UserProfileService;
-import com.google.common.annotations.VisibleForTesting;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -43,6 +43,9 @@ public class ReputationService implements Service {
     private final SignedWitnessService signedWitnessService;
     private final Observable<String> changedUserProfileScore = new Observable<>();
     private final Map<String, Long> scoreByUserProfileId = new ConcurrentHashMap<>();
+    // Updated together with scoreByUserProfileId, so we do not need to sort all scores at each lookup
+    @Getter(AccessLevel.NONE)
+    private final ScoreRankIndex scoreRankIndex = new ScoreRankIndex();
     private final ProfileAgeService profileAgeService;
 
     public ReputationService(PersistenceService persistenceService,
@@ -124,14 +127,23 @@ public class ReputationService implements Service {
     }
 
     public Optional<ReputationScore> findReputationScore(String userProfileId) {
-        if (!scoreByUserProfileId.containsKey(userProfileId)) {
-            return Optional.empty();
+        long score;
+        long bestScore;
+        int index;
+        int numScores;
+        synchronized (scoreRankIndex) {
+            Long scoreFromMap = scoreByUserProfileId.get(userProfileId);
+            if (scoreFromMap == null) {
+                return Optional.empty();
+            }
+            score = scoreFromMap;
+            bestScore = scoreRankIndex.getMaxScore();
+            index = scoreRankIndex.getNumLowerScores(score);
+            numScores = scoreRankIndex.size();
         }
-        long score = scoreByUserProfileId.get(userProfileId);
-        double relativeScore = getRelativeScore(score, scoreByUserProfileId.values());
-        int index = getIndex(score, scoreByUserProfileId.values());
-        int rank = scoreByUserProfileId.size() - index;
-        double relativeRanking = (index + 1) / (double) scoreByUserProfileId.size();
+        double relativeScore = bestScore > 0 ? score / (double) bestScore : 0;
+        int rank = numScores - index;
+        double relativeRanking = (index + 1) / (double) numScores;
         return Optional.of(new ReputationScore(score, relativeScore, rank, relativeRanking));
     }
 
@@ -144,20 +156,13 @@ public class ReputationService implements Service {
                 accountAgeService.getScore(userProfileId) +
                 signedWitnessService.getScore(userProfileId) +
                 profileAgeService.getScore(userProfileId);
-        scoreByUserProfileId.put(userProfileId, score);
+        synchronized (scoreRankIndex) {
+            Long previousScore = scoreByUserProfileId.put(userProfileId, score);
+            if (previousScore != null) {
+                scoreRankIndex.remove(previousScore);
+            }
+            scoreRankIndex.add(score);
+        }
         changedUserProfileScore.set(userProfileId);
     }
-
-    @VisibleForTesting
-    static double getRelativeScore(long candidateScore, Collection<Long> scores) {
-        long bestScore = scores.stream().max(Comparator.comparing(Long::longValue)).orElse(0L);
-        return bestScore > 0 ? candidateScore / (double) bestScore : 0;
-    }
-
-    @VisibleForTesting
-    static int getIndex(long candidateScore, Collection<Long> scores) {
-        List<Long> list = new ArrayList<>(scores);
-        Collections.sort(list);
-        return list.indexOf(candidateScore);
-    }
 }
\ No newline at end of file
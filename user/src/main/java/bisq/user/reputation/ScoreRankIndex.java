@@ -0,0 +1,190 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.reputation;
+
+/**
+ * Multiset of reputation scores which provides the number of lower scores and the max score in O(log n).
+ * Implemented as AVL tree where each node holds a distinct score with the number of its occurrences and the number of
+ * scores in its subtree.
+ */
+class ScoreRankIndex {
+    private static final class Node {
+        private long score;
+        private int count = 1;
+        private int size = 1;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long score) {
+            this.score = score;
+        }
+    }
+
+    private Node root;
+
+    synchronized void add(long score) {
+        root = add(root, score);
+    }
+
+    synchronized void remove(long score) {
+        root = remove(root, score);
+    }
+
+    synchronized int size() {
+        return size(root);
+    }
+
+    synchronized boolean contains(long score) {
+        Node node = root;
+        while (node != null) {
+            if (score == node.score) {
+                return true;
+            }
+            node = score < node.score ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of scores lower than the given score. That is the index of the first occurrence of the score
+     * in a sorted list of all scores.
+     */
+    synchronized int getNumLowerScores(long score) {
+        int numLowerScores = 0;
+        Node node = root;
+        while (node != null) {
+            if (score <= node.score) {
+                node = node.left;
+            } else {
+                numLowerScores += size(node.left) + node.count;
+                node = node.right;
+            }
+        }
+        return numLowerScores;
+    }
+
+    synchronized long getMaxScore() {
+        if (root == null) {
+            return 0;
+        }
+        Node node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.score;
+    }
+
+    private static Node add(Node node, long score) {
+        if (node == null) {
+            return new Node(score);
+        }
+        if (score < node.score) {
+            node.left = add(node.left, score);
+        } else if (score > node.score) {
+            node.right = add(node.right, score);
+        } else {
+            node.count++;
+        }
+        return balance(node);
+    }
+
+    private static Node remove(Node node, long score) {
+        if (node == null) {
+            return null;
+        }
+        if (score < node.score) {
+            node.left = remove(node.left, score);
+        } else if (score > node.score) {
+            node.right = remove(node.right, score);
+        } else if (node.count > 1) {
+            node.count--;
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else {
+            // We replace the node by its successor
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.score = successor.score;
+            node.count = successor.count;
+            node.right = removeMin(node.right);
+        }
+        return balance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int balanceFactor = height(node.left) - height(node.right);
+        if (balanceFactor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balanceFactor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = node.count + size(node.left) + size(node.right);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -46,7 +46,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 
 @Slf4j
-public abstract class SourceReputationService<T extends AuthorizedDistributedData> implements DataService.Listener, Service {
+public abstract class SourceReputationService<T extends AuthorizedDistributedData> implements DataService.Listener,
+        UserProfileService.Listener, Service {
     protected static final long DAY_AS_MS = TimeUnit.DAYS.toMillis(1);
 
     public static long getAgeInDays(long date) {
@@ -64,6 +65,9 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
     protected final Map<String, Long> scoreByUserProfileId = new ConcurrentHashMap<>();
     @Getter
     protected final Observable<String> userProfileIdOfUpdatedScore = new Observable<>();
+    // Reverse index from the key provided by the reputation data to the user profile ID, so that we do not need to
+    // iterate all user profiles for each reputation data we receive.
+    private final Map<ByteArray, String> userProfileIdByUserProfileKey = new ConcurrentHashMap<>();
 
     public SourceReputationService(NetworkService networkService,
                                    UserIdentityService userIdentityService,
@@ -79,6 +83,8 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
 
     public CompletableFuture<Boolean> initialize() {
         log.info("initialize");
+        userProfileService.addListener(this);
+        userProfileService.getUserProfileById().values().forEach(this::onUserProfileAdded);
         networkService.getDataService().ifPresent(dataService -> dataService.getAuthorizedData().forEach(this::onAuthorizedDataAdded));
         networkService.addDataServiceListener(this);
         return CompletableFuture.completedFuture(true);
@@ -87,6 +93,7 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
     public CompletableFuture<Boolean> shutdown() {
         log.info("shutdown");
         networkService.removeDataServiceListener(this);
+        userProfileService.removeListener(this);
         return CompletableFuture.completedFuture(true);
     }
 
@@ -94,21 +101,27 @@ public abstract class SourceReputationService<T extends AuthorizedDistributedDat
     public void onAuthorizedDataAdded(AuthorizedData authorizedData) {
         findRelevantData(authorizedData.getAuthorizedDistributedData())
                 .ifPresent(data -> {
-                    ByteArray providedHash = getDataKey(data);
-                    userProfileService.getUserProfileById().values().stream()
-                            .filter(userProfile -> getUserProfileKey(userProfile).equals(providedHash))
-                            .forEach(userProfile -> {
-                                ByteArray hash = getUserProfileKey(userProfile);
-                                if (!dataSetByHash.containsKey(hash)) {
-                                    dataSetByHash.put(hash, new HashSet<>());
-                                }
-                                Set<T> dataSet = dataSetByHash.get(hash);
-                                addToDataSet(dataSet, data);
-                                putScore(userProfile.getId(), dataSet);
-                            });
+                    ByteArray hash = getDataKey(data);
+                    String userProfileId = userProfileIdByUserProfileKey.get(hash);
+                    if (userProfileId == null) {
+                        return;
+                    }
+                    Set<T> dataSet = dataSetByHash.computeIfAbsent(hash, key -> new HashSet<>());
+                    addToDataSet(dataSet, data);
+                    putScore(userProfileId, dataSet);
                 });
     }
 
+    @Override
+    public void onUserProfileAdded(UserProfile userProfile) {
+        userProfileIdByUserProfileKey.put(getUserProfileKey(userProfile), userProfile.getId());
+    }
+
+    @Override
+    public void onUserProfileRemoved(UserProfile userProfile) {
+        userProfileIdByUserProfileKey.remove(getUserProfileKey(userProfile), userProfile.getId());
+    }
+
     protected abstract Optional<T> findRelevantData(AuthorizedDistributedData authorizedDistributedData);
 
     // Some services don't support multiple entries and will override that method
@@ -0,0 +1,196 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.banned;
+
+import bisq.common.observable.Pin;
+import bisq.common.observable.collection.CollectionObserver;
+import bisq.common.observable.collection.ObservableSet;
+import bisq.user.profile.UserProfile;
+import bisq.user.profile.UserProfileStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static bisq.user.profile.UserProfileFixtures.createUserProfile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BannedUserStoreTest {
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_USER_PROFILES = 50;
+    private static final int NUM_OPERATIONS = 20_000;
+
+    @Test
+    void banOfSameUserProfileByMultipleEntries() {
+        BannedUserStore store = new BannedUserStore();
+        UserProfile userProfile = createUserProfile(1);
+        BannedUserProfileData data1 = new BannedUserProfileData(userProfile, false);
+        BannedUserProfileData data2 = new BannedUserProfileData(userProfile, true);
+
+        store.add(data1);
+        store.add(data2);
+        assertThat(store.isUserProfileIdBanned(userProfile.getId())).isTrue();
+
+        store.remove(data1);
+        assertThat(store.isUserProfileIdBanned(userProfile.getId())).isTrue();
+
+        store.remove(data2);
+        assertThat(store.isUserProfileIdBanned(userProfile.getId())).isFalse();
+    }
+
+    @Test
+    void userProfileAndNetworkIdAreMatchedByEquality() {
+        BannedUserStore store = new BannedUserStore();
+        UserProfile userProfile = createUserProfile(1);
+        store.add(new BannedUserProfileData(userProfile, false));
+
+        // Same profile ID and network ID but changed profile fields
+        UserProfile changedUserProfile = UserProfile.from(userProfile, "terms", "statement");
+        assertThat(store.isUserProfileBanned(userProfile)).isTrue();
+        assertThat(store.isUserProfileBanned(changedUserProfile)).isFalse();
+        assertThat(store.isUserProfileIdBanned(changedUserProfile.getId())).isTrue();
+        assertThat(store.isNetworkIdBanned(userProfile.getNetworkId())).isTrue();
+        assertThat(store.isNetworkIdBanned(createUserProfile(2).getNetworkId())).isFalse();
+    }
+
+    @Test
+    void bannedUserProfileDataSetIsReadOnly() {
+        BannedUserStore store = new BannedUserStore();
+        BannedUserProfileData data = new BannedUserProfileData(createUserProfile(1), false);
+        store.add(data);
+
+        Set<BannedUserProfileData> set = store.getBannedUserProfileDataSet().getUnmodifiableSet();
+        assertThatThrownBy(() -> set.remove(data))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> set.iterator().remove())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(set).containsExactly(data);
+        assertThat(store.isUserProfileIdBanned(data.getUserProfile().getId())).isTrue();
+    }
+
+    @Test
+    void observersAreNotifiedAboutChangesOfTheStore() {
+        BannedUserStore store = new BannedUserStore();
+        BannedUserProfileData data1 = new BannedUserProfileData(createUserProfile(1), false);
+        BannedUserProfileData data2 = new BannedUserProfileData(createUserProfile(2), false);
+        store.add(data1);
+        Set<BannedUserProfileData> observed = new HashSet<>();
+        Pin pin = store.getBannedUserProfileDataSet().addListener(new CollectionObserver<>() {
+            @Override
+            public void add(BannedUserProfileData element) {
+                observed.add(element);
+            }
+
+            @Override
+            public void remove(Object element) {
+                observed.remove(element);
+            }
+
+            @Override
+            public void clear() {
+                observed.clear();
+            }
+        });
+        assertThat(observed).containsExactly(data1);
+
+        store.add(data2);
+        store.remove(data1);
+        assertThat(observed).containsExactly(data2);
+
+        pin.unbind();
+        store.add(data1);
+        assertThat(observed).containsExactly(data2);
+    }
+
+    @Test
+    void indexDoesNotDivergeUnderConcurrentUpdates() throws Exception {
+        BannedUserStore store = new BannedUserStore();
+        UserProfileStore userProfileStore = new UserProfileStore();
+        ObservableSet<String> ignoredUserProfileIds = userProfileStore.getIgnoredUserProfileIds();
+        List<UserProfile> userProfiles = new ArrayList<>();
+        List<BannedUserProfileData> dataList = new ArrayList<>();
+        for (int i = 0; i < NUM_USER_PROFILES; i++) {
+            UserProfile userProfile = createUserProfile(i);
+            userProfiles.add(userProfile);
+            dataList.add(new BannedUserProfileData(userProfile, false));
+            dataList.add(new BannedUserProfileData(userProfile, true));
+        }
+
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < NUM_THREADS; thread++) {
+            tasks.add(Executors.callable(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < NUM_OPERATIONS; i++) {
+                    BannedUserProfileData data = dataList.get(random.nextInt(dataList.size()));
+                    UserProfile userProfile = data.getUserProfile();
+                    switch (random.nextInt(5)) {
+                        case 0:
+                            store.add(data);
+                            break;
+                        case 1:
+                            store.remove(data);
+                            break;
+                        case 2:
+                            ignoredUserProfileIds.add(userProfile.getId());
+                            break;
+                        case 3:
+                            ignoredUserProfileIds.remove(userProfile.getId());
+                            break;
+                        default:
+                            store.isUserProfileIdBanned(userProfile.getId());
+                            store.isUserProfileBanned(userProfile);
+                            store.isNetworkIdBanned(userProfile.getNetworkId());
+                            ignoredUserProfileIds.contains(userProfile.getId());
+                    }
+                }
+            }));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Recount from the data and compare with the constant time lookups
+        Set<BannedUserProfileData> bannedUserProfileDataSet = store.getBannedUserProfileDataSet().getUnmodifiableSet();
+        List<String> ignoredIds = new ArrayList<>(ignoredUserProfileIds);
+        userProfiles.forEach(userProfile -> {
+            boolean isUserProfileIdInDataSet = bannedUserProfileDataSet.stream()
+                    .anyMatch(data -> data.getUserProfile().getId().equals(userProfile.getId()));
+            boolean isUserProfileInDataSet = bannedUserProfileDataSet.stream()
+                    .anyMatch(data -> data.getUserProfile().equals(userProfile));
+            boolean isNetworkIdInDataSet = bannedUserProfileDataSet.stream()
+                    .anyMatch(data -> data.getUserProfile().getNetworkId().equals(userProfile.getNetworkId()));
+            boolean isIgnored = ignoredIds.stream().anyMatch(userProfile.getId()::equals);
+
+            assertThat(store.isUserProfileIdBanned(userProfile.getId())).isEqualTo(isUserProfileIdInDataSet);
+            assertThat(store.isUserProfileBanned(userProfile)).isEqualTo(isUserProfileInDataSet);
+            assertThat(store.isNetworkIdBanned(userProfile.getNetworkId())).isEqualTo(isNetworkIdInDataSet);
+            assertThat(ignoredUserProfileIds.contains(userProfile.getId())).isEqualTo(isIgnored);
+        });
+        assertThat(ignoredIds).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.profile;
+
+import bisq.network.NetworkId;
+import bisq.network.p2p.node.Address;
+import bisq.network.p2p.node.transport.Transport;
+import bisq.security.PubKey;
+import bisq.security.pow.ProofOfWork;
+
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+import java.util.Map;
+
+public class UserProfileFixtures {
+    /**
+     * Uses a dummy public key to avoid the costs of creating many key pairs. Only the hash of the encoded key is used
+     * as profile ID, so profiles created with different indices have different IDs.
+     */
+    public static UserProfile createUserProfile(int index) {
+        byte[] encoded = ByteBuffer.allocate(4).putInt(index).array();
+        PublicKey publicKey = new PublicKey() {
+            @Override
+            public String getAlgorithm() {
+                return "EC";
+            }
+
+            @Override
+            public String getFormat() {
+                return "X.509";
+            }
+
+            @Override
+            public byte[] getEncoded() {
+                return encoded.clone();
+            }
+        };
+        PubKey pubKey = new PubKey(publicKey, "keyId");
+        NetworkId networkId = new NetworkId(Map.of(Transport.Type.CLEAR, Address.localHost(1000)), pubKey, "nodeId");
+        ProofOfWork proofOfWork = new ProofOfWork(pubKey.getHash(), null, 0, new byte[0]);
+        return new UserProfile("nickName", proofOfWork, networkId, "", "");
+    }
+}
@@ -17,32 +17,82 @@
 
 package bisq.user.reputation;
 
+import bisq.common.util.FileUtils;
+import bisq.persistence.PersistenceService;
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ReputationServiceTest {
+    private final ReputationService reputationService;
+
+    public ReputationServiceTest() throws IOException {
+        String baseDir = FileUtils.createTempDir().toAbsolutePath().toString();
+        reputationService = new ReputationService(new PersistenceService(baseDir), null, null, null, null, null);
+    }
 
     @Test
-    void testGetIndex() {
-        List<Long> scores = List.of(1L, 2L, 3L, 4L, 5L);
-        assertEquals(0, ReputationService.getIndex(1, scores));
-        assertEquals(4, ReputationService.getIndex(5, scores));
-        assertEquals(1, ReputationService.getIndex(2, List.of(1L, 2L, 2L, 4L, 5L)));
-        assertEquals(-1, ReputationService.getIndex(0, scores));
-        assertEquals(-1, ReputationService.getIndex(1, List.of()));
+    void testFindReputationScore() {
+        setScore("a", 1);
+        setScore("b", 2);
+        setScore("c", 3);
+        setScore("d", 4);
+        setScore("e", 5);
+
+        assertReputationScore("a", 1, 1 / 5d, 5, 1 / 5d);
+        assertReputationScore("c", 3, 3 / 5d, 3, 3 / 5d);
+        assertReputationScore("e", 5, 1, 1, 1);
+        assertTrue(reputationService.findReputationScore("unknown").isEmpty());
     }
 
+    @Test
+    void testFindReputationScoreWithTies() {
+        setScore("a", 1);
+        setScore("b", 2);
+        setScore("c", 2);
+        setScore("d", 4);
+
+        assertReputationScore("b", 2, 2 / 4d, 3, 2 / 4d);
+        assertReputationScore("c", 2, 2 / 4d, 3, 2 / 4d);
+        assertReputationScore("d", 4, 1, 1, 1);
+    }
 
     @Test
-    void testGetRelativeScore() {
-        List<Long> scores = List.of(1L, 2L, 3L, 4L, 5L);
-        assertEquals(1 / 5d, ReputationService.getRelativeScore(1, scores));
-        assertEquals(1, ReputationService.getRelativeScore(5, scores));
-        assertEquals(5000 / 5001d, ReputationService.getRelativeScore(5000, List.of(1L, 2L, 3L, 4L, 5000L, 5001L)));
-        assertEquals(0, ReputationService.getRelativeScore(0, scores));
-        assertEquals(0, ReputationService.getRelativeScore(1, List.of()));
+    void testFindReputationScoreAfterScoreUpdates() {
+        setScore("a", 1);
+        setScore("b", 2);
+        setScore("c", 3);
+
+        setScore("a", 10);
+        assertReputationScore("a", 10, 1, 1, 1);
+        assertReputationScore("c", 3, 3 / 10d, 2, 2 / 3d);
+        assertReputationScore("b", 2, 2 / 10d, 3, 1 / 3d);
+
+        setScore("a", 0);
+        assertReputationScore("a", 0, 0, 3, 1 / 3d);
+        assertReputationScore("c", 3, 1, 1, 1);
+    }
+
+    private void setScore(String userProfileId, long score) {
+        ProofOfBurnService proofOfBurnService = reputationService.getProofOfBurnService();
+        proofOfBurnService.getScoreByUserProfileId().put(userProfileId, score);
+        proofOfBurnService.getUserProfileIdOfUpdatedScore().set(userProfileId);
+    }
+
+    private void assertReputationScore(String userProfileId,
+                                       long totalScore,
+                                       double relativeScore,
+                                       int ranking,
+                                       double relativeRanking) {
+        Optional<ReputationScore> reputationScore = reputationService.findReputationScore(userProfileId);
+        assertTrue(reputationScore.isPresent());
+        assertEquals(totalScore, reputationScore.get().getTotalScore());
+        assertEquals(relativeScore, reputationScore.get().getRelativeScore(), 1e-9);
+        assertEquals(ranking, reputationScore.get().getRanking());
+        assertEquals(relativeRanking, reputationScore.get().getRelativeRanking(), 1e-9);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.reputation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ScoreRankIndexTest {
+
+    @Test
+    void testMatchesSortedList() {
+        Random random = new Random(1);
+        ScoreRankIndex index = new ScoreRankIndex();
+        List<Long> scores = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            if (!scores.isEmpty() && random.nextInt(3) == 0) {
+                // Simulates a changed score: The previous score gets removed
+                long score = scores.remove(random.nextInt(scores.size()));
+                index.remove(score);
+            } else {
+                long score = random.nextInt(500);
+                scores.add(score);
+                index.add(score);
+            }
+
+            List<Long> sorted = new ArrayList<>(scores);
+            Collections.sort(sorted);
+            long candidate = random.nextInt(500);
+            assertEquals(sorted.size(), index.size());
+            assertEquals(sorted.indexOf(candidate) >= 0, index.contains(candidate));
+            if (sorted.contains(candidate)) {
+                assertEquals(sorted.indexOf(candidate), index.getNumLowerScores(candidate));
+            }
+            assertEquals(sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1), index.getMaxScore());
+        }
+    }
+
+    @Test
+    void testNumLowerScores() {
+        ScoreRankIndex index = toScoreRankIndex(List.of(1L, 2L, 3L, 4L, 5L));
+        assertEquals(0, index.getNumLowerScores(1));
+        assertEquals(4, index.getNumLowerScores(5));
+        assertFalse(index.contains(0));
+        assertEquals(1, toScoreRankIndex(List.of(1L, 2L, 2L, 4L, 5L)).getNumLowerScores(2));
+        assertFalse(toScoreRankIndex(List.of()).contains(1));
+    }
+
+    @Test
+    void testMaxScore() {
+        assertEquals(5, toScoreRankIndex(List.of(1L, 2L, 3L, 4L, 5L)).getMaxScore());
+        assertEquals(5001, toScoreRankIndex(List.of(1L, 2L, 3L, 4L, 5000L, 5001L)).getMaxScore());
+        assertEquals(0, toScoreRankIndex(List.of()).getMaxScore());
+
+        ScoreRankIndex index = toScoreRankIndex(List.of(1L, 5L, 5L));
+        index.remove(5);
+        assertEquals(5, index.getMaxScore());
+        index.remove(5);
+        assertEquals(1, index.getMaxScore());
+    }
+
+    private static ScoreRankIndex toScoreRankIndex(List<Long> scores) {
+        ScoreRankIndex index = new ScoreRankIndex();
+        scores.forEach(index::add);
+        return index;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.user.reputation;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedData;
+import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedDistributedData;
+import bisq.security.KeyGeneration;
+import bisq.user.profile.UserProfile;
+import com.google.protobuf.StringValue;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static bisq.user.profile.UserProfileFixtures.createUserProfile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SourceReputationServiceTest {
+    private static class TestData implements AuthorizedDistributedData {
+        private final ByteArray key;
+
+        private TestData(ByteArray key) {
+            this.key = key;
+        }
+
+        @Override
+        public StringValue toProto() {
+            return StringValue.of(key.toString());
+        }
+
+        @Override
+        public MetaData getMetaData() {
+            return new MetaData(MetaData.TTL_100_DAYS, TestData.class.getSimpleName());
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+    }
+
+    private static class TestReputationService extends SourceReputationService<TestData> {
+        private TestReputationService() {
+            super(null, null, null, null, null);
+        }
+
+        @Override
+        protected Optional<TestData> findRelevantData(AuthorizedDistributedData authorizedDistributedData) {
+            return authorizedDistributedData instanceof TestData ?
+                    Optional.of((TestData) authorizedDistributedData) :
+                    Optional.empty();
+        }
+
+        @Override
+        protected ByteArray getDataKey(TestData data) {
+            return data.key;
+        }
+
+        @Override
+        protected ByteArray getUserProfileKey(UserProfile userProfile) {
+            return userProfile.getAccountAgeKey();
+        }
+
+        @Override
+        public long calculateScore(TestData data) {
+            return 1;
+        }
+    }
+
+    @Test
+    void testDataOfRemovedProfileIsIgnored() throws GeneralSecurityException {
+        PublicKey authorizedPublicKey = KeyGeneration.generateKeyPair().getPublic();
+        TestReputationService service = new TestReputationService();
+        UserProfile userProfile = createUserProfile(1);
+        service.onUserProfileAdded(userProfile);
+        service.onAuthorizedDataAdded(new AuthorizedData(new TestData(userProfile.getAccountAgeKey()), authorizedPublicKey));
+        assertEquals(1, service.getScore(userProfile.getId()));
+
+        UserProfile removedUserProfile = createUserProfile(2);
+        service.onUserProfileAdded(removedUserProfile);
+        service.onUserProfileRemoved(removedUserProfile);
+        service.onAuthorizedDataAdded(new AuthorizedData(new TestData(removedUserProfile.getAccountAgeKey()), authorizedPublicKey));
+        assertEquals(0, service.getScore(removedUserProfile.getId()));
+    }
+
+    @Test
+    void testAllItemsMatchTheirProfiles() throws GeneralSecurityException {
+        PublicKey authorizedPublicKey = KeyGeneration.generateKeyPair().getPublic();
+        int numProfiles = 10_000;
+        List<UserProfile> userProfiles = new ArrayList<>();
+        TestReputationService service = new TestReputationService();
+        for (int i = 0; i < numProfiles; i++) {
+            UserProfile userProfile = createUserProfile(i);
+            userProfiles.add(userProfile);
+            service.onUserProfileAdded(userProfile);
+        }
+        userProfiles.forEach(userProfile ->
+                service.onAuthorizedDataAdded(new AuthorizedData(new TestData(userProfile.getAccountAgeKey()), authorizedPublicKey)));
+
+        assertEquals(numProfiles, service.getScoreByUserProfileId().size());
+        userProfiles.forEach(userProfile -> assertEquals(1, service.getScore(userProfile.getId())));
+    }
+}